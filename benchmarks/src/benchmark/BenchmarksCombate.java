@@ -0,0 +1,433 @@
+package benchmark;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import simulacion.PoliticaAleatoria;
+import simulacion.PoliticaEnemigoMcts;
+import view.PanelEstado;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase BenchmarksCombate.
+ * Benchmarks JMH de las rutas críticas del combate, para batallas desde 1 contra 1
+ * hasta 1000 contra 1000. Cada benchmark mide operaciones por segundo; con
+ * {@code -prof gc} JMH reporta además los bytes asignados por operación.
+ *
+ * Uso: {@code java -jar target/benchmarks.jar [filtro] [-prof gc] [-p tamano=1,10]
+ * [-rf csv -rff resultados.csv]}
+ *
+ * @author Carlos Altán
+ * @since 2025-10-13
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarksCombate {
+
+    @Benchmark
+    public boolean atacar(Atacar estado) {
+        return estado.ejecutar();
+    }
+
+    @Benchmark
+    public boolean tomarTurno(TomarTurno estado) {
+        return estado.ejecutar();
+    }
+
+    @Benchmark
+    public boolean ejecutarDecision(EjecutarDecision estado) {
+        return estado.ejecutar();
+    }
+
+    @Benchmark
+    public Batalla avanzarTurno(AvanzarTurno estado) {
+        estado.batalla.avanzarTurno();
+        return estado.batalla;
+    }
+
+    @Benchmark
+    public List<Combatiente> getEnemigosVivos(EnemigosVivos estado) {
+        return estado.batalla.getEnemigosVivos();
+    }
+
+    @Benchmark
+    public List<Combatiente> crearEnemigosAleatorios() {
+        return EnemyFactory.crearEnemigosAleatorios();
+    }
+
+    @Benchmark
+    public InstantaneaBatalla capturarInstantanea(Instantanea estado) {
+        estado.instantanea.capturar(estado.batalla);
+        return estado.instantanea;
+    }
+
+    @Benchmark
+    public Batalla restaurarInstantanea(Instantanea estado) {
+        estado.instantanea.restaurar(estado.batalla);
+        return estado.batalla;
+    }
+
+    @Benchmark
+    public Batalla bifurcar(Bifurcar estado) {
+        return estado.batalla.bifurcar();
+    }
+
+    @Benchmark
+    public Batalla bifurcarYAtacar(Bifurcar estado) {
+        Batalla copia = estado.batalla.bifurcar();
+        copia.ejecutarDecision(copia.getJugadores().get(0), estado.decision);
+        return copia;
+    }
+
+    @Benchmark
+    public DecisionEnemigo decidirEnemigo(DecisionDeEnemigo estado) {
+        estado.politica.decidir(estado.enemigo, estado.objetivos, estado.batalla, estado.decision);
+        return estado.decision;
+    }
+
+    @Benchmark
+    public DecisionJugador decidirJugador(DecisionDeJugador estado) {
+        estado.politica.decidir(estado.jugador, estado.batalla, estado.decision);
+        return estado.decision;
+    }
+
+    @Benchmark
+    public String mostrarEstado(Pantalla estado) {
+        return estado.ejecutar();
+    }
+
+    /** --- ESTADOS --- **/
+
+    /**
+     * Crea tamano jugadores alternando roles.
+     */
+    private static List<Jugador> crearJugadores(int tamano) {
+        List<Jugador> jugadores = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            jugadores.add(new Jugador("Héroe " + i, i % 2 == 0 ? RolJugador.GUERRERO : RolJugador.EXPLORADOR));
+        }
+        return jugadores;
+    }
+
+    /**
+     * Crea tamano enemigos rotando tipos y con un jefe de cada diez.
+     */
+    private static List<Combatiente> crearEnemigos(int tamano) {
+        String[] tipos = { "orco", "goblin", "dragon" };
+        List<Combatiente> enemigos = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            enemigos.add(EnemyFactory.crearEnemigo(tipos[i % tipos.length], i % 10 == 9));
+        }
+        return enemigos;
+    }
+
+    /**
+     * Batalla a mitad de camino: todos los jugadores ya atacaron una vez y algunos
+     * enemigos cayeron.
+     */
+    private static Batalla crearBatallaEmpezada(int tamano, DecisionJugador decision) {
+        Batalla batalla = new Batalla(crearJugadores(tamano), crearEnemigos(tamano), new FuenteAleatoria(), ModoTurnos.BARAJADO);
+        batalla.iniciarBatalla();
+        decision.atacar(0);
+        for (Jugador jugador : batalla.getJugadores()) {
+            if (batalla.getEnemigosVivos().isEmpty()) break;
+            batalla.ejecutarDecision(jugador, decision);
+        }
+        return batalla;
+    }
+
+    /**
+     * Los jugadores atacan a los enemigos en orden. Cuando todos los enemigos caen
+     * se crean de nuevo; ese costo queda amortizado entre muchos ataques.
+     */
+    @State(Scope.Thread)
+    public static class Atacar {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        private List<Jugador> jugadores;
+        private List<Combatiente> enemigos;
+        private int indice;
+        private int caidos;
+
+        @Setup
+        public void preparar() {
+            jugadores = crearJugadores(tamano);
+            enemigos = crearEnemigos(tamano);
+        }
+
+        boolean ejecutar() {
+            int i = indice++ % tamano;
+            Combatiente objetivo = enemigos.get(i);
+            boolean resultado = jugadores.get(i).atacar(objetivo);
+            if (!objetivo.isEstaVivo() && ++caidos == tamano) {
+                enemigos = crearEnemigos(tamano);
+                caidos = 0;
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Los enemigos toman su turno contra todos los jugadores. Cuando todos los
+     * jugadores caen se crean de nuevo.
+     */
+    @State(Scope.Thread)
+    public static class TomarTurno {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        private List<Combatiente> objetivos;
+        private List<Combatiente> enemigos;
+        private int indice;
+
+        @Setup
+        public void preparar() {
+            objetivos = new ArrayList<>(crearJugadores(tamano));
+            enemigos = crearEnemigos(tamano);
+        }
+
+        boolean ejecutar() {
+            boolean resultado = enemigos.get(indice++ % tamano).tomarTurno(objetivos);
+            if (!resultado) objetivos = new ArrayList<>(crearJugadores(tamano));
+            return resultado;
+        }
+    }
+
+    /**
+     * Los jugadores atacan dentro de una batalla, así que cada ataque queda en el
+     * registro de eventos. Cuando todos los enemigos caen se crea otra batalla.
+     * Con registro "log", cada batalla además escribe su log con un registro
+     * asíncrono que descarta la salida; con "metricas", cada batalla tiene un
+     * medidor de métricas.
+     */
+    @State(Scope.Thread)
+    public static class EjecutarDecision {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        @Param({ "ninguno", "log", "metricas" })
+        String registro;
+
+        private final DecisionJugador decision = new DecisionJugador();
+        private RegistroAsincrono registroAsincrono;
+        private RegistroMetricas metricas;
+        private RegistroAsincrono.Fuente fuente;
+        private RegistroMetricas.Medidor medidor;
+        private Batalla batalla;
+        private int indice;
+
+        @Setup
+        public void preparar() {
+            if (registro.equals("log")) {
+                registroAsincrono = new RegistroAsincrono(OutputStream.nullOutputStream(), false,
+                                                          RegistroAsincrono.CAPACIDAD_POR_DEFECTO, PoliticaDesborde.BLOQUEAR,
+                                                          RegistroAsincrono.TASA_MUESTREO_POR_DEFECTO);
+            } else if (registro.equals("metricas")) {
+                metricas = new RegistroMetricas();
+            }
+            batalla = crearBatalla();
+            decision.atacar(0);
+        }
+
+        @TearDown
+        public void cerrar() throws IOException {
+            if (fuente != null) fuente.close();
+            if (medidor != null) medidor.close();
+            if (registroAsincrono != null) registroAsincrono.close();
+        }
+
+        boolean ejecutar() {
+            if (batalla.getEnemigosVivos().isEmpty()) {
+                batalla = crearBatalla();
+            }
+            return batalla.ejecutarDecision(batalla.getJugadores().get(indice++ % tamano), decision);
+        }
+
+        private Batalla crearBatalla() {
+            Batalla nueva = new Batalla(crearJugadores(tamano), crearEnemigos(tamano));
+            if (registroAsincrono != null) {
+                if (fuente != null) fuente.close();
+                fuente = registroAsincrono.adjuntar(nueva, "Batalla");
+            }
+            if (metricas != null) {
+                if (medidor != null) medidor.close();
+                medidor = metricas.adjuntar(nueva);
+            }
+            return nueva;
+        }
+    }
+
+    /**
+     * Batalla donde nadie ataca, así que avanzar turnos la deja siempre activa.
+     */
+    @State(Scope.Thread)
+    public static class AvanzarTurno {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        @Param({ "BARAJADO", "INICIATIVA" })
+        ModoTurnos modo;
+
+        Batalla batalla;
+
+        @Setup
+        public void preparar() {
+            batalla = new Batalla(crearJugadores(tamano), crearEnemigos(tamano), new FuenteAleatoria(), modo);
+        }
+    }
+
+    /**
+     * Batalla en la que la mitad de los enemigos cayó.
+     */
+    @State(Scope.Thread)
+    public static class EnemigosVivos {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        Batalla batalla;
+
+        @Setup
+        public void preparar() {
+            List<Combatiente> enemigos = crearEnemigos(tamano);
+            for (int i = 1; i < enemigos.size(); i += 2) {
+                enemigos.get(i).recibirDano(Integer.MAX_VALUE);
+            }
+            batalla = new Batalla(crearJugadores(tamano), enemigos);
+        }
+    }
+
+    /**
+     * Instantánea de una batalla empezada, para capturarla o restaurarla.
+     */
+    @State(Scope.Thread)
+    public static class Instantanea {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        final InstantaneaBatalla instantanea = new InstantaneaBatalla();
+        Batalla batalla;
+
+        @Setup
+        public void preparar() {
+            batalla = crearBatallaEmpezada(tamano, new DecisionJugador());
+            instantanea.capturar(batalla);
+        }
+    }
+
+    /**
+     * Batalla empezada y con efectos activos para bifurcar. Atacar en la copia
+     * obliga a copiar la vida y el registro de eventos.
+     */
+    @State(Scope.Thread)
+    public static class Bifurcar {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        final DecisionJugador decision = new DecisionJugador();
+        Batalla batalla;
+
+        @Setup
+        public void preparar() {
+            batalla = crearBatallaEmpezada(tamano, decision);
+        }
+    }
+
+    /**
+     * Un enemigo decide su acción sin ejecutarla, siempre desde el mismo estado: con
+     * la política aleatoria o con MCTS de 200 nodos o 20 ms por decisión en el pool
+     * común. Cada operación es una decisión.
+     */
+    @State(Scope.Thread)
+    public static class DecisionDeEnemigo {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        @Param({ "aleatoria", "mcts" })
+        String politicaEnemigo;
+
+        final DecisionEnemigo decision = new DecisionEnemigo();
+        PoliticaEnemigo politica;
+        Batalla batalla;
+        Enemigo enemigo;
+        List<Combatiente> objetivos;
+
+        @Setup
+        public void preparar() {
+            politica = politicaEnemigo.equals("mcts") ? new PoliticaEnemigoMcts(200, 20) : new PoliticaEnemigoAleatoria();
+            batalla = new Batalla(crearJugadores(tamano), crearEnemigos(tamano), new FuenteAleatoria(), ModoTurnos.BARAJADO);
+            batalla.iniciarBatalla();
+            while (!(batalla.getCombatienteActual() instanceof Enemigo)) batalla.avanzarTurno();
+            enemigo = (Enemigo) batalla.getCombatienteActual();
+            objetivos = new ArrayList<>(batalla.getJugadoresVivos());
+        }
+    }
+
+    /**
+     * Un jugador decide su turno al azar o con las reglas de la batalla automática,
+     * con la mitad de los jugadores heridos para que las reglas miren los ítems.
+     */
+    @State(Scope.Thread)
+    public static class DecisionDeJugador {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        @Param({ "aleatoria", "reglas" })
+        String politicaJugador;
+
+        final DecisionJugador decision = new DecisionJugador();
+        PoliticaJugador politica;
+        Batalla batalla;
+        Jugador jugador;
+
+        @Setup
+        public void preparar() {
+            politica = politicaJugador.equals("reglas") ? new PoliticaReglas() : new PoliticaAleatoria();
+            batalla = new Batalla(crearJugadores(tamano), crearEnemigos(tamano), new FuenteAleatoria(), ModoTurnos.BARAJADO);
+            batalla.iniciarBatalla();
+            List<Jugador> jugadores = batalla.getJugadoresVivos();
+            for (int i = 0; i < jugadores.size(); i += 2) jugadores.get(i).recibirDano(jugadores.get(i).getVidaMaxima() / 2);
+            jugador = jugadores.get(jugadores.size() - 1);
+        }
+    }
+
+    /**
+     * Un jugador ataca y se muestra el estado de la batalla, armando la pantalla
+     * completa o, con el panel, solo las líneas que cambiaron. Cuando todos los
+     * enemigos caen se crea otra batalla, lo que obliga al panel a dibujar un cuadro
+     * completo.
+     */
+    @State(Scope.Thread)
+    public static class Pantalla {
+        @Param({ "1", "10", "100", "1000" })
+        int tamano;
+
+        @Param({ "completa", "panel" })
+        String pantalla;
+
+        private final DecisionJugador decision = new DecisionJugador();
+        private PanelEstado panel;
+        private int indice;
+        private Batalla batalla;
+
+        @Setup
+        public void preparar() {
+            panel = new PanelEstado(0);
+            batalla = new Batalla(crearJugadores(tamano), crearEnemigos(tamano));
+            decision.atacar(0);
+        }
+
+        String ejecutar() {
+            if (batalla.getEnemigosVivos().isEmpty()) {
+                batalla = new Batalla(crearJugadores(tamano), crearEnemigos(tamano));
+            }
+            batalla.ejecutarDecision(batalla.getJugadores().get(indice++ % tamano), decision);
+            return pantalla.equals("panel") ? panel.dibujar(batalla) : batalla.mostrarEstado();
+        }
+    }
+}
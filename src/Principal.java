@@ -1,5 +1,15 @@
 import controller.ControladorJuego;
+import controller.SesionJuego;
+import model.PoliticaDesborde;
+import model.PoliticaReglas;
+import model.RegistroAsincrono;
+import model.RegistroMetricas;
+import simulacion.PoliticaEnemigoMcts;
 import view.VistaConsola;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Clase principal del Juego de Batalla RPG.
@@ -14,60 +24,52 @@ public class Principal {
     /**
      * Método principal que ejecuta el juego.
      * 
-     * @param args Argumentos de línea de comandos (no utilizados).
+     * @param args Argumentos de línea de comandos: opcionalmente, el directorio donde
+     *             se guarda el historial de la batalla, "--log archivo" para escribir
+     *             el log de la batalla en un archivo, "--diarios directorio" para
+     *             guardar su diario de repetición, "--punto-control archivo" para
+     *             guardar la batalla en cada turno y poder seguirla más tarde y
+     *             "--metricas archivo" para escribir sus métricas en formato Prometheus
+     *             y "--enemigos-mcts presupuesto" para que los enemigos decidan con
+     *             MCTS, con un presupuesto por decisión de nodos ("2000"), de tiempo
+     *             ("50ms") o los dos ("2000/50ms"), y "--auto" para que los
+     *             jugadores jueguen solos con {@link PoliticaReglas}.
+     * @throws IOException si no se puede escribir el log.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         VistaConsola vista = new VistaConsola();
         ControladorJuego controlador = new ControladorJuego(vista);
-
-        System.out.println("╔════════════════════════════════════════════════════════╗");
-        System.out.println("║              JUEGO DE BATALLA RPG                      ║");
-        System.out.println("╚════════════════════════════════════════════════════════╝\n");
-
-        System.out.print(vista.obtenerPreguntaJugadores());
-        int cantidadJugadores = vista.leerEntero(1, 2);
-
-        String[] nombres = new String[cantidadJugadores];
-        int[] roles = new int[cantidadJugadores];
-
-        for (int i = 0; i < cantidadJugadores; i++) {
-            System.out.print(vista.obtenerPreguntaNombreJugador(i + 1));
-            nombres[i] = vista.leerLinea();
-
-            System.out.print(vista.obtenerRoles());
-            roles[i] = vista.leerEntero(1, 2);
-        }
-
-        System.out.print(vista.obtenerPreguntaCSV());
-        int opcionCSV = vista.leerEntero(1, 2);
-        String nombreArchivo = "";
-        if (opcionCSV == 1) {
-            System.out.print(vista.obtenerPreguntaNombreArchivo());
-            nombreArchivo = vista.leerLinea();
-        }
-
-        controlador.configurarJuego(cantidadJugadores, nombres, roles, opcionCSV, nombreArchivo);
-
-        controlador.iniciarBatalla();
-
-        boolean batallaActiva = true;
-        while (batallaActiva) {
-            batallaActiva = controlador.procesarTurnoBatalla();
-
-            for (String msg : controlador.obtenerMensajesPendientes()) {
-                System.out.println(msg);
-            }
-
-            if (batallaActiva) {
-                System.out.print(vista.obtenerMensajeContinuar());
-                vista.esperarEnter();
+        RegistroAsincrono registroLog = null;
+        RegistroMetricas metricas = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--log") && i + 1 < args.length) {
+                registroLog = RegistroAsincrono.aArchivo(Paths.get(args[++i]), PoliticaDesborde.BLOQUEAR);
+                controlador.setRegistroLog(registroLog);
+            } else if (args[i].equals("--diarios") && i + 1 < args.length) {
+                controlador.setDirectorioDiarios(Paths.get(args[++i]));
+            } else if (args[i].equals("--punto-control") && i + 1 < args.length) {
+                controlador.setArchivoPuntoControl(Paths.get(args[++i]));
+            } else if (args[i].equals("--metricas") && i + 1 < args.length) {
+                metricas = new RegistroMetricas();
+                metricas.exportarCada(Paths.get(args[++i]), RegistroMetricas.PERIODO_POR_DEFECTO_MS);
+                controlador.setMetricas(metricas);
+            } else if (args[i].equals("--enemigos-mcts") && i + 1 < args.length) {
+                controlador.setPoliticaEnemigos(PoliticaEnemigoMcts.desdeTexto(args[++i], ForkJoinPool.commonPool()));
+            } else if (args[i].equals("--auto")) {
+                controlador.setBatallaAutomatica(new PoliticaReglas());
+            } else {
+                controlador.setDirectorioHistorial(Paths.get(args[i]));
             }
         }
 
-        System.out.println(controlador.obtenerResultadoFinal());
-
-        System.out.println("\n╔════════════════════════════════════════════════════════╗");
-        System.out.println("║              ¡GRACIAS POR JUGAR!                       ║");
-        System.out.println("╚════════════════════════════════════════════════════════╝");
+        try {
+            new SesionJuego(vista, controlador, true).jugar();
+        } catch (NoSuchElementException e) {
+            vista.mostrarLinea(vista.obtenerCierrePanel() + "\nSe terminó la entrada; la batalla queda sin terminar.");
+            vista.enviar();
+        } finally {
+            if (registroLog != null) registroLog.close();
+            if (metricas != null) metricas.close();
+        }
     }
 }
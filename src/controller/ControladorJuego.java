@@ -2,6 +2,9 @@ package controller;
 
 import model.*;
 import view.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -30,6 +33,48 @@ public class ControladorJuego {
     /** Mensajes pendientes para mostrar en la vista */
     private List<String> mensajesPendientes;
 
+    /** Decisión reutilizada para las acciones de los jugadores */
+    private final DecisionJugador decision;
+
+    /** Directorio donde se guarda el historial de cada batalla, o null para no guardarlo */
+    private Path directorioHistorial;
+
+    /** Historial de la batalla actual */
+    private HistorialBatalla historial;
+
+    /** Registro donde se escribe el log de las batallas, o null para no escribirlo */
+    private RegistroAsincrono registroLog;
+
+    /** Conexión de la batalla actual con el registro del log */
+    private RegistroAsincrono.Fuente fuenteLog;
+
+    /** Directorio donde se guarda el diario de repetición de cada batalla, o null para no guardarlo */
+    private Path directorioDiarios;
+
+    /** Diario de repetición de la batalla actual */
+    private DiarioRepeticion diario;
+
+    /** Archivo donde se guarda la batalla después de cada turno, o null para no guardarla */
+    private Path archivoPuntoControl;
+
+    /** Instantánea reutilizada para los puntos de control */
+    private InstantaneaBatalla puntoControl;
+
+    /** Registro de métricas compartido por las batallas, o null para no medirlas */
+    private RegistroMetricas metricas;
+
+    /** Medidor de la batalla actual */
+    private RegistroMetricas.Medidor medidor;
+
+    /** Nanosegundos que el turno actual pasó esperando al jugador */
+    private long nanosEspera;
+
+    /** Política de los enemigos, o null para la aleatoria */
+    private PoliticaEnemigo politicaEnemigos;
+
+    /** Política que juega por los jugadores en la batalla automática, o null si juegan ellos */
+    private PoliticaJugador politicaAutomatica;
+
     /**
      * Constructor.
      * Inicializa el controlador con la vista y listas vacías de jugadores, enemigos y mensajes.
@@ -40,6 +85,7 @@ public class ControladorJuego {
         this.jugadores = new ArrayList<>();
         this.enemigos = new ArrayList<>();
         this.mensajesPendientes = new ArrayList<>();
+        this.decision = new DecisionJugador();
     }
 
     /**
@@ -75,12 +121,11 @@ public class ControladorJuego {
      * @param nombres Nombres de los jugadores
      * @param roles Roles de los jugadores (1=Guerrero, 2=Explorador)
      * @param opcionCSV 1 si se cargan enemigos desde CSV, 2 si no
-     * @param nombreArchivo Nombre del archivo CSV de enemigos (si aplica)
+     * @param nombreArchivo Nombre del archivo CSV o roster binario de enemigos (si aplica)
      * @return true si la configuración fue exitosa
      */
     public boolean configurarJuego(int cantidadJugadores, String[] nombres, int[] roles, int opcionCSV, String nombreArchivo) {
         jugadores.clear();
-        enemigos.clear();
 
         // Crear jugadores
         for (int i = 0; i < cantidadJugadores; i++) {
@@ -89,19 +134,32 @@ public class ControladorJuego {
             jugadores.add(new Jugador(nombre, rol));
         }
 
-        // Crear enemigos
+        // Crear enemigos. La semilla se guarda en el diario para poder repetir la batalla
+        long semilla = new FuenteAleatoria().nextLong();
+        FuenteAleatoria aleatorio = FuenteAleatoria.paraBatalla(semilla, 0);
+        boolean enemigosAleatorios = true;
         if (opcionCSV == 1) {
             try {
-                enemigos = EnemyFactory.cargarEnemigosDesdeCSV(nombreArchivo);
-                if (enemigos.isEmpty()) enemigos = EnemyFactory.crearEnemigosAleatorios();
+                enemigos = EnemyFactory.cargarEnemigos(nombreArchivo);
+                enemigosAleatorios = enemigos.isEmpty();
+                if (enemigos.isEmpty()) enemigos = EnemyFactory.crearEnemigosAleatorios(aleatorio);
             } catch (Exception e) {
-                enemigos = EnemyFactory.crearEnemigosAleatorios();
+                enemigos = EnemyFactory.crearEnemigosAleatorios(aleatorio);
             }
         } else {
-            enemigos = EnemyFactory.crearEnemigosAleatorios();
+            enemigos = EnemyFactory.crearEnemigosAleatorios(aleatorio);
+        }
+
+        diario = null;
+        // El diario repite la batalla con enemigos aleatorios; otra política la cambiaría
+        if (directorioDiarios != null && politicaEnemigos == null) {
+            diario = new DiarioRepeticion(semilla, 0, ModoTurnos.BARAJADO, DiarioRepeticion.SIN_LIMITE);
+            for (Jugador jugador : jugadores) diario.registrarJugador(jugador);
+            diario.registrarEnemigos(enemigos, enemigosAleatorios);
         }
 
-        batalla = new Batalla(jugadores, enemigos);
+        batalla = new Batalla(jugadores, enemigos, aleatorio);
+        batalla.setPoliticaEnemigos(politicaEnemigos);
 
         agregarMensaje("\n--- Enemigos para la batalla ---\n");
         for (Combatiente enemigo : enemigos) {
@@ -113,19 +171,150 @@ public class ControladorJuego {
         return true;
     }
 
+    /**
+     * Indica dónde guardar el historial completo de cada batalla.
+     * Cada batalla se guarda en un subdirectorio propio.
+     * @param directorioHistorial Directorio de historiales, o null para no guardarlos.
+     */
+    public void setDirectorioHistorial(Path directorioHistorial) {
+        this.directorioHistorial = directorioHistorial;
+    }
+
+    /**
+     * Indica dónde guardar el diario de repetición de cada batalla: la semilla, los
+     * enemigos y las decisiones de los jugadores, para repetirla con ReproductorDiarios.
+     * @param directorioDiarios Directorio de diarios, o null para no guardarlos.
+     */
+    public void setDirectorioDiarios(Path directorioDiarios) {
+        this.directorioDiarios = directorioDiarios;
+    }
+
+    /**
+     * Indica dónde guardar la batalla en curso después de cada turno, para poder
+     * seguirla con reanudarBatalla si el programa se cierra. El archivo se borra
+     * cuando la batalla termina.
+     * @param archivoPuntoControl Archivo del punto de control, o null para no guardarlo.
+     */
+    public void setArchivoPuntoControl(Path archivoPuntoControl) {
+        this.archivoPuntoControl = archivoPuntoControl;
+    }
+
+    /**
+     * Indica si hay una batalla sin terminar guardada en el punto de control.
+     * @return true si existe el archivo del punto de control.
+     */
+    public boolean hayPuntoControl() {
+        return archivoPuntoControl != null && Files.exists(archivoPuntoControl);
+    }
+
+    /**
+     * Sigue la batalla guardada en el punto de control desde el turno en que quedó,
+     * en lugar de configurar e iniciar una nueva. La batalla reanudada no tiene diario
+     * de repetición, porque las decisiones anteriores no se guardan.
+     * @return true si se pudo leer la batalla guardada
+     */
+    public boolean reanudarBatalla() {
+        try {
+            puntoControl = InstantaneaBatalla.leer(archivoPuntoControl);
+            batalla = puntoControl.crearBatalla();
+            batalla.setPoliticaEnemigos(politicaEnemigos);
+        } catch (IOException | RuntimeException e) {
+            agregarMensaje("No se pudo leer la batalla guardada: " + e.getMessage() + "\n");
+            return false;
+        }
+        jugadores = new ArrayList<>(batalla.getJugadores());
+        enemigos = new ArrayList<>(batalla.getEnemigos());
+        diario = null;
+        if (registroLog != null) fuenteLog = registroLog.adjuntar(batalla, null);
+        if (metricas != null) medidor = metricas.adjuntar(batalla);
+        agregarPanelEstado();
+        agregarMensaje("\n🗡️  ¡LA BATALLA CONTINÚA EN EL TURNO " + (batalla.getTurnoActual() + 1) + "! ⚔️\n");
+        return true;
+    }
+
+    /**
+     * Indica dónde escribir el log de cada batalla. El log se escribe desde otro
+     * hilo, así los turnos no esperan al archivo. El registro lo cierra quien lo creó.
+     * @param registroLog Registro del log, o null para no escribirlo.
+     */
+    public void setRegistroLog(RegistroAsincrono registroLog) {
+        this.registroLog = registroLog;
+    }
+
+    /**
+     * Indica dónde registrar las métricas de cada batalla: el tiempo de cada turno,
+     * las acciones, el daño y los efectos. El registro se puede compartir entre
+     * controladores de distintos hilos y lo cierra quien lo creó.
+     * @param metricas Registro de métricas, o null para no medir.
+     */
+    public void setMetricas(RegistroMetricas metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Indica cómo deciden los enemigos de cada batalla, por ejemplo con una
+     * búsqueda MCTS para una dificultad alta. Con una política distinta de la
+     * aleatoria no se guarda el diario de repetición, que no podría repetirla.
+     * @param politicaEnemigos Política de los enemigos, o null para la aleatoria.
+     */
+    public void setPoliticaEnemigos(PoliticaEnemigo politicaEnemigos) {
+        this.politicaEnemigos = politicaEnemigos;
+    }
+
+    /**
+     * Pone la batalla en automático: los turnos de los jugadores los decide la
+     * política, sin preguntar, por el mismo camino que las acciones del menú
+     * (diario, log y métricas incluidos). Sirve para adelantar una batalla y para
+     * pruebas de carga sin nadie en el teclado.
+     * @param politicaAutomatica Política de los jugadores, o null para que vuelvan a jugar ellos.
+     */
+    public void setBatallaAutomatica(PoliticaJugador politicaAutomatica) {
+        this.politicaAutomatica = politicaAutomatica;
+    }
+
+    /**
+     * Indica si los turnos de los jugadores se juegan solos.
+     * @return true si hay una política de batalla automática.
+     */
+    public boolean isBatallaAutomatica() {
+        return politicaAutomatica != null;
+    }
+
     /**
      * Inicia la batalla y agrega el mensaje inicial.
+     * Si hay un directorio de historial, empieza a guardar la batalla.
      */
     public void iniciarBatalla() {
+        if (registroLog != null) fuenteLog = registroLog.adjuntar(batalla, null);
+        if (metricas != null) medidor = metricas.adjuntar(batalla);
+        if (directorioHistorial != null) {
+            Path destino = directorioHistorial.resolve("batalla-" + System.currentTimeMillis());
+            try {
+                historial = new HistorialBatalla(destino, batalla);
+            } catch (IOException e) {
+                agregarMensaje("No se pudo crear el historial: " + e.getMessage() + "\n");
+            }
+        }
         batalla.iniciarBatalla();
+        agregarPanelEstado();
         agregarMensaje("\n🗡️  ¡LA BATALLA COMIENZA! ⚔️\n");
     }
 
     /**
-     * Procesa un turno completo de la batalla (jugador o enemigo).
+     * Procesa un turno completo de la batalla (jugador o enemigo). Si hay métricas,
+     * registra cuánto tardó, sin contar el tiempo que se esperó al jugador.
      * @return true si la batalla continúa, false si terminó
      */
     public boolean procesarTurnoBatalla() {
+        if (metricas == null) return procesarTurno();
+        long inicio = System.nanoTime();
+        nanosEspera = 0;
+        boolean continua = procesarTurno();
+        metricas.registrarTurno(System.nanoTime() - inicio - nanosEspera);
+        return continua;
+    }
+
+    private boolean procesarTurno() {
         Combatiente combatienteActual = batalla.getCombatienteActual();
 
         if (combatienteActual == null || !combatienteActual.isEstaVivo()) {
@@ -136,7 +325,9 @@ public class ControladorJuego {
         if (combatienteActual instanceof Jugador) {
             TurnoResultado resultado = manejarTurnoJugador((Jugador) combatienteActual);
             if (resultado == TurnoResultado.HUIR) {
-                batalla.agregarAccion(combatienteActual.getNombre() + " huye de la batalla!");
+                decision.huir();
+                ejecutarDecision((Jugador) combatienteActual);
+                if (diario != null) diario.terminarTurno(true);
                 return false;
             }
         } else {
@@ -144,7 +335,32 @@ public class ControladorJuego {
         }
 
         batalla.avanzarTurno();
-        return !batalla.verificarFinBatalla();
+        if (batalla.verificarFinBatalla()) return false;
+        guardarPuntoControl();
+        agregarPanelEstado();
+        return true;
+    }
+
+    /**
+     * Agrega el panel con lo que cambió del estado de la batalla, si cambió algo.
+     */
+    private void agregarPanelEstado() {
+        String panel = vista.obtenerPanelEstado(batalla);
+        if (!panel.isEmpty()) agregarMensaje(panel);
+    }
+
+    /**
+     * Guarda la batalla en el punto de control, si hay uno.
+     */
+    private void guardarPuntoControl() {
+        if (archivoPuntoControl == null) return;
+        if (puntoControl == null) puntoControl = new InstantaneaBatalla();
+        try {
+            puntoControl.capturar(batalla);
+            puntoControl.guardar(archivoPuntoControl);
+        } catch (IOException e) {
+            agregarMensaje("No se pudo guardar el punto de control: " + e.getMessage() + "\n");
+        }
     }
 
     /**
@@ -153,13 +369,15 @@ public class ControladorJuego {
      * @return TurnoResultado indicando si se completó, canceló o huyó
      */
     private TurnoResultado manejarTurnoJugador(Jugador jugador) {
+        if (politicaAutomatica != null) return jugarTurnoAutomatico(jugador);
+
         boolean accionCompletada = false;
         int intentos = 0;
         final int MAX_INTENTOS = 3;
 
         while (!accionCompletada && intentos < MAX_INTENTOS) {
             agregarMensaje(vista.obtenerMenuTurno(jugador));
-            int accion = vista.leerEntero(0, 5);
+            int accion = leerEntero(0, 6);
 
             switch (accion) {
                 case 0:
@@ -169,26 +387,50 @@ public class ControladorJuego {
                     break;
                 case 2:
                     agregarMensaje("Los jugadores usan ítems como habilidad especial.\n");
-                    accionCompletada = true;
+                    decision.habilidadEspecial();
+                    accionCompletada = ejecutarDecision(jugador);
                     break;
                 case 3:
                     TurnoResultado resultadoItem = manejarUsoItem(jugador);
                     if (resultadoItem == TurnoResultado.ACCION_COMPLETADA) accionCompletada = true;
                     break;
                 case 4:
-                    batalla.agregarAccion(jugador.getNombre() + " pasa su turno.");
-                    accionCompletada = true;
+                    decision.pasar();
+                    accionCompletada = ejecutarDecision(jugador);
                     break;
                 case 5:
                     agregarMensaje(vista.obtenerEstadoDetallado(jugador));
                     continue; // No cuenta como intento
+                case 6:
+                    agregarMensaje("La batalla sigue en automático.\n");
+                    politicaAutomatica = new PoliticaReglas();
+                    return jugarTurnoAutomatico(jugador);
             }
             intentos++;
         }
 
         if (!accionCompletada) {
-            batalla.agregarAccion(jugador.getNombre() + " pierde su turno por indecisión.");
+            batalla.agregarEvento(TipoEvento.INDECISION, jugador);
         }
+        if (diario != null) diario.terminarTurno(accionCompletada);
+
+        return accionCompletada ? TurnoResultado.ACCION_COMPLETADA : TurnoResultado.ACCION_CANCELADA;
+    }
+
+    /**
+     * Juega el turno de un jugador con la política de la batalla automática.
+     * @param jugador Jugador del turno.
+     * @return TurnoResultado indicando si se completó, canceló o huyó
+     */
+    private TurnoResultado jugarTurnoAutomatico(Jugador jugador) {
+        politicaAutomatica.decidir(jugador, batalla, decision);
+        if (decision.getAccion() == AccionJugador.HUIR) return TurnoResultado.HUIR;
+
+        boolean accionCompletada = ejecutarDecision(jugador);
+        if (!accionCompletada) {
+            batalla.agregarEvento(TipoEvento.INDECISION, jugador);
+        }
+        if (diario != null) diario.terminarTurno(accionCompletada);
 
         return accionCompletada ? TurnoResultado.ACCION_COMPLETADA : TurnoResultado.ACCION_CANCELADA;
     }
@@ -206,17 +448,36 @@ public class ControladorJuego {
         }
 
         agregarMensaje(vista.obtenerListaObjetivos(enemigosVivos));
-        int indiceObjetivo = vista.leerEntero(1, enemigosVivos.size()) - 1;
+        int indiceObjetivo = leerEntero(1, enemigosVivos.size()) - 1;
 
-        Combatiente objetivo = enemigosVivos.get(indiceObjetivo);
-        String resultado = jugador.atacar(objetivo);
-        batalla.agregarAccion(resultado);
+        decision.atacar(indiceObjetivo);
+        return ejecutarDecision(jugador);
+    }
 
-        if (!objetivo.isEstaVivo()) {
-            batalla.agregarAccion(objetivo.desplegarMensajeMuerte());
+    /**
+     * Lee una opción del jugador y, si hay métricas, descuenta la espera del tiempo del turno.
+     * @param min Valor mínimo permitido
+     * @param max Valor máximo permitido
+     * @return Opción elegida
+     */
+    private int leerEntero(int min, int max) {
+        if (metricas == null) return vista.leerEntero(min, max);
+        long inicio = System.nanoTime();
+        try {
+            return vista.leerEntero(min, max);
+        } finally {
+            nanosEspera += System.nanoTime() - inicio;
         }
+    }
 
-        return true;
+    /**
+     * Ejecuta la decisión actual del jugador y la anota en el diario, si hay uno.
+     * @param jugador Jugador que decide
+     * @return true si la decisión tuvo efecto
+     */
+    private boolean ejecutarDecision(Jugador jugador) {
+        if (diario != null) diario.registrarDecision(decision);
+        return batalla.ejecutarDecision(jugador, decision);
     }
 
     /**
@@ -232,40 +493,20 @@ public class ControladorJuego {
         }
 
         agregarMensaje(vista.obtenerInventario(inventario));
-        int indiceItem = vista.leerEntero(0, inventario.size());
+        int indiceItem = leerEntero(0, inventario.size());
         if (indiceItem == 0) return TurnoResultado.ACCION_CANCELADA;
         indiceItem--;
 
-        Item item = inventario.get(indiceItem);
-        List<Combatiente> objetivos = determinarObjetivosItem(item);
-
-        if (objetivos.isEmpty()) return TurnoResultado.ACCION_CANCELADA;
-
-        String resultado = jugador.usarItem(item, objetivos);
-        batalla.agregarAccion(resultado);
-
-        return TurnoResultado.ACCION_COMPLETADA;
-    }
-
-    /**
-     * Determina los objetivos de un ítem según su tipo.
-     * @param item Ítem usado
-     * @return Lista de combatientes afectados
-     */
-    private List<Combatiente> determinarObjetivosItem(Item item) {
-        List<Combatiente> objetivos = new ArrayList<>();
-        if (item instanceof KitCuracion) objetivos.addAll(batalla.getJugadoresVivos());
-        else if (item instanceof BombaHumo) objetivos.addAll(batalla.getEnemigosVivos());
-        else {
-            List<Combatiente> posibles = new ArrayList<>(batalla.getJugadoresVivos());
-            if (posibles.size() == 1) objetivos.add(posibles.get(0));
-            else {
-                agregarMensaje(vista.obtenerListaObjetivos(posibles));
-                int indiceObjetivo = vista.leerEntero(1, posibles.size()) - 1;
-                objetivos.add(posibles.get(indiceObjetivo));
-            }
+        int indiceObjetivo = -1;
+        if (batalla.requiereElegirAliado(inventario.get(indiceItem))) {
+            List<Jugador> posibles = batalla.getJugadoresVivos();
+            agregarMensaje(vista.obtenerListaObjetivos(posibles));
+            indiceObjetivo = leerEntero(1, posibles.size()) - 1;
         }
-        return objetivos;
+
+        decision.usarItem(indiceItem, indiceObjetivo);
+        return ejecutarDecision(jugador)
+                ? TurnoResultado.ACCION_COMPLETADA : TurnoResultado.ACCION_CANCELADA;
     }
 
     /**
@@ -273,13 +514,7 @@ public class ControladorJuego {
      * @param enemigo Enemigo que ejecuta su turno
      */
     private void manejarTurnoEnemigo(Combatiente enemigo) {
-        List<Combatiente> objetivos = new ArrayList<>(batalla.getJugadoresVivos());
-        String accion = enemigo.tomarTurno(objetivos);
-        if (!accion.isEmpty()) batalla.agregarAccion(accion);
-
-        for (Combatiente jugador : objetivos) {
-            if (!jugador.isEstaVivo()) batalla.agregarAccion(jugador.desplegarMensajeMuerte());
-        }
+        batalla.ejecutarTurnoEnemigo(enemigo);
     }
 
     /**
@@ -288,15 +523,78 @@ public class ControladorJuego {
      */
     public String obtenerResultadoFinal() {
         StringBuilder sb = new StringBuilder();
+        sb.append(vista.obtenerCierrePanel());
         sb.append(batalla.mostrarEstado());
         sb.append(vista.obtenerRegistroAcciones(batalla.getUltimosRegistros()));
 
         boolean jugadoresGanaron = !batalla.getJugadoresVivos().isEmpty();
         sb.append(vista.obtenerResultadoBatalla(jugadoresGanaron));
 
+        if (historial != null) {
+            try {
+                historial.close();
+                sb.append("\nHistorial guardado en ").append(historial.getDirectorio()).append("\n");
+            } catch (IOException e) {
+                sb.append("\nNo se pudo guardar el historial: ").append(e.getMessage()).append("\n");
+            }
+            historial = null;
+        }
+        if (fuenteLog != null) {
+            fuenteLog.close();
+            fuenteLog = null;
+        }
+        if (medidor != null) {
+            medidor.close();
+            medidor = null;
+        }
+        if (archivoPuntoControl != null) {
+            try {
+                Files.deleteIfExists(archivoPuntoControl);
+            } catch (IOException e) {
+                sb.append("No se pudo borrar el punto de control: ").append(e.getMessage()).append("\n");
+            }
+        }
+        if (diario != null) {
+            diario.finalizar(batalla);
+            Path destino = directorioDiarios.resolve("batalla-" + System.currentTimeMillis() + DiarioRepeticion.EXTENSION);
+            try {
+                Files.createDirectories(directorioDiarios);
+                diario.guardar(destino);
+                sb.append("Diario guardado en ").append(destino).append("\n");
+            } catch (IOException e) {
+                sb.append("No se pudo guardar el diario: ").append(e.getMessage()).append("\n");
+            }
+            diario = null;
+        }
+
         return sb.toString();
     }
 
+    /**
+     * Libera lo que quedó abierto de una batalla que no llegó a obtenerResultadoFinal,
+     * por ejemplo porque el jugador se desconectó. El punto de control no se borra,
+     * así la batalla se puede reanudar.
+     */
+    public void cerrar() {
+        if (historial != null) {
+            try {
+                historial.close();
+            } catch (IOException e) {
+                // La sesión ya terminó y no queda a quién avisar
+            }
+            historial = null;
+        }
+        if (fuenteLog != null) {
+            fuenteLog.close();
+            fuenteLog = null;
+        }
+        if (medidor != null) {
+            medidor.close();
+            medidor = null;
+        }
+        diario = null;
+    }
+
     /**
      * Devuelve la instancia actual de la batalla.
      * @return Objeto Batalla actual
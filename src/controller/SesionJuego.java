@@ -0,0 +1,116 @@
+package controller;
+
+import view.VistaConsola;
+
+/**
+ * Clase SesionJuego.
+ * Una partida completa con un jugador: la configuración, los turnos de la batalla
+ * y el resultado. Conversa solo a través de la vista, así que la misma sesión se
+ * juega en la consola o sobre una conexión de red. Cada sesión tiene su propio
+ * controlador; varias sesiones pueden correr a la vez en hilos distintos.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-19
+ */
+public class SesionJuego {
+
+    /** Vista por la que se conversa con el jugador */
+    private final VistaConsola vista;
+
+    /** Controlador de la partida */
+    private final ControladorJuego controlador;
+
+    /** Indica si se ofrece cargar enemigos desde un archivo */
+    private final boolean permitirArchivos;
+
+    /**
+     * Constructor de SesionJuego.
+     * @param vista Vista por la que se conversa con el jugador
+     * @param controlador Controlador ya configurado (historial, log, diarios...)
+     * @param permitirArchivos true para ofrecer cargar enemigos desde un archivo; un
+     *                         servidor no debería dejar que un cliente elija archivos locales
+     */
+    public SesionJuego(VistaConsola vista, ControladorJuego controlador, boolean permitirArchivos) {
+        this.vista = vista;
+        this.controlador = controlador;
+        this.permitirArchivos = permitirArchivos;
+    }
+
+    /**
+     * Juega la partida hasta el final. Si la entrada termina antes, la batalla
+     * queda sin resultado y se libera lo que tenía abierto.
+     * @throws java.util.NoSuchElementException si la entrada terminó antes del final
+     */
+    public void jugar() {
+        try {
+            vista.mostrarLinea("╔════════════════════════════════════════════════════════╗");
+            vista.mostrarLinea("║              JUEGO DE BATALLA RPG                      ║");
+            vista.mostrarLinea("╚════════════════════════════════════════════════════════╝\n");
+
+            boolean reanudada = false;
+            if (controlador.hayPuntoControl()) {
+                vista.mostrar(vista.obtenerPreguntaReanudar());
+                if (vista.leerEntero(1, 2) == 1) reanudada = controlador.reanudarBatalla();
+            }
+            if (!reanudada) configurarBatalla();
+
+            boolean batallaActiva = true;
+            while (batallaActiva) {
+                batallaActiva = controlador.procesarTurnoBatalla();
+
+                for (String msg : controlador.obtenerMensajesPendientes()) {
+                    vista.mostrarLinea(msg);
+                }
+
+                // En automático la batalla corre sin esperar entre turnos
+                if (batallaActiva && !controlador.isBatallaAutomatica()) {
+                    vista.mostrar(vista.obtenerMensajeContinuar());
+                    vista.esperarEnter();
+                }
+            }
+
+            vista.mostrarLinea(controlador.obtenerResultadoFinal());
+
+            vista.mostrarLinea("\n╔════════════════════════════════════════════════════════╗");
+            vista.mostrarLinea("║              ¡GRACIAS POR JUGAR!                       ║");
+            vista.mostrarLinea("╚════════════════════════════════════════════════════════╝");
+            vista.enviar();
+        } finally {
+            controlador.cerrar();
+        }
+    }
+
+    /**
+     * Pregunta los jugadores y los enemigos, configura la batalla y la inicia.
+     */
+    private void configurarBatalla() {
+        vista.mostrar(vista.obtenerPreguntaJugadores());
+        int cantidadJugadores = vista.leerEntero(1, 2);
+
+        String[] nombres = new String[cantidadJugadores];
+        int[] roles = new int[cantidadJugadores];
+
+        for (int i = 0; i < cantidadJugadores; i++) {
+            vista.mostrar(vista.obtenerPreguntaNombreJugador(i + 1));
+            nombres[i] = vista.leerLinea();
+
+            vista.mostrar(vista.obtenerRoles());
+            roles[i] = vista.leerEntero(1, 2);
+        }
+
+        int opcionCSV = 2;
+        String nombreArchivo = "";
+        if (permitirArchivos) {
+            vista.mostrar(vista.obtenerPreguntaCSV());
+            opcionCSV = vista.leerEntero(1, 2);
+            if (opcionCSV == 1) {
+                vista.mostrar(vista.obtenerPreguntaNombreArchivo());
+                nombreArchivo = vista.leerLinea();
+            }
+        }
+
+        controlador.configurarJuego(cantidadJugadores, nombres, roles, opcionCSV, nombreArchivo);
+
+        controlador.iniciarBatalla();
+    }
+}
@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * Enum que define las acciones que un enemigo puede tomar en su turno.
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public enum AccionEnemigo {
+    ATACAR("ataque"),
+    HABILIDAD_ESPECIAL("habilidadEspecial"),
+    HABILIDAD_JEFE("habilidadJefe"),
+    OBSERVAR("observar");
+
+    private final String etiqueta;
+
+    /**
+     * Constructor del enum AccionEnemigo.
+     * @param etiqueta Nombre de la acción en los eventos de Flight Recorder.
+     */
+    AccionEnemigo(String etiqueta) {
+        this.etiqueta = etiqueta;
+    }
+
+    /**
+     * Obtiene el nombre de la acción en los eventos de Flight Recorder.
+     * @return String Etiqueta de la acción.
+     */
+    public String getEtiqueta() { return etiqueta; }
+}
@@ -0,0 +1,43 @@
+package model;
+
+/**
+ * Enum que define las acciones que un jugador puede tomar en su turno.
+ * Los códigos coinciden con las opciones del menú de turno de la vista.
+ * @author Carlos Altán
+ * @since 2025-10-12
+ */
+public enum AccionJugador {
+    HUIR(0),
+    ATACAR(1),
+    HABILIDAD_ESPECIAL(2),
+    USAR_ITEM(3),
+    PASAR(4);
+
+    private final int codigo;
+
+    /**
+     * Constructor del enum AccionJugador.
+     * @param codigo Opción del menú asociada a la acción.
+     */
+    AccionJugador(int codigo) {
+        this.codigo = codigo;
+    }
+
+    /**
+     * Obtiene el código de menú de la acción.
+     * @return int Código de la acción.
+     */
+    public int getCodigo() { return codigo; }
+
+    /**
+     * Obtiene la acción asociada a un código de menú.
+     * @param codigo Código de menú (0-4).
+     * @return AccionJugador correspondiente.
+     */
+    public static AccionJugador desdeCodigo(int codigo) {
+        for (AccionJugador accion : values()) {
+            if (accion.codigo == codigo) return accion;
+        }
+        throw new IllegalArgumentException("Código de acción inválido: " + codigo);
+    }
+}
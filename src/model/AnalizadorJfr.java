@@ -0,0 +1,258 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.*;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Clase AnalizadorJfr.
+ * Resume una grabación de Flight Recorder con los eventos de {@link EventosJfr} en
+ * tablas de costo por habilidad, por ítem, por tipo de turno de enemigo y por avance
+ * de turno: cantidad, tiempo total, percentiles y máximo de la duración.
+ *
+ * Para unir los picos con lo que pasaba en el juego, cada muestra de CPU
+ * (jdk.ExecutionSample) se cuenta en la acción que estaba ejecutando su hilo, y
+ * cada acción que coincidió con una recolección de basura (jdk.GarbageCollection)
+ * se cuenta en la columna GC.
+ *
+ * Uso: {@code java -cp bin model.AnalizadorJfr batallas.jfr}
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class AnalizadorJfr {
+    private static final String FORMATO_FILA = "  %-34s %8d %10.1f %9.1f %9.1f %9.1f %9.1f %7d %6d%n";
+    private static final String FORMATO_TITULOS = "  %-34s %8s %10s %9s %9s %9s %9s %7s %6s%n";
+
+    private final Tabla habilidades = new Tabla("Habilidades de enemigos");
+    private final Tabla items = new Tabla("Uso de ítems");
+    private final Tabla turnosEnemigos = new Tabla("Turnos de enemigos por tipo y acción");
+    private final Tabla avances = new Tabla("Avance de turno");
+    private final Tabla[] tablas = { habilidades, items, turnosEnemigos, avances };
+
+    private final Set<Long> batallas = new HashSet<>();
+    /** Recolecciones de basura como pares inicio, fin en nanosegundos */
+    private final List<long[]> recolecciones = new ArrayList<>();
+    private long nanosRecoleccion;
+    /** Muestras de CPU como pares hilo, instante */
+    private final List<long[]> muestras = new ArrayList<>();
+
+    private AnalizadorJfr() {
+    }
+
+    /**
+     * Lee una grabación y arma su resumen.
+     * @param archivo Archivo .jfr.
+     * @return String Resumen con una tabla por tipo de evento del juego.
+     * @throws IOException si no se puede leer la grabación.
+     */
+    public static String resumir(Path archivo) throws IOException {
+        AnalizadorJfr analizador = new AnalizadorJfr();
+        try (RecordingFile grabacion = new RecordingFile(archivo)) {
+            while (grabacion.hasMoreEvents()) analizador.leer(grabacion.readEvent());
+        }
+        return analizador.armarResumen();
+    }
+
+    /** --- LECTURA --- **/
+
+    private void leer(RecordedEvent evento) {
+        String nombre = evento.getEventType().getName();
+        if (nombre.startsWith(EventosJfr.PREFIJO)) {
+            batallas.add(evento.getLong("batalla"));
+            switch (nombre.substring(EventosJfr.PREFIJO.length())) {
+                case "Habilidad":
+                    habilidades.agregar(evento.getString("habilidad"), evento);
+                    break;
+                case "UsoItem":
+                    items.agregar(evento.getString("item"), evento);
+                    break;
+                case "TurnoEnemigo":
+                    String tipo = evento.getString("tipo") + (evento.getBoolean("jefe") ? " jefe" : "");
+                    turnosEnemigos.agregar(tipo + " / " + evento.getString("accion"), evento);
+                    break;
+                case "AvanceTurno":
+                    avances.agregar(evento.getBoolean("cierraRonda") ? "cierra ronda" : "sin cierre", evento);
+                    break;
+                default:
+                    break;
+            }
+        } else if (nombre.equals("jdk.GarbageCollection")) {
+            long inicio = nanos(evento.getStartTime());
+            long duracion = evento.getDuration().toNanos();
+            recolecciones.add(new long[] { inicio, inicio + duracion });
+            nanosRecoleccion += duracion;
+        } else if (nombre.equals("jdk.ExecutionSample")) {
+            RecordedThread hilo = evento.getThread("sampledThread");
+            if (hilo != null) muestras.add(new long[] { hilo.getJavaThreadId(), nanos(evento.getStartTime()) });
+        }
+    }
+
+    /** --- RESUMEN --- **/
+
+    private String armarResumen() {
+        recolecciones.sort(Comparator.comparingLong(r -> r[0]));
+        long atribuidas = 0;
+        for (long[] muestra : muestras) {
+            boolean enAccion = false;
+            for (Tabla tabla : tablas) enAccion |= tabla.contarMuestra(muestra[0], muestra[1]);
+            if (enAccion) atribuidas++;
+        }
+        for (Tabla tabla : tablas) tabla.contarRecolecciones(recolecciones);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Batallas: %d - Recolecciones de basura: %d (%.1f ms) - Muestras de CPU: %d (%d en acciones del juego)%n",
+                                batallas.size(), recolecciones.size(), nanosRecoleccion / 1e6, muestras.size(), atribuidas));
+        for (Tabla tabla : tablas) tabla.escribir(sb);
+        return sb.toString();
+    }
+
+    private static long nanos(Instant instante) {
+        return instante.getEpochSecond() * 1_000_000_000L + instante.getNano();
+    }
+
+    /**
+     * Fila de una tabla: duraciones de una clave y lo que coincidió con ellas.
+     */
+    private static final class Fila {
+        final String clave;
+        /** Posición de la fila en el índice de su tabla */
+        final int posicion;
+        final HistogramaLatencias duraciones = new HistogramaLatencias();
+        long muestrasCpu;
+        long conRecoleccion;
+
+        Fila(String clave, int posicion) {
+            this.clave = clave;
+            this.posicion = posicion;
+        }
+    }
+
+    /**
+     * Tabla de costo de un tipo de evento del juego. Guarda los intervalos de cada
+     * hilo para ubicar las muestras de CPU; los eventos de un mismo tipo y un mismo
+     * hilo no se superponen.
+     */
+    private static final class Tabla {
+        final String titulo;
+        final Map<String, Fila> filas = new HashMap<>();
+        /** Por hilo, intervalos inicio, fin e índice de fila, ordenados al consultarlos */
+        final Map<Long, List<long[]>> intervalos = new HashMap<>();
+        final List<Fila> indice = new ArrayList<>();
+        boolean ordenada;
+
+        Tabla(String titulo) {
+            this.titulo = titulo;
+        }
+
+        void agregar(String clave, RecordedEvent evento) {
+            Fila fila = filas.get(clave);
+            if (fila == null) {
+                fila = new Fila(clave, indice.size());
+                filas.put(clave, fila);
+                indice.add(fila);
+            }
+            long duracion = evento.getDuration().toNanos();
+            fila.duraciones.registrar(duracion);
+            RecordedThread hilo = evento.getThread();
+            long idHilo = hilo == null ? -1 : hilo.getJavaThreadId();
+            long inicio = nanos(evento.getStartTime());
+            intervalos.computeIfAbsent(idHilo, h -> new ArrayList<>())
+                      .add(new long[] { inicio, inicio + duracion, fila.posicion });
+            ordenada = false;
+        }
+
+        private void ordenar() {
+            if (ordenada) return;
+            for (List<long[]> lista : intervalos.values()) lista.sort(Comparator.comparingLong(i -> i[0]));
+            ordenada = true;
+        }
+
+        /**
+         * Cuenta una muestra de CPU en la fila del evento que la contiene, si hay uno.
+         * @return true si la muestra cayó dentro de un evento de esta tabla.
+         */
+        boolean contarMuestra(long hilo, long instante) {
+            ordenar();
+            List<long[]> lista = intervalos.get(hilo);
+            if (lista == null) return false;
+            // Último intervalo que empieza antes de la muestra
+            int bajo = 0, alto = lista.size() - 1, encontrado = -1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (lista.get(medio)[0] <= instante) {
+                    encontrado = medio;
+                    bajo = medio + 1;
+                } else {
+                    alto = medio - 1;
+                }
+            }
+            if (encontrado < 0 || lista.get(encontrado)[1] < instante) return false;
+            indice.get((int) lista.get(encontrado)[2]).muestrasCpu++;
+            return true;
+        }
+
+        /**
+         * Cuenta los eventos que se superponen con alguna recolección de basura.
+         * @param recolecciones Recolecciones ordenadas por inicio.
+         */
+        void contarRecolecciones(List<long[]> recolecciones) {
+            if (recolecciones.isEmpty()) return;
+            for (List<long[]> lista : intervalos.values()) {
+                for (long[] intervalo : lista) {
+                    // Primera recolección que termina después de que empieza el evento
+                    int bajo = 0, alto = recolecciones.size();
+                    while (bajo < alto) {
+                        int medio = (bajo + alto) >>> 1;
+                        if (recolecciones.get(medio)[1] < intervalo[0]) bajo = medio + 1;
+                        else alto = medio;
+                    }
+                    if (bajo < recolecciones.size() && recolecciones.get(bajo)[0] <= intervalo[1]) {
+                        indice.get((int) intervalo[2]).conRecoleccion++;
+                    }
+                }
+            }
+        }
+
+        void escribir(StringBuilder sb) {
+            sb.append('\n').append(titulo).append(':').append('\n');
+            if (filas.isEmpty()) {
+                sb.append("  Sin eventos\n");
+                return;
+            }
+            sb.append(String.format(FORMATO_TITULOS, "", "Eventos", "Total ms", "Media µs", "p50 µs",
+                                    "p99 µs", "Máx µs", "CPU", "GC"));
+            List<Fila> ordenadas = new ArrayList<>(indice);
+            ordenadas.sort(Comparator.comparingLong((Fila f) -> f.duraciones.getSuma()).reversed());
+            for (Fila fila : ordenadas) {
+                HistogramaLatencias d = fila.duraciones;
+                long cantidad = d.getCantidad();
+                sb.append(String.format(FORMATO_FILA, fila.clave, cantidad, d.getSuma() / 1e6,
+                                        d.getSuma() / 1e3 / cantidad, d.getPercentil(0.5) / 1e3,
+                                        d.getPercentil(0.99) / 1e3, d.getMaximo() / 1e3,
+                                        fila.muestrasCpu, fila.conRecoleccion));
+            }
+        }
+    }
+
+    /**
+     * Punto de entrada del analizador.
+     * @param args Archivo .jfr a resumir.
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Uso: java -cp bin model.AnalizadorJfr <grabacion.jfr>");
+            return;
+        }
+        try {
+            System.out.print(resumir(Paths.get(args[0])));
+        } catch (IOException e) {
+            System.out.println("Error al leer la grabación: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Clase ArchivoSegmentado.
+ * Archivo de solo agregar repartido en segmentos de tamaño fijo, cada uno mapeado
+ * en memoria mientras se escribe. Un registro nunca queda partido entre dos
+ * segmentos: si no cabe, se pasa al siguiente y el resto del anterior queda en cero.
+ * Solo el segmento actual se mantiene referenciado, así que la memoria usada no
+ * crece con el largo del archivo. Pasar de segmento no baja nada a disco: el sistema
+ * escribe las páginas mapeadas cuando quiere, y recién al cerrar se sincronizan los
+ * segmentos escritos, así grabar un turno nunca espera al disco.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+final class ArchivoSegmentado implements Closeable {
+    /** Extensión de los segmentos */
+    static final String EXTENSION = ".seg";
+
+    private final Path directorio;
+    private final String prefijo;
+    private final int tamanoSegmento;
+    private MappedByteBuffer actual;
+    private int segmento = -1;
+    /** Primer segmento escrito desde la última sincronización */
+    private int primeroSinSincronizar;
+
+    /**
+     * Constructor de ArchivoSegmentado. Los segmentos se crean a medida que se necesitan.
+     * @param directorio Directorio de los segmentos.
+     * @param prefijo Prefijo del nombre de cada segmento.
+     * @param tamanoSegmento Tamaño de cada segmento en bytes.
+     */
+    ArchivoSegmentado(Path directorio, String prefijo, int tamanoSegmento) {
+        this.directorio = directorio;
+        this.prefijo = prefijo;
+        this.tamanoSegmento = tamanoSegmento;
+    }
+
+    /**
+     * Obtiene el buffer donde escribir un registro, pasando al siguiente segmento si no cabe.
+     * El registro se escribe con los métodos relativos del buffer a partir de su posición.
+     * @param bytes Tamaño del registro.
+     * @return ByteBuffer Buffer del segmento actual.
+     * @throws IOException si no se puede crear el siguiente segmento.
+     */
+    ByteBuffer reservar(int bytes) throws IOException {
+        if (bytes > tamanoSegmento) {
+            throw new IllegalArgumentException("Registro de " + bytes + " bytes en segmentos de " + tamanoSegmento);
+        }
+        if (actual == null || actual.remaining() < bytes) abrirSiguiente();
+        return actual;
+    }
+
+    /**
+     * Obtiene el segmento donde se escribe ahora.
+     * @return int Número de segmento, 0 si todavía no se creó ninguno.
+     */
+    int getSegmento() {
+        return Math.max(segmento, 0);
+    }
+
+    /**
+     * Obtiene la posición de escritura dentro del segmento actual.
+     * @return int Posición en bytes.
+     */
+    int getPosicion() {
+        return actual == null ? 0 : actual.position();
+    }
+
+    /**
+     * Obtiene la ruta de un segmento.
+     * @param directorio Directorio de los segmentos.
+     * @param prefijo Prefijo del nombre.
+     * @param segmento Número de segmento.
+     * @return Path Ruta del segmento.
+     */
+    static Path ruta(Path directorio, String prefijo, int segmento) {
+        return directorio.resolve(String.format("%s-%06d%s", prefijo, segmento, EXTENSION));
+    }
+
+    /**
+     * Mapea un segmento existente solo para lectura.
+     * @param directorio Directorio de los segmentos.
+     * @param prefijo Prefijo del nombre.
+     * @param segmento Número de segmento.
+     * @return ByteBuffer Contenido del segmento en little-endian.
+     * @throws IOException si no se puede abrir.
+     */
+    static ByteBuffer mapearLectura(Path directorio, String prefijo, int segmento) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta(directorio, prefijo, segmento), StandardOpenOption.READ)) {
+            return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Baja a disco lo escrito en los segmentos desde la última vez que se cerró.
+     * @throws IOException si no se puede sincronizar un segmento anterior.
+     */
+    @Override
+    public void close() throws IOException {
+        if (actual == null) return;
+        // Los segmentos anteriores ya no están mapeados aquí: sincronizar el archivo baja sus páginas
+        for (int i = primeroSinSincronizar; i < segmento; i++) {
+            try (FileChannel canal = FileChannel.open(ruta(directorio, prefijo, i), StandardOpenOption.WRITE)) {
+                canal.force(false);
+            }
+        }
+        actual.force();
+        primeroSinSincronizar = segmento;
+    }
+
+    private void abrirSiguiente() throws IOException {
+        Path ruta = ruta(directorio, prefijo, segmento + 1);
+        Files.deleteIfExists(ruta);
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE_NEW,
+                                                  StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            actual = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanoSegmento);
+        }
+        actual.order(ByteOrder.LITTLE_ENDIAN);
+        segmento++;
+    }
+}
@@ -0,0 +1,132 @@
+package model;
+
+/**
+ * Clase ArquetipoEnemigo.
+ * Parte inmutable de un enemigo: nombre, tipo, estadísticas, multiplicadores de jefe
+ * y el atributo propio de cada tipo (fuerza del orco, velocidad del goblin, poder del dragón).
+ * Todos los enemigos de un mismo arquetipo lo comparten; cada enemigo solo guarda
+ * su nombre (si se cambió) y su posición en un EstadoCombate.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+public final class ArquetipoEnemigo {
+
+    /** Los jefes tienen 50% más vida */
+    public static final double MULTIPLICADOR_VIDA_JEFE = 1.5;
+    /** Los jefes tienen 30% más ataque */
+    public static final double MULTIPLICADOR_ATAQUE_JEFE = 1.3;
+    /** Los jefes hacen 20% más daño */
+    public static final double MULTIPLICADOR_DANO_JEFE = 1.2;
+    /** Los jefes reciben 10% menos daño */
+    public static final double MULTIPLICADOR_DANO_RECIBIDO_JEFE = 0.9;
+
+    private final TipoEnemigo tipo;
+    private final String nombre;
+    private final int vidaBase;
+    private final int ataqueBase;
+    private final int vida;
+    private final int ataque;
+    private final double multiplicadorDano;
+    private final double multiplicadorDanoRecibido;
+    private final int atributo;
+    private final boolean esJefe;
+    private final String mensajeInicio;
+    private final String mensajeMuerte;
+
+    /**
+     * Constructor de ArquetipoEnemigo.
+     * Si es jefe, la vida y el ataque se aumentan con los multiplicadores de jefe.
+     *
+     * @param tipo Tipo de enemigo.
+     * @param nombre Nombre que se muestra.
+     * @param vidaBase Vida antes del aumento de jefe.
+     * @param ataqueBase Ataque antes del aumento de jefe.
+     * @param atributo Atributo propio del tipo.
+     * @param esJefe Indica si es un jefe.
+     */
+    public ArquetipoEnemigo(TipoEnemigo tipo, String nombre, int vidaBase, int ataqueBase,
+                            int atributo, boolean esJefe) {
+        this(tipo, nombre, vidaBase, ataqueBase, atributo, esJefe, MULTIPLICADOR_VIDA_JEFE,
+             MULTIPLICADOR_ATAQUE_JEFE, MULTIPLICADOR_DANO_JEFE, MULTIPLICADOR_DANO_RECIBIDO_JEFE);
+    }
+
+    /**
+     * Constructor de ArquetipoEnemigo con multiplicadores de jefe propios, para probar
+     * otros valores sin cambiar los del juego. Si no es jefe, los multiplicadores no se usan.
+     *
+     * @param tipo Tipo de enemigo.
+     * @param nombre Nombre que se muestra.
+     * @param vidaBase Vida antes del aumento de jefe.
+     * @param ataqueBase Ataque antes del aumento de jefe.
+     * @param atributo Atributo propio del tipo.
+     * @param esJefe Indica si es un jefe.
+     * @param multiplicadorVida Aumento de vida del jefe.
+     * @param multiplicadorAtaque Aumento de ataque del jefe.
+     * @param multiplicadorDano Aumento del daño que hace el jefe.
+     * @param multiplicadorDanoRecibido Factor del daño que recibe el jefe.
+     */
+    public ArquetipoEnemigo(TipoEnemigo tipo, String nombre, int vidaBase, int ataqueBase,
+                            int atributo, boolean esJefe, double multiplicadorVida,
+                            double multiplicadorAtaque, double multiplicadorDano,
+                            double multiplicadorDanoRecibido) {
+        this.tipo = tipo;
+        this.nombre = nombre;
+        this.vidaBase = vidaBase;
+        this.ataqueBase = ataqueBase;
+        this.vida = esJefe ? (int) (vidaBase * multiplicadorVida) : vidaBase;
+        this.ataque = esJefe ? (int) (ataqueBase * multiplicadorAtaque) : ataqueBase;
+        this.multiplicadorDano = multiplicadorDano;
+        this.multiplicadorDanoRecibido = multiplicadorDanoRecibido;
+        this.atributo = atributo;
+        this.esJefe = esJefe;
+        this.mensajeInicio = mensajeInicio(nombre);
+        this.mensajeMuerte = mensajeMuerte(nombre);
+    }
+
+    /**
+     * Crea un enemigo de este arquetipo.
+     *
+     * @param estado Estado donde se agrega el enemigo.
+     * @return Enemigo creado.
+     */
+    public Enemigo crear(EstadoCombate estado) {
+        switch (tipo) {
+            case GOBLIN: return new Goblin(this, estado);
+            case DRAGON: return new Dragon(this, estado);
+            default: return new Orco(this, estado);
+        }
+    }
+
+    /**
+     * Obtiene el mensaje de inicio para un enemigo con el nombre dado.
+     * Si el nombre es el del arquetipo se reutiliza el mensaje ya armado.
+     */
+    String mensajeInicio(String nombreEnemigo) {
+        if (nombreEnemigo == nombre && mensajeInicio != null) return mensajeInicio;
+        String prefijo = esJefe ? "¡EL PODEROSO " : "¡";
+        return prefijo + nombreEnemigo.toUpperCase() + " APARECE EN BATALLA!";
+    }
+
+    /**
+     * Obtiene el mensaje de muerte para un enemigo con el nombre dado.
+     * Si el nombre es el del arquetipo se reutiliza el mensaje ya armado.
+     */
+    String mensajeMuerte(String nombreEnemigo) {
+        if (nombreEnemigo == nombre && mensajeMuerte != null) return mensajeMuerte;
+        return esJefe ?
+            "¡El temible jefe " + nombreEnemigo + " ha sido derrotado!" :
+            nombreEnemigo + " cae derrotado...";
+    }
+
+    public TipoEnemigo getTipo() { return tipo; }
+    public String getNombre() { return nombre; }
+    public int getVidaBase() { return vidaBase; }
+    public int getAtaqueBase() { return ataqueBase; }
+    public int getVida() { return vida; }
+    public int getAtaque() { return ataque; }
+    public double getMultiplicadorDano() { return multiplicadorDano; }
+    public double getMultiplicadorDanoRecibido() { return multiplicadorDanoRecibido; }
+    public int getAtributo() { return atributo; }
+    public boolean isEsJefe() { return esJefe; }
+}
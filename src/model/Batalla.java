@@ -1,23 +1,45 @@
 package model;
 
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Clase Batalla.
  * Representa una batalla entre jugadores y enemigos, gestionando turnos, acciones,
  * efectos y el estado general de la batalla.
+ * La vida y los efectos de todos los combatientes se guardan en un único EstadoCombate:
+ * los jugadores ocupan los primeros ids y los enemigos los siguientes.
+ * Las acciones se anotan como eventos en un RegistroEventos; su texto solo se arma
+ * cuando alguien pide las últimas acciones.
+ * {@link #bifurcar()} crea una copia independiente para probar jugadas sin tocar
+ * la batalla original.
  * 
  * @author Carlos Altán
  * @since 2025-09-28
  */
 public class Batalla {
+    /** Último id de batalla asignado en este proceso */
+    private static final AtomicLong ULTIMO_ID = new AtomicLong();
+
+    private final long id;
     private List<Jugador> jugadores;
     private List<Combatiente> enemigos;
     private int turnoActual;
-    private List<String> registroAcciones;
+    private final RegistroEventos eventos;
     private boolean batallaActiva;
-    private List<Combatiente> ordenTurnos;
-    private int indiceTurnoActual;
+    private final ModoTurnos modoTurnos;
+    private final PlanificadorTurnos planificador;
+    private final FuenteAleatoria aleatorio;
+    private final EstadoCombate estado;
+    private final Combatiente[] combatientes;
+    private final ConjuntoVivos<Jugador> jugadoresVivos;
+    private final ConjuntoVivos<Combatiente> enemigosVivos;
+    /** Lista reutilizada para los objetivos de una acción */
+    private final List<Combatiente> objetivosAccion = new ArrayList<>();
+    /** Decisión reutilizada en cada turno de enemigo */
+    private final DecisionEnemigo decisionEnemigo = new DecisionEnemigo();
+    private PoliticaEnemigo politicaEnemigos = Enemigo.POLITICA_ALEATORIA;
 
     /**
      * Constructor de Batalla.
@@ -27,24 +49,126 @@ public class Batalla {
      * @param enemigos Lista de enemigos que participan en la batalla.
      */
     public Batalla(List<Jugador> jugadores, List<Combatiente> enemigos) {
+        this(jugadores, enemigos, new FuenteAleatoria());
+    }
+
+    /**
+     * Constructor de Batalla con una fuente aleatoria propia.
+     * La fuente se comparte con todos los combatientes y sus ítems, así que con
+     * la misma semilla y las mismas decisiones la batalla se repite exactamente.
+     * 
+     * @param jugadores Lista de jugadores que participan en la batalla.
+     * @param enemigos Lista de enemigos que participan en la batalla.
+     * @param aleatorio Fuente aleatoria de la batalla.
+     */
+    public Batalla(List<Jugador> jugadores, List<Combatiente> enemigos, FuenteAleatoria aleatorio) {
+        this(jugadores, enemigos, aleatorio, ModoTurnos.BARAJADO);
+    }
+
+    /**
+     * Constructor de Batalla con una fuente aleatoria propia y un modo de turnos.
+     * 
+     * @param jugadores Lista de jugadores que participan en la batalla.
+     * @param enemigos Lista de enemigos que participan en la batalla.
+     * @param aleatorio Fuente aleatoria de la batalla.
+     * @param modoTurnos Cómo se decide el orden de turnos.
+     */
+    public Batalla(List<Jugador> jugadores, List<Combatiente> enemigos, FuenteAleatoria aleatorio,
+                   ModoTurnos modoTurnos) {
+        this.id = ULTIMO_ID.incrementAndGet();
+        this.aleatorio = aleatorio;
+        this.modoTurnos = modoTurnos;
         this.jugadores = new ArrayList<>(jugadores);
         this.enemigos = new ArrayList<>(enemigos);
         this.turnoActual = 0;
-        this.registroAcciones = new ArrayList<>();
         this.batallaActiva = true;
-        this.ordenTurnos = new ArrayList<>();
-        this.indiceTurnoActual = 0;
-        determinarOrdenTurnos();
+        this.estado = new EstadoCombate(jugadores.size() + enemigos.size());
+        this.estado.setFuenteAleatoria(aleatorio);
+        this.estado.setIdBatalla(id);
+        this.combatientes = new Combatiente[jugadores.size() + enemigos.size()];
+        this.eventos = new RegistroEventos(combatientes, RegistroEventos.LINEAS_POR_DEFECTO);
+        this.estado.setRegistroEventos(eventos);
+        this.jugadoresVivos = new ConjuntoVivos<>(jugadores.size());
+        this.enemigosVivos = new ConjuntoVivos<>(enemigos.size());
+        for (Jugador j : this.jugadores) {
+            vincular(j);
+            if (j.isEstaVivo()) jugadoresVivos.agregarVivo(j);
+        }
+        for (Combatiente e : this.enemigos) {
+            vincular(e);
+            if (e.isEstaVivo()) enemigosVivos.agregarVivo(e);
+        }
+        this.estado.setReceptorMuertes(this::registrarMuerte);
+        this.planificador = modoTurnos.crear(combatientes, estado, aleatorio, this::terminarRonda);
+    }
+
+    /**
+     * Constructor de una batalla bifurcada. El estado, el registro, el orden de
+     * turnos y los inventarios se comparten con el origen y cada parte se copia
+     * cuando alguna de las dos batallas la cambia.
+     * 
+     * @param origen Batalla bifurcada.
+     */
+    private Batalla(Batalla origen) {
+        this.id = ULTIMO_ID.incrementAndGet();
+        this.aleatorio = origen.aleatorio.copiar();
+        this.modoTurnos = origen.modoTurnos;
+        this.turnoActual = origen.turnoActual;
+        this.batallaActiva = origen.batallaActiva;
+        this.estado = origen.estado.bifurcar();
+        this.estado.setFuenteAleatoria(aleatorio);
+        this.estado.setIdBatalla(id);
+        this.combatientes = new Combatiente[origen.combatientes.length];
+        List<Jugador> copiaJugadores = new ArrayList<>(origen.jugadores.size());
+        for (Jugador j : origen.jugadores) {
+            Jugador copia = j.bifurcar(estado);
+            combatientes[copia.getId()] = copia;
+            copiaJugadores.add(copia);
+        }
+        List<Combatiente> copiaEnemigos = new ArrayList<>(origen.enemigos.size());
+        for (Combatiente e : origen.enemigos) {
+            Combatiente copia = e.bifurcar(estado);
+            combatientes[copia.getId()] = copia;
+            copiaEnemigos.add(copia);
+        }
+        this.jugadores = copiaJugadores;
+        this.enemigos = copiaEnemigos;
+        this.eventos = origen.eventos.bifurcar(combatientes);
+        this.estado.setRegistroEventos(eventos);
+        this.jugadoresVivos = origen.jugadoresVivos.bifurcar(combatientes);
+        this.enemigosVivos = origen.enemigosVivos.bifurcar(combatientes);
+        this.estado.setReceptorMuertes(this::registrarMuerte);
+        this.planificador = origen.planificador.bifurcar(combatientes, estado, this::terminarRonda);
+    }
+
+    /**
+     * Crea una copia independiente de la batalla en su estado actual, para probar
+     * jugadas (búsquedas de la IA, pistas) sin tocar la original. Bifurcar no copia
+     * los arreglos del estado, el registro ni los inventarios: las dos batallas los
+     * comparten y cada una copia una parte recién la primera vez que la cambia, así
+     * que lo que pase en la copia nunca se ve en la original ni al revés.
+     *
+     * La copia tiene su propia fuente aleatoria en la misma posición, así que con
+     * las mismas decisiones sigue igual que la original. No tiene receptores de
+     * eventos (log, historial, métricas), no graba eventos de Flight Recorder y sus
+     * enemigos usan la política aleatoria.
+     * Una batalla y sus copias se pueden usar desde hilos distintos, pero cada una
+     * desde un solo hilo a la vez, y solo se puede bifurcar desde el hilo que la usa.
+     * 
+     * @return Batalla Copia de la batalla.
+     */
+    public Batalla bifurcar() {
+        return new Batalla(this);
     }
 
     /**
      * Inicia la batalla, mostrando mensajes de inicio y determinando el orden de turnos.
      */
     public void iniciarBatalla() {
-        agregarAccion("=== ¡LA BATALLA COMIENZA! ===");
-        jugadores.forEach(j -> agregarAccion(j.desplegarMensajeInicio()));
-        enemigos.forEach(e -> agregarAccion(e.desplegarMensajeInicio()));
-        agregarAccion("=== ORDEN DE TURNOS DETERMINADO ===");
+        agregarEvento(TipoEvento.INICIO_BATALLA, null);
+        for (Jugador j : jugadores) agregarEvento(TipoEvento.PRESENTACION, j);
+        for (Combatiente e : enemigos) agregarEvento(TipoEvento.PRESENTACION, e);
+        agregarEvento(TipoEvento.ORDEN_TURNOS, null);
     }
 
     /**
@@ -53,23 +177,26 @@ public class Batalla {
      * @return Combatiente actual o null si no hay combatientes en el orden de turnos.
      */
     public Combatiente getCombatienteActual() {
-        if (ordenTurnos.isEmpty()) return null;
-        return ordenTurnos.get(indiceTurnoActual % ordenTurnos.size());
+        return planificador.getActual();
     }
 
     /**
-     * Avanza al siguiente turno, actualizando el índice y limpiando efectos temporales.
+     * Avanza al siguiente combatiente vivo. Al cerrar una ronda aumenta el turno
+     * y se aplican los efectos temporales.
+     * Se marca en Flight Recorder con un evento {@link EventosJfr.AvanceTurno}.
      */
     public void avanzarTurno() {
-        indiceTurnoActual++;
-        if (indiceTurnoActual >= ordenTurnos.size()) {
-            indiceTurnoActual = 0;
-            turnoActual++;
-            limpiarEfectosTurnos();
-        }
-        ordenTurnos.removeIf(c -> !c.isEstaVivo());
-        if (indiceTurnoActual >= ordenTurnos.size() && !ordenTurnos.isEmpty()) {
-            indiceTurnoActual = 0;
+        EventosJfr.AvanceTurno evento = new EventosJfr.AvanceTurno();
+        evento.begin();
+        int turno = turnoActual;
+        Combatiente actual = planificador.getActual();
+        planificador.avanzar();
+        if (!estado.isSimulado() && evento.shouldCommit()) {
+            evento.batalla = id;
+            evento.combatiente = actual == null ? null : actual.getNombre();
+            evento.turno = turno;
+            evento.cierraRonda = turnoActual != turno;
+            evento.commit();
         }
     }
 
@@ -79,17 +206,14 @@ public class Batalla {
      * @return true si todos los jugadores o enemigos han caído, false en caso contrario.
      */
     public boolean verificarFinBatalla() {
-        boolean jugadoresVivos = jugadores.stream().anyMatch(Combatiente::isEstaVivo);
-        boolean enemigosVivos = enemigos.stream().anyMatch(Combatiente::isEstaVivo);
-
-        if (!jugadoresVivos) {
-            agregarAccion("=== ¡DERROTA! Todos los jugadores han caído ===");
+        if (jugadoresVivos.isEmpty()) {
+            agregarEvento(TipoEvento.DERROTA, null);
             batallaActiva = false;
             return true;
         }
 
-        if (!enemigosVivos) {
-            agregarAccion("=== ¡VICTORIA! Todos los enemigos han sido derrotados ===");
+        if (enemigosVivos.isEmpty()) {
+            agregarEvento(TipoEvento.VICTORIA, null);
             batallaActiva = false;
             return true;
         }
@@ -98,15 +222,163 @@ public class Batalla {
     }
 
     /**
-     * Agrega una acción al registro de la batalla.
+     * Agrega una acción de texto libre al registro de la batalla.
      * 
      * @param accion Descripción de la acción realizada.
      */
     public void agregarAccion(String accion) {
-        registroAcciones.add("Turno " + (turnoActual + 1) + ": " + accion);
-        if (registroAcciones.size() > 10) {
-            registroAcciones.remove(0);
+        eventos.registrarTexto(accion);
+    }
+
+    /**
+     * Agrega al registro de la batalla un evento sin objetivo ni valores.
+     * 
+     * @param tipo Tipo de evento.
+     * @param actor Combatiente que realiza el evento, o null si no tiene actor.
+     */
+    public void agregarEvento(TipoEvento tipo, Combatiente actor) {
+        eventos.registrar(tipo, actor == null ? EventoBatalla.SIN_COMBATIENTE : actor.getId(),
+                          EventoBatalla.SIN_COMBATIENTE, 0, 0);
+    }
+
+    /**
+     * Ejecuta la decisión de un jugador sobre la batalla.
+     * Se usa tanto desde el controlador como desde las simulaciones sin consola.
+     * 
+     * @param jugador Jugador que actúa.
+     * @param decision Decisión tomada por el jugador.
+     * @return true si la acción se completó, false si no era válida y debe elegirse otra.
+     */
+    public boolean ejecutarDecision(Jugador jugador, DecisionJugador decision) {
+        switch (decision.getAccion()) {
+            case ATACAR:
+                return ejecutarAtaque(jugador, decision.getIndiceObjetivo());
+            case USAR_ITEM:
+                return ejecutarUsoItem(jugador, decision.getIndiceItem(), decision.getIndiceObjetivo());
+            case PASAR:
+                agregarEvento(TipoEvento.PASAR, jugador);
+                return true;
+            case HUIR:
+                agregarEvento(TipoEvento.HUIR, jugador);
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Ejecuta el turno de un enemigo contra los jugadores vivos. La acción la
+     * elige la política de enemigos de la batalla.
+     * 
+     * @param enemigo Enemigo que tiene el turno.
+     */
+    public void ejecutarTurnoEnemigo(Combatiente enemigo) {
+        // Copia: los jugadores que mueran en este turno salen de la vista, pero hay que anunciarlos
+        List<Combatiente> objetivos = objetivosAccion;
+        objetivos.clear();
+        objetivos.addAll(jugadoresVivos);
+        if (enemigo instanceof Enemigo) {
+            ((Enemigo) enemigo).tomarTurnoEntreVivos(objetivos, politicaEnemigos, this, decisionEnemigo);
+        } else {
+            enemigo.tomarTurno(objetivos);
+        }
+        anunciarMuertes(objetivos);
+    }
+
+    /**
+     * Ejecuta una decisión ya tomada para el turno de un enemigo, sin consultar a
+     * la política. Sirve para probar acciones en copias de la batalla.
+     * 
+     * @param enemigo Enemigo que tiene el turno.
+     * @param decision Decisión a ejecutar; el objetivo es un índice en los jugadores vivos.
+     * @return true si la acción se realizó.
+     */
+    public boolean ejecutarDecisionEnemigo(Enemigo enemigo, DecisionEnemigo decision) {
+        List<Combatiente> objetivos = objetivosAccion;
+        objetivos.clear();
+        objetivos.addAll(jugadoresVivos);
+        boolean realizada = enemigo.isEstaVivo() && !objetivos.isEmpty() && enemigo.ejecutarDecision(decision, objetivos);
+        anunciarMuertes(objetivos);
+        return realizada;
+    }
+
+    /**
+     * Anota la muerte de los combatientes de una lista que ya no están vivos.
+     * 
+     * @param objetivos Objetivos de la acción recién ejecutada.
+     */
+    private void anunciarMuertes(List<Combatiente> objetivos) {
+        for (Combatiente jugador : objetivos) {
+            if (!jugador.isEstaVivo()) agregarEvento(TipoEvento.MUERTE, jugador);
+        }
+    }
+
+    /**
+     * Cambia cómo eligen los enemigos su acción. La política no se guarda en las
+     * instantáneas; una batalla restaurada usa la aleatoria hasta que se le asigne otra.
+     * 
+     * @param politicaEnemigos Política de los enemigos, o null para la aleatoria de siempre.
+     */
+    public void setPoliticaEnemigos(PoliticaEnemigo politicaEnemigos) {
+        this.politicaEnemigos = politicaEnemigos == null ? Enemigo.POLITICA_ALEATORIA : politicaEnemigos;
+    }
+
+    /**
+     * Indica si un ítem necesita que el jugador elija a qué aliado aplicarlo.
+     * 
+     * @param item Ítem a usar.
+     * @return true si el ítem es de un solo objetivo y hay más de un aliado vivo.
+     */
+    public boolean requiereElegirAliado(Item item) {
+        return !(item instanceof KitCuracion) && !(item instanceof BombaHumo)
+                && jugadoresVivos.size() > 1;
+    }
+
+    /**
+     * Ataca al enemigo vivo indicado.
+     * 
+     * @param jugador Jugador que ataca.
+     * @param indiceObjetivo Índice del enemigo dentro de los enemigos vivos.
+     * @return true si el ataque se realizó.
+     */
+    private boolean ejecutarAtaque(Jugador jugador, int indiceObjetivo) {
+        if (indiceObjetivo < 0 || indiceObjetivo >= enemigosVivos.size()) return false;
+
+        Combatiente objetivo = enemigosVivos.get(indiceObjetivo);
+        jugador.atacar(objetivo);
+
+        if (!objetivo.isEstaVivo()) {
+            agregarEvento(TipoEvento.MUERTE, objetivo);
         }
+        return true;
+    }
+
+    /**
+     * Usa un ítem del inventario del jugador sobre los objetivos que le correspondan.
+     * 
+     * @param jugador Jugador que usa el ítem.
+     * @param indiceItem Índice del ítem en el inventario.
+     * @param indiceObjetivo Índice del aliado vivo para ítems de un solo objetivo.
+     * @return true si el ítem se usó.
+     */
+    private boolean ejecutarUsoItem(Jugador jugador, int indiceItem, int indiceObjetivo) {
+        if (indiceItem < 0 || indiceItem >= jugador.getTamanoInventario()) return false;
+
+        Item item = jugador.getItem(indiceItem);
+        // Copia: el ítem recorre sus objetivos y podría matar a alguno
+        List<Combatiente> objetivos = objetivosAccion;
+        objetivos.clear();
+        if (item instanceof KitCuracion) objetivos.addAll(jugadoresVivos);
+        else if (item instanceof BombaHumo) objetivos.addAll(enemigosVivos);
+        else {
+            if (jugadoresVivos.size() == 1) objetivos.add(jugadoresVivos.get(0));
+            else if (indiceObjetivo >= 0 && indiceObjetivo < jugadoresVivos.size()) objetivos.add(jugadoresVivos.get(indiceObjetivo));
+        }
+
+        if (objetivos.isEmpty()) return false;
+
+        jugador.usarItem(item, objetivos);
+        return true;
     }
 
     /**
@@ -119,84 +391,208 @@ public class Batalla {
         sb.append("\n=== ESTADO DE LA BATALLA ===\n");
         sb.append("Turno: ").append(turnoActual + 1).append("\n\n");
         sb.append("JUGADORES:\n");
-        jugadores.forEach(j -> sb.append("  ").append(j.toString()).append("\n"));
+        for (Jugador jugador : jugadores) {
+            sb.append("  ");
+            jugador.describir(sb);
+            sb.append('\n');
+        }
         sb.append("\nENEMIGOS:\n");
-        enemigos.forEach(e -> sb.append("  ").append(e.toString()).append("\n"));
+        for (Combatiente enemigo : enemigos) {
+            sb.append("  ");
+            enemigo.describir(sb);
+            sb.append('\n');
+        }
         return sb.toString();
     }
 
     /**
      * Obtiene los últimos registros de acciones realizadas en la batalla.
+     * El texto se arma en este momento a partir de los eventos guardados.
      * 
      * @return Lista de las últimas acciones registradas.
      */
     public List<String> getUltimosRegistros() {
-        return new ArrayList<>(registroAcciones.subList(
-            Math.max(0, registroAcciones.size() - 3), registroAcciones.size()));
+        return eventos.ultimasLineas(3);
     }
 
     /**
-     * Obtiene una lista de jugadores vivos.
+     * Obtiene los jugadores vivos.
+     * Es una vista de solo lectura que se actualiza sola cuando alguien muere;
+     * para recorrerla mientras se reparte daño hay que copiarla.
      * 
      * @return Lista de jugadores que aún están vivos.
      */
     public List<Jugador> getJugadoresVivos() {
-        return jugadores.stream()
-                       .filter(Combatiente::isEstaVivo)
-                       .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        return jugadoresVivos;
     }
 
     /**
-     * Obtiene una lista de enemigos vivos.
+     * Obtiene los enemigos vivos.
+     * Es una vista de solo lectura que se actualiza sola cuando alguien muere;
+     * para recorrerla mientras se reparte daño hay que copiarla.
      * 
      * @return Lista de enemigos que aún están vivos.
      */
     public List<Combatiente> getEnemigosVivos() {
-        return enemigos.stream()
-                      .filter(Combatiente::isEstaVivo)
-                      .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        return enemigosVivos;
+    }
+
+    /**
+     * Quita de los vivos a un combatiente que acaba de morir.
+     * 
+     * @param id Id del combatiente.
+     */
+    private void registrarMuerte(int id) {
+        if (id < jugadores.size()) jugadoresVivos.quitar(combatientes[id]);
+        else enemigosVivos.quitar(combatientes[id]);
+    }
+
+    /**
+     * Copia el estado de un combatiente al estado de la batalla.
+     * 
+     * @param c Combatiente que entra a la batalla.
+     */
+    private void vincular(Combatiente c) {
+        c.vincular(estado);
+        combatientes[c.getId()] = c;
     }
 
     /**
-     * Determina el orden de turnos de los combatientes.
-     * Los turnos se asignan aleatoriamente para mayor variedad.
+     * Cierra una ronda: aumenta el turno y aplica los efectos temporales.
+     * Si uno de los bandos ya cayó la batalla terminó y la ronda no se cierra.
      */
-    private void determinarOrdenTurnos() {
-        ordenTurnos.addAll(jugadores);
-        ordenTurnos.addAll(enemigos);
-        Collections.shuffle(ordenTurnos);
+    private void terminarRonda() {
+        if (jugadoresVivos.isEmpty() || enemigosVivos.isEmpty()) return;
+        turnoActual++;
+        eventos.setTurno(turnoActual);
+        limpiarEfectosTurnos();
     }
 
     /**
      * Limpia los efectos temporales de los combatientes al final de un turno.
      */
     private void limpiarEfectosTurnos() {
-        jugadores.forEach(Jugador::actualizarEfectosTurnos);
-        ordenTurnos.forEach(this::procesarEfectosContinuos);
+        estado.avanzarTurnoEfectos();
+        int continuos = Efecto.QUEMADO.getBit() | Efecto.REGENERACION.getBit();
+        for (int id = estado.siguienteVivo(0, combatientes.length); id >= 0;
+             id = estado.siguienteVivo(id + 1, combatientes.length)) {
+            if ((estado.getMascaraEfectos(id) & continuos) != 0) {
+                procesarEfectosContinuos(combatientes[id]);
+            }
+        }
     }
 
     /**
      * Procesa efectos continuos como daño o regeneración en un combatiente.
+     * Cada pila de un efecto se aplica por separado.
      * 
      * @param c Combatiente al que se aplican los efectos.
      */
     private void procesarEfectosContinuos(Combatiente c) {
-        List<String> efectos = new ArrayList<>(c.getEfectosActivos());
-        for (String efecto : efectos) {
-            if (efecto.contains("Quemado")) {
-                c.recibirDano(2);
-                agregarAccion(c.getNombre() + " recibe 2 de daño por estar quemado");
-            } else if (efecto.contains("Regeneración")) {
-                c.curar(10);
-                agregarAccion(c.getNombre() + " se regenera 10 HP");
+        int quemaduras = c.getPilasEfecto(Efecto.QUEMADO);
+        for (int i = 0; i < quemaduras; i++) {
+            c.recibirDano(2);
+            eventos.registrar(TipoEvento.QUEMADURA, c.getId(), EventoBatalla.SIN_COMBATIENTE, 2, 0);
+        }
+        int regeneraciones = c.getPilasEfecto(Efecto.REGENERACION);
+        for (int i = 0; i < regeneraciones; i++) {
+            c.curar(10);
+            eventos.registrar(TipoEvento.REGENERACION, c.getId(), EventoBatalla.SIN_COMBATIENTE, 10, 0);
+        }
+    }
+
+    /**
+     * Calcula una huella del estado de la batalla: combatientes, inventarios, turno
+     * y posición de la fuente aleatoria. Sirve para comprobar que una repetición
+     * terminó igual que la batalla original.
+     *
+     * @return long Huella del estado.
+     */
+    public long huellaEstado() {
+        long huella = EstadoCombate.mezclarHuella(estado.huella(), turnoActual);
+        for (Jugador jugador : jugadores) {
+            for (Item item : jugador.getInventario()) {
+                huella = EstadoCombate.mezclarHuella(huella, item.getNombre().hashCode());
+                huella = EstadoCombate.mezclarHuella(huella, item.getCantidad());
             }
         }
+        return EstadoCombate.mezclarHuella(huella, aleatorio.getPosicion());
+    }
+
+    /**
+     * Escribe en un buffer todo lo que cambia durante la batalla: turno, fuente
+     * aleatoria, combatientes con sus efectos, orden de turnos, registro de eventos
+     * e inventarios. Los combatientes en sí los escribe InstantaneaBatalla.
+     *
+     * @param destino Buffer de la instantánea.
+     * @throws java.nio.BufferOverflowException si el buffer no alcanza.
+     */
+    void guardar(ByteBuffer destino) {
+        destino.putInt(turnoActual).put((byte) (batallaActiva ? 1 : 0));
+        destino.putLong(aleatorio.getPosicion()).putLong(aleatorio.getGamma());
+        estado.guardar(destino);
+        planificador.guardar(destino);
+        eventos.guardar(destino);
+        for (Jugador jugador : jugadores) InstantaneaBatalla.escribirInventario(destino, jugador.getInventario());
+    }
+
+    /**
+     * Reemplaza el estado de la batalla por uno escrito con {@link #guardar(ByteBuffer)}
+     * en una batalla con los mismos combatientes y modo de turnos.
+     *
+     * @param origen Buffer de la instantánea.
+     */
+    void restaurar(ByteBuffer origen) {
+        turnoActual = origen.getInt();
+        batallaActiva = origen.get() != 0;
+        long posicion = origen.getLong();
+        aleatorio.restaurar(posicion, origen.getLong());
+        estado.restaurar(origen);
+        planificador.restaurar(origen);
+        eventos.restaurar(origen);
+        for (Jugador jugador : jugadores) jugador.reemplazarInventario(InstantaneaBatalla.leerInventario(origen));
+
+        // Los vivos de cada bando salen del estado restaurado, en orden de id
+        jugadoresVivos.vaciar();
+        for (Jugador j : jugadores) {
+            if (j.isEstaVivo()) jugadoresVivos.agregarVivo(j);
+        }
+        enemigosVivos.vaciar();
+        for (Combatiente e : enemigos) {
+            if (e.isEstaVivo()) enemigosVivos.agregarVivo(e);
+        }
+    }
+
+    /**
+     * Vuelve a empezar la batalla con los mismos combatientes, como si se creara de
+     * nuevo con la fuente {@code sorteo}: deja la vida, los efectos, el registro y los
+     * inventarios como los guarda {@code inicio}, pasa la fuente de la batalla a la
+     * posición de {@code sorteo} y sortea otra vez el orden de turnos. Así se pueden
+     * jugar muchas batallas con el mismo reparto sin crear combatientes nuevos.
+     *
+     * @param inicio Instantánea de esta batalla capturada recién creada.
+     * @param sorteo Fuente con la que se hubiera creado la batalla; no se avanza.
+     * @throws IllegalArgumentException si la instantánea es de otra batalla.
+     */
+    public void reiniciar(InstantaneaBatalla inicio, FuenteAleatoria sorteo) {
+        inicio.restaurar(this);
+        turnoActual = 0;
+        eventos.setTurno(0);
+        aleatorio.restaurar(sorteo.getPosicion(), sorteo.getGamma());
+        planificador.reiniciar(aleatorio);
     }
 
     // Getters
+    public long getId() { return id; }
     public boolean isBatallaActiva() { return batallaActiva; }
+    public FuenteAleatoria getFuenteAleatoria() { return aleatorio; }
+    public EstadoCombate getEstado() { return estado; }
+    public RegistroEventos getRegistroEventos() { return eventos; }
+    public Combatiente getCombatiente(int id) { return combatientes[id]; }
     public int getTurnoActual() { return turnoActual; }
-    public List<Jugador> getJugadores() { return new ArrayList<>(jugadores); }
-    public List<Combatiente> getEnemigos() { return new ArrayList<>(enemigos); }
-    public List<Combatiente> getOrdenTurnos() { return new ArrayList<>(ordenTurnos); }
+    public List<Jugador> getJugadores() { return Collections.unmodifiableList(jugadores); }
+    public List<Combatiente> getEnemigos() { return Collections.unmodifiableList(enemigos); }
+    public List<Combatiente> getOrdenTurnos() { return planificador.getOrden(); }
+    public ModoTurnos getModoTurnos() { return modoTurnos; }
+    public PoliticaEnemigo getPoliticaEnemigos() { return politicaEnemigos; }
 }
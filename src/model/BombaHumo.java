@@ -27,31 +27,31 @@ public class BombaHumo extends Item {
     }
     /**
      * Usa la Bomba de Humo en una lista de combatientes.
+     * @param usuario Combatiente que lanza la bomba.
      * @param objetivos Lista de combatientes a los que se les aplicará el efecto.
-     * @return Mensaje indicando el resultado del uso del ítem.
+     * @return true si confundió al menos a un enemigo.
      */
     @Override
-    public String usar(List<Combatiente> objetivos) {
-        StringBuilder resultado = new StringBuilder();
-        resultado.append("¡Se lanza una Bomba de Humo!");
+    public boolean usar(Combatiente usuario, List<Combatiente> objetivos) {
+        usuario.registrarEvento(TipoEvento.BOMBA_HUMO, null, 0, 0);
         
-        Random rand = new Random();
+        FuenteAleatoria rand = aleatorio();
         int enemigosAfectados = 0;
         
         for (Combatiente c : objetivos) {
             if (c.isEstaVivo() && c instanceof Enemigo) {
                 if (rand.nextInt(100) < efectividad) {
-                    c.aplicarEfecto("Confundido (50% de fallar ataques)");
-                    resultado.append(String.format(" %s queda confundido!", c.getNombre()));
+                    c.aplicarEfecto(Efecto.CONFUNDIDO);
+                    usuario.registrarEvento(TipoEvento.BOMBA_HUMO_CONFUNDE, c, 0, 0);
                     enemigosAfectados++;
                 }
             }
         }
         
         if (enemigosAfectados == 0) {
-            resultado.append(" Pero no afecta a ningún enemigo...");
+            usuario.registrarEvento(TipoEvento.BOMBA_HUMO_VACIA, null, 0, 0);
         }
         
-        return resultado.toString();
+        return enemigosAfectados > 0;
     }
 }
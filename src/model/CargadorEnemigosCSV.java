@@ -0,0 +1,460 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Clase CargadorEnemigosCSV.
+ * Carga enemigos desde un archivo CSV con líneas {@code tipo,jefe[,nombre[,vida[,ataque]]]}.
+ * El archivo se mapea en memoria y se divide en bloques que terminan en un fin
+ * de línea, de modo que cada bloque se puede leer en un hilo distinto.
+ * Las columnas se comparan byte a byte; solo se crea un String para el nombre.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-15
+ */
+public final class CargadorEnemigosCSV {
+
+    /** Tamaño aproximado de cada bloque del archivo */
+    public static final int TAMANO_BLOQUE_POR_DEFECTO = 8 << 20;
+
+    /**
+     * Error encontrado en una línea del archivo.
+     */
+    public static final class ErrorLinea {
+        private final long linea;
+        private final String mensaje;
+
+        /**
+         * Constructor de ErrorLinea.
+         * @param linea Número de línea (empieza en 1).
+         * @param mensaje Descripción del error.
+         */
+        public ErrorLinea(long linea, String mensaje) {
+            this.linea = linea;
+            this.mensaje = mensaje;
+        }
+
+        /**
+         * Obtiene el número de línea.
+         * @return long Número de línea (empieza en 1).
+         */
+        public long getLinea() { return linea; }
+
+        /**
+         * Obtiene la descripción del error.
+         * @return String Mensaje del error.
+         */
+        public String getMensaje() { return mensaje; }
+
+        @Override
+        public String toString() {
+            return "línea " + linea + ": " + mensaje;
+        }
+    }
+
+    private final FileChannel canal;
+    /** El bloque i va desde limites[i] hasta limites[i + 1] */
+    private final long[] limites;
+    /** Líneas que hay antes de cada bloque; se calculan solo si hay errores */
+    private final long[] lineasAntes;
+    private int bloquesContados;
+    private final Consumer<ErrorLinea> receptorErrores;
+
+    private CargadorEnemigosCSV(FileChannel canal, int tamanoBloque,
+                                Consumer<ErrorLinea> receptorErrores) throws IOException {
+        this.canal = canal;
+        this.receptorErrores = receptorErrores;
+        this.limites = calcularLimites(tamanoBloque);
+        this.lineasAntes = new long[limites.length - 1];
+        this.bloquesContados = 1;
+    }
+
+    /**
+     * Carga los enemigos de un archivo con el tamaño de bloque por defecto.
+     * @param archivo Ruta del archivo.
+     * @param receptorErrores Recibe los errores de cada línea; puede llamarse desde varios hilos.
+     * @return Stream paralelo y ordenado de enemigos; hay que cerrarlo para liberar el archivo.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    public static Stream<Combatiente> cargar(Path archivo, Consumer<ErrorLinea> receptorErrores)
+            throws IOException {
+        return cargar(archivo, TAMANO_BLOQUE_POR_DEFECTO, receptorErrores);
+    }
+
+    /**
+     * Carga los enemigos de un archivo.
+     * Las líneas que no se pueden leer se informan al receptor y se omiten.
+     * El stream es paralelo; se puede pasar a secuencial con {@code sequential()}.
+     * @param archivo Ruta del archivo.
+     * @param tamanoBloque Tamaño aproximado de cada bloque en bytes.
+     * @param receptorErrores Recibe los errores de cada línea; puede llamarse desde varios hilos.
+     * @return Stream paralelo y ordenado de enemigos; hay que cerrarlo para liberar el archivo.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    public static Stream<Combatiente> cargar(Path archivo, int tamanoBloque,
+                                             Consumer<ErrorLinea> receptorErrores) throws IOException {
+        CargadorEnemigosCSV cargador = abrir(archivo, tamanoBloque, receptorErrores);
+        return cargador.recorrer(cargador.new BloquesEnemigos(0, cargador.lineasAntes.length));
+    }
+
+    /**
+     * Lee los registros de un archivo sin crear los enemigos (por ejemplo, para convertirlo).
+     * @param archivo Ruta del archivo.
+     * @param receptorErrores Recibe los errores de cada línea; puede llamarse desde varios hilos.
+     * @return Stream paralelo y ordenado de registros; hay que cerrarlo para liberar el archivo.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    public static Stream<RegistroEnemigo> leerRegistros(Path archivo, Consumer<ErrorLinea> receptorErrores)
+            throws IOException {
+        CargadorEnemigosCSV cargador = abrir(archivo, TAMANO_BLOQUE_POR_DEFECTO, receptorErrores);
+        return cargador.recorrer(cargador.new BloquesRegistros(0, cargador.lineasAntes.length));
+    }
+
+    private static CargadorEnemigosCSV abrir(Path archivo, int tamanoBloque,
+                                             Consumer<ErrorLinea> receptorErrores) throws IOException {
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + tamanoBloque);
+        }
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        try {
+            return new CargadorEnemigosCSV(canal, tamanoBloque, receptorErrores);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private <T> Stream<T> recorrer(Spliterator<T> bloques) {
+        return StreamSupport.stream(bloques, true).onClose(() -> {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Divide el archivo en bloques que empiezan justo después de un fin de línea.
+     */
+    private long[] calcularLimites(int tamanoBloque) throws IOException {
+        long tamano = canal.size();
+        ByteBuffer ventana = ByteBuffer.allocate(4096);
+        List<Long> limites = new ArrayList<>();
+        long posicion = saltarMarcaBOM(ventana);
+        limites.add(posicion);
+        while (tamano - posicion > tamanoBloque) {
+            long fin = buscarFinLinea(posicion + tamanoBloque, tamano, ventana);
+            if (fin - posicion > Integer.MAX_VALUE) {
+                throw new IOException("Línea demasiado larga cerca del byte " + posicion);
+            }
+            if (fin >= tamano) break;
+            limites.add(fin);
+            posicion = fin;
+        }
+        if (tamano - posicion > Integer.MAX_VALUE) {
+            throw new IOException("Línea demasiado larga cerca del byte " + posicion);
+        }
+        limites.add(tamano);
+
+        long[] resultado = new long[limites.size()];
+        for (int i = 0; i < resultado.length; i++) resultado[i] = limites.get(i);
+        return resultado;
+    }
+
+    private long saltarMarcaBOM(ByteBuffer ventana) throws IOException {
+        ventana.clear().limit(3);
+        canal.read(ventana, 0);
+        boolean bom = ventana.position() == 3 && ventana.get(0) == (byte) 0xEF
+            && ventana.get(1) == (byte) 0xBB && ventana.get(2) == (byte) 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    /**
+     * Busca la posición siguiente al primer fin de línea desde una posición.
+     * @return long Posición después del '\n', o el tamaño del archivo si no hay más.
+     */
+    private long buscarFinLinea(long desde, long tamano, ByteBuffer ventana) throws IOException {
+        long posicion = desde;
+        while (posicion < tamano) {
+            ventana.clear();
+            int leidos = canal.read(ventana, posicion);
+            if (leidos <= 0) break;
+            for (int i = 0; i < leidos; i++) {
+                if (ventana.get(i) == '\n') return posicion + i + 1;
+            }
+            posicion += leidos;
+        }
+        return tamano;
+    }
+
+    private MappedByteBuffer mapear(int bloque) {
+        try {
+            return canal.map(FileChannel.MapMode.READ_ONLY, limites[bloque], limites[bloque + 1] - limites[bloque]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calcula el número de línea real a partir de la línea dentro de un bloque.
+     * Los saltos de línea de los bloques anteriores se cuentan solo la primera vez
+     * que se necesitan, así que un archivo sin errores no se recorre dos veces.
+     */
+    private synchronized long numeroLinea(int bloque, long lineaEnBloque) {
+        while (bloquesContados <= bloque) {
+            int anterior = bloquesContados - 1;
+            MappedByteBuffer datos = mapear(anterior);
+            long saltos = 0;
+            for (int i = 0, fin = datos.limit(); i < fin; i++) {
+                if (datos.get(i) == '\n') saltos++;
+            }
+            lineasAntes[bloquesContados++] = lineasAntes[anterior] + saltos;
+        }
+        return lineasAntes[bloque] + lineaEnBloque;
+    }
+
+    /**
+     * Recorre un rango de bloques. Se divide por bloques completos, así que cada
+     * parte se lee en un solo hilo y los enemigos de un bloque comparten estado.
+     * Cada línea válida deja sus columnas en los campos tipo, esJefe, nombre,
+     * vida y ataque, y la subclase construye el elemento con ellas.
+     */
+    private abstract class Bloques<T> implements Spliterator<T> {
+        private int bloque;
+        private final int hasta;
+        private MappedByteBuffer actual;
+        private long lineaEnBloque;
+        private byte[] linea = new byte[128];
+
+        protected EstadoCombate estado;
+        protected TipoEnemigo tipo;
+        protected boolean esJefe;
+        protected String nombre;
+        protected int vida;
+        protected int ataque;
+
+        Bloques(int desde, int hasta) {
+            this.bloque = desde;
+            this.hasta = hasta;
+        }
+
+        /** Construye el elemento de la línea recién leída. */
+        protected abstract T construir();
+
+        /** Crea un recorrido del mismo tipo para otro rango de bloques. */
+        protected abstract Bloques<T> nuevo(int desde, int hasta);
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> accion) {
+            while (true) {
+                if (actual == null) {
+                    if (bloque >= hasta) return false;
+                    actual = mapear(bloque);
+                    estado = new EstadoCombate(64);
+                    lineaEnBloque = 0;
+                }
+                while (actual.hasRemaining()) {
+                    int largo = leerLinea();
+                    if (parsearLinea(largo)) {
+                        accion.accept(construir());
+                        return true;
+                    }
+                }
+                actual = null;
+                estado = null;
+                bloque++;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (actual != null || hasta - bloque < 2) return null;
+            int mitad = bloque + (hasta - bloque) / 2;
+            Bloques<T> prefijo = nuevo(bloque, mitad);
+            bloque = mitad;
+            return prefijo;
+        }
+
+        @Override
+        public long estimateSize() {
+            return actual == null && bloque >= hasta ? 0 : Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        /**
+         * Copia la siguiente línea (sin el fin de línea) al buffer reutilizable.
+         * @return int Largo de la línea.
+         */
+        private int leerLinea() {
+            int inicio = actual.position();
+            int limite = actual.limit();
+            int fin = inicio;
+            while (fin < limite && actual.get(fin) != '\n') fin++;
+
+            int largo = fin - inicio;
+            if (largo > linea.length) linea = new byte[Math.max(largo, linea.length * 2)];
+            actual.get(linea, 0, largo);
+            if (fin < limite) actual.get();
+            lineaEnBloque++;
+
+            if (largo > 0 && linea[largo - 1] == '\r') largo--;
+            return largo;
+        }
+
+        /**
+         * Lee las columnas de una línea, o informa el error.
+         * @return boolean true si la línea tiene un enemigo válido.
+         */
+        private boolean parsearLinea(int largo) {
+            int inicioTipo = saltarEspacios(0, largo);
+            if (inicioTipo == largo) return false;
+
+            int coma1 = buscarComa(inicioTipo, largo);
+            if (coma1 == largo) {
+                return error("faltan columnas, se esperaba tipo,jefe[,nombre[,vida[,ataque]]]");
+            }
+            int finTipo = recortarEspacios(inicioTipo, coma1);
+            tipo = TipoEnemigo.desdeBytes(linea, inicioTipo, finTipo);
+            if (tipo == null) {
+                return error("tipo de enemigo desconocido '" + texto(inicioTipo, finTipo) + "'");
+            }
+
+            int coma2 = buscarComa(coma1 + 1, largo);
+            int inicioJefe = saltarEspacios(coma1 + 1, coma2);
+            int finJefe = recortarEspacios(inicioJefe, coma2);
+            int jefe = leerBooleano(inicioJefe, finJefe);
+            if (jefe < 0) {
+                return error("valor de jefe no válido '" + texto(inicioJefe, finJefe) + "'");
+            }
+            esJefe = jefe == 1;
+
+            nombre = null;
+            vida = RegistroEnemigo.SIN_AJUSTE;
+            ataque = RegistroEnemigo.SIN_AJUSTE;
+            if (coma2 == largo) return true;
+
+            int coma3 = buscarComa(coma2 + 1, largo);
+            int inicioNombre = saltarEspacios(coma2 + 1, coma3);
+            int finNombre = recortarEspacios(inicioNombre, coma3);
+            if (finNombre > inicioNombre) nombre = texto(inicioNombre, finNombre);
+            if (coma3 == largo) return true;
+
+            int coma4 = buscarComa(coma3 + 1, largo);
+            vida = leerEntero(coma3 + 1, coma4);
+            if (vida < 0) return error("vida no válida '" + texto(coma3 + 1, coma4).trim() + "'");
+            if (coma4 == largo) return true;
+
+            ataque = leerEntero(coma4 + 1, largo);
+            if (ataque < 0) return error("ataque no válido '" + texto(coma4 + 1, largo).trim() + "'");
+            return true;
+        }
+
+        /**
+         * Lee un entero positivo; una columna vacía es SIN_AJUSTE.
+         * @return int Valor leído, o -1 si no es válido.
+         */
+        private int leerEntero(int desde, int hasta) {
+            desde = saltarEspacios(desde, hasta);
+            hasta = recortarEspacios(desde, hasta);
+            if (desde == hasta) return RegistroEnemigo.SIN_AJUSTE;
+            if (hasta - desde > 9) return -1;
+            int valor = 0;
+            for (int i = desde; i < hasta; i++) {
+                int digito = linea[i] - '0';
+                if (digito < 0 || digito > 9) return -1;
+                valor = valor * 10 + digito;
+            }
+            return valor;
+        }
+
+        /**
+         * Lee true/si/1 o false/no/0 sin distinguir mayúsculas.
+         * @return int 1 si es verdadero, 0 si es falso, -1 si no es válido.
+         */
+        private int leerBooleano(int desde, int hasta) {
+            if (igual(desde, hasta, "true") || igual(desde, hasta, "si") || igual(desde, hasta, "1")) return 1;
+            if (igual(desde, hasta, "false") || igual(desde, hasta, "no") || igual(desde, hasta, "0")) return 0;
+            return -1;
+        }
+
+        private boolean igual(int desde, int hasta, String claveMinusculas) {
+            if (hasta - desde != claveMinusculas.length()) return false;
+            for (int i = 0; i < claveMinusculas.length(); i++) {
+                if ((linea[desde + i] | 0x20) != claveMinusculas.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        private int buscarComa(int desde, int hasta) {
+            while (desde < hasta && linea[desde] != ',') desde++;
+            return desde;
+        }
+
+        private int saltarEspacios(int desde, int hasta) {
+            while (desde < hasta && (linea[desde] == ' ' || linea[desde] == '\t')) desde++;
+            return desde;
+        }
+
+        private int recortarEspacios(int desde, int hasta) {
+            while (hasta > desde && (linea[hasta - 1] == ' ' || linea[hasta - 1] == '\t')) hasta--;
+            return hasta;
+        }
+
+        private String texto(int desde, int hasta) {
+            return new String(linea, desde, hasta - desde, StandardCharsets.UTF_8);
+        }
+
+        private boolean error(String mensaje) {
+            receptorErrores.accept(new ErrorLinea(numeroLinea(bloque, lineaEnBloque), mensaje));
+            return false;
+        }
+    }
+
+    /** Recorrido que crea los enemigos directamente. */
+    private final class BloquesEnemigos extends Bloques<Combatiente> {
+        BloquesEnemigos(int desde, int hasta) { super(desde, hasta); }
+
+        @Override
+        protected Combatiente construir() {
+            return RegistroEnemigo.crear(tipo, esJefe, nombre, vida, ataque, estado);
+        }
+
+        @Override
+        protected Bloques<Combatiente> nuevo(int desde, int hasta) {
+            return new BloquesEnemigos(desde, hasta);
+        }
+    }
+
+    /** Recorrido que devuelve los registros sin crear enemigos. */
+    private final class BloquesRegistros extends Bloques<RegistroEnemigo> {
+        BloquesRegistros(int desde, int hasta) { super(desde, hasta); }
+
+        @Override
+        protected RegistroEnemigo construir() {
+            return new RegistroEnemigo(tipo, esJefe, nombre, vida, ataque);
+        }
+
+        @Override
+        protected Bloques<RegistroEnemigo> nuevo(int desde, int hasta) {
+            return new BloquesRegistros(desde, hasta);
+        }
+    }
+}
@@ -6,42 +6,57 @@ import java.util.*;
  * Clase abstracta Combatiente.
  * Representa un combatiente en la batalla, ya sea un jugador o un enemigo.
  * Define atributos y métodos comunes para todos los combatientes.
+ * La vida, el ataque y los efectos se guardan en un EstadoCombate; el objeto es una
+ * vista sobre la posición id de ese estado.
  * 
  * @author Carlos Altán
  * @since 2025-09-28
  */
-public abstract class Combatiente {
+public abstract class Combatiente implements Cloneable {
+    /** Velocidad de los combatientes que no definen una propia */
+    public static final int VELOCIDAD_BASE = 20;
+
     protected String nombre;
-    protected int vidaMaxima;
-    protected int vidaActual;
-    protected int ataqueBase;
-    protected boolean estaVivo;
-    protected List<String> efectosActivos;
+    protected EstadoCombate estado;
+    protected int id;
 
     /**
      * Constructor de Combatiente.
-     * Inicializa los atributos básicos del combatiente.
+     * Inicializa los atributos básicos del combatiente en un estado de reserva
+     * compartido con otros combatientes sueltos.
      * 
      * @param nombre Nombre del combatiente.
      * @param vida Vida máxima del combatiente.
      * @param ataque Ataque base del combatiente.
      */
     public Combatiente(String nombre, int vida, int ataque) {
+        this(nombre, vida, ataque, EstadoCombate.paraCombatienteSuelto());
+    }
+
+    /**
+     * Constructor de Combatiente que guarda su estado en un estado compartido.
+     * Sirve para crear muchos combatientes sin un estado propio para cada uno.
+     * 
+     * @param nombre Nombre del combatiente.
+     * @param vida Vida máxima del combatiente.
+     * @param ataque Ataque base del combatiente.
+     * @param estado Estado donde se agrega el combatiente.
+     */
+    protected Combatiente(String nombre, int vida, int ataque, EstadoCombate estado) {
         this.nombre = nombre;
-        this.vidaMaxima = vida;
-        this.vidaActual = vida;
-        this.ataqueBase = ataque;
-        this.estaVivo = true;
-        this.efectosActivos = new ArrayList<>();
+        this.estado = estado;
+        this.id = estado.agregar(vida, vida, ataque);
     }
 
     /**
      * Método abstracto para que el combatiente tome su turno.
      * 
+     * La acción se anota en el registro de eventos del estado, si tiene uno.
+     * 
      * @param objetivos Lista de objetivos disponibles.
-     * @return Descripción de la acción realizada.
+     * @return true si el combatiente realizó una acción.
      */
-    public abstract String tomarTurno(List<Combatiente> objetivos);
+    public abstract boolean tomarTurno(List<Combatiente> objetivos);
 
     /**
      * Método abstracto para mostrar el mensaje de inicio del combatiente.
@@ -61,26 +76,26 @@ public abstract class Combatiente {
      * Método abstracto para realizar una habilidad especial.
      * 
      * @param objetivos Lista de objetivos disponibles.
-     * @return Descripción de la habilidad especial realizada.
+     * @return true si la habilidad se realizó.
      */
-    public abstract String habilidadEspecial(List<Combatiente> objetivos);
+    public abstract boolean habilidadEspecial(List<Combatiente> objetivos);
 
     /**
      * Realiza un ataque básico contra un objetivo.
      * 
      * @param objetivo Combatiente objetivo del ataque.
-     * @return Descripción del ataque realizado.
+     * @return true si el ataque se realizó.
      */
-    public String atacar(Combatiente objetivo) {
-        if (!this.estaVivo || !objetivo.estaVivo) {
-            return "";
+    public boolean atacar(Combatiente objetivo) {
+        if (!isEstaVivo() || !objetivo.isEstaVivo()) {
+            return false;
         }
 
         int dano = calcularDanoAtaque();
         objetivo.recibirDano(dano);
 
-        return String.format("%s ataca a %s causando %d de daño!", 
-                             this.nombre, objetivo.nombre, dano);
+        registrarEvento(TipoEvento.ATAQUE, objetivo, dano, 0);
+        return true;
     }
 
     /**
@@ -89,10 +104,18 @@ public abstract class Combatiente {
      * @param dano Cantidad de daño recibido.
      */
     public void recibirDano(int dano) {
-        this.vidaActual = Math.max(0, this.vidaActual - dano);
-        if (this.vidaActual <= 0) {
-            this.estaVivo = false;
-        }
+        estado.recibirDano(id, calcularDanoRecibido(dano));
+    }
+
+    /**
+     * Calcula cuánto de un daño pierde el combatiente, sin aplicarlo. Sirve para
+     * prever si un golpe lo mata.
+     * 
+     * @param dano Daño que recibe.
+     * @return Vida que pierde.
+     */
+    public int calcularDanoRecibido(int dano) {
+        return dano;
     }
 
     /**
@@ -101,9 +124,7 @@ public abstract class Combatiente {
      * @param cantidad Cantidad de vida restaurada.
      */
     public void curar(int cantidad) {
-        if (this.estaVivo) {
-            this.vidaActual = Math.min(this.vidaMaxima, this.vidaActual + cantidad);
-        }
+        estado.curar(id, cantidad);
     }
 
     /**
@@ -112,14 +133,21 @@ public abstract class Combatiente {
      * @param modificador Cantidad de ataque adicional.
      */
     public void modificarAtaque(int modificador) {
-        aplicarEfecto("Ataque modificado: +" + modificador);
+        aplicarEfecto(Efecto.ATAQUE_MODIFICADO, modificador);
     }
 
     /**
      * Limpia todos los efectos activos del combatiente.
      */
     public void limpiarEfectos() {
-        this.efectosActivos.clear();
+        estado.limpiarEfectos(id);
+    }
+
+    /**
+     * Descuenta un turno a los efectos temporales y quita los que terminan.
+     */
+    public void actualizarEfectosTurnos() {
+        estado.avanzarTurnoEfectos(id);
     }
 
     /**
@@ -128,18 +156,103 @@ public abstract class Combatiente {
      * @return Cantidad de daño calculado.
      */
     protected int calcularDanoAtaque() {
-        Random rand = new Random();
-        double factor = 0.9 + (rand.nextDouble() * 0.2); // Variación entre 0.9 y 1.1
-        return (int) (this.ataqueBase * factor);
+        double factor = 0.9 + (aleatorio().nextDouble() * 0.2); // Variación entre 0.9 y 1.1
+        return (int) (getAtaqueBase() * factor);
+    }
+
+    /**
+     * Obtiene la fuente aleatoria del estado del combatiente.
+     * Dentro de una batalla es la fuente de la batalla.
+     * 
+     * @return Fuente aleatoria a usar.
+     */
+    protected FuenteAleatoria aleatorio() {
+        return estado.getFuenteAleatoria();
+    }
+
+    /**
+     * Copia el estado del combatiente a un estado compartido (el de una batalla)
+     * y pasa a ser una vista sobre él.
+     * 
+     * @param destino Estado compartido.
+     */
+    void vincular(EstadoCombate destino) {
+        if (destino == estado) return;
+        int nuevoId = destino.copiarDesde(estado, id);
+        this.estado = destino;
+        this.id = nuevoId;
+    }
+
+    /**
+     * Crea otra vista de este combatiente sobre un estado bifurcado del suyo, con
+     * el mismo id. La usa Batalla.bifurcar para armar la batalla copiada.
+     * 
+     * @param destino Estado bifurcado del estado de este combatiente.
+     * @return Combatiente Copia del combatiente que lee y escribe en el destino.
+     */
+    Combatiente bifurcar(EstadoCombate destino) {
+        try {
+            Combatiente copia = (Combatiente) super.clone();
+            copia.estado = destino;
+            return copia;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Anota un evento de este combatiente en el registro de eventos del estado.
+     * Fuera de una batalla no hay registro y el evento se descarta.
+     * 
+     * @param tipo Tipo de evento.
+     * @param objetivo Combatiente que recibe el evento, o null.
+     * @param valor1 Primer valor del evento.
+     * @param valor2 Segundo valor del evento.
+     */
+    protected void registrarEvento(TipoEvento tipo, Combatiente objetivo, int valor1, int valor2) {
+        RegistroEventos registro = estado.getRegistroEventos();
+        if (registro != null) {
+            int idObjetivo = objetivo == null ? EventoBatalla.SIN_COMBATIENTE : objetivo.id;
+            registro.registrar(tipo, id, idObjetivo, valor1, valor2);
+        }
     }
 
     /**
      * Aplica un efecto al combatiente.
      * 
-     * @param efecto Descripción del efecto aplicado.
+     * @param efecto Efecto aplicado.
+     */
+    protected void aplicarEfecto(Efecto efecto) {
+        estado.aplicarEfecto(id, efecto, 0);
+    }
+
+    /**
+     * Aplica un efecto con magnitud al combatiente.
+     * 
+     * @param efecto Efecto aplicado.
+     * @param magnitud Magnitud del efecto.
+     */
+    protected void aplicarEfecto(Efecto efecto, int magnitud) {
+        estado.aplicarEfecto(id, efecto, magnitud);
+    }
+
+    /**
+     * Cambia el nombre del combatiente (por ejemplo, el que viene en un archivo de enemigos).
+     *
+     * @param nombre Nuevo nombre.
+     */
+    void renombrar(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Reemplaza la vida máxima y el ataque del combatiente (por ejemplo, los de un roster).
+     *
+     * @param vida Nueva vida máxima.
+     * @param ataque Nuevo ataque base.
      */
-    protected void aplicarEfecto(String efecto) {
-        this.efectosActivos.add(efecto);
+    void ajustarEstadisticas(int vida, int ataque) {
+        estado.establecerEstadisticas(id, vida, ataque);
     }
 
     // Getters
@@ -159,7 +272,7 @@ public abstract class Combatiente {
      * @return Vida actual del combatiente.
      */
     public int getVidaActual() {
-        return vidaActual;
+        return estado.getVidaActual(id);
     }
 
     /**
@@ -168,7 +281,7 @@ public abstract class Combatiente {
      * @return Vida máxima del combatiente.
      */
     public int getVidaMaxima() {
-        return vidaMaxima;
+        return estado.getVidaMaxima(id);
     }
 
     /**
@@ -177,7 +290,16 @@ public abstract class Combatiente {
      * @return Ataque base del combatiente.
      */
     public int getAtaqueBase() {
-        return ataqueBase;
+        return estado.getAtaque(id);
+    }
+
+    /**
+     * Obtiene la velocidad del combatiente, usada en el orden por iniciativa.
+     * 
+     * @return Velocidad del combatiente.
+     */
+    public int getVelocidad() {
+        return VELOCIDAD_BASE;
     }
 
     /**
@@ -186,24 +308,80 @@ public abstract class Combatiente {
      * @return true si el combatiente está vivo, false en caso contrario.
      */
     public boolean isEstaVivo() {
-        return estaVivo;
+        return estado.isVivo(id);
     }
 
     /**
-     * Obtiene una lista de los efectos activos del combatiente.
+     * Obtiene una lista con el texto de los efectos activos del combatiente.
      * 
      * @return Lista de efectos activos.
      */
     public List<String> getEfectosActivos() {
-        return new ArrayList<>(efectosActivos);
+        List<String> textos = new ArrayList<>();
+        estado.describirEfectos(id, textos);
+        return textos;
+    }
+
+    /**
+     * Indica si el combatiente tiene un efecto activo.
+     * 
+     * @param efecto Efecto a consultar.
+     * @return true si el efecto está activo.
+     */
+    public boolean tieneEfecto(Efecto efecto) {
+        return estado.tieneEfecto(id, efecto);
+    }
+
+    /**
+     * Obtiene cuántas veces está aplicado un efecto sobre el combatiente.
+     * 
+     * @param efecto Efecto a consultar.
+     * @return Número de pilas del efecto, 0 si no está activo.
+     */
+    public int getPilasEfecto(Efecto efecto) {
+        return estado.getPilasEfecto(id, efecto);
+    }
+
+    /**
+     * Obtiene el estado donde se guarda el combatiente.
+     * 
+     * @return Estado del combatiente.
+     */
+    public EstadoCombate getEstado() {
+        return estado;
+    }
+
+    /**
+     * Obtiene la posición del combatiente dentro de su estado.
+     * 
+     * @return Id del combatiente.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Agrega a un texto la línea de estado del combatiente: vida, ataque, si está
+     * vivo y sus efectos activos. Es el mismo texto que toString.
+     * 
+     * @param destino Texto donde se agrega la línea.
+     */
+    public void describir(StringBuilder destino) {
+        destino.append(nombre).append(" - HP: ").append(getVidaActual()).append('/').append(getVidaMaxima())
+               .append(" - ATK: ").append(getAtaqueBase())
+               .append(" - Estado: ").append(isEstaVivo() ? "Vivo" : "Muerto");
+        if (estado.getMascaraEfectos(id) != 0) {
+            destino.append(" [Efectos: ");
+            estado.describirEfectos(id, destino);
+            destino.append(']');
+        }
     }
 
     @Override
     public String toString() {
-        String estado = estaVivo ? "Vivo" : "Muerto";
-        String efectos = efectosActivos.isEmpty() ? "" : " [Efectos: " + String.join(", ", efectosActivos) + "]";
-        return String.format("%s - HP: %d/%d - ATK: %d - Estado: %s%s", 
-                             nombre, vidaActual, vidaMaxima, ataqueBase, estado, efectos);
+        StringBuilder sb = new StringBuilder(64);
+        describir(sb);
+        return sb.toString();
     }
 
     @Override
@@ -0,0 +1,98 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Clase ConjuntoVivos.
+ * Lista de solo lectura con los combatientes vivos de un bando, en orden de id.
+ * La batalla la mantiene al día: quita a cada combatiente cuando muere, así que
+ * consultar el tamaño o un elemento no recorre a todos los combatientes.
+ *
+ * La lista es una vista: cambia cuando alguien muere. Quien necesite recorrerla
+ * mientras reparte daño debe copiarla antes; si no, el iterador lanza
+ * ConcurrentModificationException al detectar la muerte.
+ *
+ * @param <T> Tipo de los combatientes del bando.
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+final class ConjuntoVivos<T extends Combatiente> extends AbstractList<T> implements RandomAccess {
+    private final Combatiente[] elementos;
+    private int cantidad;
+
+    /**
+     * Constructor de ConjuntoVivos.
+     * @param capacidad Cantidad máxima de combatientes del bando.
+     */
+    ConjuntoVivos(int capacidad) {
+        this.elementos = new Combatiente[capacidad];
+    }
+
+    /**
+     * Crea una copia de este conjunto con los combatientes de una batalla bifurcada.
+     * @param combatientes Combatientes de la batalla bifurcada, indexados por id.
+     * @return ConjuntoVivos Conjunto con los mismos ids.
+     */
+    @SuppressWarnings("unchecked")
+    ConjuntoVivos<T> bifurcar(Combatiente[] combatientes) {
+        ConjuntoVivos<T> copia = new ConjuntoVivos<>(elementos.length);
+        for (int i = 0; i < cantidad; i++) copia.agregarVivo((T) combatientes[elementos[i].getId()]);
+        return copia;
+    }
+
+    /**
+     * Agrega un combatiente al final. Se deben agregar en orden de id.
+     * @param combatiente Combatiente vivo.
+     */
+    void agregarVivo(T combatiente) {
+        elementos[cantidad++] = combatiente;
+        modCount++;
+    }
+
+    /**
+     * Quita a todos los combatientes.
+     */
+    void vaciar() {
+        Arrays.fill(elementos, 0, cantidad, null);
+        cantidad = 0;
+        modCount++;
+    }
+
+    /**
+     * Quita un combatiente, manteniendo el orden de los demás.
+     * @param combatiente Combatiente que murió.
+     */
+    void quitar(Combatiente combatiente) {
+        int id = combatiente.getId();
+        int bajo = 0;
+        int alto = cantidad - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int idMedio = elementos[medio].getId();
+            if (idMedio < id) bajo = medio + 1;
+            else if (idMedio > id) alto = medio - 1;
+            else {
+                System.arraycopy(elementos, medio + 1, elementos, medio, cantidad - medio - 1);
+                elementos[--cantidad] = null;
+                modCount++;
+                return;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        if (indice < 0 || indice >= cantidad) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " de " + cantidad);
+        }
+        return (T) elementos[indice];
+    }
+
+    @Override
+    public int size() {
+        return cantidad;
+    }
+}
@@ -0,0 +1,72 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Clase ConvertidorRoster.
+ * Convierte un archivo CSV de enemigos al formato binario de {@link RosterBinario},
+ * para no volver a leer el texto en cada inicio.
+ *
+ * Uso: {@code java -cp bin model.ConvertidorRoster enemigos.csv enemigos.roster}
+ *
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+public class ConvertidorRoster {
+
+    /**
+     * Convierte un archivo CSV a un roster binario.
+     * Las líneas con errores se informan y no se escriben.
+     * @param csv Archivo CSV de origen.
+     * @param destino Archivo binario a escribir.
+     * @param receptorErrores Recibe los errores de cada línea; puede llamarse desde varios hilos.
+     * @return int Cantidad de enemigos escritos.
+     * @throws IOException si no se puede leer o escribir.
+     */
+    public static int convertir(Path csv, Path destino, Consumer<CargadorEnemigosCSV.ErrorLinea> receptorErrores)
+            throws IOException {
+        try (Stream<RegistroEnemigo> registros = CargadorEnemigosCSV.leerRegistros(csv, receptorErrores);
+             EscritorRoster escritor = new EscritorRoster(destino)) {
+            registros.forEachOrdered(registro -> {
+                try {
+                    escritor.agregar(registro);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return escritor.getCantidad();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Punto de entrada del convertidor.
+     * @param args Archivo CSV de origen y archivo binario de destino.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Uso: java -cp bin model.ConvertidorRoster <enemigos.csv> <enemigos"
+                               + RosterBinario.EXTENSION + ">");
+            return;
+        }
+        AtomicLong errores = new AtomicLong();
+        long inicio = System.nanoTime();
+        try {
+            int cantidad = convertir(Paths.get(args[0]), Paths.get(args[1]), error -> {
+                errores.incrementAndGet();
+                System.out.println("Error en archivo CSV, " + error);
+            });
+            System.out.printf("Enemigos convertidos: %d (líneas con errores: %d) en %d ms%n",
+                              cantidad, errores.get(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException e) {
+            System.out.println("Error al convertir el archivo: " + e.getMessage());
+        }
+    }
+}
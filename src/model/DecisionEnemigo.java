@@ -0,0 +1,62 @@
+package model;
+
+/**
+ * Clase DecisionEnemigo.
+ * Contiene la acción elegida por un enemigo en su turno y, si ataca, el objetivo.
+ * Es mutable para poder reutilizarse entre turnos sin crear objetos nuevos.
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public class DecisionEnemigo {
+    private AccionEnemigo accion;
+    private int indiceObjetivo;
+
+    /**
+     * Constructor de DecisionEnemigo.
+     * Inicializa la decisión como observar.
+     */
+    public DecisionEnemigo() {
+        observar();
+    }
+
+    /**
+     * Decide atacar al jugador vivo indicado.
+     * @param indiceObjetivo Índice (base 0) del objetivo dentro de los objetivos vivos.
+     */
+    public void atacar(int indiceObjetivo) {
+        this.accion = AccionEnemigo.ATACAR;
+        this.indiceObjetivo = indiceObjetivo;
+    }
+
+    /**
+     * Decide usar la habilidad especial. Cada habilidad elige sus propios objetivos.
+     */
+    public void habilidadEspecial() {
+        this.accion = AccionEnemigo.HABILIDAD_ESPECIAL;
+        this.indiceObjetivo = -1;
+    }
+
+    /**
+     * Decide usar la habilidad de jefe; solo los jefes la tienen.
+     */
+    public void habilidadJefe() {
+        this.accion = AccionEnemigo.HABILIDAD_JEFE;
+        this.indiceObjetivo = -1;
+    }
+
+    /**
+     * Decide observar sin hacer nada.
+     */
+    public void observar() {
+        this.accion = AccionEnemigo.OBSERVAR;
+        this.indiceObjetivo = -1;
+    }
+
+    public AccionEnemigo getAccion() { return accion; }
+    public int getIndiceObjetivo() { return indiceObjetivo; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (objetivo %d)", accion, indiceObjetivo);
+    }
+}
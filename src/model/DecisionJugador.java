@@ -0,0 +1,82 @@
+package model;
+
+/**
+ * Clase DecisionJugador.
+ * Contiene la acción elegida por un jugador en su turno junto con el ítem
+ * y el objetivo seleccionados. Es mutable para poder reutilizarse entre turnos
+ * sin crear objetos nuevos.
+ * @author Carlos Altán
+ * @since 2025-10-12
+ */
+public class DecisionJugador {
+    private AccionJugador accion;
+    private int indiceItem;
+    private int indiceObjetivo;
+
+    /**
+     * Constructor de DecisionJugador.
+     * Inicializa la decisión como pasar turno.
+     */
+    public DecisionJugador() {
+        pasar();
+    }
+
+    /**
+     * Decide atacar al enemigo vivo indicado.
+     * @param indiceObjetivo Índice (base 0) del enemigo dentro de los enemigos vivos.
+     */
+    public void atacar(int indiceObjetivo) {
+        establecer(AccionJugador.ATACAR, -1, indiceObjetivo);
+    }
+
+    /**
+     * Decide usar un ítem del inventario.
+     * @param indiceItem Índice (base 0) del ítem en el inventario.
+     * @param indiceObjetivo Índice (base 0) del aliado vivo, solo para ítems de un objetivo.
+     */
+    public void usarItem(int indiceItem, int indiceObjetivo) {
+        establecer(AccionJugador.USAR_ITEM, indiceItem, indiceObjetivo);
+    }
+
+    /**
+     * Decide usar la habilidad especial.
+     */
+    public void habilidadEspecial() {
+        establecer(AccionJugador.HABILIDAD_ESPECIAL, -1, -1);
+    }
+
+    /**
+     * Decide pasar el turno.
+     */
+    public void pasar() {
+        establecer(AccionJugador.PASAR, -1, -1);
+    }
+
+    /**
+     * Decide huir de la batalla.
+     */
+    public void huir() {
+        establecer(AccionJugador.HUIR, -1, -1);
+    }
+
+    /**
+     * Establece todos los campos de la decisión.
+     * @param accion Acción elegida.
+     * @param indiceItem Índice del ítem o -1.
+     * @param indiceObjetivo Índice del objetivo o -1.
+     */
+    public void establecer(AccionJugador accion, int indiceItem, int indiceObjetivo) {
+        this.accion = accion;
+        this.indiceItem = indiceItem;
+        this.indiceObjetivo = indiceObjetivo;
+    }
+
+    public AccionJugador getAccion() { return accion; }
+    public int getIndiceItem() { return indiceItem; }
+    public int getIndiceObjetivo() { return indiceObjetivo; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (ítem %d, objetivo %d)", accion, indiceItem, indiceObjetivo);
+    }
+}
@@ -0,0 +1,368 @@
+package model;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Clase DiarioRepeticion.
+ * Guarda lo necesario para volver a jugar una batalla exactamente igual: la semilla
+ * de su fuente aleatoria, los jugadores, los enemigos y cada decisión de los jugadores.
+ * Los turnos de los enemigos no se guardan porque salen de la fuente aleatoria.
+ * Al terminar se guarda también la huella del estado final, para comprobar que la
+ * repetición llegó al mismo resultado.
+ *
+ * <p>Las decisiones ocupan unos pocos bytes: el código de la acción y los índices de
+ * ítem y objetivo, con una marca al final de cada turno de jugador. Si quien decide
+ * consume números de la fuente aleatoria (como una política automática), el diario
+ * anota la nueva posición de la fuente antes de la decisión.</p>
+ *
+ * @author Carlos Altán
+ * @since 2025-10-18
+ */
+public final class DiarioRepeticion {
+    /** Extensión de los archivos de diario */
+    public static final String EXTENSION = ".diario";
+    /** Límite de rondas de las batallas sin límite, como las de la consola */
+    public static final int SIN_LIMITE = Integer.MAX_VALUE;
+
+    private static final int MAGIA = 0x52504744; // "RPGD"
+    private static final int VERSION = 1;
+
+    // Marcas del flujo de decisiones; las acciones usan su código (0 a 4)
+    private static final int FIN_TURNO = 0x10;
+    private static final int FIN_TURNO_INDECISO = 0x11;
+    private static final int SALTO_ALEATORIO = 0x12;
+
+    private final long semilla;
+    private final long indice;
+    private final ModoTurnos modoTurnos;
+    private final int limiteTurnos;
+    private final List<String> nombresJugadores = new ArrayList<>();
+    private final List<RolJugador> rolesJugadores = new ArrayList<>();
+    private final List<RegistroEnemigo> enemigos = new ArrayList<>();
+    private boolean enemigosAleatorios;
+
+    private byte[] decisiones = new byte[64];
+    private int largo;
+
+    private boolean terminado;
+    private int turnoFinal;
+    private long huellaFinal;
+
+    // Posición de la fuente antes de que decida una política automática
+    private FuenteAleatoria fuentePreparada;
+    private long posicionPreparada;
+
+    /**
+     * Constructor de DiarioRepeticion.
+     * @param semilla Semilla maestra de la fuente aleatoria de la batalla.
+     * @param indice Índice de la batalla; la fuente es {@code FuenteAleatoria.paraBatalla(semilla, indice)}.
+     * @param modoTurnos Modo de turnos de la batalla.
+     * @param limiteTurnos Rondas máximas, o SIN_LIMITE.
+     */
+    public DiarioRepeticion(long semilla, long indice, ModoTurnos modoTurnos, int limiteTurnos) {
+        this.semilla = semilla;
+        this.indice = indice;
+        this.modoTurnos = modoTurnos;
+        this.limiteTurnos = limiteTurnos;
+    }
+
+    /** --- GRABACIÓN --- **/
+
+    /**
+     * Anota un jugador, en el orden en que entra a la batalla.
+     * @param jugador Jugador de la batalla.
+     */
+    public void registrarJugador(Jugador jugador) {
+        nombresJugadores.add(jugador.getNombre());
+        rolesJugadores.add(jugador.getRol());
+    }
+
+    /**
+     * Anota los enemigos de la batalla antes de crearla.
+     * @param lista Enemigos, en el orden en que entran a la batalla.
+     * @param aleatorios true si se crearon con EnemyFactory.crearEnemigosAleatorios usando
+     *                   la fuente de la batalla; al repetir se vuelven a crear así, para que
+     *                   la fuente quede en la misma posición.
+     */
+    public void registrarEnemigos(List<Combatiente> lista, boolean aleatorios) {
+        enemigos.clear();
+        for (Combatiente combatiente : lista) {
+            Enemigo enemigo = (Enemigo) combatiente;
+            enemigos.add(new RegistroEnemigo(enemigo.getTipoEnemigo(), enemigo.isEsJefe(), enemigo.getNombre(),
+                                             enemigo.getVidaMaxima(), enemigo.getAtaqueBase()));
+        }
+        this.enemigosAleatorios = aleatorios;
+    }
+
+    /**
+     * Recuerda la posición de la fuente aleatoria antes de que una política automática
+     * decida. Si la política consume números, la siguiente decisión anota la nueva posición.
+     * Para las decisiones de una persona no hace falta llamarlo.
+     * @param batalla Batalla en curso.
+     */
+    public void prepararDecision(Batalla batalla) {
+        fuentePreparada = batalla.getFuenteAleatoria();
+        posicionPreparada = fuentePreparada.getPosicion();
+    }
+
+    /**
+     * Anota una decisión justo antes de ejecutarla, tenga efecto o no.
+     * @param decision Decisión a ejecutar.
+     */
+    public void registrarDecision(DecisionJugador decision) {
+        if (fuentePreparada != null) {
+            long posicion = fuentePreparada.getPosicion();
+            if (posicion != posicionPreparada) {
+                escribirByte(SALTO_ALEATORIO);
+                for (int i = 0; i < Long.BYTES; i++) escribirByte((int) (posicion >>> (i * Byte.SIZE)));
+            }
+            fuentePreparada = null;
+        }
+        escribirByte(decision.getAccion().getCodigo());
+        escribirVarint(decision.getIndiceItem() + 1);
+        escribirVarint(decision.getIndiceObjetivo() + 1);
+    }
+
+    /**
+     * Cierra el turno del jugador.
+     * @param completado true si alguna decisión tuvo efecto, false si el jugador no se decidió.
+     */
+    public void terminarTurno(boolean completado) {
+        escribirByte(completado ? FIN_TURNO : FIN_TURNO_INDECISO);
+    }
+
+    /**
+     * Anota el turno y la huella del estado al terminar la batalla.
+     * @param batalla Batalla terminada.
+     */
+    public void finalizar(Batalla batalla) {
+        terminado = true;
+        turnoFinal = batalla.getTurnoActual();
+        huellaFinal = batalla.huellaEstado();
+    }
+
+    /** --- REPETICIÓN --- **/
+
+    /**
+     * Crea la batalla del diario en su estado inicial, con la fuente aleatoria en la
+     * misma posición que tenía la original.
+     * @return Batalla Batalla lista para repetir.
+     * @throws IllegalStateException si los enemigos aleatorios ya no son los del diario.
+     */
+    public Batalla crearBatalla() {
+        FuenteAleatoria aleatorio = FuenteAleatoria.paraBatalla(semilla, indice);
+        List<Jugador> jugadores = new ArrayList<>(nombresJugadores.size());
+        for (int i = 0; i < nombresJugadores.size(); i++) {
+            jugadores.add(new Jugador(nombresJugadores.get(i), rolesJugadores.get(i)));
+        }
+        List<Combatiente> lista;
+        if (enemigosAleatorios) {
+            lista = EnemyFactory.crearEnemigosAleatorios(aleatorio);
+            if (!coinciden(lista)) {
+                throw new IllegalStateException("Los enemigos aleatorios de la semilla ya no son los del diario");
+            }
+        } else {
+            lista = new ArrayList<>(enemigos.size());
+            EstadoCombate estado = new EstadoCombate(enemigos.size());
+            for (RegistroEnemigo registro : enemigos) lista.add(registro.crear(estado));
+        }
+        return new Batalla(jugadores, lista, aleatorio, modoTurnos);
+    }
+
+    /**
+     * Crea un lector que recorre las decisiones desde el principio.
+     * @return Lector Lector de decisiones.
+     */
+    public Lector lector() {
+        return new Lector();
+    }
+
+    private boolean coinciden(List<Combatiente> lista) {
+        if (lista.size() != enemigos.size()) return false;
+        for (int i = 0; i < lista.size(); i++) {
+            Enemigo enemigo = (Enemigo) lista.get(i);
+            RegistroEnemigo registro = enemigos.get(i);
+            if (enemigo.getTipoEnemigo() != registro.getTipo() || enemigo.isEsJefe() != registro.isEsJefe()
+                || !enemigo.getNombre().equals(registro.getNombre()) || enemigo.getVidaMaxima() != registro.getVida()
+                || enemigo.getAtaqueBase() != registro.getAtaque()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clase Lector.
+     * Recorre las decisiones del diario turno por turno.
+     */
+    public final class Lector {
+        private int posicion;
+        private boolean turnoCompletado;
+
+        private Lector() {
+        }
+
+        /**
+         * Lee la siguiente decisión del turno actual. Si el diario anotó un salto de la
+         * fuente aleatoria, se aplica a la fuente de la batalla antes de devolver la decisión.
+         * @param destino Donde se copia la decisión.
+         * @param batalla Batalla que se repite.
+         * @return boolean true si hay una decisión, false si terminó el turno.
+         * @throws IllegalStateException si el diario no tiene más decisiones.
+         */
+        public boolean siguienteDecision(DecisionJugador destino, Batalla batalla) {
+            while (true) {
+                if (posicion >= largo) throw new IllegalStateException("El diario no tiene más decisiones");
+                int marca = decisiones[posicion++] & 0xFF;
+                switch (marca) {
+                    case FIN_TURNO:
+                    case FIN_TURNO_INDECISO:
+                        turnoCompletado = marca == FIN_TURNO;
+                        return false;
+                    case SALTO_ALEATORIO:
+                        long nuevaPosicion = 0;
+                        for (int i = 0; i < Long.BYTES; i++) {
+                            nuevaPosicion |= (long) (decisiones[posicion++] & 0xFF) << (i * Byte.SIZE);
+                        }
+                        batalla.getFuenteAleatoria().setPosicion(nuevaPosicion);
+                        break;
+                    default:
+                        AccionJugador accion = AccionJugador.desdeCodigo(marca);
+                        int item = leerVarint() - 1;
+                        destino.establecer(accion, item, leerVarint() - 1);
+                        return true;
+                }
+            }
+        }
+
+        /**
+         * Indica si el último turno leído terminó con una decisión que tuvo efecto.
+         * @return boolean true si el turno se completó.
+         */
+        public boolean isTurnoCompletado() {
+            return turnoCompletado;
+        }
+
+        /**
+         * Indica si quedan decisiones sin leer.
+         * @return boolean true si quedan decisiones.
+         */
+        public boolean quedanDecisiones() {
+            return posicion < largo;
+        }
+
+        private int leerVarint() {
+            int valor = 0;
+            int desplazamiento = 0;
+            int b;
+            do {
+                b = decisiones[posicion++];
+                valor |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while ((b & 0x80) != 0);
+            return valor;
+        }
+    }
+
+    /** --- ARCHIVO --- **/
+
+    /**
+     * Guarda el diario en un archivo, reemplazándolo si existe.
+     * @param archivo Archivo destino.
+     * @throws IOException si no se puede escribir.
+     */
+    public void guardar(Path archivo) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivo)))) {
+            out.writeInt(MAGIA);
+            out.writeShort(VERSION);
+            out.writeLong(semilla);
+            out.writeLong(indice);
+            out.writeByte(modoTurnos.ordinal());
+            out.writeInt(limiteTurnos);
+            out.writeByte(nombresJugadores.size());
+            for (int i = 0; i < nombresJugadores.size(); i++) {
+                out.writeUTF(nombresJugadores.get(i));
+                out.writeByte(rolesJugadores.get(i).ordinal());
+            }
+            out.writeBoolean(enemigosAleatorios);
+            out.writeShort(enemigos.size());
+            for (RegistroEnemigo enemigo : enemigos) {
+                out.writeByte(enemigo.getTipo().getCodigo());
+                out.writeBoolean(enemigo.isEsJefe());
+                out.writeUTF(enemigo.getNombre());
+                out.writeInt(enemigo.getVida());
+                out.writeInt(enemigo.getAtaque());
+            }
+            out.writeBoolean(terminado);
+            out.writeInt(turnoFinal);
+            out.writeLong(huellaFinal);
+            out.writeInt(largo);
+            out.write(decisiones, 0, largo);
+        }
+    }
+
+    /**
+     * Lee un diario guardado con {@link #guardar(Path)}.
+     * @param archivo Archivo del diario.
+     * @return DiarioRepeticion Diario leído.
+     * @throws IOException si no se puede leer o no es un diario.
+     */
+    public static DiarioRepeticion leer(Path archivo) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (in.readInt() != MAGIA) throw new IOException("No es un diario de batalla: " + archivo);
+            int version = in.readShort();
+            if (version != VERSION) throw new IOException("Versión de diario no soportada: " + version);
+            long semilla = in.readLong();
+            long indice = in.readLong();
+            ModoTurnos modo = ModoTurnos.values()[in.readByte()];
+            DiarioRepeticion diario = new DiarioRepeticion(semilla, indice, modo, in.readInt());
+            int jugadores = in.readUnsignedByte();
+            for (int i = 0; i < jugadores; i++) {
+                diario.nombresJugadores.add(in.readUTF());
+                diario.rolesJugadores.add(RolJugador.values()[in.readByte()]);
+            }
+            diario.enemigosAleatorios = in.readBoolean();
+            int enemigos = in.readUnsignedShort();
+            for (int i = 0; i < enemigos; i++) {
+                TipoEnemigo tipo = TipoEnemigo.desdeCodigo(in.readByte());
+                boolean esJefe = in.readBoolean();
+                String nombre = in.readUTF();
+                int vida = in.readInt();
+                diario.enemigos.add(new RegistroEnemigo(tipo, esJefe, nombre, vida, in.readInt()));
+            }
+            diario.terminado = in.readBoolean();
+            diario.turnoFinal = in.readInt();
+            diario.huellaFinal = in.readLong();
+            diario.largo = in.readInt();
+            diario.decisiones = new byte[Math.max(diario.largo, 1)];
+            in.readFully(diario.decisiones, 0, diario.largo);
+            return diario;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Diario dañado: " + archivo, e);
+        }
+    }
+
+    public long getSemilla() { return semilla; }
+    public long getIndice() { return indice; }
+    public ModoTurnos getModoTurnos() { return modoTurnos; }
+    public int getLimiteTurnos() { return limiteTurnos; }
+    public boolean isTerminado() { return terminado; }
+    public int getTurnoFinal() { return turnoFinal; }
+    public long getHuellaFinal() { return huellaFinal; }
+
+    private void escribirVarint(int valor) {
+        while ((valor & ~0x7F) != 0) {
+            escribirByte((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        escribirByte(valor);
+    }
+
+    private void escribirByte(int valor) {
+        if (largo == decisiones.length) decisiones = Arrays.copyOf(decisiones, largo * 2);
+        decisiones[largo++] = (byte) valor;
+    }
+}
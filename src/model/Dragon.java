@@ -11,7 +11,12 @@ import java.util.*;
  * @since 2025-09-28
  */
 public class Dragon extends Enemigo {
-    private int poder;
+    /** Arquetipo del dragón común */
+    public static final ArquetipoEnemigo JOVEN =
+        new ArquetipoEnemigo(TipoEnemigo.DRAGON, "Dragón Joven", 90, 22, 30, false);
+    /** Arquetipo del dragón jefe */
+    public static final ArquetipoEnemigo ANCESTRAL =
+        new ArquetipoEnemigo(TipoEnemigo.DRAGON, "Dragón Ancestral", 120, 30, 40, true);
 
     /**
      * Constructor de Dragon.
@@ -20,11 +25,27 @@ public class Dragon extends Enemigo {
      * @param esJefe Indica si el dragón es un jefe.
      */
     public Dragon(boolean esJefe) {
-        super(esJefe ? "Dragón Ancestral" : "Dragón Joven", 
-              esJefe ? 120 : 90, 
-              esJefe ? 30 : 22, 
-              "Dragón", esJefe);
-        this.poder = esJefe ? 40 : 30;
+        this(esJefe, EstadoCombate.paraCombatienteSuelto());
+    }
+
+    /**
+     * Constructor de Dragon que guarda su estado en un estado compartido.
+     * 
+     * @param esJefe Indica si el dragón es un jefe.
+     * @param estado Estado donde se agrega el dragón.
+     */
+    public Dragon(boolean esJefe, EstadoCombate estado) {
+        this(esJefe ? ANCESTRAL : JOVEN, estado);
+    }
+
+    /**
+     * Constructor de Dragon a partir de un arquetipo.
+     * 
+     * @param arquetipo Arquetipo de tipo dragón.
+     * @param estado Estado donde se agrega el dragón.
+     */
+    public Dragon(ArquetipoEnemigo arquetipo, EstadoCombate estado) {
+        super(validarTipo(arquetipo, TipoEnemigo.DRAGON), estado);
     }
 
     /**
@@ -32,26 +53,24 @@ public class Dragon extends Enemigo {
      * Inflige daño en área a todos los objetivos y los deja quemados.
      * 
      * @param objetivos Lista de combatientes afectados por la habilidad.
-     * @return Descripción de la habilidad realizada.
+     * @return true si la habilidad se realizó.
      */
     @Override
-    public String habilidadEspecial(List<Combatiente> objetivos) {
-        if (objetivos.isEmpty()) return "";
+    public boolean habilidadEspecial(List<Combatiente> objetivos) {
+        if (objetivos.isEmpty()) return false;
 
-        StringBuilder resultado = new StringBuilder();
-        resultado.append(String.format("¡%s lanza su ALIENTO DE FUEGO!", nombre));
+        registrarEvento(TipoEvento.ALIENTO_FUEGO, null, 0, 0);
 
         int dano = calcularDanoAtaque();
         for (Combatiente c : objetivos) {
             if (c.isEstaVivo()) {
                 c.recibirDano(dano);
-                c.aplicarEfecto("Quemado (-2 HP por turno)");
-                resultado.append(String.format(" %s recibe %d de daño y queda quemado!", 
-                               c.getNombre(), dano));
+                c.aplicarEfecto(Efecto.QUEMADO);
+                registrarEvento(TipoEvento.ALIENTO_FUEGO_QUEMA, c, dano, 0);
             }
         }
 
-        return resultado.toString();
+        return true;
     }
 
     /**
@@ -59,15 +78,22 @@ public class Dragon extends Enemigo {
      * El dragón se cura a sí mismo y aplica un efecto de regeneración.
      * 
      * @param objetivos Lista de combatientes (no utilizada en esta habilidad).
-     * @return Descripción de la habilidad realizada.
+     * @return true, la habilidad siempre se realiza.
      */
     @Override
-    public String habilidadJefe(List<Combatiente> objetivos) {
-        int curacion = (int) (vidaMaxima * 0.3);
+    public boolean habilidadJefe(List<Combatiente> objetivos) {
+        int curacion = (int) (getVidaMaxima() * 0.3);
         curar(curacion);
-        aplicarEfecto("Regeneración (+10 HP por turno por 3 turnos)");
+        aplicarEfecto(Efecto.REGENERACION);
 
-        return String.format("¡%s invoca una CURACIÓN MÍSTICA y recupera %d puntos de vida!", 
-                           nombre, curacion);
+        registrarEvento(TipoEvento.CURACION_MISTICA, null, curacion, 0);
+        return true;
     }
+
+    /**
+     * Devuelve el poder del dragón.
+     * 
+     * @return int Poder.
+     */
+    public int getPoder() { return arquetipo.getAtributo(); }
 }
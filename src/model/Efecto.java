@@ -0,0 +1,65 @@
+package model;
+
+/**
+ * Enum que define los efectos que se pueden aplicar a un combatiente.
+ * Cada efecto conoce el texto con el que se muestra y su duración en turnos.
+ * @author Carlos Altán
+ * @since 2025-10-14
+ */
+public enum Efecto {
+    QUEMADO("Quemado (-2 HP por turno)", Efecto.PERMANENTE, false),
+    REGENERACION("Regeneración (+10 HP por turno por 3 turnos)", Efecto.PERMANENTE, false),
+    ATAQUE_POTENCIADO("Ataque potenciado: +%d por %d turnos", 3, true),
+    ATAQUE_MODIFICADO("Ataque modificado: +%d", Efecto.PERMANENTE, true),
+    INTIMIDADO("Intimidado (-5 ATK por 2 turnos)", Efecto.PERMANENTE, false),
+    CONFUNDIDO("Confundido (50% de fallar ataques)", Efecto.PERMANENTE, false),
+    ESQUIVANDO("Esquivando (próximo ataque fallará)", Efecto.PERMANENTE, false);
+
+    /** Duración de los efectos que no expiran por sí solos */
+    public static final int PERMANENTE = 0;
+
+    private final String texto;
+    private final int duracion;
+    private final boolean conMagnitud;
+    private final int bit;
+
+    /**
+     * Constructor del enum Efecto.
+     * @param texto Texto del efecto; si tiene magnitud es un formato con la magnitud y la duración.
+     * @param duracion Turnos que dura el efecto, o PERMANENTE.
+     * @param conMagnitud Indica si el efecto guarda una magnitud (por ejemplo, ataque extra).
+     */
+    Efecto(String texto, int duracion, boolean conMagnitud) {
+        this.texto = texto;
+        this.duracion = duracion;
+        this.conMagnitud = conMagnitud;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * Obtiene la duración del efecto en turnos.
+     * @return int Duración, o PERMANENTE si no expira.
+     */
+    public int getDuracion() { return duracion; }
+
+    /**
+     * Indica si el efecto guarda una magnitud.
+     * @return boolean true si tiene magnitud.
+     */
+    public boolean isConMagnitud() { return conMagnitud; }
+
+    /**
+     * Obtiene el bit del efecto dentro de una máscara de efectos.
+     * @return int Máscara con solo este efecto.
+     */
+    public int getBit() { return bit; }
+
+    /**
+     * Obtiene el texto con el que se muestra una aplicación del efecto.
+     * @param magnitud Magnitud de la aplicación (se ignora si el efecto no tiene magnitud).
+     * @return String Texto del efecto.
+     */
+    public String describir(int magnitud) {
+        return conMagnitud ? String.format(texto, magnitud, duracion) : texto;
+    }
+}
@@ -10,71 +10,179 @@ import java.util.*;
  * @since 2025-09-28
  */
 public abstract class Enemigo extends Combatiente {
-    protected String tipo;
-    protected boolean esJefe;
+    /** Política de siempre, compartida por todos los enemigos */
+    static final PoliticaEnemigo POLITICA_ALEATORIA = new PoliticaEnemigoAleatoria();
+
+    /** Lista reutilizada por cada hilo para filtrar los objetivos vivos fuera de una batalla */
+    private static final ThreadLocal<List<Combatiente>> OBJETIVOS_VIVOS = ThreadLocal.withInitial(ArrayList::new);
+
+    protected final ArquetipoEnemigo arquetipo;
+
     /**
      * Constructor de Enemigo.
-     * @param nombre
-     * @param vida
-     * @param ataque
-     * @param tipo
-     * @param esJefe
+     * Los datos que no cambian se toman del arquetipo, que se comparte entre enemigos.
+     * @param arquetipo Arquetipo del enemigo.
+     * @param estado Estado donde se agrega el enemigo.
      */
-    public Enemigo(String nombre, int vida, int ataque, String tipo, boolean esJefe) {
-        super(nombre, vida, ataque);
-        this.tipo = tipo;
-        this.esJefe = esJefe;
-        
-        if (esJefe) {
-            // Los jefes son más poderosos
-            this.vidaMaxima = (int) (vida * 1.5);
-            this.vidaActual = this.vidaMaxima;
-            this.ataqueBase = (int) (ataque * 1.3);
+    protected Enemigo(ArquetipoEnemigo arquetipo, EstadoCombate estado) {
+        super(arquetipo.getNombre(), arquetipo.getVida(), arquetipo.getAtaque(), estado);
+        this.arquetipo = arquetipo;
+    }
+
+    /**
+     * Verifica que un arquetipo sea del tipo esperado por la subclase.
+     * @param arquetipo Arquetipo recibido.
+     * @param tipo Tipo esperado.
+     * @return El mismo arquetipo.
+     */
+    static ArquetipoEnemigo validarTipo(ArquetipoEnemigo arquetipo, TipoEnemigo tipo) {
+        if (arquetipo.getTipo() != tipo) {
+            throw new IllegalArgumentException("Se esperaba un arquetipo de " + tipo.getNombre()
+                                               + " y se recibió uno de " + arquetipo.getTipo().getNombre());
         }
+        return arquetipo;
     }
+
     /**
      * Habilidad especial del enemigo.
      * @param objetivos
-     * @return
+     * @return true si la habilidad se realizó.
      */
-    public abstract String habilidadJefe(List<Combatiente> objetivos);
+    public abstract boolean habilidadJefe(List<Combatiente> objetivos);
+
     /**
-     * Toma el turno del enemigo.
+     * Toma el turno del enemigo con la política aleatoria de siempre.
      * @param objetivos
-     * @return Acción realizada.
+     * @return true si el enemigo realizó una acción.
      */
     @Override
-    public String tomarTurno(List<Combatiente> objetivos) {
-        if (!estaVivo || objetivos.isEmpty()) {
-            return "";
+    public boolean tomarTurno(List<Combatiente> objetivos) {
+        // La política aleatoria no juega otros turnos, así que la lista del hilo no se pisa
+        List<Combatiente> objetivosVivos = OBJETIVOS_VIVOS.get();
+        try {
+            return tomarTurnoEntreVivos(filtrarVivos(objetivos, objetivosVivos), POLITICA_ALEATORIA, null,
+                                        new DecisionEnemigo());
+        } finally {
+            objetivosVivos.clear();
         }
-        
-        Random rand = new Random();
-        List<Combatiente> objetivosVivos = new ArrayList<>();
-        for (Combatiente c : objetivos) {
-            if (c.isEstaVivo()) {
-                objetivosVivos.add(c);
-            }
+    }
+
+    /**
+     * Toma el turno del enemigo: la política elige la acción entre los objetivos vivos
+     * y el enemigo la ejecuta.
+     * El turno se marca en Flight Recorder con un evento {@link EventosJfr.TurnoEnemigo}
+     * y cada habilidad con un {@link EventosJfr.Habilidad}.
+     * @param objetivos Posibles objetivos; los que no estén vivos se ignoran.
+     * @param politica Política que elige la acción.
+     * @param batalla Batalla en curso, o null fuera de una batalla.
+     * @param decision Decisión reutilizada, que la política completa.
+     * @return true si el enemigo realizó una acción.
+     */
+    public boolean tomarTurno(List<Combatiente> objetivos, PoliticaEnemigo politica, Batalla batalla,
+                              DecisionEnemigo decision) {
+        return tomarTurnoEntreVivos(filtrarVivos(objetivos, null), politica, batalla, decision);
+    }
+
+    /**
+     * Toma el turno del enemigo con una lista que ya tiene solo objetivos vivos,
+     * como la que arma la batalla, sin copiarla.
+     * @param objetivosVivos Jugadores vivos; no se modifica.
+     * @param politica Política que elige la acción.
+     * @param batalla Batalla en curso, o null fuera de una batalla.
+     * @param decision Decisión reutilizada, que la política completa.
+     * @return true si el enemigo realizó una acción.
+     */
+    boolean tomarTurnoEntreVivos(List<Combatiente> objetivosVivos, PoliticaEnemigo politica, Batalla batalla,
+                                 DecisionEnemigo decision) {
+        if (!isEstaVivo() || objetivosVivos.isEmpty()) {
+            return false;
         }
         
-        if (objetivosVivos.isEmpty()) {
-            return "";
-        }
+        EventosJfr.TurnoEnemigo evento = new EventosJfr.TurnoEnemigo();
+        evento.begin();
         
-        int accion = rand.nextInt(100);
+        politica.decidir(this, objetivosVivos, batalla, decision);
+        boolean resultado = ejecutarDecision(decision, objetivosVivos);
         
-        if (accion < 60) {
-            
-            Combatiente objetivo = objetivosVivos.get(rand.nextInt(objetivosVivos.size()));
-            return atacar(objetivo);
-        } else if (accion < 85) {
-            return habilidadEspecial(objetivosVivos);
-        } else if (esJefe && accion < 95) {
-            return habilidadJefe(objetivosVivos);
-        } else {
-            return nombre + " observa el campo de batalla...";
+        if (!estado.isSimulado() && evento.shouldCommit()) {
+            evento.batalla = estado.getIdBatalla();
+            evento.combatiente = nombre;
+            evento.tipo = arquetipo.getTipo().getClave();
+            evento.jefe = arquetipo.isEsJefe();
+            evento.turno = EventosJfr.turno(estado);
+            evento.accion = decision.getAccion().getEtiqueta();
+            evento.objetivos = objetivosVivos.size();
+            evento.commit();
         }
+        return resultado;
     }
+
+    /**
+     * Obtiene los objetivos vivos. Si todos están vivos devuelve la misma lista, sin copiarla.
+     * @param objetivos Posibles objetivos.
+     * @param destino Lista vacía donde copiar los vivos, o null para crear una si hace falta.
+     * @return List Objetivos vivos.
+     */
+    private static List<Combatiente> filtrarVivos(List<Combatiente> objetivos, List<Combatiente> destino) {
+        int i = 0;
+        int cantidad = objetivos.size();
+        while (i < cantidad && objetivos.get(i).isEstaVivo()) i++;
+        if (i == cantidad) return objetivos;
+        if (destino == null) destino = new ArrayList<>(cantidad - 1);
+        for (int j = 0; j < i; j++) destino.add(objetivos.get(j));
+        for (i++; i < cantidad; i++) {
+            Combatiente c = objetivos.get(i);
+            if (c.isEstaVivo()) destino.add(c);
+        }
+        return destino;
+    }
+
+    /**
+     * Ejecuta una decisión ya tomada.
+     * @param decision Acción y objetivo a ejecutar.
+     * @param objetivosVivos Jugadores vivos; el objetivo de un ataque es un índice en esta lista.
+     * @return true si la acción se realizó; un ataque a un índice inválido o la
+     *         habilidad de jefe de un enemigo común no se realizan.
+     */
+    public boolean ejecutarDecision(DecisionEnemigo decision, List<Combatiente> objetivosVivos) {
+        switch (decision.getAccion()) {
+            case ATACAR:
+                int indice = decision.getIndiceObjetivo();
+                if (indice < 0 || indice >= objetivosVivos.size()) return false;
+                return atacar(objetivosVivos.get(indice));
+            case HABILIDAD_ESPECIAL:
+                return usarHabilidad(false, objetivosVivos);
+            case HABILIDAD_JEFE:
+                return arquetipo.isEsJefe() && usarHabilidad(true, objetivosVivos);
+            default:
+                registrarEvento(TipoEvento.OBSERVAR, null, 0, 0);
+                return true;
+        }
+    }
+
+    /**
+     * Usa la habilidad especial o la de jefe, midiéndola con un evento de Flight Recorder.
+     * @param jefe true para la habilidad de jefe.
+     * @param objetivos Objetivos vivos.
+     * @return true si la habilidad se realizó.
+     */
+    private boolean usarHabilidad(boolean jefe, List<Combatiente> objetivos) {
+        EventosJfr.Habilidad evento = new EventosJfr.Habilidad();
+        evento.begin();
+        int cantidad = objetivos.size();
+        boolean realizada = jefe ? habilidadJefe(objetivos) : habilidadEspecial(objetivos);
+        if (!estado.isSimulado() && evento.shouldCommit()) {
+            evento.batalla = estado.getIdBatalla();
+            evento.combatiente = nombre;
+            evento.habilidad = getClass().getSimpleName() + (jefe ? ".habilidadJefe" : ".habilidadEspecial");
+            evento.turno = EventosJfr.turno(estado);
+            evento.objetivos = cantidad;
+            evento.realizada = realizada;
+            evento.commit();
+        }
+        return realizada;
+    }
+
     /**
      * Despliega el mensaje de inicio del enemigo.
      * @return Mensaje de inicio.
@@ -82,20 +190,18 @@ public abstract class Enemigo extends Combatiente {
     
     @Override
     public String desplegarMensajeInicio() {
-        String prefijo = esJefe ? "¡EL PODEROSO " : "¡";
-        return prefijo + nombre.toUpperCase() + " APARECE EN BATALLA!";
+        return arquetipo.mensajeInicio(nombre);
     }
+
     /**
      * Despliega el mensaje de muerte del enemigo.
      * @return Mensaje de muerte.
      */
     @Override
     public String desplegarMensajeMuerte() {
-        String mensaje = esJefe ? 
-            "¡El temible jefe " + nombre + " ha sido derrotado!" :
-            nombre + " cae derrotado...";
-        return mensaje;
+        return arquetipo.mensajeMuerte(nombre);
     }
+
     /**
      * Calcula el daño de ataque del enemigo.
      * @return Daño calculado.
@@ -103,21 +209,25 @@ public abstract class Enemigo extends Combatiente {
     @Override
     protected int calcularDanoAtaque() {
         int danoBase = super.calcularDanoAtaque();
-        return esJefe ? (int) (danoBase * 1.2) : danoBase; // Jefes hacen 20% más daño
+        return arquetipo.isEsJefe() ? (int) (danoBase * arquetipo.getMultiplicadorDano()) : danoBase;
     }
+
     /**
-     * Recibe daño, con reducción si es jefe.
+     * Calcula el daño recibido, con reducción si es jefe.
      * @param dano Daño recibido.
+     * @return Vida que pierde.
      */
     @Override
-    public void recibirDano(int dano) {
-        if (esJefe) {
-            dano = (int) (dano * 0.9); // Jefes reciben 10% menos daño
+    public int calcularDanoRecibido(int dano) {
+        if (arquetipo.isEsJefe()) {
+            return (int) (dano * arquetipo.getMultiplicadorDanoRecibido());
         }
-        super.recibirDano(dano);
+        return dano;
     }
     
-    public String getTipo() { return tipo; }
-    public boolean isEsJefe() { return esJefe; }
+    public String getTipo() { return arquetipo.getTipo().getNombre(); }
+    public TipoEnemigo getTipoEnemigo() { return arquetipo.getTipo(); }
+    public boolean isEsJefe() { return arquetipo.isEsJefe(); }
+    public ArquetipoEnemigo getArquetipo() { return arquetipo; }
 }
 
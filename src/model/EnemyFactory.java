@@ -1,7 +1,13 @@
 package model;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 /**
  * Clase EnemyFactory.
  * Proporciona métodos para crear enemigos de diferentes tipos,
@@ -10,6 +16,13 @@ import java.util.*;
  * @since 2025-09-28
  */
 public class EnemyFactory {
+    /** Enemigos que puede tener como máximo un encuentro aleatorio */
+    public static final int MAX_ENEMIGOS_ALEATORIOS = 3;
+    private static final TipoEnemigo[] TIPOS = TipoEnemigo.values();
+    // Un sorteo se empaqueta en un int: la cantidad y, por enemigo, el tipo y si es jefe
+    private static final int BITS_CANTIDAD = 2;
+    private static final int BITS_ENEMIGO = 3;
+    private static final int BIT_JEFE = 1 << 2;
     /**
      * Crea un enemigo del tipo especificado.
      * @param tipo
@@ -17,102 +30,169 @@ public class EnemyFactory {
      * @return Combatiente creado.
      */
     public static Combatiente crearEnemigo(String tipo, boolean esJefe) {
-        switch (tipo.toLowerCase()) {
-            case "orco":
-                return new Orco(esJefe);
-            case "goblin":
-                return new Goblin(esJefe);
-            case "dragon":
-                return new Dragon(esJefe);
-            default:
-                return new Orco(false); 
+        return crearEnemigo(tipo, esJefe, EstadoCombate.paraCombatienteSuelto());
+    }
+    /**
+     * Crea un enemigo del tipo especificado guardando su estado en un estado compartido.
+     * @param tipo
+     * @param esJefe
+     * @param estado Estado donde se agrega el enemigo.
+     * @return Combatiente creado.
+     */
+    public static Combatiente crearEnemigo(String tipo, boolean esJefe, EstadoCombate estado) {
+        TipoEnemigo tipoEnemigo = TipoEnemigo.desdeClave(tipo);
+        if (tipoEnemigo == null) {
+            return new Orco(false, estado);
         }
+        return tipoEnemigo.crear(esJefe, estado);
     }
     /**
-     * Carga enemigos desde un archivo CSV.
+     * Obtiene el arquetipo compartido de un tipo de enemigo.
+     * Los arquetipos son inmutables y se crean una sola vez, así que todos los
+     * enemigos del mismo tipo y rango comparten el mismo objeto.
+     * @param tipo Tipo de enemigo.
+     * @param esJefe Indica si es un jefe.
+     * @return ArquetipoEnemigo compartido.
+     */
+    public static ArquetipoEnemigo obtenerArquetipo(TipoEnemigo tipo, boolean esJefe) {
+        switch (tipo) {
+            case GOBLIN: return esJefe ? Goblin.REY_LADRON : Goblin.EXPLORADOR;
+            case DRAGON: return esJefe ? Dragon.ANCESTRAL : Dragon.JOVEN;
+            default: return esJefe ? Orco.SENOR_DE_GUERRA : Orco.GUERRERO;
+        }
+    }
+    /**
+     * Crea una horda de enemigos para encuentros masivos.
+     * Todos comparten un mismo estado, así que no se crea un estado por enemigo.
+     * Uno de cada diez enemigos es jefe.
+     * @param cantidad Cantidad de enemigos.
+     * @param rand Fuente aleatoria para elegir los tipos.
+     * @return Lista de Combatientes creados.
+     */
+    public static List<Combatiente> crearHorda(int cantidad, FuenteAleatoria rand) {
+        EstadoCombate estado = new EstadoCombate(cantidad);
+        List<Combatiente> enemigos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            TipoEnemigo tipo = TIPOS[rand.nextInt(TIPOS.length)];
+            enemigos.add(obtenerArquetipo(tipo, rand.nextInt(10) == 0).crear(estado));
+        }
+        return enemigos;
+    }
+    /**
+     * Carga enemigos desde un archivo CSV o desde un roster binario.
+     * El formato se reconoce por el contenido del archivo, no por su extensión.
+     * Los enemigos de un roster binario se crean recién cuando se recorren (por
+     * ejemplo, al entrar a la batalla); ver {@link RosterBinario#vistaEnemigos()}.
      * @param nombreArchivo
      * @return Lista de Combatientes cargados.
      */
-    public static List<Combatiente> cargarEnemigosDesdeCSV(String nombreArchivo) {
-        List<Combatiente> enemigos = new ArrayList<>();
+    public static List<Combatiente> cargarEnemigos(String nombreArchivo) {
+        Path archivo = Paths.get(nombreArchivo);
         try {
-            File archivo = new File(nombreArchivo);
-            if (!archivo.exists()) {
-                throw new FileNotFoundException("El archivo especificado no existe: " + nombreArchivo);
-            }
-
-            Scanner lector = new Scanner(archivo);
-            while (lector.hasNextLine()) {
-                String linea = lector.nextLine();
-                Combatiente enemigo = parsearLineaCSV(linea); 
-                if (enemigo != null) {
-                    enemigos.add(enemigo);
-                }
+            if (Files.isRegularFile(archivo) && RosterBinario.esRoster(archivo)) {
+                return RosterBinario.abrir(archivo).vistaEnemigos();
             }
-            lector.close();
-        } catch (FileNotFoundException e) {
-            System.out.println("Error al cargar el archivo: " + e.getMessage());
-        } catch (Exception e) {
-            System.out.println("Error al leer archivo CSV: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error al leer roster binario: " + e.getMessage());
+            return new ArrayList<>();
         }
-        return enemigos;
+        return cargarEnemigosDesdeCSV(nombreArchivo);
     }
     /**
-     * Parsea una línea del archivo CSV y crea el enemigo correspondiente.
-     * @param linea Línea del archivo CSV.
-     * @return Combatiente creado o null si hay error.
+     * Carga enemigos desde un archivo CSV.
+     * Los errores de cada línea se muestran con su número de línea y la línea se omite.
+     * Para archivos grandes conviene usar {@link CargadorEnemigosCSV#cargar} y
+     * recorrer el stream sin juntar todos los enemigos en una lista.
+     * @param nombreArchivo
+     * @return Lista de Combatientes cargados.
      */
-    private static Combatiente parsearLineaCSV(String linea) {
-        try {
-            String[] datos = linea.split(",");
-            if (datos.length >= 3) {
-                String tipo = datos[0].trim();
-                boolean esJefe = datos[1].trim().equalsIgnoreCase("true") || 
-                                datos[1].trim().equalsIgnoreCase("si") ||
-                                datos[1].trim().equals("1");
-                String nombre = datos.length > 2 ? datos[2].trim() : "";
-                
-                Combatiente enemigo = crearEnemigo(tipo, esJefe);
-                
-               
-                if (!nombre.isEmpty()) {
-                    
-                }
-                
-                return enemigo;
-            }
-        } catch (Exception e) {
-            return null;
+    public static List<Combatiente> cargarEnemigosDesdeCSV(String nombreArchivo) {
+        try (Stream<Combatiente> enemigos = CargadorEnemigosCSV.cargar(Paths.get(nombreArchivo),
+                error -> System.out.println("Error en archivo CSV, " + error))) {
+            return enemigos.collect(Collectors.toList());
+        } catch (NoSuchFileException e) {
+            System.out.println("Error al cargar el archivo: El archivo especificado no existe: " + nombreArchivo);
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error al leer archivo CSV: " + e.getMessage());
         }
-        
-        return null;
+        return new ArrayList<>();
     }
     /**
      * Genera una lista de enemigos aleatorios.
      * @return Lista de Combatientes generados aleatoriamente.
      */
     public static List<Combatiente> crearEnemigosAleatorios() {
-        List<Combatiente> enemigos = new ArrayList<>();
-        Random rand = new Random();
-        
-        int cantidadEnemigos = 1 + rand.nextInt(3);
-        
-        String[] tipos = {"orco", "goblin", "dragon"};
-        
+        return crearEnemigosAleatorios(new FuenteAleatoria());
+    }
+    /**
+     * Genera una lista de enemigos aleatorios usando la fuente aleatoria de una batalla.
+     * Con la misma fuente se obtienen siempre los mismos enemigos. Todos comparten un
+     * mismo estado, como en {@link #crearHorda}.
+     * @param rand Fuente aleatoria de la batalla.
+     * @return Lista de Combatientes generados aleatoriamente.
+     */
+    public static List<Combatiente> crearEnemigosAleatorios(FuenteAleatoria rand) {
+        int sorteo = sortear(rand);
+        int cantidad = cantidad(sorteo);
+        EstadoCombate estado = new EstadoCombate(cantidad);
+        List<Combatiente> enemigos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            enemigos.add(tipo(sorteo, i).crear(esJefe(sorteo, i), estado));
+        }
+        return enemigos;
+    }
+    /**
+     * Sortea los enemigos de un encuentro aleatorio sin crearlos: de uno a tres
+     * enemigos, cada uno jefe con un 30 % de probabilidad, y si son varios al menos
+     * uno es jefe. Consume de la fuente lo mismo que {@link #crearEnemigosAleatorios(FuenteAleatoria)}.
+     * @param rand Fuente aleatoria de la batalla.
+     * @param tipos Arreglo donde se escribe el tipo de cada enemigo, de largo {@link #MAX_ENEMIGOS_ALEATORIOS}.
+     * @param jefes Arreglo donde se escribe si cada enemigo es jefe, del mismo largo.
+     * @return int Cantidad de enemigos sorteados.
+     */
+    public static int sortearEnemigos(FuenteAleatoria rand, TipoEnemigo[] tipos, boolean[] jefes) {
+        int sorteo = sortear(rand);
+        int cantidad = cantidad(sorteo);
+        for (int i = 0; i < cantidad; i++) {
+            tipos[i] = tipo(sorteo, i);
+            jefes[i] = esJefe(sorteo, i);
+        }
+        return cantidad;
+    }
+    /**
+     * Sortea un encuentro aleatorio y lo empaqueta en un int, sin crear arreglos.
+     * @param rand Fuente aleatoria de la batalla.
+     * @return int Sorteo empaquetado.
+     */
+    private static int sortear(FuenteAleatoria rand) {
+        int cantidadEnemigos = 1 + rand.nextInt(MAX_ENEMIGOS_ALEATORIOS);
+        int sorteo = cantidadEnemigos;
+        boolean hayJefe = false;
         for (int i = 0; i < cantidadEnemigos; i++) {
-            String tipo = tipos[rand.nextInt(tipos.length)];
-            boolean esJefe = rand.nextInt(100) < 30; 
-            
-            enemigos.add(crearEnemigo(tipo, esJefe));
+            int enemigo = rand.nextInt(TIPOS.length);
+            if (rand.nextInt(100) < 30) {
+                enemigo |= BIT_JEFE;
+                hayJefe = true;
+            }
+            sorteo |= enemigo << desplazamiento(i);
         }
-     
-        if (cantidadEnemigos > 1 && enemigos.stream().noneMatch(e -> ((Enemigo)e).isEsJefe())) {
-            int indiceJefe = rand.nextInt(enemigos.size());
-            Enemigo enemigoNormal = (Enemigo) enemigos.get(indiceJefe);
-            Combatiente jefe = crearEnemigo(enemigoNormal.getTipo(), true);
-            enemigos.set(indiceJefe, jefe);
+
+        if (cantidadEnemigos > 1 && !hayJefe) {
+            sorteo |= BIT_JEFE << desplazamiento(rand.nextInt(cantidadEnemigos));
         }
-        
-        return enemigos;
+
+        return sorteo;
+    }
+    private static int desplazamiento(int indice) {
+        return BITS_CANTIDAD + indice * BITS_ENEMIGO;
+    }
+    private static int cantidad(int sorteo) {
+        return sorteo & ((1 << BITS_CANTIDAD) - 1);
+    }
+    private static TipoEnemigo tipo(int sorteo, int indice) {
+        return TIPOS[(sorteo >>> desplazamiento(indice)) & (BIT_JEFE - 1)];
+    }
+    private static boolean esJefe(int sorteo, int indice) {
+        return ((sorteo >>> desplazamiento(indice)) & BIT_JEFE) != 0;
     }
 }
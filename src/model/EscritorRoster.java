@@ -0,0 +1,129 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Clase EscritorRoster.
+ * Escribe un roster de enemigos en el formato binario de {@link RosterBinario}.
+ * Los registros se escriben al archivo a medida que se agregan; la tabla de
+ * nombres se guarda en memoria y se escribe al final, junto con la cabecera.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+public class EscritorRoster implements Closeable {
+    private final FileChannel canal;
+    private final ByteBuffer registros;
+    private ByteBuffer nombres;
+    private int cantidad;
+    private boolean cerrado;
+
+    /**
+     * Constructor de EscritorRoster. Si el archivo existe se reemplaza.
+     * @param destino Ruta del archivo a escribir.
+     * @throws IOException si no se puede crear el archivo.
+     */
+    public EscritorRoster(Path destino) throws IOException {
+        this.canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                      StandardOpenOption.TRUNCATE_EXISTING);
+        this.canal.position(RosterBinario.TAMANO_CABECERA);
+        this.registros = ByteBuffer.allocateDirect(RosterBinario.TAMANO_REGISTRO * 4096)
+                                   .order(ByteOrder.LITTLE_ENDIAN);
+        this.nombres = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Agrega un enemigo al roster.
+     * @param registro Datos del enemigo.
+     * @throws IOException si no se puede escribir.
+     */
+    public void agregar(RegistroEnemigo registro) throws IOException {
+        if (cantidad == Integer.MAX_VALUE) {
+            throw new IllegalStateException("El roster está lleno");
+        }
+        if (!registros.hasRemaining()) vaciarRegistros();
+
+        int banderas = registro.isEsJefe() ? RosterBinario.BANDERA_JEFE : 0;
+        registros.put((byte) registro.getTipo().getCodigo())
+                 .put((byte) banderas)
+                 .putShort((short) 0)
+                 .putInt(agregarNombre(registro.getNombre()))
+                 .putInt(registro.getVida())
+                 .putInt(registro.getAtaque());
+        cantidad++;
+    }
+
+    /**
+     * Obtiene la cantidad de enemigos agregados.
+     * @return int Cantidad de registros.
+     */
+    public int getCantidad() { return cantidad; }
+
+    /**
+     * Escribe la tabla de nombres y la cabecera, y cierra el archivo.
+     * @throws IOException si no se puede escribir.
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) return;
+        cerrado = true;
+        try {
+            vaciarRegistros();
+            long inicioNombres = canal.position();
+            nombres.flip();
+            while (nombres.hasRemaining()) canal.write(nombres);
+
+            ByteBuffer cabecera = ByteBuffer.allocate(RosterBinario.TAMANO_CABECERA).order(ByteOrder.LITTLE_ENDIAN);
+            cabecera.putInt(RosterBinario.MAGIA)
+                    .putShort(RosterBinario.VERSION)
+                    .putShort((short) RosterBinario.TAMANO_REGISTRO)
+                    .putInt(cantidad)
+                    .putInt(0)
+                    .putLong(inicioNombres)
+                    .putLong(nombres.limit())
+                    .flip();
+            while (cabecera.hasRemaining()) canal.write(cabecera, cabecera.position());
+        } finally {
+            canal.close();
+        }
+    }
+
+    private void vaciarRegistros() throws IOException {
+        registros.flip();
+        while (registros.hasRemaining()) canal.write(registros);
+        registros.clear();
+    }
+
+    /**
+     * Agrega un nombre a la tabla.
+     * @return int Posición del nombre en la tabla, o SIN_NOMBRE.
+     */
+    private int agregarNombre(String nombre) {
+        if (nombre == null) return RosterBinario.SIN_NOMBRE;
+        byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Nombre demasiado largo: " + nombre.substring(0, 32) + "...");
+        }
+        if (nombres.remaining() < bytes.length + 2) {
+            long necesario = (long) nombres.position() + bytes.length + 2;
+            if (necesario > Integer.MAX_VALUE) {
+                throw new IllegalStateException("La tabla de nombres está llena");
+            }
+            int nueva = (int) Math.min(Integer.MAX_VALUE, Math.max(necesario, 2L * nombres.capacity()));
+            ByteBuffer mayor = ByteBuffer.allocate(nueva).order(ByteOrder.LITTLE_ENDIAN);
+            nombres.flip();
+            mayor.put(nombres);
+            nombres = mayor;
+        }
+        int posicion = nombres.position();
+        nombres.putShort((short) bytes.length).put(bytes);
+        return posicion;
+    }
+}
@@ -0,0 +1,731 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Clase EstadoCombate.
+ * Guarda el estado mutable de un grupo de combatientes en arreglos paralelos de tipos
+ * primitivos, indexados por el id de cada combatiente: vida actual, vida máxima, ataque,
+ * un bit de vida por combatiente y los efectos activos (máscara, pilas y turnos restantes).
+ * Los objetos Combatiente son vistas sobre una posición de estos arreglos, así que
+ * recorrer a miles de combatientes recorre memoria contigua en lugar de objetos sueltos.
+ *
+ * Un combatiente recién creado sin estado propio toma una posición de un estado de
+ * reserva que comparten los combatientes sueltos creados por el mismo hilo (ver
+ * {@link #paraCombatienteSuelto()}); al entrar a una batalla su estado se copia al
+ * estado compartido de la batalla.
+ *
+ * {@link #bifurcar()} crea otro estado que comparte los arreglos con este: cada
+ * grupo de arreglos se copia recién cuando alguno de los dos lo va a modificar, así
+ * que bifurcar no copia nada y un daño solo copia la vida (y los vivos si alguien
+ * muere). No es seguro para hilos, pero dos estados bifurcados se pueden usar desde
+ * hilos distintos: los arreglos compartidos solo se leen.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-14
+ */
+public final class EstadoCombate {
+    private static final Efecto[] EFECTOS = Efecto.values();
+    private static final int NUM_EFECTOS = EFECTOS.length;
+
+    /** Máscara de los efectos que expiran después de cierta cantidad de turnos */
+    private static final int MASCARA_TEMPORALES;
+
+    /** Valor máximo de un byte de pilas o turnos */
+    private static final int MAXIMO_BYTE = 0xFF;
+    /** Posiciones de cada estado de reserva para combatientes sueltos */
+    private static final int POSICIONES_RESERVA = 64;
+    /** Estado de reserva en uso por cada hilo */
+    private static final ThreadLocal<EstadoCombate> RESERVA = new ThreadLocal<>();
+    // FNV-1a de 64 bits, aplicado a valores enteros completos
+    private static final long HUELLA_INICIAL = 0xcbf29ce484222325L;
+    private static final long PRIMO_HUELLA = 0x100000001b3L;
+
+    // Grupos de arreglos que se copian juntos al dejar de compartirlos
+    private static final int VIDA = 1;
+    private static final int ESTADISTICAS = 1 << 1;
+    private static final int VIVOS = 1 << 2;
+    private static final int MASCARA = 1 << 3;
+    private static final int PILAS = 1 << 4;
+    private static final int MAGNITUDES = 1 << 5;
+    private static final int TODOS = (1 << 6) - 1;
+
+    static {
+        // Cada efecto ocupa un byte de los longs de pilas y turnos
+        if (NUM_EFECTOS > Long.BYTES) throw new ExceptionInInitializerError("Demasiados efectos");
+        int temporales = 0;
+        for (Efecto efecto : EFECTOS) {
+            if (efecto.getDuracion() != Efecto.PERMANENTE) temporales |= efecto.getBit();
+        }
+        MASCARA_TEMPORALES = temporales;
+    }
+
+    private int tamano;
+    private int[] vidaActual;
+    private int[] vidaMaxima;
+    private int[] ataque;
+    private long[] vivos;
+    private int[] mascaraEfectos;
+
+    // Se crean la primera vez que se aplica un efecto
+    private long[] pilasEfectos;
+    private long[] turnosEfectos;
+    private int[] magnitudesEfectos;
+
+    private FuenteAleatoria aleatorio;
+    private IntConsumer receptorMuertes;
+    private RegistroEventos registroEventos;
+    private long idBatalla;
+    /** Si viene de bifurcar: sus acciones son simulaciones y no se graban en Flight Recorder */
+    private final boolean simulado;
+    /** Grupos de arreglos que comparte con otro estado y hay que copiar antes de escribirlos */
+    private int compartidos;
+
+    /**
+     * Constructor de EstadoCombate.
+     *
+     * @param capacidad Cantidad de combatientes esperada; el estado crece si se necesita más.
+     */
+    public EstadoCombate(int capacidad) {
+        capacidad = Math.max(1, capacidad);
+        this.vidaActual = new int[capacidad];
+        this.vidaMaxima = new int[capacidad];
+        this.ataque = new int[capacidad];
+        this.vivos = new long[(capacidad + 63) >>> 6];
+        this.mascaraEfectos = new int[capacidad];
+        this.simulado = false;
+    }
+
+    /**
+     * Obtiene un estado con lugar para un combatiente suelto, que todavía no entró a
+     * una batalla. Los combatientes sueltos que crea un hilo comparten un estado de
+     * reserva hasta llenar sus posiciones, así crear uno no arma un estado y sus
+     * arreglos para cada combatiente. Como cualquier estado, no se debe modificar
+     * desde varios hilos a la vez; el combatiente deja de usarlo al entrar a una batalla.
+     *
+     * @return EstadoCombate Estado donde agregar el combatiente enseguida.
+     */
+    public static EstadoCombate paraCombatienteSuelto() {
+        EstadoCombate reserva = RESERVA.get();
+        if (reserva == null || reserva.tamano == reserva.vidaActual.length) {
+            reserva = new EstadoCombate(POSICIONES_RESERVA);
+            RESERVA.set(reserva);
+        }
+        return reserva;
+    }
+
+    /**
+     * Constructor de un estado bifurcado: usa los mismos arreglos que el origen.
+     *
+     * @param origen Estado bifurcado.
+     */
+    private EstadoCombate(EstadoCombate origen) {
+        this.tamano = origen.tamano;
+        this.vidaActual = origen.vidaActual;
+        this.vidaMaxima = origen.vidaMaxima;
+        this.ataque = origen.ataque;
+        this.vivos = origen.vivos;
+        this.mascaraEfectos = origen.mascaraEfectos;
+        this.pilasEfectos = origen.pilasEfectos;
+        this.turnosEfectos = origen.turnosEfectos;
+        this.magnitudesEfectos = origen.magnitudesEfectos;
+        this.compartidos = TODOS;
+        this.simulado = true;
+    }
+
+    /**
+     * Crea una copia independiente de este estado sin copiar los arreglos: los dos
+     * los comparten hasta que uno de ellos escribe, y entonces copia solo el grupo
+     * que cambia. La fuente aleatoria, el registro de eventos y el receptor de
+     * muertes no se copian; los asigna quien bifurca. El estado nuevo queda marcado
+     * como simulado.
+     *
+     * @return EstadoCombate Estado con los mismos combatientes y valores.
+     */
+    public EstadoCombate bifurcar() {
+        compartidos = TODOS;
+        return new EstadoCombate(this);
+    }
+
+    /**
+     * Agrega un combatiente al estado.
+     *
+     * @param vidaMaxima Vida máxima.
+     * @param vidaActual Vida actual; el combatiente está vivo si es mayor que 0.
+     * @param ataque Ataque base.
+     * @return Id del combatiente dentro de este estado.
+     */
+    public int agregar(int vidaMaxima, int vidaActual, int ataque) {
+        propios(TODOS);
+        asegurarCapacidad(tamano + 1);
+        int id = tamano++;
+        this.vidaMaxima[id] = vidaMaxima;
+        this.vidaActual[id] = vidaActual;
+        this.ataque[id] = ataque;
+        this.mascaraEfectos[id] = 0;
+        if (vidaActual > 0) vivos[id >>> 6] |= 1L << id;
+        else vivos[id >>> 6] &= ~(1L << id);
+        return id;
+    }
+
+    /**
+     * Copia un combatiente de otro estado a este, incluyendo sus efectos.
+     *
+     * @param origen Estado de origen.
+     * @param idOrigen Id del combatiente en el estado de origen.
+     * @return Id del combatiente dentro de este estado.
+     */
+    public int copiarDesde(EstadoCombate origen, int idOrigen) {
+        int id = agregar(origen.vidaMaxima[idOrigen], origen.vidaActual[idOrigen], origen.ataque[idOrigen]);
+        if (!origen.isVivo(idOrigen)) vivos[id >>> 6] &= ~(1L << id);
+        int mascara = origen.mascaraEfectos[idOrigen];
+        if (mascara != 0) {
+            asegurarEfectos();
+            mascaraEfectos[id] = mascara;
+            pilasEfectos[id] = origen.pilasEfectos[idOrigen];
+            turnosEfectos[id] = origen.turnosEfectos[idOrigen];
+            if (origen.magnitudesEfectos != null) {
+                System.arraycopy(origen.magnitudesEfectos, idOrigen * NUM_EFECTOS,
+                                 magnitudesEfectos(), id * NUM_EFECTOS, NUM_EFECTOS);
+            }
+        }
+        return id;
+    }
+
+    /** --- VIDA Y ATAQUE --- **/
+
+    public int getTamano() { return tamano; }
+    public int getVidaActual(int id) { return vidaActual[id]; }
+    public int getVidaMaxima(int id) { return vidaMaxima[id]; }
+    public int getAtaque(int id) { return ataque[id]; }
+
+    /**
+     * Indica si un combatiente está vivo.
+     *
+     * @param id Id del combatiente.
+     * @return true si está vivo.
+     */
+    public boolean isVivo(int id) {
+        return (vivos[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Resta vida a un combatiente y lo marca como muerto si llega a 0.
+     * Si hay un receptor de muertes se le avisa en ese momento.
+     *
+     * @param id Id del combatiente.
+     * @param dano Cantidad de daño.
+     * @return true si el combatiente murió con este daño.
+     */
+    public boolean recibirDano(int id, int dano) {
+        propios(VIDA);
+        int vida = Math.max(0, vidaActual[id] - dano);
+        vidaActual[id] = vida;
+        if (vida <= 0 && isVivo(id)) {
+            propios(VIVOS);
+            vivos[id >>> 6] &= ~(1L << id);
+            if (receptorMuertes != null) receptorMuertes.accept(id);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reemplaza la vida máxima y el ataque de un combatiente y lo deja con la vida llena.
+     *
+     * @param id Id del combatiente.
+     * @param vidaMaxima Nueva vida máxima.
+     * @param ataque Nuevo ataque base.
+     */
+    public void establecerEstadisticas(int id, int vidaMaxima, int ataque) {
+        propios(VIDA | ESTADISTICAS | VIVOS);
+        this.vidaMaxima[id] = vidaMaxima;
+        this.vidaActual[id] = vidaMaxima;
+        this.ataque[id] = ataque;
+        if (vidaMaxima > 0) vivos[id >>> 6] |= 1L << id;
+        else vivos[id >>> 6] &= ~(1L << id);
+    }
+
+    /**
+     * Suma vida a un combatiente vivo sin pasar de su vida máxima.
+     *
+     * @param id Id del combatiente.
+     * @param cantidad Cantidad de vida.
+     */
+    public void curar(int id, int cantidad) {
+        if (isVivo(id)) {
+            propios(VIDA);
+            vidaActual[id] = Math.min(vidaMaxima[id], vidaActual[id] + cantidad);
+        }
+    }
+
+    /**
+     * Cuenta los combatientes vivos en un rango de ids, recorriendo el conjunto de bits.
+     *
+     * @param desde Primer id (incluido).
+     * @param hasta Último id (excluido).
+     * @return Cantidad de combatientes vivos en el rango.
+     */
+    public int contarVivos(int desde, int hasta) {
+        int total = 0;
+        for (int id = siguienteVivo(desde, hasta); id >= 0; id = siguienteVivo(id + 1, hasta)) {
+            total++;
+        }
+        return total;
+    }
+
+    /**
+     * Busca el siguiente combatiente vivo a partir de un id.
+     *
+     * @param desde Id desde el que se busca (incluido).
+     * @param hasta Id límite (excluido).
+     * @return Id del siguiente combatiente vivo, o -1 si no hay.
+     */
+    public int siguienteVivo(int desde, int hasta) {
+        if (desde >= hasta) return -1;
+        int palabra = desde >>> 6;
+        long bits = vivos[palabra] & (-1L << desde);
+        while (true) {
+            if (bits != 0) {
+                int id = (palabra << 6) + Long.numberOfTrailingZeros(bits);
+                return id < hasta ? id : -1;
+            }
+            if (++palabra << 6 >= hasta) return -1;
+            bits = vivos[palabra];
+        }
+    }
+
+    /** --- EFECTOS --- **/
+
+    /**
+     * Aplica una vez un efecto. Si ya estaba activo se suma una pila y su magnitud,
+     * y la duración vuelve a empezar.
+     *
+     * @param id Id del combatiente.
+     * @param efecto Efecto a aplicar.
+     * @param magnitud Magnitud de esta aplicación (por ejemplo, ataque extra).
+     */
+    public void aplicarEfecto(int id, Efecto efecto, int magnitud) {
+        asegurarEfectos();
+        propios(MASCARA | PILAS | (efecto.isConMagnitud() || magnitudesEfectos != null ? MAGNITUDES : 0));
+        int indice = efecto.ordinal();
+        int desplazamiento = indice << 3;
+        if ((mascaraEfectos[id] & efecto.getBit()) == 0) {
+            pilasEfectos[id] = escribirByte(pilasEfectos[id], desplazamiento, 0);
+            if (magnitudesEfectos != null) magnitudesEfectos[id * NUM_EFECTOS + indice] = 0;
+            mascaraEfectos[id] |= efecto.getBit();
+        }
+        if (leerByte(pilasEfectos[id], desplazamiento) < MAXIMO_BYTE) {
+            pilasEfectos[id] += 1L << desplazamiento;
+        }
+        if (efecto.getDuracion() != Efecto.PERMANENTE) {
+            turnosEfectos[id] = escribirByte(turnosEfectos[id], desplazamiento,
+                                             Math.min(efecto.getDuracion(), MAXIMO_BYTE));
+        }
+        if (efecto.isConMagnitud()) {
+            magnitudesEfectos()[id * NUM_EFECTOS + indice] += magnitud;
+        }
+    }
+
+    /**
+     * Indica si un efecto está activo en un combatiente.
+     *
+     * @param id Id del combatiente.
+     * @param efecto Efecto a consultar.
+     * @return true si está activo.
+     */
+    public boolean tieneEfecto(int id, Efecto efecto) {
+        return (mascaraEfectos[id] & efecto.getBit()) != 0;
+    }
+
+    /**
+     * Obtiene la máscara de efectos activos de un combatiente.
+     *
+     * @param id Id del combatiente.
+     * @return Máscara con un bit por efecto activo.
+     */
+    public int getMascaraEfectos(int id) {
+        return mascaraEfectos[id];
+    }
+
+    /**
+     * Obtiene cuántas veces está aplicado un efecto.
+     *
+     * @param id Id del combatiente.
+     * @param efecto Efecto a consultar.
+     * @return Número de pilas, 0 si no está activo.
+     */
+    public int getPilasEfecto(int id, Efecto efecto) {
+        return tieneEfecto(id, efecto) ? leerByte(pilasEfectos[id], efecto.ordinal() << 3) : 0;
+    }
+
+    /**
+     * Obtiene la magnitud total de un efecto, sumando todas sus pilas.
+     *
+     * @param id Id del combatiente.
+     * @param efecto Efecto a consultar.
+     * @return Magnitud total, 0 si no está activo.
+     */
+    public int getMagnitudEfecto(int id, Efecto efecto) {
+        if (!tieneEfecto(id, efecto) || magnitudesEfectos == null) return 0;
+        return magnitudesEfectos[id * NUM_EFECTOS + efecto.ordinal()];
+    }
+
+    /**
+     * Obtiene los turnos que le quedan a un efecto temporal.
+     *
+     * @param id Id del combatiente.
+     * @param efecto Efecto a consultar.
+     * @return Turnos restantes, o Efecto.PERMANENTE si no expira o no está activo.
+     */
+    public int getTurnosRestantes(int id, Efecto efecto) {
+        if (!tieneEfecto(id, efecto) || efecto.getDuracion() == Efecto.PERMANENTE) return Efecto.PERMANENTE;
+        return leerByte(turnosEfectos[id], efecto.ordinal() << 3);
+    }
+
+    /**
+     * Quita un efecto con todas sus pilas.
+     *
+     * @param id Id del combatiente.
+     * @param efecto Efecto a quitar.
+     */
+    public void quitarEfecto(int id, Efecto efecto) {
+        if ((mascaraEfectos[id] & efecto.getBit()) == 0) return;
+        propios(MASCARA);
+        mascaraEfectos[id] &= ~efecto.getBit();
+    }
+
+    /**
+     * Quita todos los efectos de un combatiente.
+     *
+     * @param id Id del combatiente.
+     */
+    public void limpiarEfectos(int id) {
+        if (mascaraEfectos[id] == 0) return;
+        propios(MASCARA);
+        mascaraEfectos[id] = 0;
+    }
+
+    /**
+     * Descuenta un turno a los efectos temporales de un combatiente y quita los que terminan.
+     *
+     * @param id Id del combatiente.
+     */
+    public void avanzarTurnoEfectos(int id) {
+        int temporales = mascaraEfectos[id] & MASCARA_TEMPORALES;
+        if (temporales != 0) propios(MASCARA | PILAS);
+        while (temporales != 0) {
+            int indice = Integer.numberOfTrailingZeros(temporales);
+            temporales &= temporales - 1;
+            int desplazamiento = indice << 3;
+            int restantes = leerByte(turnosEfectos[id], desplazamiento) - 1;
+            if (restantes <= 0) {
+                mascaraEfectos[id] &= ~(1 << indice);
+            } else {
+                turnosEfectos[id] = escribirByte(turnosEfectos[id], desplazamiento, restantes);
+            }
+        }
+    }
+
+    /**
+     * Descuenta un turno a los efectos temporales de todos los combatientes.
+     */
+    public void avanzarTurnoEfectos() {
+        for (int id = 0; id < tamano; id++) {
+            if ((mascaraEfectos[id] & MASCARA_TEMPORALES) != 0) avanzarTurnoEfectos(id);
+        }
+    }
+
+    /**
+     * Agrega a una lista el texto de cada pila de cada efecto activo, en el orden del enum.
+     *
+     * @param id Id del combatiente.
+     * @param destino Lista donde se agregan los textos.
+     */
+    public void describirEfectos(int id, List<String> destino) {
+        int activos = mascaraEfectos[id];
+        while (activos != 0) {
+            int indice = Integer.numberOfTrailingZeros(activos);
+            activos &= activos - 1;
+            Efecto efecto = EFECTOS[indice];
+            int cantidad = leerByte(pilasEfectos[id], indice << 3);
+            int magnitud = efecto.isConMagnitud() ? magnitudesEfectos[id * NUM_EFECTOS + indice] / cantidad : 0;
+            String texto = efecto.describir(magnitud);
+            for (int i = 0; i < cantidad; i++) {
+                destino.add(texto);
+            }
+        }
+    }
+
+    /**
+     * Agrega a un texto las pilas de los efectos activos separadas por comas, igual
+     * que {@link #describirEfectos(int, List)} pero sin crear una lista.
+     *
+     * @param id Id del combatiente.
+     * @param destino Texto donde se agregan los efectos.
+     */
+    public void describirEfectos(int id, StringBuilder destino) {
+        int activos = mascaraEfectos[id];
+        boolean primero = true;
+        while (activos != 0) {
+            int indice = Integer.numberOfTrailingZeros(activos);
+            activos &= activos - 1;
+            Efecto efecto = EFECTOS[indice];
+            int cantidad = leerByte(pilasEfectos[id], indice << 3);
+            int magnitud = efecto.isConMagnitud() ? magnitudesEfectos[id * NUM_EFECTOS + indice] / cantidad : 0;
+            String texto = efecto.describir(magnitud);
+            for (int i = 0; i < cantidad; i++) {
+                if (!primero) destino.append(", ");
+                destino.append(texto);
+                primero = false;
+            }
+        }
+    }
+
+    /**
+     * Calcula una huella de las estadísticas, la vida y los efectos activos de todos
+     * los combatientes. Dos ejecuciones de la misma batalla terminan con la misma
+     * huella; no sirve como resumen criptográfico.
+     *
+     * @return long Huella del estado.
+     */
+    public long huella() {
+        long huella = mezclarHuella(HUELLA_INICIAL, tamano);
+        for (int id = 0; id < tamano; id++) {
+            huella = mezclarHuella(huella, vidaActual[id]);
+            huella = mezclarHuella(huella, vidaMaxima[id]);
+            huella = mezclarHuella(huella, ataque[id]);
+            huella = mezclarHuella(huella, isVivo(id) ? 1 : 0);
+            huella = mezclarHuella(huella, mascaraEfectos[id]);
+            // Solo los efectos activos: los bytes de un efecto ya quitado pueden quedar sucios
+            for (Efecto efecto : EFECTOS) {
+                if (!tieneEfecto(id, efecto)) continue;
+                huella = mezclarHuella(huella, getPilasEfecto(id, efecto));
+                huella = mezclarHuella(huella, getTurnosRestantes(id, efecto));
+                huella = mezclarHuella(huella, getMagnitudEfecto(id, efecto));
+            }
+        }
+        return huella;
+    }
+
+    /**
+     * Agrega un valor a una huella.
+     *
+     * @param huella Huella acumulada.
+     * @param valor Valor a agregar.
+     * @return long Nueva huella.
+     */
+    static long mezclarHuella(long huella, long valor) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            huella = (huella ^ (valor & MAXIMO_BYTE)) * PRIMO_HUELLA;
+            valor >>>= Byte.SIZE;
+        }
+        return huella;
+    }
+
+    /** --- INSTANTÁNEAS --- **/
+
+    /**
+     * Escribe el estado de todos los combatientes en un buffer, copiando los arreglos
+     * en bloque.
+     *
+     * @param destino Buffer de la instantánea.
+     * @throws java.nio.BufferOverflowException si el buffer no alcanza.
+     */
+    void guardar(ByteBuffer destino) {
+        destino.putInt(tamano);
+        InstantaneaBatalla.escribirEnteros(destino, vidaActual, tamano);
+        InstantaneaBatalla.escribirEnteros(destino, vidaMaxima, tamano);
+        InstantaneaBatalla.escribirEnteros(destino, ataque, tamano);
+        InstantaneaBatalla.escribirEnteros(destino, mascaraEfectos, tamano);
+        InstantaneaBatalla.escribirLargos(destino, vivos, (tamano + 63) >>> 6);
+        destino.put((byte) ((pilasEfectos != null ? 1 : 0) | (magnitudesEfectos != null ? 2 : 0)));
+        if (pilasEfectos != null) {
+            InstantaneaBatalla.escribirLargos(destino, pilasEfectos, tamano);
+            InstantaneaBatalla.escribirLargos(destino, turnosEfectos, tamano);
+        }
+        if (magnitudesEfectos != null) {
+            InstantaneaBatalla.escribirEnteros(destino, magnitudesEfectos, tamano * NUM_EFECTOS);
+        }
+    }
+
+    /**
+     * Reemplaza el estado de todos los combatientes por el de un buffer escrito con
+     * {@link #guardar(ByteBuffer)}. No avisa al receptor de muertes.
+     *
+     * @param origen Buffer de la instantánea.
+     * @throws IllegalArgumentException si la instantánea tiene otra cantidad de combatientes.
+     */
+    void restaurar(ByteBuffer origen) {
+        int cantidad = origen.getInt();
+        if (cantidad != tamano) {
+            throw new IllegalArgumentException("La instantánea tiene " + cantidad + " combatientes y el estado " + tamano);
+        }
+        propios(TODOS);
+        InstantaneaBatalla.leerEnteros(origen, vidaActual, tamano);
+        InstantaneaBatalla.leerEnteros(origen, vidaMaxima, tamano);
+        InstantaneaBatalla.leerEnteros(origen, ataque, tamano);
+        InstantaneaBatalla.leerEnteros(origen, mascaraEfectos, tamano);
+        InstantaneaBatalla.leerLargos(origen, vivos, (tamano + 63) >>> 6);
+        int partes = origen.get();
+        // Los bytes de los efectos inactivos no se leen, así que no hace falta limpiarlos
+        if ((partes & 1) != 0) {
+            asegurarEfectos();
+            InstantaneaBatalla.leerLargos(origen, pilasEfectos, tamano);
+            InstantaneaBatalla.leerLargos(origen, turnosEfectos, tamano);
+        }
+        if ((partes & 2) != 0) {
+            InstantaneaBatalla.leerEnteros(origen, magnitudesEfectos(), tamano * NUM_EFECTOS);
+        } else if (magnitudesEfectos != null) {
+            Arrays.fill(magnitudesEfectos, 0);
+        }
+    }
+
+    /** --- FUENTE ALEATORIA --- **/
+
+    /**
+     * Obtiene la fuente aleatoria compartida por los combatientes de este estado.
+     * Si no se asignó ninguna se crea una propia la primera vez que se necesita.
+     *
+     * @return Fuente aleatoria.
+     */
+    public FuenteAleatoria getFuenteAleatoria() {
+        if (aleatorio == null) aleatorio = new FuenteAleatoria();
+        return aleatorio;
+    }
+
+    /**
+     * Asigna la fuente aleatoria de la batalla.
+     *
+     * @param aleatorio Fuente aleatoria.
+     */
+    public void setFuenteAleatoria(FuenteAleatoria aleatorio) {
+        this.aleatorio = aleatorio;
+    }
+
+    /**
+     * Asigna quién recibe el aviso cuando un combatiente muere.
+     *
+     * @param receptorMuertes Recibe el id del combatiente que murió, o null para no avisar.
+     */
+    public void setReceptorMuertes(IntConsumer receptorMuertes) {
+        this.receptorMuertes = receptorMuertes;
+    }
+
+    /**
+     * Obtiene el registro donde los combatientes de este estado anotan sus acciones.
+     *
+     * @return Registro de eventos, o null si nadie los registra (por ejemplo, fuera de una batalla).
+     */
+    public RegistroEventos getRegistroEventos() {
+        return registroEventos;
+    }
+
+    /**
+     * Asigna el registro de eventos de la batalla.
+     *
+     * @param registroEventos Registro de eventos, o null para no registrar.
+     */
+    public void setRegistroEventos(RegistroEventos registroEventos) {
+        this.registroEventos = registroEventos;
+    }
+
+    /**
+     * Obtiene el id de la batalla dueña de este estado, con que se marcan los
+     * eventos de Flight Recorder.
+     *
+     * @return Id de la batalla, o 0 fuera de una batalla.
+     */
+    public long getIdBatalla() {
+        return idBatalla;
+    }
+
+    /**
+     * Indica si el estado es una bifurcación. Las acciones sobre un estado simulado
+     * no graban eventos de Flight Recorder, así las búsquedas de la IA no se mezclan
+     * con las batallas reales en una grabación.
+     *
+     * @return true si el estado se creó con {@link #bifurcar()}.
+     */
+    public boolean isSimulado() {
+        return simulado;
+    }
+
+    /**
+     * Asigna el id de la batalla dueña de este estado.
+     *
+     * @param idBatalla Id de la batalla.
+     */
+    void setIdBatalla(long idBatalla) {
+        this.idBatalla = idBatalla;
+    }
+
+    /** --- AUXILIARES --- **/
+
+    private void asegurarCapacidad(int minimo) {
+        int capacidad = vidaActual.length;
+        if (minimo <= capacidad) return;
+        int nueva = Math.max(minimo, capacidad + (capacidad >> 1) + 1);
+        vidaActual = Arrays.copyOf(vidaActual, nueva);
+        vidaMaxima = Arrays.copyOf(vidaMaxima, nueva);
+        ataque = Arrays.copyOf(ataque, nueva);
+        vivos = Arrays.copyOf(vivos, (nueva + 63) >>> 6);
+        mascaraEfectos = Arrays.copyOf(mascaraEfectos, nueva);
+        if (pilasEfectos != null) {
+            pilasEfectos = Arrays.copyOf(pilasEfectos, nueva);
+            turnosEfectos = Arrays.copyOf(turnosEfectos, nueva);
+        }
+        if (magnitudesEfectos != null) {
+            magnitudesEfectos = Arrays.copyOf(magnitudesEfectos, nueva * NUM_EFECTOS);
+        }
+        compartidos = 0;
+    }
+
+    /**
+     * Copia los grupos de arreglos indicados que todavía comparte con otro estado,
+     * para poder escribirlos sin que el otro vea el cambio.
+     */
+    private void propios(int grupos) {
+        int copiar = compartidos & grupos;
+        if (copiar == 0) return;
+        if ((copiar & VIDA) != 0) vidaActual = vidaActual.clone();
+        if ((copiar & ESTADISTICAS) != 0) {
+            vidaMaxima = vidaMaxima.clone();
+            ataque = ataque.clone();
+        }
+        if ((copiar & VIVOS) != 0) vivos = vivos.clone();
+        if ((copiar & MASCARA) != 0) mascaraEfectos = mascaraEfectos.clone();
+        if ((copiar & PILAS) != 0 && pilasEfectos != null) {
+            pilasEfectos = pilasEfectos.clone();
+            turnosEfectos = turnosEfectos.clone();
+        }
+        if ((copiar & MAGNITUDES) != 0 && magnitudesEfectos != null) magnitudesEfectos = magnitudesEfectos.clone();
+        compartidos &= ~copiar;
+    }
+
+    private void asegurarEfectos() {
+        if (pilasEfectos == null) {
+            pilasEfectos = new long[vidaActual.length];
+            turnosEfectos = new long[vidaActual.length];
+            compartidos &= ~PILAS;
+        }
+    }
+
+    private int[] magnitudesEfectos() {
+        if (magnitudesEfectos == null) {
+            magnitudesEfectos = new int[vidaActual.length * NUM_EFECTOS];
+            compartidos &= ~MAGNITUDES;
+        }
+        return magnitudesEfectos;
+    }
+
+    private static int leerByte(long valor, int desplazamiento) {
+        return (int) (valor >>> desplazamiento) & MAXIMO_BYTE;
+    }
+
+    private static long escribirByte(long valor, int desplazamiento, int dato) {
+        return (valor & ~((long) MAXIMO_BYTE << desplazamiento)) | ((long) dato << desplazamiento);
+    }
+}
@@ -0,0 +1,68 @@
+package model;
+
+/**
+ * Clase EventoBatalla.
+ * Vista de un evento del registro de una batalla: tipo, turno, ids del actor y del
+ * objetivo y dos valores enteros. Es mutable para que el registro pueda reutilizar
+ * la misma instancia al avisar a sus receptores sin crear objetos por evento;
+ * quien necesite conservar el evento debe copiar sus datos.
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+public final class EventoBatalla {
+    /** Id usado cuando el evento no tiene actor u objetivo */
+    public static final int SIN_COMBATIENTE = -1;
+
+    private final TextosCombatientes textos;
+    private TipoEvento tipo;
+    private int turno;
+    private int actor;
+    private int objetivo;
+    private int valor1;
+    private int valor2;
+    private String texto;
+
+    /**
+     * Constructor de EventoBatalla.
+     * @param textos Resuelve los ids al mostrar el evento.
+     */
+    EventoBatalla(TextosCombatientes textos) {
+        this.textos = textos;
+    }
+
+    /**
+     * Reemplaza los datos del evento.
+     */
+    void establecer(TipoEvento tipo, int turno, int actor, int objetivo, int valor1, int valor2, String texto) {
+        this.tipo = tipo;
+        this.turno = turno;
+        this.actor = actor;
+        this.objetivo = objetivo;
+        this.valor1 = valor1;
+        this.valor2 = valor2;
+        this.texto = texto;
+    }
+
+    /**
+     * Escribe el texto del evento, sin el prefijo del turno.
+     * @param destino Donde se escribe el texto.
+     */
+    public void describir(StringBuilder destino) {
+        tipo.describir(destino, textos, actor, objetivo, valor1, valor2, texto);
+    }
+
+    public TipoEvento getTipo() { return tipo; }
+    public int getTurno() { return turno; }
+    public int getActor() { return actor; }
+    public int getObjetivo() { return objetivo; }
+    public int getValor1() { return valor1; }
+    public int getValor2() { return valor2; }
+    public String getTexto() { return texto; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        describir(sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,155 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Clase EventosJfr.
+ * Eventos propios de Java Flight Recorder que marcan lo que pasa en las batallas,
+ * para ubicar en una grabación los picos de CPU o de GC junto a los turnos, las
+ * habilidades y los ítems que los causaron. Cada evento mide la duración de la
+ * acción y lleva el id de la batalla, el combatiente y el turno.
+ *
+ * Sin una grabación activa, o con el evento apagado en la configuración, crear el
+ * evento y llamar a begin y shouldCommit no cuesta casi nada y no se arma ningún
+ * texto; los campos se llenan solo cuando el evento se va a grabar. Las batallas
+ * bifurcadas ({@link EstadoCombate#isSimulado()}) no graban eventos: sus turnos son
+ * simulaciones de la IA y su costo ya queda dentro del turno real que las lanzó.
+ *
+ * La configuración recomendada está en {@code jfr/batallas.jfc} y
+ * {@link AnalizadorJfr} resume una grabación.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class EventosJfr {
+    /** Prefijo de los nombres de todos los eventos del juego */
+    public static final String PREFIJO = "batalla.";
+
+    private EventosJfr() {
+    }
+
+    /**
+     * Avance al siguiente combatiente con {@link Batalla#avanzarTurno()}, que al
+     * cerrar una ronda incluye los efectos continuos de todos los combatientes.
+     */
+    @Name(PREFIJO + "AvanceTurno")
+    @Label("Avance de turno")
+    @Category({ "Juego de batalla", "Turnos" })
+    @Description("Paso al siguiente combatiente; al cerrar la ronda aplica los efectos temporales")
+    @StackTrace(false)
+    public static final class AvanceTurno extends Event {
+        @Label("Batalla")
+        long batalla;
+
+        @Label("Combatiente")
+        @Description("Combatiente cuyo turno terminó")
+        String combatiente;
+
+        @Label("Turno")
+        int turno;
+
+        @Label("Cierra ronda")
+        boolean cierraRonda;
+    }
+
+    /**
+     * Turno completo de un enemigo, con la acción que eligió.
+     */
+    @Name(PREFIJO + "TurnoEnemigo")
+    @Label("Turno de enemigo")
+    @Category({ "Juego de batalla", "Turnos" })
+    @StackTrace(false)
+    public static final class TurnoEnemigo extends Event {
+        @Label("Batalla")
+        long batalla;
+
+        @Label("Combatiente")
+        String combatiente;
+
+        @Label("Tipo")
+        String tipo;
+
+        @Label("Jefe")
+        boolean jefe;
+
+        @Label("Turno")
+        int turno;
+
+        @Label("Acción")
+        @Description("ataque, habilidadEspecial, habilidadJefe u observar")
+        String accion;
+
+        @Label("Objetivos vivos")
+        int objetivos;
+    }
+
+    /**
+     * Habilidad especial o de jefe de un enemigo.
+     */
+    @Name(PREFIJO + "Habilidad")
+    @Label("Habilidad de enemigo")
+    @Category({ "Juego de batalla", "Acciones" })
+    @StackTrace(false)
+    public static final class Habilidad extends Event {
+        @Label("Batalla")
+        long batalla;
+
+        @Label("Combatiente")
+        String combatiente;
+
+        @Label("Habilidad")
+        @Description("Clase y método de la habilidad, por ejemplo Dragon.habilidadEspecial")
+        String habilidad;
+
+        @Label("Turno")
+        int turno;
+
+        @Label("Objetivos")
+        int objetivos;
+
+        @Label("Realizada")
+        boolean realizada;
+    }
+
+    /**
+     * Uso de un ítem por un jugador.
+     */
+    @Name(PREFIJO + "UsoItem")
+    @Label("Uso de ítem")
+    @Category({ "Juego de batalla", "Acciones" })
+    @StackTrace(false)
+    public static final class UsoItem extends Event {
+        @Label("Batalla")
+        long batalla;
+
+        @Label("Combatiente")
+        String combatiente;
+
+        @Label("Ítem")
+        String item;
+
+        @Label("Turno")
+        int turno;
+
+        @Label("Objetivos")
+        int objetivos;
+
+        @Label("Tuvo efecto")
+        boolean efecto;
+    }
+
+    /**
+     * Obtiene el turno con que se anotan los eventos de un estado.
+     * @param estado Estado de los combatientes.
+     * @return int Turno actual (base 0), o -1 fuera de una batalla.
+     */
+    static int turno(EstadoCombate estado) {
+        RegistroEventos registro = estado.getRegistroEventos();
+        return registro == null ? -1 : registro.getTurno();
+    }
+}
@@ -0,0 +1,188 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Clase FuenteAleatoria.
+ * Generador de números aleatorios de una batalla. Usa el algoritmo SplitMix64
+ * (el mismo de SplittableRandom), así que es rápido, no se sincroniza entre hilos
+ * y con la misma semilla produce siempre la misma secuencia.
+ * Cada batalla usa su propia fuente; no es segura para compartir entre hilos.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-13
+ */
+public final class FuenteAleatoria implements RandomGenerator {
+    private static final long GAMMA_DORADA = 0x9e3779b97f4a7c15L;
+
+    /** Semilla para las fuentes creadas sin semilla explícita */
+    private static final AtomicLong SEMILLA_POR_DEFECTO =
+        new AtomicLong(mezclar64(System.currentTimeMillis()) ^ mezclar64(System.nanoTime()));
+
+    private long semilla;
+    private long gamma;
+
+    /**
+     * Constructor de FuenteAleatoria con una semilla distinta en cada llamada.
+     * Las secuencias obtenidas así no son reproducibles.
+     */
+    public FuenteAleatoria() {
+        this(mezclar64(SEMILLA_POR_DEFECTO.getAndAdd(2 * GAMMA_DORADA)),
+             mezclarGamma(SEMILLA_POR_DEFECTO.getAndAdd(2 * GAMMA_DORADA)));
+    }
+
+    /**
+     * Constructor de FuenteAleatoria con semilla fija.
+     *
+     * @param semilla Semilla de la secuencia.
+     */
+    public FuenteAleatoria(long semilla) {
+        this(semilla, GAMMA_DORADA);
+    }
+
+    private FuenteAleatoria(long semilla, long gamma) {
+        this.semilla = semilla;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Crea la fuente de una batalla a partir de una semilla maestra.
+     * Cada índice produce una secuencia independiente, sin importar en qué hilo
+     * ni en qué orden se creen las batallas.
+     *
+     * @param semillaMaestra Semilla de toda la simulación.
+     * @param indice Número de la batalla.
+     * @return Fuente aleatoria de la batalla.
+     */
+    public static FuenteAleatoria paraBatalla(long semillaMaestra, long indice) {
+        long base = semillaMaestra + (indice + 1) * GAMMA_DORADA;
+        return new FuenteAleatoria(mezclar64(base), mezclarGamma(base + GAMMA_DORADA));
+    }
+
+    /**
+     * Divide esta fuente en una nueva, independiente de la original.
+     *
+     * @return Nueva fuente aleatoria.
+     */
+    public FuenteAleatoria dividir() {
+        return new FuenteAleatoria(nextLong(), mezclarGamma(siguienteSemilla()));
+    }
+
+    /**
+     * Crea una fuente en la misma posición y con el mismo incremento: produce los
+     * mismos números que esta, pero avanzar una no mueve a la otra.
+     *
+     * @return Copia de la fuente.
+     */
+    public FuenteAleatoria copiar() {
+        return new FuenteAleatoria(semilla, gamma);
+    }
+
+    @Override
+    public long nextLong() {
+        return mezclar64(siguienteSemilla());
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Mezcla los elementos de una lista (algoritmo de Fisher-Yates).
+     *
+     * @param lista Lista a mezclar.
+     * @param <T> Tipo de los elementos.
+     */
+    public <T> void barajar(List<T> lista) {
+        for (int i = lista.size() - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            lista.set(i, lista.set(j, lista.get(i)));
+        }
+    }
+
+    /**
+     * Mezcla un arreglo de enteros (algoritmo de Fisher-Yates).
+     * Consume los mismos números que {@link #barajar(List)} con una lista del mismo tamaño.
+     *
+     * @param valores Arreglo a mezclar.
+     */
+    public void barajar(int[] valores) {
+        for (int i = valores.length - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            int temporal = valores[i];
+            valores[i] = valores[j];
+            valores[j] = temporal;
+        }
+    }
+
+    /**
+     * Lleva la secuencia a otra posición, conservando su incremento. Sirve para que
+     * varias simulaciones desde la misma copia de una batalla sigan caminos distintos.
+     *
+     * @param semilla Nueva posición de la secuencia.
+     */
+    public void resembrar(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Obtiene la posición actual de la secuencia. Con la misma posición, la fuente
+     * vuelve a producir los mismos números.
+     *
+     * @return long Posición de la secuencia.
+     */
+    long getPosicion() {
+        return semilla;
+    }
+
+    /**
+     * Mueve la secuencia a una posición obtenida con {@link #getPosicion()}.
+     *
+     * @param posicion Posición de la secuencia.
+     */
+    void setPosicion(long posicion) {
+        this.semilla = posicion;
+    }
+
+    /**
+     * Obtiene el incremento de la secuencia. Junto con la posición forma todo el
+     * estado de la fuente.
+     *
+     * @return long Incremento de la secuencia.
+     */
+    long getGamma() {
+        return gamma;
+    }
+
+    /**
+     * Reemplaza todo el estado de la fuente, por ejemplo al restaurar una instantánea.
+     *
+     * @param posicion Posición obtenida con {@link #getPosicion()}.
+     * @param gamma Incremento obtenido con {@link #getGamma()}.
+     */
+    void restaurar(long posicion, long gamma) {
+        this.semilla = posicion;
+        this.gamma = gamma;
+    }
+
+    private long siguienteSemilla() {
+        return semilla += gamma;
+    }
+
+    private static long mezclar64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mezclarGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int transiciones = Long.bitCount(z ^ (z >>> 1));
+        return (transiciones < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -8,51 +8,73 @@ import java.util.*;
  * @since 2025-09-28
  */
 public class Goblin extends Enemigo {
-    private int velocidad;
+    /** Arquetipo del goblin común */
+    public static final ArquetipoEnemigo EXPLORADOR =
+        new ArquetipoEnemigo(TipoEnemigo.GOBLIN, "Goblin Explorador", 35, 12, 22, false);
+    /** Arquetipo del goblin jefe */
+    public static final ArquetipoEnemigo REY_LADRON =
+        new ArquetipoEnemigo(TipoEnemigo.GOBLIN, "Goblin Rey Ladrón", 50, 18, 30, true);
     /**
      *  Constructor de Goblin.
      * @param esJefe Indica si el goblin es un jefe o no.
      */
     public Goblin(boolean esJefe) {
-        super(esJefe ? "Goblin Rey Ladrón" : "Goblin Explorador", 
-              esJefe ? 50 : 35, 
-              esJefe ? 18 : 12, 
-              "Goblin", esJefe);
-        this.velocidad = esJefe ? 30 : 22;
+        this(esJefe, EstadoCombate.paraCombatienteSuelto());
+    }
+    /**
+     * Constructor de Goblin que guarda su estado en un estado compartido.
+     * @param esJefe Indica si es un jefe.
+     * @param estado Estado donde se agrega el goblin.
+     */
+    public Goblin(boolean esJefe, EstadoCombate estado) {
+        this(esJefe ? REY_LADRON : EXPLORADOR, estado);
+    }
+    /**
+     * Constructor de Goblin a partir de un arquetipo.
+     * @param arquetipo Arquetipo de tipo goblin.
+     * @param estado Estado donde se agrega el goblin.
+     */
+    public Goblin(ArquetipoEnemigo arquetipo, EstadoCombate estado) {
+        super(validarTipo(arquetipo, TipoEnemigo.GOBLIN), estado);
     }
     /**
      * Habilidad especial del Goblin.
      * @param objetivos Lista de combatientes objetivo (no se usa en esta habilidad).
-     * @return Descripción de la acción realizada.
+     * @return true, la habilidad siempre se realiza.
      */
     @Override
-    public String habilidadEspecial(List<Combatiente> objetivos) {
+    public boolean habilidadEspecial(List<Combatiente> objetivos) {
         // Esquive Ágil - evita el próximo ataque
-        aplicarEfecto("Esquivando (próximo ataque fallará)");
-        return String.format("¡%s se mueve ágilmente y entra en posición de ESQUIVE!", nombre);
+        aplicarEfecto(Efecto.ESQUIVANDO);
+        registrarEvento(TipoEvento.ESQUIVE, null, 0, 0);
+        return true;
     }
     /**
      * Habilidad especial del Goblin Jefe.
      * @param objetivos Lista de combatientes objetivo.
-     * @return Descripción de la acción realizada.
+     * @return true si la habilidad se realizó.
      * 
      */
     @Override
-    public String habilidadJefe(List<Combatiente> objetivos) {
-        if (objetivos.isEmpty()) return "";
+    public boolean habilidadJefe(List<Combatiente> objetivos) {
+        if (objetivos.isEmpty()) return false;
         
-        StringBuilder resultado = new StringBuilder();
-        resultado.append(String.format("¡%s realiza un ATAQUE MÚLTIPLE!", nombre));
+        registrarEvento(TipoEvento.ATAQUE_MULTIPLE, null, 0, 0);
         
         for (Combatiente c : objetivos) {
             if (c.isEstaVivo()) {
                 int dano = (int) (calcularDanoAtaque() * 0.7); 
                 c.recibirDano(dano);
-                resultado.append(String.format(" Golpea a %s por %d!", c.getNombre(), dano));
+                registrarEvento(TipoEvento.ATAQUE_MULTIPLE_GOLPE, c, dano, 0);
             }
         }
         
-        return resultado.toString();
+        return true;
     }
+    /**
+     * Devuelve la velocidad del goblin.
+     * @return int Velocidad.
+     */
+    @Override
+    public int getVelocidad() { return arquetipo.getAtributo(); }
 }
-
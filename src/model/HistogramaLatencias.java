@@ -0,0 +1,135 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase HistogramaLatencias.
+ * Histograma de duraciones en nanosegundos con cubetas log-lineales, al estilo de
+ * HdrHistogram: los valores menores que 32 se cuentan exactos y cada potencia de
+ * dos siguiente se divide en 32 cubetas iguales, así un percentil nunca se aleja
+ * más de 1/32 (un 3 %) del valor real, sea de microsegundos o de minutos.
+ *
+ * Registrar un valor es un incremento atómico en un arreglo fijo y no crea objetos;
+ * varios hilos pueden registrar a la vez. Las consultas recorren las cubetas, así
+ * que conviene hacerlas sobre una copia.
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class HistogramaLatencias {
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    /** Los valores desde 2^46 ns (unas 19 horas) caen en una última cubeta aparte */
+    private static final int BITS_MAXIMOS = 46;
+    private static final int CUBETAS = SUBCUBETAS + (BITS_MAXIMOS - BITS_SUBCUBETA) * SUBCUBETAS + 1;
+
+    private final AtomicLongArray conteos;
+    private final LongAdder suma;
+    private final LongAccumulator maximo;
+
+    /**
+     * Constructor de HistogramaLatencias vacío.
+     */
+    public HistogramaLatencias() {
+        this.conteos = new AtomicLongArray(CUBETAS);
+        this.suma = new LongAdder();
+        this.maximo = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Registra una duración.
+     * @param nanos Duración en nanosegundos; los valores negativos cuentan como 0.
+     */
+    public void registrar(long nanos) {
+        if (nanos < 0) nanos = 0;
+        conteos.incrementAndGet(indice(nanos));
+        suma.add(nanos);
+        maximo.accumulate(nanos);
+    }
+
+    /**
+     * Copia el histograma. Los valores registrados durante la copia pueden quedar
+     * contados solo en parte.
+     * @return HistogramaLatencias Copia independiente.
+     */
+    public HistogramaLatencias copiar() {
+        HistogramaLatencias copia = new HistogramaLatencias();
+        for (int i = 0; i < CUBETAS; i++) {
+            long conteo = conteos.get(i);
+            if (conteo != 0) copia.conteos.set(i, conteo);
+        }
+        copia.suma.add(suma.sum());
+        copia.maximo.accumulate(maximo.get());
+        return copia;
+    }
+
+    /**
+     * Obtiene la cantidad de valores registrados.
+     * @return long Cantidad de valores.
+     */
+    public long getCantidad() {
+        long cantidad = 0;
+        for (int i = 0; i < CUBETAS; i++) cantidad += conteos.get(i);
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la suma exacta de los valores registrados.
+     * @return long Suma en nanosegundos.
+     */
+    public long getSuma() {
+        return suma.sum();
+    }
+
+    /**
+     * Obtiene el mayor valor registrado.
+     * @return long Máximo en nanosegundos, 0 si no hay valores.
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual queda una fracción de los registros.
+     * @param fraccion Fracción entre 0 y 1, por ejemplo 0.99 para el percentil 99.
+     * @return long Valor en nanosegundos, con un error relativo menor que 1/32; 0 si no hay valores.
+     */
+    public long getPercentil(double fraccion) {
+        if (fraccion < 0 || fraccion > 1) throw new IllegalArgumentException("La fracción debe estar entre 0 y 1");
+        long cantidad = getCantidad();
+        if (cantidad == 0) return 0;
+        long posicion = Math.max(1, (long) Math.ceil(fraccion * cantidad));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += conteos.get(i);
+            if (acumulado >= posicion) return Math.min(maximoCubeta(i), getMaximo());
+        }
+        return getMaximo();
+    }
+
+    /** --- CUBETAS --- **/
+
+    /**
+     * Calcula la cubeta de un valor.
+     */
+    private static int indice(long valor) {
+        if (valor < SUBCUBETAS) return (int) valor;
+        int magnitud = 63 - Long.numberOfLeadingZeros(valor);
+        if (magnitud >= BITS_MAXIMOS) return CUBETAS - 1;
+        int desplazamiento = magnitud - BITS_SUBCUBETA;
+        // valor >>> desplazamiento queda entre SUBCUBETAS y 2 * SUBCUBETAS - 1
+        return SUBCUBETAS * (desplazamiento + 1) + (int) (valor >>> desplazamiento) - SUBCUBETAS;
+    }
+
+    /**
+     * Calcula el mayor valor que cae en una cubeta.
+     */
+    private static long maximoCubeta(int indice) {
+        if (indice < SUBCUBETAS) return indice;
+        if (indice == CUBETAS - 1) return Long.MAX_VALUE;
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        long minimo = (long) (SUBCUBETAS + indice % SUBCUBETAS) << desplazamiento;
+        return minimo + (1L << desplazamiento) - 1;
+    }
+}
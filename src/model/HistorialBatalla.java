@@ -0,0 +1,349 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Clase HistorialBatalla.
+ * Guarda en disco la historia completa de una batalla: cada evento del registro y,
+ * al final de cada turno, los cambios de vida, ataque y efectos de los combatientes.
+ * Se engancha como receptor del RegistroEventos de la batalla y escribe en archivos
+ * segmentados mapeados en memoria, sin crear objetos por evento. Se lee con
+ * {@link LectorHistorial} después de cerrarlo.
+ *
+ * Archivos del directorio (little-endian, versión 1):
+ * <pre>
+ * eventos-NNNNNN.seg       registros; cada uno empieza con
+ *   0 byte clase (0 fin del segmento, 1 evento, 2 texto, 3 cambios, 4 foto)
+ *   1 byte código de TipoEvento (solo eventos)
+ *   2 short reservado
+ *   4 int  largo total del registro en bytes
+ *   evento:  int turno, int actor, int objetivo, int valor1, int valor2
+ *   texto:   int turno, int largo, bytes UTF-8
+ *   cambios/foto: int turno, int cantidad, y por combatiente int id, vida, ataque, máscara de efectos
+ * turnos-NNNNNN.seg        una entrada de 24 bytes por turno, en orden
+ *   int segmento y int posición del primer registro del turno
+ *   int segmento y int posición de los cambios del final del turno (-1 si no hay)
+ *   int primera entrada del índice de combatientes del turno, int reservado
+ * combatientes-NNNNNN.seg  una entrada de 16 bytes por combatiente y turno en que participa
+ *   int id, int turno, int entrada anterior del mismo combatiente (-1 si no hay), int reservado
+ * historial.dat            cabecera, se escribe al cerrar
+ *   int magia "RPGH", short versión, short reservado, int combatientes, int jugadores,
+ *   int turnos, int entradas de combatientes, int tamaño de segmento, int intervalo de fotos,
+ *   int segmento y int posición del final de los eventos,
+ *   int última entrada de cada combatiente,
+ *   y por combatiente nombre, mensaje de inicio y de muerte (short largo + UTF-8)
+ * </pre>
+ * Cada INTERVALO_FOTOS turnos el primer registro del turno es una foto con el estado
+ * de todos los combatientes; el estado al final de cualquier turno se arma con la foto
+ * anterior y, como mucho, INTERVALO_FOTOS registros de cambios.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+public final class HistorialBatalla implements ReceptorEventos, Closeable {
+
+    /** Tamaño por defecto de los segmentos de eventos */
+    public static final int TAMANO_SEGMENTO_POR_DEFECTO = 1 << 20;
+
+    static final int MAGIA = 0x48475052; // "RPGH" en little-endian
+    static final short VERSION = 1;
+    static final String ARCHIVO_CABECERA = "historial.dat";
+    static final String PREFIJO_EVENTOS = "eventos";
+    static final String PREFIJO_TURNOS = "turnos";
+    static final String PREFIJO_COMBATIENTES = "combatientes";
+
+    static final int INTERVALO_FOTOS = 16;
+    static final int ENTRADAS_POR_SEGMENTO = 1 << 12;
+    static final int TAMANO_ENTRADA_TURNO = 24;
+    static final int TAMANO_ENTRADA_COMBATIENTE = 16;
+
+    static final byte REGISTRO_FIN = 0;
+    static final byte REGISTRO_EVENTO = 1;
+    static final byte REGISTRO_TEXTO = 2;
+    static final byte REGISTRO_CAMBIOS = 3;
+    static final byte REGISTRO_FOTO = 4;
+    static final int TAMANO_CABECERA_REGISTRO = 8;
+    static final int TAMANO_EVENTO = TAMANO_CABECERA_REGISTRO + 20;
+    static final int TAMANO_CAMBIO = 16;
+    static final int SIN_POSICION = -1;
+
+    private final Path directorio;
+    private final Batalla batalla;
+    private final EstadoCombate estado;
+    private final int cantidad;
+    private final int tamanoSegmento;
+    private final ArchivoSegmentado eventos;
+    private final ArchivoSegmentado turnos;
+    private final ArchivoSegmentado entradas;
+
+    // Estado al final del turno anterior, para escribir solo lo que cambió
+    private final int[] vida;
+    private final int[] ataque;
+    private final int[] efectos;
+    private final int[] ultimaEntrada;
+    private final int[] turnoMarcado;
+
+    private int turnoActual;
+    private int cantidadEntradas;
+    private ByteBuffer entradaTurno;
+    private int posicionEntradaTurno;
+    private IOException error;
+    private boolean cerrado;
+
+    /**
+     * Constructor de HistorialBatalla con el tamaño de segmento por defecto.
+     * @param directorio Directorio donde se guarda el historial; se crea si no existe.
+     * @param batalla Batalla a registrar, antes de iniciarla.
+     * @throws IOException si no se pueden crear los archivos.
+     */
+    public HistorialBatalla(Path directorio, Batalla batalla) throws IOException {
+        this(directorio, batalla, TAMANO_SEGMENTO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor de HistorialBatalla.
+     * Si una foto de todos los combatientes no cabe en un segmento, los segmentos se agrandan.
+     * @param directorio Directorio donde se guarda el historial; se crea si no existe.
+     * @param batalla Batalla a registrar, antes de iniciarla.
+     * @param tamanoSegmento Tamaño de cada segmento de eventos en bytes.
+     * @throws IOException si no se pueden crear los archivos.
+     */
+    public HistorialBatalla(Path directorio, Batalla batalla, int tamanoSegmento) throws IOException {
+        if (batalla.getTurnoActual() != 0) {
+            throw new IllegalStateException("El historial se debe crear antes de que avance la batalla");
+        }
+        this.directorio = directorio;
+        this.batalla = batalla;
+        this.estado = batalla.getEstado();
+        this.cantidad = estado.getTamano();
+        this.tamanoSegmento = Math.max(tamanoSegmento, tamanoCambios(cantidad));
+        Files.createDirectories(directorio);
+        Files.deleteIfExists(directorio.resolve(ARCHIVO_CABECERA));
+        this.eventos = new ArchivoSegmentado(directorio, PREFIJO_EVENTOS, this.tamanoSegmento);
+        this.turnos = new ArchivoSegmentado(directorio, PREFIJO_TURNOS, TAMANO_ENTRADA_TURNO * ENTRADAS_POR_SEGMENTO);
+        this.entradas = new ArchivoSegmentado(directorio, PREFIJO_COMBATIENTES,
+                                              TAMANO_ENTRADA_COMBATIENTE * ENTRADAS_POR_SEGMENTO);
+
+        this.vida = new int[cantidad];
+        this.ataque = new int[cantidad];
+        this.efectos = new int[cantidad];
+        this.ultimaEntrada = new int[cantidad];
+        this.turnoMarcado = new int[cantidad];
+        Arrays.fill(ultimaEntrada, SIN_POSICION);
+        Arrays.fill(turnoMarcado, -1);
+
+        abrirTurno();
+        batalla.getRegistroEventos().agregarReceptor(this);
+    }
+
+    /**
+     * Escribe un evento de la batalla.
+     * @param evento Evento registrado.
+     */
+    @Override
+    public void alRegistrar(EventoBatalla evento) {
+        if (error != null || cerrado) return;
+        try {
+            while (turnoActual < evento.getTurno()) avanzarTurno();
+            marcar(evento.getActor());
+            marcar(evento.getObjetivo());
+            if (evento.getTipo() == TipoEvento.TEXTO) {
+                escribirTexto(evento.getTexto());
+            } else {
+                ByteBuffer destino = eventos.reservar(TAMANO_EVENTO);
+                destino.put(REGISTRO_EVENTO)
+                       .put((byte) evento.getTipo().getCodigo())
+                       .putShort((short) 0)
+                       .putInt(TAMANO_EVENTO)
+                       .putInt(turnoActual)
+                       .putInt(evento.getActor())
+                       .putInt(evento.getObjetivo())
+                       .putInt(evento.getValor1())
+                       .putInt(evento.getValor2());
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    /**
+     * Cierra el turno anterior guardando sus cambios y abre el nuevo.
+     * @param turno Turno que comienza.
+     */
+    @Override
+    public void alCambiarTurno(int turno) {
+        if (error != null || cerrado) return;
+        try {
+            while (turnoActual < turno) avanzarTurno();
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    /**
+     * Guarda los cambios del último turno, escribe la cabecera y deja de registrar.
+     * @throws IOException si falló alguna escritura durante la batalla o al cerrar.
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) return;
+        cerrado = true;
+        batalla.getRegistroEventos().quitarReceptor(this);
+        try {
+            if (error == null) {
+                cerrarTurno();
+                escribirCabecera();
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+        for (ArchivoSegmentado archivo : new ArchivoSegmentado[] { eventos, turnos, entradas }) {
+            try {
+                archivo.close();
+            } catch (IOException e) {
+                if (error == null) error = e;
+            }
+        }
+        if (error != null) throw error;
+    }
+
+    /**
+     * Obtiene el directorio del historial.
+     * @return Path Directorio.
+     */
+    public Path getDirectorio() { return directorio; }
+
+    /** --- AUXILIARES --- **/
+
+    private void avanzarTurno() throws IOException {
+        cerrarTurno();
+        turnoActual++;
+        abrirTurno();
+    }
+
+    /**
+     * Escribe la entrada del índice del turno actual y, si corresponde, una foto.
+     */
+    private void abrirTurno() throws IOException {
+        boolean foto = turnoActual % INTERVALO_FOTOS == 0;
+        if (foto) eventos.reservar(tamanoCambios(cantidad));
+
+        entradaTurno = turnos.reservar(TAMANO_ENTRADA_TURNO);
+        posicionEntradaTurno = entradaTurno.position();
+        entradaTurno.putInt(eventos.getSegmento())
+                    .putInt(eventos.getPosicion())
+                    .putInt(SIN_POSICION)
+                    .putInt(SIN_POSICION)
+                    .putInt(cantidadEntradas)
+                    .putInt(0);
+
+        if (foto) escribirCambios(REGISTRO_FOTO, cantidad);
+    }
+
+    /**
+     * Escribe los cambios del turno actual y anota su posición en la entrada del turno.
+     */
+    private void cerrarTurno() throws IOException {
+        int cambios = 0;
+        for (int id = 0; id < cantidad; id++) {
+            if (cambio(id)) cambios++;
+        }
+        if (cambios == 0) return;
+        eventos.reservar(tamanoCambios(cambios));
+        entradaTurno.putInt(posicionEntradaTurno + 8, eventos.getSegmento());
+        entradaTurno.putInt(posicionEntradaTurno + 12, eventos.getPosicion());
+        escribirCambios(REGISTRO_CAMBIOS, cambios);
+    }
+
+    private void escribirCambios(byte clase, int cambios) throws IOException {
+        int tamano = tamanoCambios(cambios);
+        ByteBuffer destino = eventos.reservar(tamano);
+        destino.put(clase).put((byte) 0).putShort((short) 0).putInt(tamano)
+               .putInt(turnoActual).putInt(cambios);
+        for (int id = 0; id < cantidad; id++) {
+            if (clase == REGISTRO_CAMBIOS && !cambio(id)) continue;
+            vida[id] = estado.getVidaActual(id);
+            ataque[id] = estado.getAtaque(id);
+            efectos[id] = estado.getMascaraEfectos(id);
+            destino.putInt(id).putInt(vida[id]).putInt(ataque[id]).putInt(efectos[id]);
+            if (clase == REGISTRO_CAMBIOS) marcar(id);
+        }
+    }
+
+    private void escribirTexto(String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        int largo = Math.min(bytes.length, tamanoSegmento - TAMANO_CABECERA_REGISTRO - 8);
+        int tamano = TAMANO_CABECERA_REGISTRO + 8 + largo;
+        ByteBuffer destino = eventos.reservar(tamano);
+        destino.put(REGISTRO_TEXTO).put((byte) TipoEvento.TEXTO.getCodigo()).putShort((short) 0)
+               .putInt(tamano).putInt(turnoActual).putInt(largo).put(bytes, 0, largo);
+    }
+
+    /**
+     * Agrega la entrada del índice de un combatiente la primera vez que aparece en el turno.
+     */
+    private void marcar(int id) throws IOException {
+        if (id < 0 || turnoMarcado[id] == turnoActual) return;
+        turnoMarcado[id] = turnoActual;
+        entradas.reservar(TAMANO_ENTRADA_COMBATIENTE)
+                .putInt(id).putInt(turnoActual).putInt(ultimaEntrada[id]).putInt(0);
+        ultimaEntrada[id] = cantidadEntradas++;
+    }
+
+    private boolean cambio(int id) {
+        return vida[id] != estado.getVidaActual(id) || ataque[id] != estado.getAtaque(id)
+                || efectos[id] != estado.getMascaraEfectos(id);
+    }
+
+    private static int tamanoCambios(int cambios) {
+        return TAMANO_CABECERA_REGISTRO + 8 + cambios * TAMANO_CAMBIO;
+    }
+
+    private void escribirCabecera() throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(44 + 4 * cantidad + 64 * cantidad).order(ByteOrder.LITTLE_ENDIAN);
+        cabecera.putInt(MAGIA).putShort(VERSION).putShort((short) 0)
+                .putInt(cantidad)
+                .putInt(batalla.getJugadores().size())
+                .putInt(turnoActual + 1)
+                .putInt(cantidadEntradas)
+                .putInt(tamanoSegmento)
+                .putInt(INTERVALO_FOTOS)
+                .putInt(eventos.getSegmento())
+                .putInt(eventos.getPosicion());
+        for (int id = 0; id < cantidad; id++) cabecera.putInt(ultimaEntrada[id]);
+        for (int id = 0; id < cantidad; id++) {
+            Combatiente c = batalla.getCombatiente(id);
+            cabecera = escribirTexto(cabecera, c.getNombre());
+            cabecera = escribirTexto(cabecera, c.desplegarMensajeInicio());
+            cabecera = escribirTexto(cabecera, c.desplegarMensajeMuerte());
+        }
+        cabecera.flip();
+        try (FileChannel canal = FileChannel.open(directorio.resolve(ARCHIVO_CABECERA), StandardOpenOption.CREATE,
+                                                  StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (cabecera.hasRemaining()) canal.write(cabecera);
+            canal.force(true);
+        }
+    }
+
+    private static ByteBuffer escribirTexto(ByteBuffer destino, String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        int largo = Math.min(bytes.length, 0xFFFF);
+        if (destino.remaining() < 2 + largo) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(destino.capacity() * 2, destino.position() + 2 + largo))
+                                         .order(ByteOrder.LITTLE_ENDIAN);
+            destino.flip();
+            mayor.put(destino);
+            destino = mayor;
+        }
+        return destino.putShort((short) largo).put(bytes, 0, largo);
+    }
+}
@@ -0,0 +1,339 @@
+package model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase InstantaneaBatalla.
+ * Copia binaria del estado completo de una batalla en curso, para guardarla en cada
+ * turno y seguirla después aunque el programa se haya cerrado. Incluye los
+ * combatientes (vida, estadísticas y efectos), el orden de turnos, el turno actual,
+ * el registro de eventos, los inventarios y la posición de la fuente aleatoria, así
+ * que una batalla restaurada sigue exactamente como habría seguido la original.
+ *
+ * <p>La instantánea vive en un buffer directo que se reutiliza: capturar la misma
+ * batalla turno tras turno solo vuelve a escribir la parte que cambia, y los arreglos
+ * del estado se copian en bloque. El formato es little-endian: una cabecera, el
+ * reparto (modo de turnos, nombres y tipos de los combatientes) y el estado.</p>
+ *
+ * No es segura para hilos.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-19
+ */
+public final class InstantaneaBatalla {
+    /** Extensión de los archivos de instantánea */
+    public static final String EXTENSION = ".instantanea";
+
+    private static final int MAGIA = 0x49475052; // "RPGI"
+    private static final int VERSION = 1;
+    /** Magia, versión, largo total y largo del reparto */
+    private static final int CABECERA = 4 * Integer.BYTES;
+    private static final int CAPACIDAD_INICIAL = 4096;
+
+    // Códigos de los ítems en los inventarios
+    private static final int POCION = 0;
+    private static final int POTENCIADOR_ATAQUE = 1;
+    private static final int KIT_CURACION = 2;
+    private static final int BOMBA_HUMO = 3;
+
+    private ByteBuffer datos;
+    /** Batalla cuyo reparto ya está escrito en el buffer */
+    private Batalla reparto;
+
+    /**
+     * Constructor de InstantaneaBatalla, vacía hasta que se captura una batalla.
+     */
+    public InstantaneaBatalla() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    private InstantaneaBatalla(int capacidad) {
+        this.datos = ByteBuffer.allocateDirect(capacidad).order(ByteOrder.LITTLE_ENDIAN);
+        this.datos.limit(0);
+    }
+
+    /**
+     * Captura el estado actual de una batalla, reemplazando lo que tuviera la instantánea.
+     * @param batalla Batalla a capturar.
+     * @throws IllegalArgumentException si algún enemigo o ítem no se puede guardar.
+     */
+    public void capturar(Batalla batalla) {
+        while (true) {
+            try {
+                datos.clear();
+                if (batalla == reparto) {
+                    datos.position(CABECERA + datos.getInt(3 * Integer.BYTES));
+                } else {
+                    reparto = null;
+                    datos.position(CABECERA);
+                    escribirReparto(batalla);
+                    datos.putInt(3 * Integer.BYTES, datos.position() - CABECERA);
+                    reparto = batalla;
+                }
+                batalla.guardar(datos);
+                break;
+            } catch (BufferOverflowException e) {
+                datos = ByteBuffer.allocateDirect(datos.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                reparto = null;
+            }
+        }
+        datos.putInt(0, MAGIA).putInt(Integer.BYTES, VERSION).putInt(2 * Integer.BYTES, datos.position() - CABECERA);
+        datos.flip();
+    }
+
+    /**
+     * Devuelve una batalla al estado de la instantánea. La batalla debe tener los
+     * mismos combatientes y el mismo modo de turnos que la capturada, por ejemplo la
+     * misma batalla unos turnos después.
+     * @param batalla Batalla a restaurar.
+     * @throws IllegalArgumentException si la instantánea es de otra batalla.
+     */
+    public void restaurar(Batalla batalla) {
+        verificarCapturada();
+        try {
+            datos.position(CABECERA);
+            ModoTurnos modo = ModoTurnos.values()[datos.get()];
+            int cantidadJugadores = datos.getInt();
+            int cantidadEnemigos = datos.getInt();
+            if (modo != batalla.getModoTurnos() || cantidadJugadores != batalla.getJugadores().size()
+                || cantidadEnemigos != batalla.getEnemigos().size()) {
+                throw new IllegalArgumentException("La instantánea es de otra batalla");
+            }
+            datos.position(CABECERA + datos.getInt(3 * Integer.BYTES));
+            batalla.restaurar(datos);
+        } finally {
+            datos.rewind();
+        }
+    }
+
+    /**
+     * Crea una batalla nueva con los combatientes de la instantánea y su estado.
+     * Los receptores de eventos, como el log o el historial, no se guardan y hay
+     * que volver a conectarlos.
+     * @return Batalla Batalla lista para seguir desde el turno capturado.
+     */
+    public Batalla crearBatalla() {
+        verificarCapturada();
+        Batalla batalla;
+        try {
+            datos.position(CABECERA);
+            ModoTurnos modo = ModoTurnos.values()[datos.get()];
+            int cantidadJugadores = datos.getInt();
+            int cantidadEnemigos = datos.getInt();
+            List<Jugador> jugadores = new ArrayList<>(cantidadJugadores);
+            for (int i = 0; i < cantidadJugadores; i++) {
+                String nombre = leerTexto(datos);
+                jugadores.add(new Jugador(nombre, RolJugador.values()[datos.get()]));
+            }
+            List<Combatiente> enemigos = new ArrayList<>(cantidadEnemigos);
+            EstadoCombate estadoEnemigos = new EstadoCombate(cantidadEnemigos);
+            for (int i = 0; i < cantidadEnemigos; i++) {
+                TipoEnemigo tipo = TipoEnemigo.values()[datos.get()];
+                boolean esJefe = datos.get() != 0;
+                // Las estadísticas salen del estado restaurado
+                enemigos.add(RegistroEnemigo.crear(tipo, esJefe, leerTexto(datos), RegistroEnemigo.SIN_AJUSTE,
+                                                   RegistroEnemigo.SIN_AJUSTE, estadoEnemigos));
+            }
+            batalla = new Batalla(jugadores, enemigos, new FuenteAleatoria(0), modo);
+            batalla.restaurar(datos);
+        } finally {
+            datos.rewind();
+        }
+        return batalla;
+    }
+
+    /**
+     * Obtiene el tamaño de la instantánea en bytes.
+     * @return int Bytes que ocupa, 0 si todavía no se capturó nada.
+     */
+    public int getTamano() {
+        return datos.limit();
+    }
+
+    /** --- ARCHIVOS --- **/
+
+    /**
+     * Escribe la instantánea en un canal.
+     * @param canal Canal de destino.
+     * @throws IOException si no se puede escribir.
+     */
+    public void escribir(WritableByteChannel canal) throws IOException {
+        ByteBuffer vista = datos.duplicate();
+        while (vista.hasRemaining()) canal.write(vista);
+    }
+
+    /**
+     * Guarda la instantánea en un archivo. Se escribe primero un archivo temporal que
+     * después reemplaza al anterior, así que si el programa se corta a mitad de camino
+     * queda la instantánea anterior completa.
+     * @param archivo Archivo de destino.
+     * @throws IOException si no se puede escribir.
+     */
+    public void guardar(Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                  StandardOpenOption.TRUNCATE_EXISTING)) {
+            escribir(canal);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Lee una instantánea de un canal.
+     * @param canal Canal de origen, posicionado al comienzo de la instantánea.
+     * @return InstantaneaBatalla Instantánea leída.
+     * @throws IOException si no se puede leer o no es una instantánea válida.
+     */
+    public static InstantaneaBatalla leer(ReadableByteChannel canal) throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA).order(ByteOrder.LITTLE_ENDIAN);
+        leerCompleto(canal, cabecera);
+        if (cabecera.getInt(0) != MAGIA) throw new IOException("No es una instantánea de batalla");
+        if (cabecera.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + cabecera.getInt(Integer.BYTES));
+        }
+        int largo = cabecera.getInt(2 * Integer.BYTES);
+        if (largo < 0 || cabecera.getInt(3 * Integer.BYTES) > largo) throw new IOException("Instantánea dañada");
+
+        InstantaneaBatalla instantanea = new InstantaneaBatalla(Math.max(CAPACIDAD_INICIAL, CABECERA + largo));
+        ByteBuffer datos = instantanea.datos;
+        datos.clear();
+        cabecera.flip();
+        datos.put(cabecera);
+        datos.limit(CABECERA + largo);
+        leerCompleto(canal, datos);
+        datos.flip();
+        return instantanea;
+    }
+
+    /**
+     * Lee una instantánea guardada con {@link #guardar(Path)}.
+     * @param archivo Archivo de la instantánea.
+     * @return InstantaneaBatalla Instantánea leída.
+     * @throws IOException si no se puede leer o no es una instantánea válida.
+     */
+    public static InstantaneaBatalla leer(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            return leer(canal);
+        }
+    }
+
+    /** --- CODIFICACIÓN --- **/
+
+    static void escribirEnteros(ByteBuffer destino, int[] valores, int cantidad) {
+        destino.asIntBuffer().put(valores, 0, cantidad);
+        destino.position(destino.position() + cantidad * Integer.BYTES);
+    }
+
+    static void leerEnteros(ByteBuffer origen, int[] valores, int cantidad) {
+        origen.asIntBuffer().get(valores, 0, cantidad);
+        origen.position(origen.position() + cantidad * Integer.BYTES);
+    }
+
+    static void escribirLargos(ByteBuffer destino, long[] valores, int cantidad) {
+        destino.asLongBuffer().put(valores, 0, cantidad);
+        destino.position(destino.position() + cantidad * Long.BYTES);
+    }
+
+    static void leerLargos(ByteBuffer origen, long[] valores, int cantidad) {
+        origen.asLongBuffer().get(valores, 0, cantidad);
+        origen.position(origen.position() + cantidad * Long.BYTES);
+    }
+
+    /** Escribe un texto en UTF-8 precedido de su largo; null se escribe con largo -1. */
+    static void escribirTexto(ByteBuffer destino, String texto) {
+        if (texto == null) {
+            destino.putInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        destino.putInt(bytes.length).put(bytes);
+    }
+
+    static String leerTexto(ByteBuffer origen) {
+        int largo = origen.getInt();
+        if (largo < 0) return null;
+        byte[] bytes = new byte[largo];
+        origen.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Escribe cada ítem como su código y su cantidad. */
+    static void escribirInventario(ByteBuffer destino, List<Item> inventario) {
+        destino.putInt(inventario.size());
+        for (Item item : inventario) {
+            destino.put((byte) codigoItem(item)).putInt(item.getCantidad());
+        }
+    }
+
+    static List<Item> leerInventario(ByteBuffer origen) {
+        int cantidad = origen.getInt();
+        List<Item> inventario = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int codigo = origen.get();
+            inventario.add(crearItem(codigo, origen.getInt()));
+        }
+        return inventario;
+    }
+
+    /** --- AUXILIARES --- **/
+
+    private void escribirReparto(Batalla batalla) {
+        List<Jugador> jugadores = batalla.getJugadores();
+        List<Combatiente> enemigos = batalla.getEnemigos();
+        datos.put((byte) batalla.getModoTurnos().ordinal()).putInt(jugadores.size()).putInt(enemigos.size());
+        for (Jugador jugador : jugadores) {
+            escribirTexto(datos, jugador.getNombre());
+            datos.put((byte) jugador.getRol().ordinal());
+        }
+        for (Combatiente combatiente : enemigos) {
+            if (!(combatiente instanceof Enemigo)) {
+                throw new IllegalArgumentException(combatiente.getNombre() + " no es un enemigo y no se puede guardar");
+            }
+            Enemigo enemigo = (Enemigo) combatiente;
+            datos.put((byte) enemigo.getTipoEnemigo().ordinal()).put((byte) (enemigo.isEsJefe() ? 1 : 0));
+            escribirTexto(datos, enemigo.getNombre());
+        }
+    }
+
+    private void verificarCapturada() {
+        if (datos.limit() == 0) throw new IllegalStateException("La instantánea está vacía");
+    }
+
+    private static int codigoItem(Item item) {
+        if (item instanceof Pocion) return POCION;
+        if (item instanceof PotenciadorAtaque) return POTENCIADOR_ATAQUE;
+        if (item instanceof KitCuracion) return KIT_CURACION;
+        if (item instanceof BombaHumo) return BOMBA_HUMO;
+        throw new IllegalArgumentException("El ítem " + item.getNombre() + " no se puede guardar");
+    }
+
+    private static Item crearItem(int codigo, int cantidad) {
+        switch (codigo) {
+            case POCION: return new Pocion(cantidad);
+            case POTENCIADOR_ATAQUE: return new PotenciadorAtaque(cantidad);
+            case KIT_CURACION: return new KitCuracion(cantidad);
+            case BOMBA_HUMO: return new BombaHumo(cantidad);
+            default: throw new IllegalArgumentException("Código de ítem desconocido: " + codigo);
+        }
+    }
+
+    private static void leerCompleto(ReadableByteChannel canal, ByteBuffer destino) throws IOException {
+        while (destino.hasRemaining()) {
+            if (canal.read(destino) < 0) throw new EOFException("La instantánea está incompleta");
+        }
+    }
+}
@@ -7,10 +7,11 @@ import java.util.*;
  * @author Carlos Altán
  * @since 2025-09-28
  */
-public abstract class Item {
+public abstract class Item implements Cloneable {
     protected String nombre;
     protected String descripcion;
     protected int cantidad;
+    private FuenteAleatoria aleatorio;
     /**
      * Constructor de la clase Item.
      * @param nombre 
@@ -24,10 +25,41 @@ public abstract class Item {
     }
     /**
      * Usa el ítem en los objetivos especificados.
+     * El resultado se anota en el registro de eventos de quien lo usa.
+     * @param usuario Combatiente que usa el ítem.
      * @param objetivos Lista de combatientes objetivo.
-     * @return Descripción del efecto del ítem.
+     * @return boolean true si el ítem tuvo efecto.
      */
-    public abstract String usar(List<Combatiente> objetivos);
+    public abstract boolean usar(Combatiente usuario, List<Combatiente> objetivos);
+    /**
+     * Obtiene la fuente aleatoria del ítem.
+     * Fuera de una batalla se crea una fuente propia la primera vez que se necesita.
+     * @return FuenteAleatoria Fuente a usar.
+     */
+    protected FuenteAleatoria aleatorio() {
+        if (aleatorio == null) aleatorio = new FuenteAleatoria();
+        return aleatorio;
+    }
+    /**
+     * Asigna la fuente aleatoria de la batalla en la que se usa el ítem.
+     * @param aleatorio Fuente aleatoria de la batalla.
+     */
+    void asignarFuenteAleatoria(FuenteAleatoria aleatorio) {
+        this.aleatorio = aleatorio;
+    }
+    /**
+     * Crea una copia del ítem con la misma cantidad, por ejemplo para el inventario
+     * de una batalla bifurcada. La copia usa la misma fuente aleatoria hasta que se
+     * le asigne otra.
+     * @return Item Copia del ítem.
+     */
+    Item copiar() {
+        try {
+            return (Item) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
     /**
      * Reduce la cantidad del ítem en uno.
      * Si la cantidad es cero, no hace nada.
@@ -10,29 +10,38 @@ import java.util.*;
 public class Jugador extends Combatiente {
     private RolJugador rol;
     private List<Item> inventario;
-    private int ataqueModificado;
-    private int turnosAtaqueModificado;
+    /** El inventario y sus ítems se comparten con una bifurcación y se copian antes de cambiarlos */
+    private boolean inventarioCompartido;
     /**
      * Constructor de la clase Jugador.
      * @param nombre 
      * @param rol
     */
     public Jugador(String nombre, RolJugador rol) {
-        super(nombre, rol.getVida(), rol.getAtaque());
+        this(nombre, rol, rol.getVida(), rol.getAtaque());
+    }
+    /**
+     * Constructor de Jugador con otra vida y otro ataque que los de su rol, para
+     * probar el balance. La velocidad y los ítems siguen siendo los del rol.
+     * @param nombre Nombre del jugador.
+     * @param rol Rol del jugador.
+     * @param vida Vida máxima.
+     * @param ataque Ataque base.
+     */
+    public Jugador(String nombre, RolJugador rol, int vida, int ataque) {
+        super(nombre, vida, ataque);
         this.rol = rol;
         this.inventario = new ArrayList<>(rol.getItems());
-        this.ataqueModificado = 0;
-        this.turnosAtaqueModificado = 0;
     }
     /**
      * Toma el turno del jugador.
      * @param objetivos Lista de combatientes objetivo.
-     * @return String Descripción del turno.
+     * @return boolean false, el jugador no actúa por su cuenta.
      */
     @Override
-    public String tomarTurno(List<Combatiente> objetivos) {
+    public boolean tomarTurno(List<Combatiente> objetivos) {
         // El turno del jugador será manejado por el controlador
-        return "Esperando acción del jugador...";
+        return false;
     }
     /**
      * Despliega el mensaje de inicio del jugador.
@@ -56,30 +65,47 @@ public class Jugador extends Combatiente {
     }
     /**
      * Habilidad especial del jugador (uso de ítems).
-     * @return String Descripción de la habilidad especial.
+     * @return boolean false, el jugador usa ítems en lugar de una habilidad.
      */
     @Override
-    public String habilidadEspecial(List<Combatiente> objetivos) {
-        return "El jugador puede usar ítems como habilidad especial.";
+    public boolean habilidadEspecial(List<Combatiente> objetivos) {
+        return false;
     }
     /**
      * Usa un ítem del inventario en los objetivos especificados.
+     * El uso se marca en Flight Recorder con un evento {@link EventosJfr.UsoItem}.
      * @param item 
      * @param objetivos
-     * @return String Resultado del uso del ítem.
+     * @return boolean true si el ítem tuvo efecto.
      */
-    public String usarItem(Item item, List<Combatiente> objetivos) {
+    public boolean usarItem(Item item, List<Combatiente> objetivos) {
         if (!inventario.contains(item) || item.getCantidad() <= 0) {
-            return "No tienes ese ítem disponible.";
+            registrarEvento(TipoEvento.ITEM_NO_DISPONIBLE, null, 0, 0);
+            return false;
+        }
+        if (inventarioCompartido) {
+            inventarioPropio();
+            item = inventario.get(inventario.indexOf(item));
         }
         
-        String resultado = item.usar(objetivos);
+        EventosJfr.UsoItem evento = new EventosJfr.UsoItem();
+        evento.begin();
+        boolean resultado = item.usar(this, objetivos);
         item.reducirCantidad();
         
         if (item.getCantidad() <= 0) {
             inventario.remove(item);
         }
         
+        if (!estado.isSimulado() && evento.shouldCommit()) {
+            evento.batalla = estado.getIdBatalla();
+            evento.combatiente = nombre;
+            evento.item = item.getNombre();
+            evento.turno = EventosJfr.turno(estado);
+            evento.objetivos = objetivos.size();
+            evento.efecto = resultado;
+            evento.commit();
+        }
         return resultado;
     }
     /**
@@ -87,8 +113,63 @@ public class Jugador extends Combatiente {
      * @param item Ítem a agregar.
      */
     public void agregarItem(Item item) {
+        inventarioPropio();
+        item.asignarFuenteAleatoria(aleatorio());
         inventario.add(item);
     }
+    /**
+     * Vincula al jugador con el estado de la batalla y asigna a sus ítems
+     * la fuente aleatoria de la batalla.
+     * @param destino Estado de la batalla.
+     */
+    @Override
+    void vincular(EstadoCombate destino) {
+        super.vincular(destino);
+        for (Item item : inventario) {
+            item.asignarFuenteAleatoria(aleatorio());
+        }
+    }
+    /**
+     * Reemplaza el inventario, por ejemplo al restaurar una instantánea.
+     * Los ítems usan la fuente aleatoria del jugador.
+     * @param items Ítems del nuevo inventario.
+     */
+    void reemplazarInventario(List<Item> items) {
+        if (inventarioCompartido) {
+            inventario = new ArrayList<>(items.size());
+            inventarioCompartido = false;
+        }
+        inventario.clear();
+        for (Item item : items) agregarItem(item);
+    }
+    /**
+     * Crea otra vista del jugador sobre un estado bifurcado. El inventario queda
+     * compartido entre los dos jugadores hasta que alguno lo cambie.
+     * @param destino Estado bifurcado.
+     * @return Jugador Copia del jugador.
+     */
+    @Override
+    Jugador bifurcar(EstadoCombate destino) {
+        Jugador copia = (Jugador) super.bifurcar(destino);
+        inventarioCompartido = true;
+        copia.inventarioCompartido = true;
+        return copia;
+    }
+    /**
+     * Copia el inventario compartido con una bifurcación, con ítems que usan la
+     * fuente aleatoria de este jugador, para cambiarlo sin que el otro lo vea.
+     */
+    private void inventarioPropio() {
+        if (!inventarioCompartido) return;
+        List<Item> propio = new ArrayList<>(inventario.size());
+        for (Item item : inventario) {
+            Item copia = item.copiar();
+            copia.asignarFuenteAleatoria(aleatorio());
+            propio.add(copia);
+        }
+        inventario = propio;
+        inventarioCompartido = false;
+    }
     /**
      * Obtiene una copia del inventario del jugador.
      * @return List<Item> Copia del inventario.
@@ -97,17 +178,31 @@ public class Jugador extends Combatiente {
         return new ArrayList<>(inventario);
     }
     /**
-     * Actualiza los efectos temporales del jugador al inicio de su turno.
-     *  @return void
+     * Obtiene la cantidad de ítems distintos del inventario, sin copiarlo.
+     * @return int Tamaño del inventario.
      */
-    public void actualizarEfectosTurnos() {
-        if (turnosAtaqueModificado > 0) {
-            turnosAtaqueModificado--;
-            if (turnosAtaqueModificado <= 0) {
-                ataqueModificado = 0;
-                efectosActivos.removeIf(efecto -> efecto.contains("Ataque potenciado"));
-            }
-        }
+    public int getTamanoInventario() {
+        return inventario.size();
+    }
+    /**
+     * Obtiene un ítem del inventario sin copiar la lista, para recorrerlo por índice
+     * en cada turno. El ítem se consulta pero no se modifica: para usarlo está
+     * {@link #usarItem}.
+     * @param indice Índice del ítem, de 0 a {@link #getTamanoInventario()} - 1.
+     * @return Item Ítem del inventario.
+     */
+    public Item getItem(int indice) {
+        return inventario.get(indice);
+    }
+    /**
+     * Cuenta las unidades de todos los ítems del inventario, sin copiarlo. Baja en
+     * uno cada vez que se usa un ítem.
+     * @return int Unidades en el inventario.
+     */
+    public int getUnidadesInventario() {
+        int unidades = 0;
+        for (Item item : inventario) unidades += item.getCantidad();
+        return unidades;
     }
     /**
      * Calcula el daño de ataque del jugador, considerando modificadores temporales.
@@ -116,21 +211,27 @@ public class Jugador extends Combatiente {
      */
     @Override
     protected int calcularDanoAtaque() {
-        int ataqueTotal = ataqueBase + ataqueModificado;
-        Random rand = new Random();
-        double factor = 0.9 + (rand.nextDouble() * 0.2);
+        int ataqueTotal = getAtaqueBase() + estado.getMagnitudEfecto(id, Efecto.ATAQUE_POTENCIADO);
+        double factor = 0.9 + (aleatorio().nextDouble() * 0.2);
         return (int) (ataqueTotal * factor);
     }
     /**
      * Modifica el ataque del jugador temporalmente.
+     * El efecto dura 3 turnos; aplicarlo de nuevo suma el ataque y reinicia la duración.
      * @param modificador Cantidad a modificar.
      * @return void
      */
     @Override
     public void modificarAtaque(int modificador) {
-        this.ataqueModificado += modificador;
-        this.turnosAtaqueModificado = 3; // Dura 3 turnos
-        aplicarEfecto("Ataque potenciado: +" + modificador + " por " + turnosAtaqueModificado + " turnos");
+        aplicarEfecto(Efecto.ATAQUE_POTENCIADO, modificador);
+    }
+    /**
+     * Obtiene la velocidad del jugador, que depende de su rol.
+     * @return int Velocidad.
+     */
+    @Override
+    public int getVelocidad() {
+        return rol.getVelocidad();
     }
     /**
      * Obtiene el rol del jugador.
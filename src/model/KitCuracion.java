@@ -29,13 +29,13 @@ public class KitCuracion extends Item {
     }
     /**
      * Usa el kit de curación en los objetivos especificados.
+     * @param usuario Combatiente que usa el kit.
      * @param objetivos Lista de combatientes objetivo.
-     * @return String Resultado del uso del kit.
+     * @return boolean true si curó al menos a un aliado.
      */
     @Override
-    public String usar(List<Combatiente> objetivos) {
-        StringBuilder resultado = new StringBuilder();
-        resultado.append("¡Se usa un Kit de Curación Grupal!");
+    public boolean usar(Combatiente usuario, List<Combatiente> objetivos) {
+        usuario.registrarEvento(TipoEvento.KIT_CURACION, null, 0, 0);
         
         int aliadosCurados = 0;
         for (Combatiente c : objetivos) {
@@ -44,16 +44,16 @@ public class KitCuracion extends Item {
                 c.curar(curacionGrupo);
                 int vidaCurada = c.getVidaActual() - vidaAnterior;
                 if (vidaCurada > 0) {
-                    resultado.append(String.format(" %s recupera %d HP!", c.getNombre(), vidaCurada));
+                    usuario.registrarEvento(TipoEvento.KIT_CURACION_ALIADO, c, vidaCurada, 0);
                     aliadosCurados++;
                 }
             }
         }
         
         if (aliadosCurados == 0) {
-            resultado.append(" Pero no hay aliados que curar...");
+            usuario.registrarEvento(TipoEvento.KIT_CURACION_VACIO, null, 0, 0);
         }
         
-        return resultado.toString();
+        return aliadosCurados > 0;
     }
 }
@@ -0,0 +1,362 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Clase LectorHistorial.
+ * Lee un historial escrito por {@link HistorialBatalla}. Los índices permiten ir
+ * directo a un turno o a los turnos de un combatiente sin recorrer el historial;
+ * los segmentos se mapean en memoria la primera vez que se necesitan.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+public final class LectorHistorial {
+    private final Path directorio;
+    private final int cantidadCombatientes;
+    private final int cantidadJugadores;
+    private final int cantidadTurnos;
+    private final int cantidadEntradas;
+    private final int intervaloFotos;
+    private final int segmentoFinal;
+    private final int posicionFinal;
+    private final int[] ultimaEntrada;
+    private final String[] nombres;
+    private final String[] mensajesInicio;
+    private final String[] mensajesMuerte;
+    private final TextosCombatientes textos;
+
+    private final Map<Integer, ByteBuffer> segmentosEventos = new HashMap<>();
+    private final Map<Integer, ByteBuffer> segmentosTurnos = new HashMap<>();
+    private final Map<Integer, ByteBuffer> segmentosEntradas = new HashMap<>();
+
+    private LectorHistorial(Path directorio, ByteBuffer cabecera) throws IOException {
+        this.directorio = directorio;
+        if (cabecera.limit() < 44 || cabecera.getInt(0) != HistorialBatalla.MAGIA) {
+            throw new IOException("El directorio no contiene un historial de batalla");
+        }
+        short version = cabecera.getShort(4);
+        if (version != HistorialBatalla.VERSION) {
+            throw new IOException("Versión de historial no soportada: " + version);
+        }
+        cabecera.position(8);
+        this.cantidadCombatientes = cabecera.getInt();
+        this.cantidadJugadores = cabecera.getInt();
+        this.cantidadTurnos = cabecera.getInt();
+        this.cantidadEntradas = cabecera.getInt();
+        cabecera.getInt(); // tamaño de segmento
+        this.intervaloFotos = cabecera.getInt();
+        this.segmentoFinal = cabecera.getInt();
+        this.posicionFinal = cabecera.getInt();
+        if (cantidadCombatientes < 0 || cantidadTurnos < 1 || intervaloFotos < 1
+                || cabecera.remaining() < 4L * cantidadCombatientes) {
+            throw new IOException("Cabecera de historial dañada");
+        }
+        this.ultimaEntrada = new int[cantidadCombatientes];
+        for (int id = 0; id < cantidadCombatientes; id++) ultimaEntrada[id] = cabecera.getInt();
+        this.nombres = new String[cantidadCombatientes];
+        this.mensajesInicio = new String[cantidadCombatientes];
+        this.mensajesMuerte = new String[cantidadCombatientes];
+        for (int id = 0; id < cantidadCombatientes; id++) {
+            nombres[id] = leerTexto(cabecera);
+            mensajesInicio[id] = leerTexto(cabecera);
+            mensajesMuerte[id] = leerTexto(cabecera);
+        }
+        this.textos = new TextosCombatientes() {
+            @Override public String nombre(int id) { return nombres[id]; }
+            @Override public String mensajeInicio(int id) { return mensajesInicio[id]; }
+            @Override public String mensajeMuerte(int id) { return mensajesMuerte[id]; }
+        };
+    }
+
+    /**
+     * Abre un historial ya cerrado.
+     * @param directorio Directorio del historial.
+     * @return LectorHistorial Lector del historial.
+     * @throws IOException si no existe, está incompleto o dañado.
+     */
+    public static LectorHistorial abrir(Path directorio) throws IOException {
+        Path cabecera = directorio.resolve(HistorialBatalla.ARCHIVO_CABECERA);
+        if (!Files.exists(cabecera)) {
+            throw new IOException("No hay un historial cerrado en " + directorio);
+        }
+        return new LectorHistorial(directorio, ByteBuffer.wrap(Files.readAllBytes(cabecera))
+                                                         .order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Entrega los eventos de un turno a un receptor, en el orden en que ocurrieron.
+     * El evento es una instancia reutilizada: solo es válido durante la llamada.
+     * @param turno Turno (base 0).
+     * @param receptor Receptor de los eventos.
+     * @throws IOException si no se puede leer un segmento.
+     */
+    public void recorrerTurno(int turno, ReceptorEventos receptor) throws IOException {
+        EventoBatalla evento = new EventoBatalla(textos);
+        Cursor cursor = inicioTurno(turno);
+        long fin = finTurno(turno);
+        while (cursor.avanzarHasta(fin)) {
+            ByteBuffer datos = cursor.datos;
+            int p = cursor.posicion;
+            byte clase = datos.get(p);
+            if (clase == HistorialBatalla.REGISTRO_EVENTO) {
+                evento.establecer(TipoEvento.desdeCodigo(datos.get(p + 1)), datos.getInt(p + 8), datos.getInt(p + 12),
+                                  datos.getInt(p + 16), datos.getInt(p + 20), datos.getInt(p + 24), null);
+                receptor.alRegistrar(evento);
+            } else if (clase == HistorialBatalla.REGISTRO_TEXTO) {
+                byte[] bytes = new byte[datos.getInt(p + 12)];
+                datos.get(p + 16, bytes);
+                evento.establecer(TipoEvento.TEXTO, datos.getInt(p + 8), EventoBatalla.SIN_COMBATIENTE,
+                                  EventoBatalla.SIN_COMBATIENTE, 0, 0, new String(bytes, StandardCharsets.UTF_8));
+                receptor.alRegistrar(evento);
+            }
+            cursor.siguiente();
+        }
+    }
+
+    /**
+     * Arma el texto de las acciones de un turno, con el mismo formato que el registro de la batalla.
+     * @param turno Turno (base 0).
+     * @return List Líneas del turno.
+     * @throws IOException si no se puede leer un segmento.
+     */
+    public List<String> lineasTurno(int turno) throws IOException {
+        List<String> lineas = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        recorrerTurno(turno, evento -> {
+            if (!evento.getTipo().isContinuacion() && sb.length() > 0) {
+                lineas.add(sb.toString());
+                sb.setLength(0);
+            }
+            if (sb.length() == 0) sb.append("Turno ").append(evento.getTurno() + 1).append(": ");
+            evento.describir(sb);
+        });
+        if (sb.length() > 0) lineas.add(sb.toString());
+        return lineas;
+    }
+
+    /**
+     * Obtiene los turnos en los que participó un combatiente: actuó, recibió una
+     * acción o cambió su estado.
+     * @param id Id del combatiente.
+     * @return int[] Turnos en orden creciente.
+     * @throws IOException si no se puede leer el índice.
+     */
+    public int[] turnosDeCombatiente(int id) throws IOException {
+        Objects.checkIndex(id, cantidadCombatientes);
+        int[] resultado = new int[8];
+        int cantidad = 0;
+        for (int entrada = ultimaEntrada[id]; entrada != HistorialBatalla.SIN_POSICION; ) {
+            ByteBuffer datos = entrada(segmentosEntradas, HistorialBatalla.PREFIJO_COMBATIENTES, entrada);
+            int p = posicionEntrada(entrada, HistorialBatalla.TAMANO_ENTRADA_COMBATIENTE);
+            if (cantidad == resultado.length) resultado = Arrays.copyOf(resultado, cantidad * 2);
+            resultado[cantidad++] = datos.getInt(p + 4);
+            entrada = datos.getInt(p + 8);
+        }
+        int[] turnos = Arrays.copyOf(resultado, cantidad);
+        Arrays.sort(turnos);
+        return turnos;
+    }
+
+    /**
+     * Reconstruye el estado de todos los combatientes al final de un turno, a partir
+     * de la foto anterior y los cambios de los turnos siguientes.
+     * @param turno Turno (base 0).
+     * @return FotoTurno Vida, ataque y efectos de cada combatiente.
+     * @throws IOException si no se puede leer un segmento.
+     */
+    public FotoTurno estadoAlFinalDe(int turno) throws IOException {
+        Objects.checkIndex(turno, cantidadTurnos);
+        FotoTurno foto = new FotoTurno(turno, cantidadCombatientes);
+        int base = turno - turno % intervaloFotos;
+        Cursor cursor = inicioTurno(base);
+        if (!cursor.avanzarHasta(finTurno(base))
+                || cursor.datos.get(cursor.posicion) != HistorialBatalla.REGISTRO_FOTO) {
+            throw new IOException("Falta la foto del turno " + (base + 1));
+        }
+        foto.aplicar(cursor.datos, cursor.posicion);
+        for (int t = base; t <= turno; t++) {
+            ByteBuffer datos = entrada(segmentosTurnos, HistorialBatalla.PREFIJO_TURNOS, t);
+            int p = posicionEntrada(t, HistorialBatalla.TAMANO_ENTRADA_TURNO);
+            int segmento = datos.getInt(p + 8);
+            if (segmento != HistorialBatalla.SIN_POSICION) {
+                foto.aplicar(segmentoEventos(segmento), datos.getInt(p + 12));
+            }
+        }
+        return foto;
+    }
+
+    public int getCantidadTurnos() { return cantidadTurnos; }
+    public int getCantidadCombatientes() { return cantidadCombatientes; }
+    public int getCantidadJugadores() { return cantidadJugadores; }
+    public int getCantidadEntradas() { return cantidadEntradas; }
+    public String getNombre(int id) { return nombres[id]; }
+    public Path getDirectorio() { return directorio; }
+
+    /**
+     * Clase FotoTurno.
+     * Estado de todos los combatientes al final de un turno.
+     */
+    public static final class FotoTurno {
+        private final int turno;
+        private final int[] vida;
+        private final int[] ataque;
+        private final int[] efectos;
+
+        FotoTurno(int turno, int cantidad) {
+            this.turno = turno;
+            this.vida = new int[cantidad];
+            this.ataque = new int[cantidad];
+            this.efectos = new int[cantidad];
+        }
+
+        /**
+         * Aplica un registro de foto o de cambios.
+         */
+        void aplicar(ByteBuffer datos, int posicion) {
+            int cambios = datos.getInt(posicion + 12);
+            int p = posicion + HistorialBatalla.TAMANO_CABECERA_REGISTRO + 8;
+            for (int i = 0; i < cambios; i++, p += HistorialBatalla.TAMANO_CAMBIO) {
+                int id = datos.getInt(p);
+                vida[id] = datos.getInt(p + 4);
+                ataque[id] = datos.getInt(p + 8);
+                efectos[id] = datos.getInt(p + 12);
+            }
+        }
+
+        public int getTurno() { return turno; }
+        public int getVida(int id) { return vida[id]; }
+        public int getAtaque(int id) { return ataque[id]; }
+        public int getMascaraEfectos(int id) { return efectos[id]; }
+        public boolean isVivo(int id) { return vida[id] > 0; }
+    }
+
+    /** --- AUXILIARES --- **/
+
+    /**
+     * Posición de lectura dentro de los segmentos de eventos.
+     */
+    private final class Cursor {
+        int segmento;
+        int posicion;
+        ByteBuffer datos;
+
+        Cursor(int segmento, int posicion) throws IOException {
+            this.segmento = segmento;
+            this.posicion = posicion;
+            this.datos = segmentoEventos(segmento);
+        }
+
+        /**
+         * Deja el cursor sobre el siguiente registro, saltando el final de los segmentos.
+         * @return true si hay un registro antes del fin indicado.
+         */
+        boolean avanzarHasta(long fin) throws IOException {
+            while (combinar(segmento, posicion) < fin) {
+                if (posicion + HistorialBatalla.TAMANO_CABECERA_REGISTRO <= datos.limit()
+                        && datos.get(posicion) != HistorialBatalla.REGISTRO_FIN) {
+                    return true;
+                }
+                if (segmento >= segmentoFinal) return false;
+                datos = segmentoEventos(++segmento);
+                posicion = 0;
+            }
+            return false;
+        }
+
+        void siguiente() {
+            posicion += datos.getInt(posicion + 4);
+        }
+    }
+
+    private Cursor inicioTurno(int turno) throws IOException {
+        Objects.checkIndex(turno, cantidadTurnos);
+        ByteBuffer datos = entrada(segmentosTurnos, HistorialBatalla.PREFIJO_TURNOS, turno);
+        int p = posicionEntrada(turno, HistorialBatalla.TAMANO_ENTRADA_TURNO);
+        return new Cursor(datos.getInt(p), datos.getInt(p + 4));
+    }
+
+    private long finTurno(int turno) throws IOException {
+        if (turno + 1 >= cantidadTurnos) return combinar(segmentoFinal, posicionFinal);
+        ByteBuffer datos = entrada(segmentosTurnos, HistorialBatalla.PREFIJO_TURNOS, turno + 1);
+        int p = posicionEntrada(turno + 1, HistorialBatalla.TAMANO_ENTRADA_TURNO);
+        return combinar(datos.getInt(p), datos.getInt(p + 4));
+    }
+
+    private ByteBuffer entrada(Map<Integer, ByteBuffer> cache, String prefijo, int indice) throws IOException {
+        int segmento = indice / HistorialBatalla.ENTRADAS_POR_SEGMENTO;
+        ByteBuffer datos = cache.get(segmento);
+        if (datos == null) {
+            datos = ArchivoSegmentado.mapearLectura(directorio, prefijo, segmento);
+            cache.put(segmento, datos);
+        }
+        return datos;
+    }
+
+    private static int posicionEntrada(int indice, int tamano) {
+        return (indice % HistorialBatalla.ENTRADAS_POR_SEGMENTO) * tamano;
+    }
+
+    private ByteBuffer segmentoEventos(int segmento) throws IOException {
+        ByteBuffer datos = segmentosEventos.get(segmento);
+        if (datos == null) {
+            datos = ArchivoSegmentado.mapearLectura(directorio, HistorialBatalla.PREFIJO_EVENTOS, segmento);
+            segmentosEventos.put(segmento, datos);
+        }
+        return datos;
+    }
+
+    private static long combinar(int segmento, int posicion) {
+        return ((long) segmento << 32) | (posicion & 0xFFFFFFFFL);
+    }
+
+    private static String leerTexto(ByteBuffer origen) {
+        byte[] bytes = new byte[Short.toUnsignedInt(origen.getShort())];
+        origen.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Muestra un historial desde la línea de comandos.
+     * Uso: java -cp bin model.LectorHistorial directorio [turno | combatiente id]
+     * Sin más argumentos muestra un resumen; con un turno (base 1) muestra sus acciones
+     * y el estado al final; con un combatiente, los turnos en que participó.
+     * @param args Argumentos de línea de comandos.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Uso: java -cp bin model.LectorHistorial <directorio> [turno | combatiente <id>]");
+            return;
+        }
+        try {
+            LectorHistorial lector = abrir(Paths.get(args[0]));
+            if (args.length >= 3 && args[1].equals("combatiente")) {
+                int id = Integer.parseInt(args[2]);
+                System.out.println(lector.getNombre(id) + " participó en los turnos: "
+                                   + Arrays.toString(Arrays.stream(lector.turnosDeCombatiente(id)).map(t -> t + 1).toArray()));
+            } else if (args.length >= 2) {
+                int turno = Integer.parseInt(args[1]) - 1;
+                lector.lineasTurno(turno).forEach(System.out::println);
+                FotoTurno foto = lector.estadoAlFinalDe(turno);
+                System.out.println("\nEstado al final del turno " + (turno + 1) + ":");
+                for (int id = 0; id < lector.getCantidadCombatientes(); id++) {
+                    System.out.printf("  [%d] %s - HP: %d - ATK: %d%n", id, lector.getNombre(id),
+                                      foto.getVida(id), foto.getAtaque(id));
+                }
+            } else {
+                System.out.printf("Historial con %d turnos, %d jugadores y %d enemigos%n", lector.getCantidadTurnos(),
+                                  lector.getCantidadJugadores(),
+                                  lector.getCantidadCombatientes() - lector.getCantidadJugadores());
+            }
+        } catch (IOException e) {
+            System.out.println("Error al leer el historial: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package model;
+
+/**
+ * Enum que define cómo se decide el orden de turnos de una batalla.
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+public enum ModoTurnos {
+    /** Orden mezclado al azar al inicio; cada combatiente actúa una vez por ronda */
+    BARAJADO,
+    /** Orden por iniciativa: cada combatiente actúa más seguido cuanto mayor es su velocidad */
+    INICIATIVA;
+
+    /**
+     * Crea el planificador de turnos de este modo.
+     * @param combatientes Combatientes de la batalla, indexados por id.
+     * @param estado Estado de la batalla.
+     * @param aleatorio Fuente aleatoria de la batalla.
+     * @param finDeRonda Acción a ejecutar cada vez que termina una ronda.
+     * @return PlanificadorTurnos creado.
+     */
+    PlanificadorTurnos crear(Combatiente[] combatientes, EstadoCombate estado,
+                             FuenteAleatoria aleatorio, Runnable finDeRonda) {
+        switch (this) {
+            case INICIATIVA: return new PlanificadorIniciativa(combatientes, estado, aleatorio, finDeRonda);
+            default: return new PlanificadorBarajado(combatientes, estado, aleatorio, finDeRonda);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package model;
+
+import java.util.Locale;
+
+/**
+ * Clase MuestraMetricas.
+ * Valores de un RegistroMetricas en un momento dado. No cambia después de creada,
+ * así que se puede consultar y exportar sin afectar a las batallas en curso.
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class MuestraMetricas {
+    /** Percentiles del tiempo de turno que se exportan */
+    private static final double[] CUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+    private static final double NANOS_POR_SEGUNDO = 1e9;
+
+    private final long nanosTranscurridos;
+    private final HistogramaLatencias turnos;
+    private final long[] acciones;
+    private final long[] danoCausado;
+    private final long[] danoRecibido;
+    private final long[] efectos;
+    private final long[] batallas;
+    private final long batallasIniciadas;
+
+    MuestraMetricas(long nanosTranscurridos, HistogramaLatencias turnos, long[] acciones, long[] danoCausado,
+                    long[] danoRecibido, long[] efectos, long[] batallas, long batallasIniciadas) {
+        this.nanosTranscurridos = nanosTranscurridos;
+        this.turnos = turnos;
+        this.acciones = acciones;
+        this.danoCausado = danoCausado;
+        this.danoRecibido = danoRecibido;
+        this.efectos = efectos;
+        this.batallas = batallas;
+        this.batallasIniciadas = batallasIniciadas;
+    }
+
+    /**
+     * Obtiene el tiempo de procesamiento de los turnos. Es una copia: se puede
+     * consultar pero no se debe registrar en ella.
+     * @return HistogramaLatencias Tiempos de turno en nanosegundos.
+     */
+    public HistogramaLatencias getTurnos() { return turnos; }
+
+    public long getAcciones(RegistroMetricas.Accion accion) { return acciones[accion.ordinal()]; }
+    public long getDanoCausado(TipoEnemigo tipo) { return danoCausado[tipo.ordinal()]; }
+    public long getDanoRecibido(TipoEnemigo tipo) { return danoRecibido[tipo.ordinal()]; }
+    public long getEfectosAplicados(Efecto efecto) { return efectos[efecto.ordinal()]; }
+    public long getBatallas(RegistroMetricas.Resultado resultado) { return batallas[resultado.ordinal()]; }
+    public long getBatallasIniciadas() { return batallasIniciadas; }
+    public long getNanosTranscurridos() { return nanosTranscurridos; }
+
+    /**
+     * Obtiene la cantidad de batallas terminadas, con cualquier resultado.
+     * @return long Batallas terminadas.
+     */
+    public long getBatallasTerminadas() {
+        long total = 0;
+        for (long cantidad : batallas) total += cantidad;
+        return total;
+    }
+
+    /**
+     * Calcula las batallas terminadas por segundo desde otra muestra del mismo registro.
+     * @param anterior Muestra anterior, o null para calcularlas desde que se creó el registro.
+     * @return double Batallas por segundo.
+     */
+    public double getBatallasPorSegundo(MuestraMetricas anterior) {
+        long desde = anterior == null ? 0 : anterior.nanosTranscurridos;
+        long terminadasAntes = anterior == null ? 0 : anterior.getBatallasTerminadas();
+        long nanos = nanosTranscurridos - desde;
+        return nanos <= 0 ? 0 : (getBatallasTerminadas() - terminadasAntes) * NANOS_POR_SEGUNDO / nanos;
+    }
+
+    /**
+     * Escribe la muestra en el formato de exposición de texto de Prometheus.
+     * El tiempo de turno se exporta como summary con sus percentiles.
+     * @param anterior Muestra anterior del mismo registro, para las batallas por segundo, o null.
+     * @return String Texto listo para escribir en un archivo .prom.
+     */
+    public String aPrometheus(MuestraMetricas anterior) {
+        StringBuilder sb = new StringBuilder(2048);
+        encabezado(sb, "batalla_turno_segundos", "summary",
+                   "Tiempo de procesamiento de un turno, sin contar la espera al jugador");
+        for (double cuantil : CUANTILES) {
+            sb.append("batalla_turno_segundos{quantile=\"").append(cuantil).append("\"} ");
+            segundos(sb, turnos.getPercentil(cuantil)).append('\n');
+        }
+        sb.append("batalla_turno_segundos_sum ");
+        segundos(sb, turnos.getSuma()).append('\n');
+        sb.append("batalla_turno_segundos_count ").append(turnos.getCantidad()).append('\n');
+        encabezado(sb, "batalla_turno_maximo_segundos", "gauge", "Turno más lento registrado");
+        sb.append("batalla_turno_maximo_segundos ");
+        segundos(sb, turnos.getMaximo()).append('\n');
+
+        encabezado(sb, "batalla_acciones_total", "counter", "Acciones realizadas por tipo");
+        for (RegistroMetricas.Accion accion : RegistroMetricas.Accion.values()) {
+            muestra(sb, "batalla_acciones_total", "accion", accion.getEtiqueta(), acciones[accion.ordinal()]);
+        }
+        encabezado(sb, "batalla_dano_causado_total", "counter", "Daño causado por los enemigos de cada tipo");
+        for (TipoEnemigo tipo : TipoEnemigo.values()) {
+            muestra(sb, "batalla_dano_causado_total", "tipo", tipo.getClave(), danoCausado[tipo.ordinal()]);
+        }
+        encabezado(sb, "batalla_dano_recibido_total", "counter", "Daño recibido por los enemigos de cada tipo");
+        for (TipoEnemigo tipo : TipoEnemigo.values()) {
+            muestra(sb, "batalla_dano_recibido_total", "tipo", tipo.getClave(), danoRecibido[tipo.ordinal()]);
+        }
+        encabezado(sb, "batalla_efectos_aplicados_total", "counter", "Efectos aplicados a un combatiente");
+        for (Efecto efecto : Efecto.values()) {
+            muestra(sb, "batalla_efectos_aplicados_total", "efecto", efecto.name().toLowerCase(Locale.ROOT),
+                    efectos[efecto.ordinal()]);
+        }
+        encabezado(sb, "batalla_batallas_total", "counter", "Batallas terminadas por resultado");
+        for (RegistroMetricas.Resultado resultado : RegistroMetricas.Resultado.values()) {
+            muestra(sb, "batalla_batallas_total", "resultado", resultado.getEtiqueta(), batallas[resultado.ordinal()]);
+        }
+        encabezado(sb, "batalla_batallas_iniciadas_total", "counter", "Batallas que empezaron a medirse");
+        sb.append("batalla_batallas_iniciadas_total ").append(batallasIniciadas).append('\n');
+        encabezado(sb, "batalla_batallas_por_segundo", "gauge", "Batallas terminadas por segundo desde la muestra anterior");
+        sb.append("batalla_batallas_por_segundo ").append(getBatallasPorSegundo(anterior)).append('\n');
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Turnos: %d - p50 %.1f µs - p99 %.1f µs - máximo %.1f µs%n", turnos.getCantidad(),
+                                turnos.getPercentil(0.5) / 1e3, turnos.getPercentil(0.99) / 1e3, turnos.getMaximo() / 1e3));
+        sb.append("Acciones:");
+        for (RegistroMetricas.Accion accion : RegistroMetricas.Accion.values()) {
+            sb.append(' ').append(accion.getEtiqueta()).append('=').append(acciones[accion.ordinal()]);
+        }
+        sb.append(String.format("%nBatallas: %d terminadas de %d - %.1f por segundo",
+                                getBatallasTerminadas(), batallasIniciadas, getBatallasPorSegundo(null)));
+        return sb.toString();
+    }
+
+    /** --- AUXILIARES --- **/
+
+    private static void encabezado(StringBuilder sb, String nombre, String tipo, String ayuda) {
+        sb.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        sb.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+    }
+
+    private static void muestra(StringBuilder sb, String nombre, String etiqueta, String valorEtiqueta, long valor) {
+        sb.append(nombre).append('{').append(etiqueta).append("=\"").append(valorEtiqueta).append("\"} ")
+          .append(valor).append('\n');
+    }
+
+    private static StringBuilder segundos(StringBuilder sb, long nanos) {
+        return sb.append(nanos / NANOS_POR_SEGUNDO);
+    }
+}
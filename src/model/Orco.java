@@ -9,58 +9,77 @@ import java.util.*;
  * @since 2025-09-28
  */
 public class Orco extends Enemigo {
-    private int fuerza;
+    /** Arquetipo del orco común */
+    public static final ArquetipoEnemigo GUERRERO =
+        new ArquetipoEnemigo(TipoEnemigo.ORCO, "Orco Guerrero", 60, 15, 18, false);
+    /** Arquetipo del orco jefe */
+    public static final ArquetipoEnemigo SENOR_DE_GUERRA =
+        new ArquetipoEnemigo(TipoEnemigo.ORCO, "Orco Señor de Guerra", 80, 20, 25, true);
     /**
      * Constructor de la clase Orco.
      * @param esJefe
      */
     public Orco(boolean esJefe) {
-        super(esJefe ? "Orco Señor de Guerra" : "Orco Guerrero", 
-              esJefe ? 80 : 60, 
-              esJefe ? 20 : 15, 
-              "Orco", esJefe);
-        this.fuerza = esJefe ? 25 : 18;
+        this(esJefe, EstadoCombate.paraCombatienteSuelto());
+    }
+    /**
+     * Constructor de Orco que guarda su estado en un estado compartido.
+     * @param esJefe Indica si es un jefe.
+     * @param estado Estado donde se agrega el orco.
+     */
+    public Orco(boolean esJefe, EstadoCombate estado) {
+        this(esJefe ? SENOR_DE_GUERRA : GUERRERO, estado);
+    }
+    /**
+     * Constructor de Orco a partir de un arquetipo.
+     * @param arquetipo Arquetipo de tipo orco.
+     * @param estado Estado donde se agrega el orco.
+     */
+    public Orco(ArquetipoEnemigo arquetipo, EstadoCombate estado) {
+        super(validarTipo(arquetipo, TipoEnemigo.ORCO), estado);
     }
     /**
      * Habilidad especial del orco.
      * Si es un jefe, usa una habilidad diferente.
      * @param objetivos Lista de combatientes objetivo.
-     * @return String Resultado de la habilidad especial.
+     * @return boolean true si la habilidad se realizó.
      */
     @Override
-    public String habilidadEspecial(List<Combatiente> objetivos) {
-        if (objetivos.isEmpty()) return "";
+    public boolean habilidadEspecial(List<Combatiente> objetivos) {
+        if (objetivos.isEmpty()) return false;
         
-        Random rand = new Random();
-        Combatiente objetivo = objetivos.get(rand.nextInt(objetivos.size()));
+        Combatiente objetivo = objetivos.get(aleatorio().nextInt(objetivos.size()));
         
         int dano = (int) (calcularDanoAtaque() * 1.5);
         objetivo.recibirDano(dano);
         
-        return String.format("¡%s usa GOLPE BRUTAL contra %s causando %d de daño devastador!", 
-                           nombre, objetivo.getNombre(), dano);
+        registrarEvento(TipoEvento.GOLPE_BRUTAL, objetivo, dano, 0);
+        return true;
     }
     /**
      *  Habilidad de jefe del orco.
      *  Debilita a todos los enemigos.
      * @param objetivos Lista de combatientes objetivo.
-     * @return String Resultado de la habilidad de jefe.
+     * @return boolean true si la habilidad se realizó.
      */
     @Override
-    public String habilidadJefe(List<Combatiente> objetivos) {
-        if (objetivos.isEmpty()) return "";
+    public boolean habilidadJefe(List<Combatiente> objetivos) {
+        if (objetivos.isEmpty()) return false;
         
-        StringBuilder resultado = new StringBuilder();
-        resultado.append(String.format("¡%s lanza un RUGIDO INTIMIDANTE!", nombre));
+        registrarEvento(TipoEvento.RUGIDO, null, 0, 0);
         
         for (Combatiente c : objetivos) {
             if (c.isEstaVivo() && c instanceof Jugador) {
-                c.aplicarEfecto("Intimidado (-5 ATK por 2 turnos)");
-                resultado.append(String.format(" %s se siente intimidado!", c.getNombre()));
+                c.aplicarEfecto(Efecto.INTIMIDADO);
+                registrarEvento(TipoEvento.RUGIDO_INTIMIDA, c, 0, 0);
             }
         }
         
-        return resultado.toString();
+        return true;
     }
+    /**
+     * Devuelve la fuerza del orco.
+     * @return int Fuerza.
+     */
+    public int getFuerza() { return arquetipo.getAtributo(); }
 }
-
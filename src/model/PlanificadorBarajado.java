@@ -0,0 +1,132 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase PlanificadorBarajado.
+ * Mezcla el orden una sola vez al inicio y lo recorre ronda tras ronda.
+ * Los muertos se saltan al avanzar y se quitan del orden al cerrar cada ronda,
+ * así que avanzar cuesta O(1) amortizado. Una copia bifurcada comparte el orden
+ * hasta que alguna de las dos lo compacta.
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+final class PlanificadorBarajado implements PlanificadorTurnos {
+    private final Combatiente[] combatientes;
+    private final EstadoCombate estado;
+    private final Runnable finDeRonda;
+    private int[] orden;
+    private int cantidad;
+    private int indice;
+    /** El orden se comparte con una bifurcación y se copia antes de escribirlo */
+    private boolean compartido;
+
+    /**
+     * Constructor de PlanificadorBarajado.
+     * @param combatientes Combatientes de la batalla, indexados por id.
+     * @param estado Estado de la batalla.
+     * @param aleatorio Fuente aleatoria con la que se mezcla el orden.
+     * @param finDeRonda Acción a ejecutar cada vez que termina una ronda.
+     */
+    PlanificadorBarajado(Combatiente[] combatientes, EstadoCombate estado,
+                         FuenteAleatoria aleatorio, Runnable finDeRonda) {
+        this.combatientes = combatientes;
+        this.estado = estado;
+        this.finDeRonda = finDeRonda;
+        this.orden = new int[combatientes.length];
+        reiniciar(aleatorio);
+    }
+
+    private PlanificadorBarajado(PlanificadorBarajado origen, Combatiente[] combatientes, EstadoCombate estado,
+                                 Runnable finDeRonda) {
+        this.combatientes = combatientes;
+        this.estado = estado;
+        this.finDeRonda = finDeRonda;
+        this.orden = origen.orden;
+        this.cantidad = origen.cantidad;
+        this.indice = origen.indice;
+        this.compartido = true;
+    }
+
+    @Override
+    public PlanificadorTurnos bifurcar(Combatiente[] combatientes, EstadoCombate estado, Runnable finDeRonda) {
+        compartido = true;
+        return new PlanificadorBarajado(this, combatientes, estado, finDeRonda);
+    }
+
+    @Override
+    public void reiniciar(FuenteAleatoria aleatorio) {
+        if (compartido) {
+            orden = new int[orden.length];
+            compartido = false;
+        }
+        cantidad = orden.length;
+        indice = 0;
+        for (int id = 0; id < cantidad; id++) orden[id] = id;
+        aleatorio.barajar(orden);
+    }
+
+    @Override
+    public Combatiente getActual() {
+        return cantidad == 0 ? null : combatientes[orden[indice]];
+    }
+
+    @Override
+    public void avanzar() {
+        indice++;
+        while (true) {
+            while (indice < cantidad && !estado.isVivo(orden[indice])) indice++;
+            if (indice < cantidad) return;
+
+            compactar();
+            indice = 0;
+            if (cantidad == 0) return;
+            finDeRonda.run();
+        }
+    }
+
+    @Override
+    public List<Combatiente> getOrden() {
+        List<Combatiente> vivos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            if (estado.isVivo(orden[i])) vivos.add(combatientes[orden[i]]);
+        }
+        return vivos;
+    }
+
+    @Override
+    public void guardar(ByteBuffer destino) {
+        destino.putInt(cantidad).putInt(indice);
+        InstantaneaBatalla.escribirEnteros(destino, orden, cantidad);
+    }
+
+    @Override
+    public void restaurar(ByteBuffer origen) {
+        int guardados = origen.getInt();
+        if (guardados > orden.length) throw new IllegalArgumentException("El orden guardado tiene " + guardados + " combatientes");
+        if (compartido) {
+            orden = orden.clone();
+            compartido = false;
+        }
+        cantidad = guardados;
+        indice = origen.getInt();
+        InstantaneaBatalla.leerEnteros(origen, orden, cantidad);
+    }
+
+    /**
+     * Quita los muertos del orden, manteniendo el orden de los vivos.
+     */
+    private void compactar() {
+        if (compartido) {
+            orden = orden.clone();
+            compartido = false;
+        }
+        int vivos = 0;
+        for (int i = 0; i < cantidad; i++) {
+            if (estado.isVivo(orden[i])) orden[vivos++] = orden[i];
+        }
+        cantidad = vivos;
+    }
+}
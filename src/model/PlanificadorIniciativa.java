@@ -0,0 +1,213 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Clase PlanificadorIniciativa.
+ * Ordena los turnos por iniciativa: cada combatiente vuelve a actuar después de
+ * un intervalo inversamente proporcional a su velocidad. Un combatiente con la
+ * velocidad base actúa una vez por ronda; uno el doble de rápido, dos veces.
+ *
+ * Los próximos turnos se guardan en un montículo binario de ids ordenado por
+ * el instante del turno, así que avanzar cuesta O(log n). Los muertos quedan en
+ * el montículo y se descartan cuando llegan a la cima. Una copia bifurcada comparte
+ * los arreglos hasta que alguna de las dos avanza.
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+final class PlanificadorIniciativa implements PlanificadorTurnos {
+    /** Tiempo que tarda en volver a actuar un combatiente con la velocidad base */
+    static final long DURACION_RONDA = 1L << 20;
+
+    private final Combatiente[] combatientes;
+    private final EstadoCombate estado;
+    private final Runnable finDeRonda;
+    /** Instante del próximo turno de cada id */
+    private long[] siguiente;
+    /** Tiempo entre dos turnos de cada id; no cambia, así que las bifurcaciones lo comparten siempre */
+    private final long[] intervalo;
+    private int[] monticulo;
+    private int tamano;
+    private int actual = -1;
+    private long ronda;
+    /** Los instantes y el montículo se comparten con una bifurcación y se copian antes de escribirlos */
+    private boolean compartido;
+
+    /**
+     * Constructor de PlanificadorIniciativa.
+     * Cada combatiente empieza en un instante al azar dentro de su primer intervalo,
+     * para que los empates de velocidad no se resuelvan siempre igual.
+     * @param combatientes Combatientes de la batalla, indexados por id.
+     * @param estado Estado de la batalla.
+     * @param aleatorio Fuente aleatoria de la batalla.
+     * @param finDeRonda Acción a ejecutar cada vez que termina una ronda.
+     */
+    PlanificadorIniciativa(Combatiente[] combatientes, EstadoCombate estado,
+                           FuenteAleatoria aleatorio, Runnable finDeRonda) {
+        this.combatientes = combatientes;
+        this.estado = estado;
+        this.finDeRonda = finDeRonda;
+        int n = combatientes.length;
+        this.siguiente = new long[n];
+        this.intervalo = new long[n];
+        this.monticulo = new int[n];
+        for (int id = 0; id < n; id++) {
+            intervalo[id] = DURACION_RONDA * Combatiente.VELOCIDAD_BASE
+                            / Math.max(1, combatientes[id].getVelocidad());
+        }
+        reiniciar(aleatorio);
+    }
+
+    private PlanificadorIniciativa(PlanificadorIniciativa origen, Combatiente[] combatientes, EstadoCombate estado,
+                                   Runnable finDeRonda) {
+        this.combatientes = combatientes;
+        this.estado = estado;
+        this.finDeRonda = finDeRonda;
+        this.siguiente = origen.siguiente;
+        this.intervalo = origen.intervalo;
+        this.monticulo = origen.monticulo;
+        this.tamano = origen.tamano;
+        this.actual = origen.actual;
+        this.ronda = origen.ronda;
+        this.compartido = true;
+    }
+
+    @Override
+    public PlanificadorTurnos bifurcar(Combatiente[] combatientes, EstadoCombate estado, Runnable finDeRonda) {
+        compartido = true;
+        return new PlanificadorIniciativa(this, combatientes, estado, finDeRonda);
+    }
+
+    @Override
+    public void reiniciar(FuenteAleatoria aleatorio) {
+        if (compartido) {
+            siguiente = new long[siguiente.length];
+            monticulo = new int[monticulo.length];
+            compartido = false;
+        }
+        tamano = 0;
+        actual = -1;
+        ronda = 0;
+        for (int id = 0; id < siguiente.length; id++) {
+            siguiente[id] = aleatorio.nextLong(intervalo[id]);
+            insertar(id);
+        }
+        elegir();
+    }
+
+    @Override
+    public Combatiente getActual() {
+        return actual < 0 ? null : combatientes[actual];
+    }
+
+    @Override
+    public void avanzar() {
+        propios();
+        if (actual >= 0) {
+            siguiente[actual] += intervalo[actual];
+            if (estado.isVivo(actual)) insertar(actual);
+            actual = -1;
+        }
+        elegir();
+    }
+
+    @Override
+    public List<Combatiente> getOrden() {
+        Integer[] ids = new Integer[tamano];
+        for (int i = 0; i < tamano; i++) ids[i] = monticulo[i];
+        Arrays.sort(ids, (a, b) -> antes(a, b) ? -1 : 1);
+
+        List<Combatiente> orden = new ArrayList<>(tamano + 1);
+        if (actual >= 0 && estado.isVivo(actual)) orden.add(combatientes[actual]);
+        for (int id : ids) {
+            if (estado.isVivo(id)) orden.add(combatientes[id]);
+        }
+        return orden;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Los intervalos dependen solo de la velocidad de cada combatiente y no se guardan.
+     */
+    @Override
+    public void guardar(ByteBuffer destino) {
+        destino.putInt(actual).putLong(ronda).putInt(tamano);
+        InstantaneaBatalla.escribirLargos(destino, siguiente, siguiente.length);
+        InstantaneaBatalla.escribirEnteros(destino, monticulo, tamano);
+    }
+
+    @Override
+    public void restaurar(ByteBuffer origen) {
+        propios();
+        actual = origen.getInt();
+        ronda = origen.getLong();
+        int guardados = origen.getInt();
+        if (guardados > monticulo.length) throw new IllegalArgumentException("El montículo guardado tiene " + guardados + " combatientes");
+        tamano = guardados;
+        InstantaneaBatalla.leerLargos(origen, siguiente, siguiente.length);
+        InstantaneaBatalla.leerEnteros(origen, monticulo, tamano);
+    }
+
+    /**
+     * Saca del montículo al próximo combatiente vivo, cerrando las rondas que
+     * terminen antes de su turno. Los efectos de fin de ronda pueden matar
+     * combatientes, por eso se vuelve a mirar la cima después de cada ronda.
+     */
+    private void elegir() {
+        while (tamano > 0) {
+            int id = monticulo[0];
+            if (!estado.isVivo(id)) {
+                quitarCima();
+                continue;
+            }
+            if (siguiente[id] / DURACION_RONDA > ronda) {
+                ronda++;
+                finDeRonda.run();
+                continue;
+            }
+            quitarCima();
+            actual = id;
+            return;
+        }
+        actual = -1;
+    }
+
+    private void propios() {
+        if (!compartido) return;
+        siguiente = siguiente.clone();
+        monticulo = monticulo.clone();
+        compartido = false;
+    }
+
+    private boolean antes(int a, int b) {
+        return siguiente[a] < siguiente[b] || (siguiente[a] == siguiente[b] && a < b);
+    }
+
+    private void insertar(int id) {
+        int i = tamano++;
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (!antes(id, monticulo[padre])) break;
+            monticulo[i] = monticulo[padre];
+            i = padre;
+        }
+        monticulo[i] = id;
+    }
+
+    private void quitarCima() {
+        int ultimo = monticulo[--tamano];
+        int i = 0;
+        while (true) {
+            int hijo = 2 * i + 1;
+            if (hijo >= tamano) break;
+            if (hijo + 1 < tamano && antes(monticulo[hijo + 1], monticulo[hijo])) hijo++;
+            if (!antes(monticulo[hijo], ultimo)) break;
+            monticulo[i] = monticulo[hijo];
+            i = hijo;
+        }
+        if (tamano > 0) monticulo[i] = ultimo;
+    }
+}
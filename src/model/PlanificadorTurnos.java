@@ -0,0 +1,60 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Interfaz PlanificadorTurnos.
+ * Decide a qué combatiente le toca actuar. Los combatientes muertos no se quitan
+ * al morir: el planificador los salta cuando llegan a su turno.
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+interface PlanificadorTurnos {
+    /**
+     * Obtiene el combatiente que tiene el turno.
+     * @return Combatiente actual, o null si no queda nadie vivo.
+     */
+    Combatiente getActual();
+
+    /**
+     * Pasa el turno al siguiente combatiente vivo, cerrando la ronda si corresponde.
+     */
+    void avanzar();
+
+    /**
+     * Obtiene los combatientes vivos en el orden en que van a actuar.
+     * @return Lista nueva con el orden.
+     */
+    List<Combatiente> getOrden();
+
+    /**
+     * Crea una copia de este planificador para una batalla bifurcada, en la misma
+     * posición del orden de turnos. Avanzar uno no mueve al otro.
+     * @param combatientes Combatientes de la batalla bifurcada, indexados por id.
+     * @param estado Estado de la batalla bifurcada.
+     * @param finDeRonda Acción de fin de ronda de la batalla bifurcada.
+     * @return PlanificadorTurnos Copia del planificador.
+     */
+    PlanificadorTurnos bifurcar(Combatiente[] combatientes, EstadoCombate estado, Runnable finDeRonda);
+
+    /**
+     * Vuelve al principio de la primera ronda con todos los combatientes y sortea el
+     * orden otra vez, consumiendo de la fuente lo mismo que al crearse.
+     * @param aleatorio Fuente aleatoria de la batalla.
+     */
+    void reiniciar(FuenteAleatoria aleatorio);
+
+    /**
+     * Escribe en un buffer la posición del planificador dentro del orden de turnos.
+     * @param destino Buffer de la instantánea.
+     */
+    void guardar(ByteBuffer destino);
+
+    /**
+     * Vuelve a la posición escrita con {@link #guardar(ByteBuffer)} por un planificador
+     * del mismo modo y con los mismos combatientes.
+     * @param origen Buffer de la instantánea.
+     */
+    void restaurar(ByteBuffer origen);
+}
@@ -24,21 +24,23 @@ public class Pocion extends Item {
     }
     /**
      * Usa la poción en el objetivo especificado.
+     * @param usuario Combatiente que usa la poción.
      * @param objetivos Lista de combatientes objetivo.
-     * @return String Resultado del uso de la poción.
+     * @return boolean true si la poción se usó.
      */
     @Override
-    public String usar(List<Combatiente> objetivos) {
+    public boolean usar(Combatiente usuario, List<Combatiente> objetivos) {
         if (objetivos.size() == 1) {
             Combatiente objetivo = objetivos.get(0);
             if (objetivo.isEstaVivo()) {
                 int vidaAnterior = objetivo.getVidaActual();
                 objetivo.curar(curacion);
                 int vidaCurada = objetivo.getVidaActual() - vidaAnterior;
-                return String.format("¡%s usa una Poción de Vida y recupera %d puntos de vida!", 
-                                   objetivo.getNombre(), vidaCurada);
+                usuario.registrarEvento(TipoEvento.POCION, objetivo, vidaCurada, 0);
+                return true;
             }
         }
-        return "No se pudo usar la poción.";
+        usuario.registrarEvento(TipoEvento.POCION_FALLIDA, null, 0, 0);
+        return false;
     }
 }
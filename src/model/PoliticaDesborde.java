@@ -0,0 +1,18 @@
+package model;
+
+/**
+ * Enum PoliticaDesborde.
+ * Qué hace el registro asíncrono cuando su buffer está lleno y el escritor
+ * todavía no alcanzó a vaciarlo.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-18
+ */
+public enum PoliticaDesborde {
+    /** La batalla espera a que haya lugar; no se pierde ningún evento */
+    BLOQUEAR,
+    /** Se descarta el evento más antiguo del buffer para hacer lugar al nuevo */
+    DESCARTAR_ANTIGUO,
+    /** Con el buffer casi lleno se conserva una de cada N líneas; con el buffer lleno se descarta el evento nuevo */
+    MUESTREAR
+}
@@ -0,0 +1,25 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Interfaz PoliticaEnemigo.
+ * Define cómo elige un enemigo su acción y su objetivo en cada turno. La política
+ * por defecto es {@link PoliticaEnemigoAleatoria}; una batalla puede usar otra
+ * con {@link Batalla#setPoliticaEnemigos(PoliticaEnemigo)}, por ejemplo para
+ * niveles de dificultad más altos.
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public interface PoliticaEnemigo {
+
+    /**
+     * Decide la acción del enemigo para el turno actual.
+     * La decisión se escribe en el objeto recibido para evitar crear objetos por turno.
+     * @param enemigo Enemigo que tiene el turno.
+     * @param objetivos Jugadores vivos a los que puede atacar; no está vacía.
+     * @param batalla Batalla en curso, o null si el enemigo actúa fuera de una batalla.
+     * @param decision Decisión a completar.
+     */
+    void decidir(Enemigo enemigo, List<Combatiente> objetivos, Batalla batalla, DecisionEnemigo decision);
+}
@@ -0,0 +1,31 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Clase PoliticaEnemigoAleatoria.
+ * Política de siempre de los enemigos: ataca en el 60 % de los turnos a un objetivo
+ * al azar, usa la habilidad especial en el 25 %, la de jefe en el 10 % si es jefe y
+ * observa en el resto. Usa la fuente aleatoria del enemigo, así que con la misma
+ * semilla elige lo mismo. No guarda estado y se puede compartir entre hilos.
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public class PoliticaEnemigoAleatoria implements PoliticaEnemigo {
+
+    @Override
+    public void decidir(Enemigo enemigo, List<Combatiente> objetivos, Batalla batalla, DecisionEnemigo decision) {
+        FuenteAleatoria rand = enemigo.getEstado().getFuenteAleatoria();
+        int accion = rand.nextInt(100);
+
+        if (accion < 60) {
+            decision.atacar(rand.nextInt(objetivos.size()));
+        } else if (accion < 85) {
+            decision.habilidadEspecial();
+        } else if (enemigo.isEsJefe() && accion < 95) {
+            decision.habilidadJefe();
+        } else {
+            decision.observar();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Interfaz PoliticaJugador.
+ * Define cómo decide un jugador su acción cuando no hay una persona frente a la consola,
+ * por ejemplo en simulaciones o en el modo de batalla automática.
+ * @author Carlos Altán
+ * @since 2025-10-12
+ */
+public interface PoliticaJugador {
+
+    /**
+     * Decide la acción del jugador para el turno actual.
+     * La decisión se escribe en el objeto recibido para evitar crear objetos por turno.
+     * @param jugador Jugador que tiene el turno.
+     * @param batalla Batalla en curso.
+     * @param decision Decisión a completar.
+     */
+    void decidir(Jugador jugador, Batalla batalla, DecisionJugador decision);
+}
@@ -0,0 +1,123 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Clase PoliticaReglas.
+ * Política de jugador para la batalla automática: decide con unas pocas reglas
+ * sobre el estado de la batalla, en este orden:
+ * <ol>
+ *   <li>Kit de curación si hay dos o más aliados heridos en al menos lo que cura.</li>
+ *   <li>Poción al aliado con menos vida, si le queda un 40 % o menos.</li>
+ *   <li>Elixir de fuerza sobre sí mismo si no está potenciado y a los enemigos les
+ *       queda vida para varios ataques.</li>
+ *   <li>Ataque al enemigo que muere de un golpe y pega más fuerte; si ninguno muere
+ *       de un golpe, al que más ataque tiene por cada punto de vida. El golpe cuenta
+ *       la reducción de daño de los jefes.</li>
+ * </ol>
+ * La bomba de humo no se usa: confundir no cambia nada en el combate.
+ * No usa la fuente aleatoria, así que no cambia la secuencia de la batalla, y no
+ * crea objetos al decidir. No guarda estado: una misma instancia sirve para todos
+ * los jugadores y para varios hilos.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public class PoliticaReglas implements PoliticaJugador {
+
+    /** Fracción de vida a partir de la cual se usa una poción */
+    private static final double UMBRAL_POCION = 0.4;
+
+    /** Vida que le falta a un aliado para contar como herido para el kit (lo que cura el kit) */
+    private static final int HERIDA_KIT = 20;
+
+    /** Ataques que deben quedar para que valga la pena un elixir */
+    private static final int ATAQUES_PARA_ELIXIR = 3;
+
+    /** Daño mínimo de un ataque respecto del ataque total (la variación es de 0.9 a 1.1) */
+    private static final double FACTOR_MINIMO = 0.9;
+
+    @Override
+    public void decidir(Jugador jugador, Batalla batalla, DecisionJugador decision) {
+        List<Jugador> aliados = batalla.getJugadoresVivos();
+        List<Combatiente> enemigos = batalla.getEnemigosVivos();
+        if (enemigos.isEmpty()) {
+            decision.pasar();
+            return;
+        }
+
+        int pocion = -1, kit = -1, elixir = -1;
+        for (int i = 0; i < jugador.getTamanoInventario(); i++) {
+            Item item = jugador.getItem(i);
+            if (item.getCantidad() <= 0) continue;
+            if (item instanceof Pocion) pocion = i;
+            else if (item instanceof KitCuracion) kit = i;
+            else if (item instanceof PotenciadorAtaque) elixir = i;
+        }
+
+        // Curación
+        int masHerido = -1;
+        int propio = 0;
+        double menorFraccion = 1;
+        int heridos = 0;
+        for (int i = 0; i < aliados.size(); i++) {
+            Jugador aliado = aliados.get(i);
+            if (aliado == jugador) propio = i;
+            if (aliado.getVidaMaxima() - aliado.getVidaActual() >= HERIDA_KIT) heridos++;
+            double fraccion = (double) aliado.getVidaActual() / aliado.getVidaMaxima();
+            if (fraccion < menorFraccion) {
+                menorFraccion = fraccion;
+                masHerido = i;
+            }
+        }
+        if (kit >= 0 && heridos >= 2) {
+            decision.usarItem(kit, -1);
+            return;
+        }
+        if (pocion >= 0 && masHerido >= 0 && menorFraccion <= UMBRAL_POCION) {
+            decision.usarItem(pocion, masHerido);
+            return;
+        }
+
+        // Potenciación
+        long vidaEnemigos = 0;
+        for (int i = 0; i < enemigos.size(); i++) {
+            vidaEnemigos += enemigos.get(i).getVidaActual();
+        }
+        int ataque = jugador.getAtaqueBase()
+                     + jugador.getEstado().getMagnitudEfecto(jugador.getId(), Efecto.ATAQUE_POTENCIADO);
+        if (elixir >= 0 && !jugador.tieneEfecto(Efecto.ATAQUE_POTENCIADO)
+            && vidaEnemigos > (long) ATAQUES_PARA_ELIXIR * ataque) {
+            decision.usarItem(elixir, propio);
+            return;
+        }
+
+        decision.atacar(elegirObjetivo(enemigos, (int) (ataque * FACTOR_MINIMO)));
+    }
+
+    /**
+     * Elige a quién atacar: entre los que mueren de un golpe, el de más ataque; si
+     * ninguno muere, el de más ataque por punto de vida.
+     *
+     * @param enemigos Enemigos vivos.
+     * @param danoMinimo Daño que hace el ataque como mínimo.
+     * @return int Índice del enemigo dentro de los enemigos vivos.
+     */
+    private static int elegirObjetivo(List<Combatiente> enemigos, int danoMinimo) {
+        int mejor = 0;
+        boolean mejorMuere = false;
+        double mejorPuntaje = -1;
+        for (int i = 0; i < enemigos.size(); i++) {
+            Combatiente enemigo = enemigos.get(i);
+            int vida = Math.max(1, enemigo.getVidaActual());
+            boolean muere = vida <= enemigo.calcularDanoRecibido(danoMinimo);
+            double puntaje = muere ? enemigo.getAtaqueBase() : (double) enemigo.getAtaqueBase() / vida;
+            if ((muere && !mejorMuere) || (muere == mejorMuere && puntaje > mejorPuntaje)) {
+                mejor = i;
+                mejorMuere = muere;
+                mejorPuntaje = puntaje;
+            }
+        }
+        return mejor;
+    }
+}
@@ -27,19 +27,21 @@ public class PotenciadorAtaque extends Item {
     }
     /**
      * Usa el potenciador de ataque en el objetivo especificado.
+     * @param usuario Combatiente que usa el potenciador.
      * @param objetivos Lista de combatientes objetivo.
-     * @return String Resultado del uso del potenciador.
+     * @return boolean true si el potenciador se usó.
      */
     @Override
-    public String usar(List<Combatiente> objetivos) {
+    public boolean usar(Combatiente usuario, List<Combatiente> objetivos) {
         if (objetivos.size() == 1 && objetivos.get(0) instanceof Jugador) {
             Jugador jugador = (Jugador) objetivos.get(0);
             if (jugador.isEstaVivo()) {
                 jugador.modificarAtaque(incremento);
-                return String.format("¡%s bebe un Elixir de Fuerza! Su ataque aumenta en %d por %d turnos!", 
-                                   jugador.getNombre(), incremento, duracion);
+                usuario.registrarEvento(TipoEvento.ELIXIR, jugador, incremento, duracion);
+                return true;
             }
         }
-        return "No se pudo usar el elixir.";
+        usuario.registrarEvento(TipoEvento.ELIXIR_FALLIDO, null, 0, 0);
+        return false;
     }
 }
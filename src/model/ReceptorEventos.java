@@ -0,0 +1,25 @@
+package model;
+
+/**
+ * Interfaz ReceptorEventos.
+ * Recibe cada evento que se registra en una batalla, por ejemplo para escribirlo
+ * en un log. El evento es una instancia reutilizada: solo es válido durante la llamada.
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+public interface ReceptorEventos {
+
+    /**
+     * Se llama cada vez que se registra un evento.
+     * @param evento Evento registrado.
+     */
+    void alRegistrar(EventoBatalla evento);
+
+    /**
+     * Se llama cuando termina una ronda, antes de aplicar los efectos continuos.
+     * Por defecto no hace nada.
+     * @param turno Turno que comienza (base 0).
+     */
+    default void alCambiarTurno(int turno) {
+    }
+}
@@ -0,0 +1,491 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clase RegistroAsincrono.
+ * Escribe el log de una o muchas batallas desde un hilo propio, así el turno no
+ * espera a la salida. Cada batalla se conecta con {@link #adjuntar(Batalla, String)}
+ * y publica sus eventos en un buffer circular acotado sin locks: los eventos se
+ * copian a arreglos de primitivos ya reservados, sin crear objetos por evento.
+ * El hilo escritor los convierte a texto y los escribe por lotes.
+ *
+ * <p>El buffer admite varios productores: cada casillero tiene un número de secuencia
+ * que indica si está libre para la vuelta actual o si ya tiene un evento publicado,
+ * y productores y escritor toman posiciones con compare-and-set. Cuando el buffer
+ * se llena se aplica la {@link PoliticaDesborde} elegida y los eventos perdidos se
+ * cuentan en {@link #getDescartados()}.</p>
+ *
+ * <p>El marcador de cierre de una fuente no pasa por la política: nunca desplaza ni
+ * se cuenta como evento perdido. Si se pierde, la fuente queda marcada como cerrada
+ * y el escritor la suelta en cuanto el buffer pasa su último evento, así una corrida
+ * larga no acumula fuentes abiertas aunque descarte eventos.</p>
+ *
+ * @author Carlos Altán
+ * @since 2025-10-18
+ */
+public final class RegistroAsincrono implements Closeable {
+    /** Eventos que entran en el buffer si no se indica otra capacidad */
+    public static final int CAPACIDAD_POR_DEFECTO = 1 << 16;
+    /** Con MUESTREAR y el buffer casi lleno, se conserva una de cada tantas líneas */
+    public static final int TASA_MUESTREO_POR_DEFECTO = 8;
+
+    /** Caracteres acumulados antes de escribir un lote */
+    private static final int TAMANO_LOTE = 1 << 16;
+    /** Espera del escritor cuando no hay eventos, y de un productor bloqueado */
+    private static final long ESPERA_ESCRITOR_NANOS = 200_000;
+    private static final long ESPERA_PRODUCTOR_NANOS = 10_000;
+    /** Código que marca el cierre de una fuente */
+    private static final int FIN_FUENTE = -1;
+
+    private final OutputStream salida;
+    private final boolean cerrarSalida;
+    private final PoliticaDesborde politica;
+    private final int tasaMuestreo;
+
+    // Buffer circular: el casillero i guarda el evento de la posición p cuando p & mascara == i
+    private final int capacidad;
+    private final int mascara;
+    private final int umbralMuestreo;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong cola = new AtomicLong();
+    private final AtomicLong cabeza = new AtomicLong();
+    private final Fuente[] fuentes;
+    private final int[] codigos;
+    private final int[] lineas;
+    private final int[] turnos;
+    private final int[] actores;
+    private final int[] objetivos;
+    private final int[] valores1;
+    private final int[] valores2;
+    private final String[] textos;
+
+    private final LongAdder descartadosAntiguos = new LongAdder();
+    private final LongAdder descartadosMuestreo = new LongAdder();
+    private final LongAdder esperas = new LongAdder();
+    private volatile long lineasEscritas;
+
+    private final Thread escritor;
+    private volatile boolean cerrado;
+    private volatile boolean terminado;
+    private IOException error;
+
+    // Solo los usa el hilo escritor
+    private final StringBuilder pendiente = new StringBuilder(TAMANO_LOTE * 2);
+    private final List<Fuente> abiertas = new ArrayList<>();
+
+    /**
+     * Constructor de RegistroAsincrono. Arranca el hilo escritor.
+     * @param salida Donde se escribe el log.
+     * @param cerrarSalida Si se cierra la salida al cerrar el registro.
+     * @param capacidad Eventos que entran en el buffer; se redondea a potencia de dos.
+     * @param politica Qué hacer con el buffer lleno.
+     * @param tasaMuestreo Con MUESTREAR, se conserva una de cada tantas líneas.
+     */
+    public RegistroAsincrono(OutputStream salida, boolean cerrarSalida, int capacidad,
+                             PoliticaDesborde politica, int tasaMuestreo) {
+        if (capacidad < 2) throw new IllegalArgumentException("Capacidad inválida: " + capacidad);
+        if (tasaMuestreo < 1) throw new IllegalArgumentException("Tasa de muestreo inválida: " + tasaMuestreo);
+        this.salida = salida;
+        this.cerrarSalida = cerrarSalida;
+        this.politica = politica;
+        this.tasaMuestreo = tasaMuestreo;
+        this.capacidad = Integer.highestOneBit(capacidad - 1) << 1;
+        this.mascara = this.capacidad - 1;
+        this.umbralMuestreo = this.capacidad - this.capacidad / 4;
+        this.secuencias = new AtomicLongArray(this.capacidad);
+        for (int i = 0; i < this.capacidad; i++) secuencias.set(i, i);
+        this.fuentes = new Fuente[this.capacidad];
+        this.codigos = new int[this.capacidad];
+        this.lineas = new int[this.capacidad];
+        this.turnos = new int[this.capacidad];
+        this.actores = new int[this.capacidad];
+        this.objetivos = new int[this.capacidad];
+        this.valores1 = new int[this.capacidad];
+        this.valores2 = new int[this.capacidad];
+        this.textos = new String[this.capacidad];
+        this.escritor = new Thread(this::escribir, "registro-asincrono");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Crea un registro que escribe en un archivo, reemplazándolo si existe.
+     * @param archivo Archivo del log.
+     * @param politica Qué hacer con el buffer lleno.
+     * @return RegistroAsincrono Registro ya en marcha.
+     * @throws IOException si no se puede crear el archivo.
+     */
+    public static RegistroAsincrono aArchivo(Path archivo, PoliticaDesborde politica) throws IOException {
+        return new RegistroAsincrono(Files.newOutputStream(archivo), true, CAPACIDAD_POR_DEFECTO,
+                                     politica, TASA_MUESTREO_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un registro que escribe en la salida estándar.
+     * @param politica Qué hacer con el buffer lleno.
+     * @return RegistroAsincrono Registro ya en marcha.
+     */
+    public static RegistroAsincrono aSalidaEstandar(PoliticaDesborde politica) {
+        return new RegistroAsincrono(System.out, false, CAPACIDAD_POR_DEFECTO, politica, TASA_MUESTREO_POR_DEFECTO);
+    }
+
+    /**
+     * Conecta una batalla al registro. La fuente devuelta debe cerrarse al terminar
+     * la batalla para que su última línea se escriba enseguida.
+     * @param batalla Batalla cuyos eventos se escriben.
+     * @param etiqueta Prefijo de sus líneas, por ejemplo "Batalla 17", o null para ninguno.
+     * @return Fuente Receptor ya agregado al registro de eventos de la batalla.
+     */
+    public Fuente adjuntar(Batalla batalla, String etiqueta) {
+        Fuente fuente = new Fuente(batalla.getRegistroEventos(), etiqueta);
+        batalla.getRegistroEventos().agregarReceptor(fuente);
+        return fuente;
+    }
+
+    /**
+     * Obtiene los eventos perdidos por desborde, con cualquier política.
+     * @return long Eventos descartados.
+     */
+    public long getDescartados() {
+        return descartadosAntiguos.sum() + descartadosMuestreo.sum();
+    }
+
+    /**
+     * Obtiene los eventos antiguos descartados con DESCARTAR_ANTIGUO.
+     * @return long Eventos descartados.
+     */
+    public long getDescartadosAntiguos() {
+        return descartadosAntiguos.sum();
+    }
+
+    /**
+     * Obtiene los eventos nuevos descartados con MUESTREAR.
+     * @return long Eventos descartados.
+     */
+    public long getDescartadosMuestreo() {
+        return descartadosMuestreo.sum();
+    }
+
+    /**
+     * Obtiene cuántas veces un evento tuvo que esperar lugar con BLOQUEAR.
+     * @return long Esperas.
+     */
+    public long getEsperas() {
+        return esperas.sum();
+    }
+
+    /**
+     * Obtiene las líneas ya escritas en la salida.
+     * @return long Líneas escritas.
+     */
+    public long getLineasEscritas() {
+        return lineasEscritas;
+    }
+
+    /**
+     * Obtiene la política de desborde.
+     * @return PoliticaDesborde Política del registro.
+     */
+    public PoliticaDesborde getPolitica() {
+        return politica;
+    }
+
+    /**
+     * Espera a que el escritor vacíe el buffer y escriba todo, y cierra la salida
+     * si corresponde. Los eventos publicados después del cierre se pierden.
+     * @throws IOException si falló alguna escritura.
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) return;
+        cerrado = true;
+        LockSupport.unpark(escritor);
+        boolean interrumpido = false;
+        while (escritor.isAlive()) {
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) Thread.currentThread().interrupt();
+        try {
+            if (cerrarSalida) salida.close();
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+        if (error != null) throw error;
+    }
+
+    @Override
+    public String toString() {
+        return lineasEscritas + " líneas escritas, " + getDescartados() + " eventos descartados ("
+               + politica.name().toLowerCase() + "), " + getEsperas() + " esperas";
+    }
+
+    /**
+     * Publica un evento según la política de desborde.
+     */
+    private void publicar(Fuente fuente, int codigo, int linea, int turno, int actor, int objetivo,
+                          int valor1, int valor2, String texto) {
+        boolean espero = false;
+        while (!ofrecer(fuente, codigo, linea, turno, actor, objetivo, valor1, valor2, texto)) {
+            if (terminado) return;
+            // Sin lugar para el marcador de cierre, el escritor ve la fuente cerrada al recorrerlas
+            if (codigo == FIN_FUENTE && politica != PoliticaDesborde.BLOQUEAR) return;
+            switch (politica) {
+                case BLOQUEAR:
+                    if (!espero) {
+                        espero = true;
+                        esperas.increment();
+                    }
+                    LockSupport.unpark(escritor);
+                    LockSupport.parkNanos(this, ESPERA_PRODUCTOR_NANOS);
+                    break;
+                case DESCARTAR_ANTIGUO:
+                    tomar(false);
+                    break;
+                default:
+                    descartadosMuestreo.increment();
+                    return;
+            }
+        }
+    }
+
+    /**
+     * Intenta ocupar el siguiente casillero libre.
+     * @return boolean true si se publicó, false si el buffer está lleno.
+     */
+    private boolean ofrecer(Fuente fuente, int codigo, int linea, int turno, int actor, int objetivo,
+                            int valor1, int valor2, String texto) {
+        long posicion = cola.get();
+        while (true) {
+            int i = (int) (posicion & mascara);
+            long diferencia = secuencias.get(i) - posicion;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(posicion, posicion + 1)) {
+                    fuentes[i] = fuente;
+                    codigos[i] = codigo;
+                    lineas[i] = linea;
+                    turnos[i] = turno;
+                    actores[i] = actor;
+                    objetivos[i] = objetivo;
+                    valores1[i] = valor1;
+                    valores2[i] = valor2;
+                    textos[i] = texto;
+                    fuente.ultimaPosicion = posicion;
+                    // La escritura volátil publica los campos anteriores
+                    secuencias.set(i, posicion + 1);
+                    return true;
+                }
+                posicion = cola.get();
+            } else if (diferencia < 0) {
+                return false;
+            } else {
+                posicion = cola.get();
+            }
+        }
+    }
+
+    /**
+     * Saca el evento más antiguo del buffer. Lo usa el escritor para mostrarlo y
+     * DESCARTAR_ANTIGUO para hacer lugar; un marcador de cierre descartado no se cuenta.
+     * @param mostrar Si el evento se agrega a la salida o solo se descarta.
+     * @return boolean false si el buffer estaba vacío.
+     */
+    private boolean tomar(boolean mostrar) {
+        long posicion = cabeza.get();
+        while (true) {
+            int i = (int) (posicion & mascara);
+            long diferencia = secuencias.get(i) - (posicion + 1);
+            if (diferencia == 0) {
+                if (cabeza.compareAndSet(posicion, posicion + 1)) {
+                    Fuente fuente = fuentes[i];
+                    int codigo = codigos[i];
+                    int linea = lineas[i];
+                    int turno = turnos[i];
+                    int actor = actores[i];
+                    int objetivo = objetivos[i];
+                    int valor1 = valores1[i];
+                    int valor2 = valores2[i];
+                    String texto = textos[i];
+                    fuentes[i] = null;
+                    textos[i] = null;
+                    secuencias.set(i, posicion + capacidad);
+                    if (mostrar) mostrar(fuente, codigo, linea, turno, actor, objetivo, valor1, valor2, texto);
+                    else if (codigo != FIN_FUENTE) descartadosAntiguos.increment();
+                    return true;
+                }
+                posicion = cabeza.get();
+            } else if (diferencia < 0) {
+                return false;
+            } else {
+                posicion = cabeza.get();
+            }
+        }
+    }
+
+    private int ocupacion() {
+        return (int) (cola.get() - cabeza.get());
+    }
+
+    /**
+     * Ciclo del hilo escritor: vacía el buffer por lotes hasta que se cierra el registro.
+     */
+    private void escribir() {
+        try {
+            while (true) {
+                boolean fin = cerrado;
+                int tomados = 0;
+                while (tomar(true)) {
+                    tomados++;
+                    if (pendiente.length() >= TAMANO_LOTE) {
+                        soltarCerradas();
+                        volcar();
+                    }
+                }
+                if (fin && tomados == 0) break;
+                if (tomados == 0) {
+                    soltarCerradas();
+                    volcar();
+                    LockSupport.parkNanos(this, ESPERA_ESCRITOR_NANOS);
+                }
+            }
+            for (Fuente fuente : abiertas) cerrarLinea(fuente);
+            abiertas.clear();
+            volcar();
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            terminado = true;
+        }
+    }
+
+    /**
+     * Agrega un evento a la línea abierta de su fuente. Un evento que no continúa
+     * la línea abierta la cierra y empieza otra, así las líneas de varias batallas
+     * intercaladas en el buffer no se mezclan.
+     */
+    private void mostrar(Fuente fuente, int codigo, int linea, int turno, int actor, int objetivo,
+                         int valor1, int valor2, String texto) {
+        if (codigo == FIN_FUENTE) {
+            if (fuente.abierta) {
+                cerrarLinea(fuente);
+                abiertas.remove(fuente);
+                fuente.abierta = false;
+            }
+            return;
+        }
+        if (!fuente.abierta || fuente.lineaAbierta != linea) {
+            cerrarLinea(fuente);
+            if (!fuente.abierta) abiertas.add(fuente);
+            fuente.abierta = true;
+            fuente.lineaAbierta = linea;
+            if (fuente.etiqueta != null) fuente.texto.append('[').append(fuente.etiqueta).append("] ");
+            fuente.texto.append("Turno ").append(turno + 1).append(": ");
+        }
+        TipoEvento.desdeCodigo(codigo).describir(fuente.texto, fuente.textos, actor, objetivo, valor1, valor2, texto);
+    }
+
+    /**
+     * Suelta las fuentes cerradas cuyo marcador de cierre se perdió y cuyos eventos
+     * ya salieron todos del buffer.
+     */
+    private void soltarCerradas() {
+        long posicion = cabeza.get();
+        Iterator<Fuente> iterador = abiertas.iterator();
+        while (iterador.hasNext()) {
+            Fuente fuente = iterador.next();
+            if (fuente.cerrada && fuente.ultimaPosicion < posicion) {
+                cerrarLinea(fuente);
+                fuente.abierta = false;
+                iterador.remove();
+            }
+        }
+    }
+
+    private void cerrarLinea(Fuente fuente) {
+        if (fuente.texto.length() == 0) return;
+        pendiente.append(fuente.texto).append('\n');
+        fuente.texto.setLength(0);
+        lineasEscritas++;
+    }
+
+    private void volcar() throws IOException {
+        if (pendiente.length() == 0) return;
+        byte[] bytes = pendiente.toString().getBytes(StandardCharsets.UTF_8);
+        pendiente.setLength(0);
+        salida.write(bytes);
+        salida.flush();
+    }
+
+    /**
+     * Clase Fuente.
+     * Receptor de los eventos de una batalla. Lo usa un solo hilo a la vez, el que
+     * juega esa batalla; varias fuentes pueden publicar en paralelo.
+     */
+    public final class Fuente implements ReceptorEventos, Closeable {
+        private final RegistroEventos registro;
+        private final TextosCombatientes textos;
+        private final String etiqueta;
+        // Del hilo de la batalla
+        private int linea;
+        private boolean descartandoLinea;
+        private int lineasMuestreadas;
+        // Del hilo de la batalla; el escritor lee ultimaPosicion después de ver cerrada
+        private volatile boolean cerrada;
+        private long ultimaPosicion = -1;
+        // Del hilo escritor
+        private final StringBuilder texto = new StringBuilder(128);
+        private boolean abierta;
+        private int lineaAbierta;
+
+        private Fuente(RegistroEventos registro, String etiqueta) {
+            this.registro = registro;
+            this.textos = registro.getTextosCombatientes();
+            this.etiqueta = etiqueta;
+        }
+
+        @Override
+        public void alRegistrar(EventoBatalla evento) {
+            if (cerrado) return;
+            if (!evento.getTipo().isContinuacion()) {
+                linea++;
+                // Con MUESTREAR se decide por línea, para no dejar continuaciones sueltas
+                descartandoLinea = politica == PoliticaDesborde.MUESTREAR && ocupacion() >= umbralMuestreo
+                                   && lineasMuestreadas++ % tasaMuestreo != 0;
+            }
+            if (descartandoLinea) {
+                descartadosMuestreo.increment();
+                return;
+            }
+            publicar(this, evento.getTipo().getCodigo(), linea, evento.getTurno(), evento.getActor(),
+                     evento.getObjetivo(), evento.getValor1(), evento.getValor2(), evento.getTexto());
+        }
+
+        /**
+         * Deja de recibir eventos de la batalla y avisa al escritor que su última línea está completa.
+         */
+        @Override
+        public void close() {
+            if (cerrada) return;
+            registro.quitarReceptor(this);
+            if (!cerrado) publicar(this, FIN_FUENTE, linea, 0, 0, 0, 0, 0, null);
+            // Después de publicar, así el escritor ve la última posición al leer cerrada
+            cerrada = true;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+/**
+ * Clase RegistroEnemigo.
+ * Datos de un enemigo tal como vienen en un archivo de enemigos, antes de crearlo.
+ * La vida y el ataque son opcionales; si se indican reemplazan los del tipo.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+public final class RegistroEnemigo {
+
+    /** Valor de vida o ataque que indica que se usa el del tipo */
+    public static final int SIN_AJUSTE = 0;
+
+    private final TipoEnemigo tipo;
+    private final boolean esJefe;
+    private final String nombre;
+    private final int vida;
+    private final int ataque;
+
+    /**
+     * Constructor de RegistroEnemigo.
+     *
+     * @param tipo Tipo del enemigo.
+     * @param esJefe Indica si es un jefe.
+     * @param nombre Nombre del enemigo, o null para usar el del tipo.
+     * @param vida Vida máxima, o SIN_AJUSTE.
+     * @param ataque Ataque base, o SIN_AJUSTE.
+     */
+    public RegistroEnemigo(TipoEnemigo tipo, boolean esJefe, String nombre, int vida, int ataque) {
+        this.tipo = tipo;
+        this.esJefe = esJefe;
+        this.nombre = nombre;
+        this.vida = vida;
+        this.ataque = ataque;
+    }
+
+    /**
+     * Crea el enemigo descrito por el registro.
+     *
+     * @param estado Estado donde se agrega el enemigo.
+     * @return Enemigo creado.
+     */
+    public Enemigo crear(EstadoCombate estado) {
+        return crear(tipo, esJefe, nombre, vida, ataque, estado);
+    }
+
+    /**
+     * Crea un enemigo aplicando el nombre y las estadísticas indicadas.
+     * Las estadísticas indicadas son las finales: no se les aplica el aumento de jefe.
+     */
+    static Enemigo crear(TipoEnemigo tipo, boolean esJefe, String nombre,
+                         int vida, int ataque, EstadoCombate estado) {
+        Enemigo enemigo = tipo.crear(esJefe, estado);
+        if (nombre != null) enemigo.renombrar(nombre);
+        if (vida != SIN_AJUSTE || ataque != SIN_AJUSTE) {
+            enemigo.ajustarEstadisticas(vida != SIN_AJUSTE ? vida : enemigo.getVidaMaxima(),
+                                        ataque != SIN_AJUSTE ? ataque : enemigo.getAtaqueBase());
+        }
+        return enemigo;
+    }
+
+    public TipoEnemigo getTipo() { return tipo; }
+    public boolean isEsJefe() { return esJefe; }
+    public String getNombre() { return nombre; }
+    public int getVida() { return vida; }
+    public int getAtaque() { return ataque; }
+}
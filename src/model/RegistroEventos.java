@@ -0,0 +1,350 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Clase RegistroEventos.
+ * Guarda los eventos de una batalla en un buffer circular de arreglos de enteros
+ * (código, turno, actor, objetivo y dos valores), así que registrar una acción no
+ * crea objetos ni arma texto. El texto de una línea se arma con las plantillas de
+ * TipoEvento solo cuando se pide, por ejemplo al mostrar las últimas acciones.
+ *
+ * Una línea es un evento seguido de sus continuaciones. Se conservan las últimas
+ * líneas indicadas al crear el registro; si una sola línea no cabe, el buffer crece.
+ * Los receptores reciben cada evento en el momento en que se registra.
+ * Un registro bifurcado comparte los arreglos con su origen hasta que alguno de los
+ * dos registra un evento.
+ * No es seguro para hilos.
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+public final class RegistroEventos {
+    /** Líneas que conserva una batalla */
+    public static final int LINEAS_POR_DEFECTO = 10;
+
+    private static final int CAPACIDAD_INICIAL = 32;
+    private static final ReceptorEventos[] SIN_RECEPTORES = new ReceptorEventos[0];
+
+    private final Combatiente[] combatientes;
+    private final int lineasRetenidas;
+
+    private int[] codigos;
+    private int[] turnos;
+    private int[] actores;
+    private int[] objetivos;
+    private int[] valores1;
+    private int[] valores2;
+    // Solo se crea si se registra texto libre
+    private String[] textos;
+
+    /** Posición absoluta del evento más antiguo y del siguiente a escribir */
+    private long inicio;
+    private long fin;
+    private int lineas;
+    private int turno;
+    /** Los arreglos se comparten con un registro bifurcado y se copian antes de escribir */
+    private boolean compartido;
+
+    private ReceptorEventos[] receptores = SIN_RECEPTORES;
+    private final TextosCombatientes textosCombatientes;
+    private final EventoBatalla evento;
+
+    /**
+     * Constructor de RegistroEventos.
+     * @param combatientes Combatientes de la batalla indexados por id, para mostrar sus nombres.
+     * @param lineasRetenidas Cantidad de líneas que se conservan.
+     */
+    public RegistroEventos(Combatiente[] combatientes, int lineasRetenidas) {
+        if (lineasRetenidas < 1) throw new IllegalArgumentException("Se debe conservar al menos una línea");
+        this.combatientes = combatientes;
+        this.lineasRetenidas = lineasRetenidas;
+        this.codigos = new int[CAPACIDAD_INICIAL];
+        this.turnos = new int[CAPACIDAD_INICIAL];
+        this.actores = new int[CAPACIDAD_INICIAL];
+        this.objetivos = new int[CAPACIDAD_INICIAL];
+        this.valores1 = new int[CAPACIDAD_INICIAL];
+        this.valores2 = new int[CAPACIDAD_INICIAL];
+        this.textosCombatientes = crearTextos(combatientes);
+        this.evento = new EventoBatalla(textosCombatientes);
+    }
+
+    /**
+     * Constructor de un registro bifurcado: usa los mismos arreglos que el origen.
+     * @param origen Registro bifurcado.
+     * @param combatientes Combatientes de la batalla bifurcada, indexados por id.
+     */
+    private RegistroEventos(RegistroEventos origen, Combatiente[] combatientes) {
+        this.combatientes = combatientes;
+        this.lineasRetenidas = origen.lineasRetenidas;
+        this.codigos = origen.codigos;
+        this.turnos = origen.turnos;
+        this.actores = origen.actores;
+        this.objetivos = origen.objetivos;
+        this.valores1 = origen.valores1;
+        this.valores2 = origen.valores2;
+        this.textos = origen.textos;
+        this.inicio = origen.inicio;
+        this.fin = origen.fin;
+        this.lineas = origen.lineas;
+        this.turno = origen.turno;
+        this.compartido = true;
+        this.textosCombatientes = crearTextos(combatientes);
+        this.evento = new EventoBatalla(textosCombatientes);
+    }
+
+    private static TextosCombatientes crearTextos(Combatiente[] combatientes) {
+        return new TextosCombatientes() {
+            @Override public String nombre(int id) { return combatientes[id].getNombre(); }
+            @Override public String mensajeInicio(int id) { return combatientes[id].desplegarMensajeInicio(); }
+            @Override public String mensajeMuerte(int id) { return combatientes[id].desplegarMensajeMuerte(); }
+        };
+    }
+
+    /**
+     * Crea una copia de este registro para una batalla bifurcada, sin copiar los
+     * eventos: los dos registros los comparten hasta que alguno registra otro.
+     * Los receptores no se copian.
+     * @param combatientes Combatientes de la batalla bifurcada, indexados por id.
+     * @return RegistroEventos Registro con las mismas líneas y el mismo turno.
+     */
+    RegistroEventos bifurcar(Combatiente[] combatientes) {
+        compartido = true;
+        return new RegistroEventos(this, combatientes);
+    }
+
+    /**
+     * Registra un evento.
+     * @param tipo Tipo de evento.
+     * @param actor Id del combatiente que lo realiza, o EventoBatalla.SIN_COMBATIENTE.
+     * @param objetivo Id del combatiente que lo recibe, o EventoBatalla.SIN_COMBATIENTE.
+     * @param valor1 Primer valor (daño, curación, incremento...).
+     * @param valor2 Segundo valor.
+     */
+    public void registrar(TipoEvento tipo, int actor, int objetivo, int valor1, int valor2) {
+        agregar(tipo, actor, objetivo, valor1, valor2, null);
+    }
+
+    /**
+     * Registra una línea de texto libre.
+     * @param texto Texto de la línea.
+     */
+    public void registrarTexto(String texto) {
+        agregar(TipoEvento.TEXTO, EventoBatalla.SIN_COMBATIENTE, EventoBatalla.SIN_COMBATIENTE, 0, 0, texto);
+    }
+
+    /**
+     * Agrega un receptor que recibe cada evento nuevo.
+     * @param receptor Receptor a agregar.
+     */
+    public void agregarReceptor(ReceptorEventos receptor) {
+        receptores = Arrays.copyOf(receptores, receptores.length + 1);
+        receptores[receptores.length - 1] = receptor;
+    }
+
+    /**
+     * Quita un receptor agregado antes.
+     * @param receptor Receptor a quitar.
+     */
+    public void quitarReceptor(ReceptorEventos receptor) {
+        List<ReceptorEventos> lista = new ArrayList<>(Arrays.asList(receptores));
+        lista.remove(receptor);
+        receptores = lista.toArray(SIN_RECEPTORES);
+    }
+
+    /**
+     * Arma el texto de las últimas líneas, cada una con el prefijo "Turno N: ".
+     * @param cantidad Cantidad máxima de líneas.
+     * @return Lista de líneas, de la más antigua a la más reciente.
+     */
+    public List<String> ultimasLineas(int cantidad) {
+        // Buscar hacia atrás el comienzo de las líneas pedidas
+        long desde = fin;
+        int encontradas = 0;
+        while (encontradas < cantidad && desde > inicio) {
+            desde--;
+            if (esComienzoLinea(desde)) encontradas++;
+        }
+
+        List<String> resultado = new ArrayList<>(encontradas);
+        StringBuilder sb = new StringBuilder();
+        long posicion = desde;
+        while (posicion < fin) {
+            int i = indice(posicion);
+            sb.setLength(0);
+            sb.append("Turno ").append(turnos[i] + 1).append(": ");
+            do {
+                i = indice(posicion);
+                TipoEvento.desdeCodigo(codigos[i]).describir(sb, textosCombatientes, actores[i], objetivos[i],
+                                                             valores1[i], valores2[i],
+                                                             textos == null ? null : textos[i]);
+                posicion++;
+            } while (posicion < fin && !esComienzoLinea(posicion));
+            resultado.add(sb.toString());
+        }
+        return resultado;
+    }
+
+    /**
+     * Asigna el turno con el que se marcan los eventos siguientes y avisa a los receptores.
+     * @param turno Turno actual (base 0).
+     */
+    void setTurno(int turno) {
+        this.turno = turno;
+        for (ReceptorEventos receptor : receptores) receptor.alCambiarTurno(turno);
+    }
+
+    /**
+     * Obtiene el turno con el que se marcan los eventos.
+     * @return int Turno actual (base 0).
+     */
+    public int getTurno() {
+        return turno;
+    }
+
+    /**
+     * Obtiene los textos de los combatientes de la batalla, para mostrar eventos.
+     * @return TextosCombatientes Textos por id.
+     */
+    TextosCombatientes getTextosCombatientes() {
+        return textosCombatientes;
+    }
+
+    /**
+     * Obtiene la cantidad de líneas guardadas.
+     * @return int Cantidad de líneas.
+     */
+    public int getCantidadLineas() {
+        return lineas;
+    }
+
+    /**
+     * Escribe en un buffer las líneas guardadas y el turno actual. Los receptores no
+     * forman parte del registro y no se guardan.
+     * @param destino Buffer de la instantánea.
+     * @throws java.nio.BufferOverflowException si el buffer no alcanza.
+     */
+    void guardar(ByteBuffer destino) {
+        int cantidad = (int) (fin - inicio);
+        destino.putInt(turno).putInt(lineas).putInt(cantidad);
+        for (long posicion = inicio; posicion < fin; posicion++) {
+            int i = indice(posicion);
+            destino.putInt(codigos[i]).putInt(turnos[i]).putInt(actores[i])
+                   .putInt(objetivos[i]).putInt(valores1[i]).putInt(valores2[i]);
+            if (codigos[i] == TipoEvento.TEXTO.getCodigo()) InstantaneaBatalla.escribirTexto(destino, textos[i]);
+        }
+    }
+
+    /**
+     * Reemplaza las líneas guardadas y el turno por los de un buffer escrito con
+     * {@link #guardar(ByteBuffer)}, sin avisar a los receptores.
+     * @param origen Buffer de la instantánea.
+     */
+    void restaurar(ByteBuffer origen) {
+        turno = origen.getInt();
+        lineas = origen.getInt();
+        int cantidad = origen.getInt();
+        propios();
+        if (textos != null) Arrays.fill(textos, null);
+        inicio = 0;
+        fin = 0;
+        while (cantidad > codigos.length) crecer();
+        for (int i = 0; i < cantidad; i++) {
+            codigos[i] = origen.getInt();
+            turnos[i] = origen.getInt();
+            actores[i] = origen.getInt();
+            objetivos[i] = origen.getInt();
+            valores1[i] = origen.getInt();
+            valores2[i] = origen.getInt();
+            if (codigos[i] == TipoEvento.TEXTO.getCodigo()) {
+                if (textos == null) textos = new String[codigos.length];
+                textos[i] = InstantaneaBatalla.leerTexto(origen);
+            }
+        }
+        fin = cantidad;
+    }
+
+    /** --- AUXILIARES --- **/
+
+    private void agregar(TipoEvento tipo, int actor, int objetivo, int valor1, int valor2, String texto) {
+        propios();
+        if (!tipo.isContinuacion() || fin == inicio) {
+            if (lineas == lineasRetenidas) descartarLineaMasAntigua();
+            lineas++;
+        }
+        if (fin - inicio == codigos.length) crecer();
+        if (texto != null && textos == null) textos = new String[codigos.length];
+
+        int i = indice(fin++);
+        codigos[i] = tipo.getCodigo();
+        turnos[i] = turno;
+        actores[i] = actor;
+        objetivos[i] = objetivo;
+        valores1[i] = valor1;
+        valores2[i] = valor2;
+        if (textos != null) textos[i] = texto;
+
+        if (receptores.length > 0) {
+            evento.establecer(tipo, turno, actor, objetivo, valor1, valor2, texto);
+            for (ReceptorEventos receptor : receptores) receptor.alRegistrar(evento);
+        }
+    }
+
+    /**
+     * Copia los arreglos compartidos con una bifurcación antes de escribirlos.
+     */
+    private void propios() {
+        if (!compartido) return;
+        codigos = codigos.clone();
+        turnos = turnos.clone();
+        actores = actores.clone();
+        objetivos = objetivos.clone();
+        valores1 = valores1.clone();
+        valores2 = valores2.clone();
+        if (textos != null) textos = textos.clone();
+        compartido = false;
+    }
+
+    private void descartarLineaMasAntigua() {
+        do {
+            if (textos != null) textos[indice(inicio)] = null;
+            inicio++;
+        } while (inicio < fin && !esComienzoLinea(inicio));
+        lineas--;
+    }
+
+    private boolean esComienzoLinea(long posicion) {
+        return posicion == inicio || !TipoEvento.desdeCodigo(codigos[indice(posicion)]).isContinuacion();
+    }
+
+    private int indice(long posicion) {
+        return (int) (posicion & (codigos.length - 1));
+    }
+
+    private void crecer() {
+        int capacidad = codigos.length;
+        int desde = indice(inicio);
+        codigos = duplicar(codigos, desde);
+        turnos = duplicar(turnos, desde);
+        actores = duplicar(actores, desde);
+        objetivos = duplicar(objetivos, desde);
+        valores1 = duplicar(valores1, desde);
+        valores2 = duplicar(valores2, desde);
+        if (textos != null) {
+            String[] nuevos = new String[capacidad << 1];
+            System.arraycopy(textos, desde, nuevos, 0, capacidad - desde);
+            System.arraycopy(textos, 0, nuevos, capacidad - desde, desde);
+            textos = nuevos;
+        }
+        // Las posiciones absolutas siguen siendo válidas si el más antiguo queda en 0
+        fin -= inicio;
+        inicio = 0;
+    }
+
+    private static int[] duplicar(int[] arreglo, int desde) {
+        int[] nuevo = new int[arreglo.length << 1];
+        System.arraycopy(arreglo, desde, nuevo, 0, arreglo.length - desde);
+        System.arraycopy(arreglo, 0, nuevo, arreglo.length - desde, desde);
+        return nuevo;
+    }
+}
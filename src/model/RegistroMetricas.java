@@ -0,0 +1,368 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Clase RegistroMetricas.
+ * Junta métricas de muchas batallas, que pueden jugarse en hilos distintos: el
+ * tiempo de procesamiento de cada turno, las acciones por tipo, el daño causado y
+ * recibido por cada tipo de enemigo, los efectos aplicados y las batallas terminadas.
+ *
+ * <p>Cada batalla se mide con un {@link Medidor}, un receptor de sus eventos que
+ * cuenta en arreglos propios sin sincronizar y suma esos conteos al registro una
+ * vez por ronda y al terminar. Así el camino caliente es un par de incrementos en
+ * un arreglo, y el registro se actualiza con retraso de a lo sumo una ronda.</p>
+ *
+ * <p>Las muestras se obtienen con {@link #tomarMuestra()} y se pueden escribir cada
+ * tanto en un archivo de texto con el formato de exposición de Prometheus, para que
+ * lo lea el textfile collector de node_exporter o cualquier otra herramienta.</p>
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class RegistroMetricas implements Closeable {
+    /** Cada cuánto se escribe el archivo si no se indica otro período */
+    public static final long PERIODO_POR_DEFECTO_MS = 10_000;
+
+    /**
+     * Acciones que se cuentan, según el evento que registran.
+     */
+    public enum Accion {
+        ATAQUE("ataque"),
+        ESPECIAL("especial"),
+        HABILIDAD_JEFE("habilidad_jefe"),
+        ITEM("item"),
+        PASAR("pasar"),
+        HUIR("huir");
+
+        private final String etiqueta;
+
+        Accion(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        /**
+         * Obtiene el valor de la etiqueta con que se exporta la acción.
+         * @return String Etiqueta en minúsculas.
+         */
+        public String getEtiqueta() { return etiqueta; }
+    }
+
+    /**
+     * Cómo terminó una batalla medida.
+     */
+    public enum Resultado {
+        VICTORIA("victoria"),
+        DERROTA("derrota"),
+        HUIDA("huida"),
+        /** El medidor se cerró antes de un final, por límite de turnos o abandono */
+        SIN_TERMINAR("sin_terminar");
+
+        private final String etiqueta;
+
+        Resultado(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        /**
+         * Obtiene el valor de la etiqueta con que se exporta el resultado.
+         * @return String Etiqueta en minúsculas.
+         */
+        public String getEtiqueta() { return etiqueta; }
+    }
+
+    private static final int SIN_VALOR = -1;
+    private static final int ACCIONES = Accion.values().length;
+    private static final int TIPOS = TipoEnemigo.values().length;
+    private static final int EFECTOS = Efecto.values().length;
+    private static final int RESULTADOS = Resultado.values().length;
+
+    // Tablas indexadas por código de evento; se calculan una vez
+    private static final byte[] ACCION_POR_EVENTO = new byte[TipoEvento.values().length];
+    private static final byte[] EFECTO_POR_EVENTO = new byte[TipoEvento.values().length];
+    private static final byte[] RESULTADO_POR_EVENTO = new byte[TipoEvento.values().length];
+    private static final boolean[] EVENTO_CON_DANO = new boolean[TipoEvento.values().length];
+
+    static {
+        Arrays.fill(ACCION_POR_EVENTO, (byte) SIN_VALOR);
+        Arrays.fill(EFECTO_POR_EVENTO, (byte) SIN_VALOR);
+        Arrays.fill(RESULTADO_POR_EVENTO, (byte) SIN_VALOR);
+        for (TipoEvento tipo : TipoEvento.values()) {
+            int codigo = tipo.getCodigo();
+            Accion accion = null;
+            Efecto efecto = null;
+            Resultado resultado = null;
+            switch (tipo) {
+                case ATAQUE:
+                    accion = Accion.ATAQUE;
+                    break;
+                case GOLPE_BRUTAL: case ESQUIVE: case ALIENTO_FUEGO:
+                    accion = Accion.ESPECIAL;
+                    break;
+                case RUGIDO: case ATAQUE_MULTIPLE: case CURACION_MISTICA:
+                    accion = Accion.HABILIDAD_JEFE;
+                    break;
+                case POCION: case ELIXIR: case KIT_CURACION: case BOMBA_HUMO:
+                    accion = Accion.ITEM;
+                    break;
+                // Quien observa o pierde el turno por indecisión tampoco actúa
+                case PASAR: case OBSERVAR: case INDECISION:
+                    accion = Accion.PASAR;
+                    break;
+                case HUIR:
+                    accion = Accion.HUIR;
+                    resultado = Resultado.HUIDA;
+                    break;
+                case VICTORIA:
+                    resultado = Resultado.VICTORIA;
+                    break;
+                case DERROTA:
+                    resultado = Resultado.DERROTA;
+                    break;
+                default:
+                    break;
+            }
+            switch (tipo) {
+                case ESQUIVE: efecto = Efecto.ESQUIVANDO; break;
+                case CURACION_MISTICA: efecto = Efecto.REGENERACION; break;
+                case RUGIDO_INTIMIDA: efecto = Efecto.INTIMIDADO; break;
+                case ALIENTO_FUEGO_QUEMA: efecto = Efecto.QUEMADO; break;
+                case ELIXIR: efecto = Efecto.ATAQUE_POTENCIADO; break;
+                case BOMBA_HUMO_CONFUNDE: efecto = Efecto.CONFUNDIDO; break;
+                default: break;
+            }
+            if (accion != null) ACCION_POR_EVENTO[codigo] = (byte) accion.ordinal();
+            if (efecto != null) EFECTO_POR_EVENTO[codigo] = (byte) efecto.ordinal();
+            if (resultado != null) RESULTADO_POR_EVENTO[codigo] = (byte) resultado.ordinal();
+            EVENTO_CON_DANO[codigo] = tipo == TipoEvento.ATAQUE || tipo == TipoEvento.GOLPE_BRUTAL
+                                      || tipo == TipoEvento.ATAQUE_MULTIPLE_GOLPE
+                                      || tipo == TipoEvento.ALIENTO_FUEGO_QUEMA;
+        }
+    }
+
+    private final long creado = System.nanoTime();
+    private final HistogramaLatencias turnos = new HistogramaLatencias();
+    private final LongAdder[] acciones = crearContadores(ACCIONES);
+    private final LongAdder[] danoCausado = crearContadores(TIPOS);
+    private final LongAdder[] danoRecibido = crearContadores(TIPOS);
+    private final LongAdder[] efectos = crearContadores(EFECTOS);
+    private final LongAdder[] batallas = crearContadores(RESULTADOS);
+    private final LongAdder batallasIniciadas = new LongAdder();
+
+    private Thread exportador;
+    private Path archivo;
+    /** Muestra de la exportación anterior, para calcular las batallas por segundo */
+    private MuestraMetricas exportada;
+    private volatile boolean cerrado;
+
+    /**
+     * Empieza a medir una batalla. El medidor se debe cerrar cuando la batalla
+     * termina o se abandona.
+     * @param batalla Batalla a medir.
+     * @return Medidor Medidor de la batalla, ya agregado como receptor de sus eventos.
+     */
+    public Medidor adjuntar(Batalla batalla) {
+        Medidor medidor = new Medidor(batalla);
+        batalla.getRegistroEventos().agregarReceptor(medidor);
+        batallasIniciadas.increment();
+        return medidor;
+    }
+
+    /**
+     * Registra cuánto tardó en procesarse un turno.
+     * @param nanos Duración del turno en nanosegundos.
+     */
+    public void registrarTurno(long nanos) {
+        turnos.registrar(nanos);
+    }
+
+    /**
+     * Toma una muestra de todas las métricas. Los contadores se leen uno por uno,
+     * así que una batalla que se está sumando puede quedar contada solo en parte.
+     * @return MuestraMetricas Valores actuales.
+     */
+    public MuestraMetricas tomarMuestra() {
+        return new MuestraMetricas(System.nanoTime() - creado, turnos.copiar(), sumar(acciones),
+                                   sumar(danoCausado), sumar(danoRecibido), sumar(efectos), sumar(batallas),
+                                   batallasIniciadas.sum());
+    }
+
+    /**
+     * Escribe las métricas en un archivo cada cierto tiempo, desde un hilo propio,
+     * hasta que se cierra el registro. El archivo se reemplaza de una vez, así quien
+     * lo lee nunca ve una escritura a medias.
+     * @param archivo Archivo de destino, por ejemplo batallas.prom.
+     * @param periodoMs Milisegundos entre escrituras.
+     */
+    public synchronized void exportarCada(Path archivo, long periodoMs) {
+        if (exportador != null) throw new IllegalStateException("El registro ya se está exportando");
+        if (periodoMs < 1) throw new IllegalArgumentException("El período debe ser positivo");
+        this.archivo = archivo;
+        this.exportador = new Thread(() -> {
+            while (!cerrado) {
+                try {
+                    Thread.sleep(periodoMs);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (!cerrado) exportar();
+            }
+        }, "metricas");
+        exportador.setDaemon(true);
+        exportador.start();
+    }
+
+    /**
+     * Escribe ahora las métricas en el archivo de exportación, si hay uno.
+     * Los errores de escritura se informan en la salida de error y no detienen la exportación.
+     */
+    public synchronized void exportar() {
+        if (archivo == null) return;
+        MuestraMetricas muestra = tomarMuestra();
+        String texto = muestra.aPrometheus(exportada);
+        try {
+            Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+            Files.write(temporal, texto.getBytes(StandardCharsets.UTF_8));
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            exportada = muestra;
+        } catch (IOException e) {
+            System.err.println("No se pudieron escribir las métricas en " + archivo + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Detiene la exportación periódica y escribe el archivo una última vez.
+     */
+    @Override
+    public void close() {
+        Thread hilo;
+        synchronized (this) {
+            if (cerrado) return;
+            cerrado = true;
+            hilo = exportador;
+        }
+        if (hilo != null) {
+            hilo.interrupt();
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exportar();
+    }
+
+    @Override
+    public String toString() {
+        return tomarMuestra().toString();
+    }
+
+    /** --- AUXILIARES --- **/
+
+    private static LongAdder[] crearContadores(int cantidad) {
+        LongAdder[] contadores = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) contadores[i] = new LongAdder();
+        return contadores;
+    }
+
+    private static long[] sumar(LongAdder[] contadores) {
+        long[] valores = new long[contadores.length];
+        for (int i = 0; i < contadores.length; i++) valores[i] = contadores[i].sum();
+        return valores;
+    }
+
+    private static void volcar(long[] locales, LongAdder[] contadores) {
+        for (int i = 0; i < locales.length; i++) {
+            if (locales[i] != 0) {
+                contadores[i].add(locales[i]);
+                locales[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Clase Medidor.
+     * Receptor de los eventos de una batalla que cuenta sus acciones, daño, efectos y
+     * resultado. Lo usa un solo hilo, el que juega la batalla; varios medidores
+     * pueden sumar al mismo registro en paralelo.
+     */
+    public final class Medidor implements ReceptorEventos, Closeable {
+        private final Batalla batalla;
+        /** Tipo de enemigo de cada id, o SIN_VALOR para los jugadores */
+        private final byte[] tipoPorId;
+        private final long[] acciones = new long[ACCIONES];
+        private final long[] danoCausado = new long[TIPOS];
+        private final long[] danoRecibido = new long[TIPOS];
+        private final long[] efectos = new long[EFECTOS];
+        private int resultado = SIN_VALOR;
+        private boolean cerrado;
+
+        private Medidor(Batalla batalla) {
+            this.batalla = batalla;
+            this.tipoPorId = new byte[batalla.getJugadores().size() + batalla.getEnemigos().size()];
+            Arrays.fill(tipoPorId, (byte) SIN_VALOR);
+            for (Combatiente enemigo : batalla.getEnemigos()) {
+                if (enemigo instanceof Enemigo && enemigo.getId() < tipoPorId.length) {
+                    tipoPorId[enemigo.getId()] = (byte) ((Enemigo) enemigo).getTipoEnemigo().ordinal();
+                }
+            }
+        }
+
+        @Override
+        public void alRegistrar(EventoBatalla evento) {
+            int codigo = evento.getTipo().getCodigo();
+            int accion = ACCION_POR_EVENTO[codigo];
+            if (accion != SIN_VALOR) acciones[accion]++;
+            int efecto = EFECTO_POR_EVENTO[codigo];
+            if (efecto != SIN_VALOR) efectos[efecto]++;
+            if (EVENTO_CON_DANO[codigo]) {
+                int dano = evento.getValor1();
+                int actor = evento.getActor();
+                int objetivo = evento.getObjetivo();
+                if (actor >= 0 && actor < tipoPorId.length && tipoPorId[actor] != SIN_VALOR) {
+                    danoCausado[tipoPorId[actor]] += dano;
+                }
+                if (objetivo >= 0 && objetivo < tipoPorId.length && tipoPorId[objetivo] != SIN_VALOR) {
+                    danoRecibido[tipoPorId[objetivo]] += dano;
+                }
+            }
+            int fin = RESULTADO_POR_EVENTO[codigo];
+            if (fin != SIN_VALOR && resultado == SIN_VALOR) {
+                resultado = fin;
+                volcarTodo();
+            }
+        }
+
+        @Override
+        public void alCambiarTurno(int turno) {
+            volcarTodo();
+        }
+
+        /**
+         * Suma lo que queda al registro, cuenta la batalla como terminada y deja de
+         * recibir sus eventos.
+         */
+        @Override
+        public void close() {
+            if (cerrado) return;
+            cerrado = true;
+            batalla.getRegistroEventos().quitarReceptor(this);
+            if (resultado == SIN_VALOR) resultado = Resultado.SIN_TERMINAR.ordinal();
+            volcarTodo();
+            batallas[resultado].increment();
+        }
+
+        private void volcarTodo() {
+            volcar(acciones, RegistroMetricas.this.acciones);
+            volcar(danoCausado, RegistroMetricas.this.danoCausado);
+            volcar(danoRecibido, RegistroMetricas.this.danoRecibido);
+            volcar(efectos, RegistroMetricas.this.efectos);
+        }
+    }
+}
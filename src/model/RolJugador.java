@@ -1,6 +1,7 @@
 package model;
 
 import java.util.*;
+import java.util.function.Supplier;
 /**
  * Enum que define los roles de los jugadores en el juego de rol.
  * Cada rol tiene atributos y items iniciales específicos.
@@ -8,21 +9,24 @@ import java.util.*;
  * @since 2025-09-28
  */
 public enum RolJugador {
-    GUERRERO(120, 25, crearItemsGuerrero()),
-    EXPLORADOR(80, 20, crearItemsExplorador());
+    GUERRERO(120, 25, 18, RolJugador::crearItemsGuerrero),
+    EXPLORADOR(80, 20, 26, RolJugador::crearItemsExplorador);
     
     private final int vida;
     private final int ataque;
-    private final List<Item> itemsIniciales;
+    private final int velocidad;
+    private final Supplier<List<Item>> itemsIniciales;
     /**
      * Constructor del enum RolJugador.
      * @param vida 
      * @param ataque
-     * @param items
+     * @param velocidad Velocidad usada en el orden por iniciativa.
+     * @param items Fábrica de los items iniciales, para que cada jugador tenga los suyos.
      */
-    RolJugador(int vida, int ataque, List<Item> items) {
+    RolJugador(int vida, int ataque, int velocidad, Supplier<List<Item>> items) {
         this.vida = vida;
         this.ataque = ataque;
+        this.velocidad = velocidad;
         this.itemsIniciales = items;
     }
     /**
@@ -35,11 +39,17 @@ public enum RolJugador {
      * @return int Ataque del rol.
      */
     public int getAtaque() { return ataque; }
+    /**
+     * Getter de velocidad.
+     * @return int Velocidad del rol.
+     */
+    public int getVelocidad() { return velocidad; }
     /**
      * Getter de items iniciales.
+     * Cada llamada crea ítems nuevos, ya que la cantidad de un ítem cambia al usarlo.
      * @return List<Item> Items iniciales del rol.
      */
-    public List<Item> getItems() { return new ArrayList<>(itemsIniciales); }
+    public List<Item> getItems() { return itemsIniciales.get(); }
     /**
      * Crea la lista de items iniciales para el rol de guerrero.
      * @return List<Item> Lista de items iniciales.
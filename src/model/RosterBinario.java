@@ -0,0 +1,275 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Clase RosterBinario.
+ * Lee un roster de enemigos en formato binario sin copiarlo: el archivo se mapea
+ * en memoria al abrirlo y los enemigos se crean solo cuando se piden.
+ *
+ * Formato (little-endian, versión 1):
+ * <pre>
+ * Cabecera (32 bytes)
+ *   0  int   magia "RPGR"
+ *   4  short versión
+ *   6  short tamaño de registro (16 en la versión 1)
+ *   8  int   cantidad de registros
+ *   12 int   reservado
+ *   16 long  posición de la tabla de nombres
+ *   24 long  tamaño de la tabla de nombres
+ * Registro (uno por enemigo, a partir del byte 32)
+ *   0  byte  código de TipoEnemigo
+ *   1  byte  banderas (bit 0: jefe)
+ *   2  short reservado
+ *   4  int   posición del nombre en la tabla, o -1 si no tiene
+ *   8  int   vida, o 0 para usar la del tipo
+ *   12 int   ataque, o 0 para usar el del tipo
+ * Tabla de nombres
+ *   por nombre: short largo en bytes, seguido del nombre en UTF-8
+ * </pre>
+ * Los lectores aceptan registros más largos que 16 bytes e ignoran los bytes extra,
+ * así una versión futura puede agregar campos al final del registro.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-16
+ */
+public final class RosterBinario {
+
+    /** Extensión recomendada para los archivos de roster */
+    public static final String EXTENSION = ".roster";
+
+    static final int MAGIA = 0x52475052; // "RPGR" en little-endian
+    static final short VERSION = 1;
+    static final int TAMANO_CABECERA = 32;
+    static final int TAMANO_REGISTRO = 16;
+    static final int BANDERA_JEFE = 1;
+    static final int SIN_NOMBRE = -1;
+    /** Enemigos que crea de una vez la vista perezosa, compartiendo un estado */
+    static final int ENEMIGOS_POR_BLOQUE = 1024;
+
+    private final ByteBuffer datos;
+    private final int cantidad;
+    private final int tamanoRegistro;
+    private final int inicioNombres;
+    private final int tamanoNombres;
+
+    private RosterBinario(ByteBuffer datos) throws IOException {
+        this.datos = datos;
+        if (datos.limit() < TAMANO_CABECERA || datos.getInt(0) != MAGIA) {
+            throw new IOException("El archivo no es un roster de enemigos");
+        }
+        short version = datos.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Versión de roster no soportada: " + version);
+        }
+        this.tamanoRegistro = Short.toUnsignedInt(datos.getShort(6));
+        this.cantidad = datos.getInt(8);
+        long inicio = datos.getLong(16);
+        long tamano = datos.getLong(24);
+        long finRegistros = TAMANO_CABECERA + (long) cantidad * tamanoRegistro;
+        if (tamanoRegistro < TAMANO_REGISTRO || cantidad < 0 || finRegistros > inicio
+                || tamano < 0 || inicio + tamano > datos.limit()) {
+            throw new IOException("Cabecera de roster dañada");
+        }
+        this.inicioNombres = (int) inicio;
+        this.tamanoNombres = (int) tamano;
+    }
+
+    /**
+     * Abre un roster mapeando el archivo en memoria.
+     * Solo se lee la cabecera; los registros se leen cuando se piden.
+     * @param archivo Ruta del archivo.
+     * @return RosterBinario abierto.
+     * @throws IOException si no se puede leer o no es un roster válido.
+     */
+    public static RosterBinario abrir(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IOException("Roster demasiado grande: " + tamano + " bytes");
+            }
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano)
+                                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new RosterBinario(datos);
+        }
+    }
+
+    /**
+     * Indica si un archivo empieza con la marca de un roster binario.
+     * @param archivo Ruta del archivo.
+     * @return boolean true si parece un roster binario.
+     * @throws IOException si no se puede leer el archivo.
+     */
+    public static boolean esRoster(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer magia = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            canal.read(magia, 0);
+            return magia.position() == 4 && magia.getInt(0) == MAGIA;
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de enemigos del roster.
+     * @return int Cantidad de registros.
+     */
+    public int getCantidad() { return cantidad; }
+
+    /**
+     * Obtiene el tipo de un enemigo.
+     * @param indice Índice del registro.
+     * @return TipoEnemigo del registro.
+     */
+    public TipoEnemigo getTipo(int indice) {
+        int codigo = datos.get(posicion(indice)) & 0xFF;
+        TipoEnemigo tipo = TipoEnemigo.desdeCodigo(codigo);
+        if (tipo == null) {
+            throw new IllegalStateException("Código de tipo no válido en el registro " + indice + ": " + codigo);
+        }
+        return tipo;
+    }
+
+    /**
+     * Indica si un enemigo es jefe.
+     * @param indice Índice del registro.
+     * @return boolean true si es jefe.
+     */
+    public boolean isEsJefe(int indice) {
+        return (datos.get(posicion(indice) + 1) & BANDERA_JEFE) != 0;
+    }
+
+    /**
+     * Obtiene el nombre de un enemigo; se decodifica en cada llamada.
+     * @param indice Índice del registro.
+     * @return String Nombre, o null si usa el del tipo.
+     */
+    public String getNombre(int indice) {
+        int desplazamiento = datos.getInt(posicion(indice) + 4);
+        if (desplazamiento == SIN_NOMBRE) return null;
+        if (desplazamiento < 0 || desplazamiento + 2 > tamanoNombres) {
+            throw new IllegalStateException("Nombre fuera de la tabla en el registro " + indice);
+        }
+        int inicio = inicioNombres + desplazamiento;
+        int largo = Short.toUnsignedInt(datos.getShort(inicio));
+        if (desplazamiento + 2 + largo > tamanoNombres) {
+            throw new IllegalStateException("Nombre fuera de la tabla en el registro " + indice);
+        }
+        byte[] bytes = new byte[largo];
+        datos.get(inicio + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Obtiene la vida indicada para un enemigo.
+     * @param indice Índice del registro.
+     * @return int Vida, o RegistroEnemigo.SIN_AJUSTE.
+     */
+    public int getVida(int indice) {
+        return datos.getInt(posicion(indice) + 8);
+    }
+
+    /**
+     * Obtiene el ataque indicado para un enemigo.
+     * @param indice Índice del registro.
+     * @return int Ataque, o RegistroEnemigo.SIN_AJUSTE.
+     */
+    public int getAtaque(int indice) {
+        return datos.getInt(posicion(indice) + 12);
+    }
+
+    /**
+     * Lee un registro completo.
+     * @param indice Índice del registro.
+     * @return RegistroEnemigo leído.
+     */
+    public RegistroEnemigo getRegistro(int indice) {
+        return new RegistroEnemigo(getTipo(indice), isEsJefe(indice), getNombre(indice),
+                                   getVida(indice), getAtaque(indice));
+    }
+
+    /**
+     * Crea el enemigo de un registro.
+     * @param indice Índice del registro.
+     * @param estado Estado donde se agrega el enemigo.
+     * @return Enemigo creado.
+     */
+    public Enemigo crearEnemigo(int indice, EstadoCombate estado) {
+        return RegistroEnemigo.crear(getTipo(indice), isEsJefe(indice), getNombre(indice),
+                                     getVida(indice), getAtaque(indice), estado);
+    }
+
+    /**
+     * Crea los enemigos de un rango de registros, compartiendo un mismo estado.
+     * @param desde Primer índice (incluido).
+     * @param hasta Último índice (excluido).
+     * @return Lista de Combatientes creados.
+     */
+    public List<Combatiente> crearEnemigos(int desde, int hasta) {
+        if (desde < 0 || hasta > cantidad || desde > hasta) {
+            throw new IndexOutOfBoundsException("Rango " + desde + ".." + hasta + " de " + cantidad);
+        }
+        EstadoCombate estado = new EstadoCombate(hasta - desde);
+        List<Combatiente> enemigos = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            enemigos.add(crearEnemigo(i, estado));
+        }
+        return enemigos;
+    }
+
+    /**
+     * Obtiene una vista de solo lectura de todos los enemigos del roster que los
+     * crea recién cuando se piden, por bloques de {@link #ENEMIGOS_POR_BLOQUE} que
+     * comparten un estado. Cada enemigo se crea una sola vez, así que pedirlo de
+     * nuevo devuelve el mismo objeto. Abrir la vista no crea ningún enemigo; no es
+     * segura para usar desde varios hilos a la vez.
+     * @return List Enemigos del roster.
+     */
+    public List<Combatiente> vistaEnemigos() {
+        return new VistaEnemigos();
+    }
+
+    private int posicion(int indice) {
+        if (indice < 0 || indice >= cantidad) {
+            throw new IndexOutOfBoundsException("Registro " + indice + " de " + cantidad);
+        }
+        return TAMANO_CABECERA + indice * tamanoRegistro;
+    }
+
+    /**
+     * Lista de los enemigos del roster que se llena por bloques a medida que se recorre.
+     */
+    private final class VistaEnemigos extends AbstractList<Combatiente> implements RandomAccess {
+        private final Combatiente[][] bloques = new Combatiente[(cantidad + ENEMIGOS_POR_BLOQUE - 1) / ENEMIGOS_POR_BLOQUE][];
+
+        @Override
+        public Combatiente get(int indice) {
+            if (indice < 0 || indice >= cantidad) {
+                throw new IndexOutOfBoundsException("Enemigo " + indice + " de " + cantidad);
+            }
+            int numero = indice / ENEMIGOS_POR_BLOQUE;
+            Combatiente[] bloque = bloques[numero];
+            if (bloque == null) {
+                int desde = numero * ENEMIGOS_POR_BLOQUE;
+                bloque = new Combatiente[Math.min(ENEMIGOS_POR_BLOQUE, cantidad - desde)];
+                EstadoCombate estado = new EstadoCombate(bloque.length);
+                for (int i = 0; i < bloque.length; i++) bloque[i] = crearEnemigo(desde + i, estado);
+                bloques[numero] = bloque;
+            }
+            return bloque[indice % ENEMIGOS_POR_BLOQUE];
+        }
+
+        @Override
+        public int size() {
+            return cantidad;
+        }
+    }
+}
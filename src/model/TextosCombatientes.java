@@ -0,0 +1,32 @@
+package model;
+
+/**
+ * Interfaz TextosCombatientes.
+ * Da los textos de cada combatiente por id para armar el texto de un evento,
+ * tanto desde los combatientes de una batalla como desde un historial en disco.
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+interface TextosCombatientes {
+
+    /**
+     * Obtiene el nombre de un combatiente.
+     * @param id Id del combatiente.
+     * @return String Nombre.
+     */
+    String nombre(int id);
+
+    /**
+     * Obtiene el mensaje de inicio de un combatiente.
+     * @param id Id del combatiente.
+     * @return String Mensaje de inicio.
+     */
+    String mensajeInicio(int id);
+
+    /**
+     * Obtiene el mensaje de muerte de un combatiente.
+     * @param id Id del combatiente.
+     * @return String Mensaje de muerte.
+     */
+    String mensajeMuerte(int id);
+}
@@ -0,0 +1,104 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Enum que define los tipos de enemigo que se pueden crear.
+ * Cada tipo conoce la clave con la que se escribe en archivos de enemigos.
+ * @author Carlos Altán
+ * @since 2025-10-15
+ */
+public enum TipoEnemigo {
+    ORCO(1, "orco", "Orco"),
+    GOBLIN(2, "goblin", "Goblin"),
+    DRAGON(3, "dragon", "Dragón");
+
+    private final int codigo;
+    private final String clave;
+    private final String nombre;
+    private final byte[] claveBytes;
+
+    /**
+     * Constructor del enum TipoEnemigo.
+     * @param codigo Código del tipo en archivos binarios.
+     * @param clave Clave del tipo en minúsculas.
+     * @param nombre Nombre del tipo que se muestra.
+     */
+    TipoEnemigo(int codigo, String clave, String nombre) {
+        this.codigo = codigo;
+        this.clave = clave;
+        this.nombre = nombre;
+        this.claveBytes = clave.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Obtiene la clave del tipo.
+     * @return String Clave en minúsculas.
+     */
+    public String getClave() { return clave; }
+
+    /**
+     * Obtiene el nombre del tipo que se muestra.
+     * @return String Nombre del tipo.
+     */
+    public String getNombre() { return nombre; }
+
+    /**
+     * Obtiene el código del tipo.
+     * @return int Código usado en archivos binarios.
+     */
+    public int getCodigo() { return codigo; }
+
+    /**
+     * Busca el tipo que corresponde a un código.
+     * @param codigo Código a buscar.
+     * @return TipoEnemigo encontrado o null si no existe.
+     */
+    public static TipoEnemigo desdeCodigo(int codigo) {
+        for (TipoEnemigo tipo : values()) {
+            if (tipo.codigo == codigo) return tipo;
+        }
+        return null;
+    }
+
+    /**
+     * Crea un enemigo de este tipo con el arquetipo compartido de la fábrica.
+     * @param esJefe Indica si es un jefe.
+     * @param estado Estado donde se agrega el enemigo.
+     * @return Enemigo creado.
+     */
+    public Enemigo crear(boolean esJefe, EstadoCombate estado) {
+        return EnemyFactory.obtenerArquetipo(this, esJefe).crear(estado);
+    }
+
+    /**
+     * Busca el tipo que corresponde a una clave, sin distinguir mayúsculas.
+     * @param clave Clave a buscar.
+     * @return TipoEnemigo encontrado o null si no existe.
+     */
+    public static TipoEnemigo desdeClave(String clave) {
+        for (TipoEnemigo tipo : values()) {
+            if (tipo.clave.equalsIgnoreCase(clave)) return tipo;
+        }
+        return null;
+    }
+
+    /**
+     * Busca el tipo cuya clave está en un rango de bytes ASCII, sin distinguir
+     * mayúsculas y sin crear cadenas.
+     * @param datos Bytes de origen.
+     * @param desde Primer byte de la clave.
+     * @param hasta Byte siguiente al último de la clave.
+     * @return TipoEnemigo encontrado o null si no existe.
+     */
+    public static TipoEnemigo desdeBytes(byte[] datos, int desde, int hasta) {
+        for (TipoEnemigo tipo : values()) {
+            byte[] clave = tipo.claveBytes;
+            if (hasta - desde != clave.length) continue;
+            int i = 0;
+            while (i < clave.length && (datos[desde + i] | 0x20) == clave[i]) i++;
+            if (i == clave.length) return tipo;
+        }
+        return null;
+    }
+}
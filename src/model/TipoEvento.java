@@ -0,0 +1,160 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Enum que define los eventos que se registran durante una batalla.
+ * Cada evento guarda solo ids y números; el texto se arma con la plantilla
+ * del tipo recién cuando alguien lo muestra.
+ *
+ * Las plantillas usan las marcas {actor}, {objetivo}, {valor1}, {valor2} y {texto},
+ * además de {inicio} y {muerte}, que toman los mensajes de inicio y muerte del actor.
+ * Los eventos de continuación se escriben a continuación del evento anterior,
+ * en la misma línea del registro.
+ * @author Carlos Altán
+ * @since 2025-10-17
+ */
+public enum TipoEvento {
+    /** --- BATALLA --- **/
+    INICIO_BATALLA("=== ¡LA BATALLA COMIENZA! ===", false),
+    PRESENTACION("{inicio}", false),
+    ORDEN_TURNOS("=== ORDEN DE TURNOS DETERMINADO ===", false),
+    VICTORIA("=== ¡VICTORIA! Todos los enemigos han sido derrotados ===", false),
+    DERROTA("=== ¡DERROTA! Todos los jugadores han caído ===", false),
+    MUERTE("{muerte}", false),
+    QUEMADURA("{actor} recibe {valor1} de daño por estar quemado", false),
+    REGENERACION("{actor} se regenera {valor1} HP", false),
+    TEXTO("{texto}", false),
+
+    /** --- ACCIONES --- **/
+    ATAQUE("{actor} ataca a {objetivo} causando {valor1} de daño!", false),
+    PASAR("{actor} pasa su turno.", false),
+    HUIR("{actor} huye de la batalla!", false),
+    INDECISION("{actor} pierde su turno por indecisión.", false),
+    OBSERVAR("{actor} observa el campo de batalla...", false),
+
+    /** --- HABILIDADES --- **/
+    GOLPE_BRUTAL("¡{actor} usa GOLPE BRUTAL contra {objetivo} causando {valor1} de daño devastador!", false),
+    RUGIDO("¡{actor} lanza un RUGIDO INTIMIDANTE!", false),
+    RUGIDO_INTIMIDA(" {objetivo} se siente intimidado!", true),
+    ESQUIVE("¡{actor} se mueve ágilmente y entra en posición de ESQUIVE!", false),
+    ATAQUE_MULTIPLE("¡{actor} realiza un ATAQUE MÚLTIPLE!", false),
+    ATAQUE_MULTIPLE_GOLPE(" Golpea a {objetivo} por {valor1}!", true),
+    ALIENTO_FUEGO("¡{actor} lanza su ALIENTO DE FUEGO!", false),
+    ALIENTO_FUEGO_QUEMA(" {objetivo} recibe {valor1} de daño y queda quemado!", true),
+    CURACION_MISTICA("¡{actor} invoca una CURACIÓN MÍSTICA y recupera {valor1} puntos de vida!", false),
+
+    /** --- ÍTEMS --- **/
+    ITEM_NO_DISPONIBLE("No tienes ese ítem disponible.", false),
+    POCION("¡{objetivo} usa una Poción de Vida y recupera {valor1} puntos de vida!", false),
+    POCION_FALLIDA("No se pudo usar la poción.", false),
+    ELIXIR("¡{objetivo} bebe un Elixir de Fuerza! Su ataque aumenta en {valor1} por {valor2} turnos!", false),
+    ELIXIR_FALLIDO("No se pudo usar el elixir.", false),
+    KIT_CURACION("¡Se usa un Kit de Curación Grupal!", false),
+    KIT_CURACION_ALIADO(" {objetivo} recupera {valor1} HP!", true),
+    KIT_CURACION_VACIO(" Pero no hay aliados que curar...", true),
+    BOMBA_HUMO("¡Se lanza una Bomba de Humo!", false),
+    BOMBA_HUMO_CONFUNDE(" {objetivo} queda confundido!", true),
+    BOMBA_HUMO_VACIA(" Pero no afecta a ningún enemigo...", true);
+
+    private static final TipoEvento[] VALORES = values();
+
+    private final String plantilla;
+    private final boolean continuacion;
+    // La plantilla ya separada: texto fijo antes de cada marca y el código de la marca
+    private final String[] partes;
+    private final int[] marcas;
+
+    /**
+     * Constructor del enum TipoEvento.
+     * @param plantilla Texto del evento con sus marcas.
+     * @param continuacion Indica si el evento continúa la línea del evento anterior.
+     */
+    TipoEvento(String plantilla, boolean continuacion) {
+        this.plantilla = plantilla;
+        this.continuacion = continuacion;
+        List<String> listaPartes = new ArrayList<>();
+        List<Integer> listaMarcas = new ArrayList<>();
+        int desde = 0;
+        int marca;
+        while ((marca = plantilla.indexOf('{', desde)) >= 0) {
+            int cierre = plantilla.indexOf('}', marca);
+            int codigo = codigoMarca(plantilla.substring(marca + 1, cierre));
+            if (codigo < 0) throw new IllegalArgumentException("Marca desconocida en " + plantilla);
+            listaPartes.add(plantilla.substring(desde, marca));
+            listaMarcas.add(codigo);
+            desde = cierre + 1;
+        }
+        listaPartes.add(plantilla.substring(desde));
+        this.partes = listaPartes.toArray(new String[0]);
+        this.marcas = listaMarcas.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Obtiene el tipo de evento a partir de su código.
+     * @param codigo Código del evento (su posición en el enum).
+     * @return TipoEvento correspondiente.
+     */
+    public static TipoEvento desdeCodigo(int codigo) {
+        return VALORES[codigo];
+    }
+
+    // Los campos estáticos todavía no existen cuando se construyen las constantes
+    private static int codigoMarca(String marca) {
+        switch (marca) {
+            case "actor": return 0;
+            case "objetivo": return 1;
+            case "valor1": return 2;
+            case "valor2": return 3;
+            case "texto": return 4;
+            case "inicio": return 5;
+            case "muerte": return 6;
+            default: return -1;
+        }
+    }
+
+    /**
+     * Escribe el texto del evento reemplazando las marcas de la plantilla.
+     * @param destino Donde se escribe el texto.
+     * @param textos Textos de los combatientes por id.
+     * @param actor Id del combatiente que realiza el evento.
+     * @param objetivo Id del combatiente que lo recibe.
+     * @param valor1 Primer valor del evento.
+     * @param valor2 Segundo valor del evento.
+     * @param texto Texto libre, solo para TEXTO.
+     */
+    void describir(StringBuilder destino, TextosCombatientes textos, int actor, int objetivo,
+                   int valor1, int valor2, String texto) {
+        for (int i = 0; i < marcas.length; i++) {
+            destino.append(partes[i]);
+            switch (marcas[i]) {
+                case 0: destino.append(textos.nombre(actor)); break;
+                case 1: destino.append(textos.nombre(objetivo)); break;
+                case 2: destino.append(valor1); break;
+                case 3: destino.append(valor2); break;
+                case 4: destino.append(texto); break;
+                case 5: destino.append(textos.mensajeInicio(actor)); break;
+                default: destino.append(textos.mensajeMuerte(actor)); break;
+            }
+        }
+        destino.append(partes[marcas.length]);
+    }
+
+    /**
+     * Obtiene el código del evento, que es su posición en el enum.
+     * @return int Código del evento.
+     */
+    public int getCodigo() { return ordinal(); }
+
+    /**
+     * Indica si el evento se escribe en la misma línea que el anterior.
+     * @return boolean true si es una continuación.
+     */
+    public boolean isContinuacion() { return continuacion; }
+
+    /**
+     * Obtiene la plantilla del evento.
+     * @return String Plantilla con sus marcas.
+     */
+    public String getPlantilla() { return plantilla; }
+}
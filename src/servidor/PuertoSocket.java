@@ -0,0 +1,84 @@
+package servidor;
+
+import view.PuertoEntradaSalida;
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Clase PuertoSocket.
+ * Puerto de entrada y salida sobre una conexión TCP, línea por línea en UTF-8.
+ * Lo escrito se acumula y se envía junto antes de cada lectura, así una pantalla
+ * completa sale en un solo paquete. Las líneas recibidas tienen un largo máximo,
+ * para que un cliente no pueda llenar la memoria del servidor.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-19
+ */
+final class PuertoSocket implements PuertoEntradaSalida {
+    /** Caracteres máximos de una línea recibida */
+    static final int LARGO_MAXIMO_LINEA = 256;
+
+    private final Reader entrada;
+    private final Writer salida;
+    private final StringBuilder linea = new StringBuilder();
+    private final int filasTerminal;
+
+    /**
+     * Constructor de PuertoSocket.
+     * @param socket Conexión con el cliente.
+     * @param filasTerminal Filas de la terminal ANSI de los clientes, o 0 si no se supone una.
+     * @throws IOException si no se pueden abrir los flujos de la conexión.
+     */
+    PuertoSocket(Socket socket, int filasTerminal) throws IOException {
+        this.entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.salida = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        this.filasTerminal = filasTerminal;
+    }
+
+    @Override
+    public int getFilasTerminal() {
+        return filasTerminal;
+    }
+
+    @Override
+    public String leerLinea() {
+        try {
+            salida.flush();
+            linea.setLength(0);
+            while (true) {
+                int c = entrada.read();
+                if (c < 0) {
+                    if (linea.length() == 0) throw new NoSuchElementException("El cliente cerró la conexión");
+                    break;
+                }
+                if (c == '\n') break;
+                if (c == '\r') continue;
+                if (linea.length() == LARGO_MAXIMO_LINEA) throw new IOException("Línea demasiado larga");
+                linea.append((char) c);
+            }
+            return linea.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void escribir(String texto) {
+        try {
+            salida.write(texto);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void enviar() {
+        try {
+            salida.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
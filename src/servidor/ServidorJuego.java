@@ -0,0 +1,307 @@
+package servidor;
+
+import controller.ControladorJuego;
+import controller.SesionJuego;
+import model.PoliticaDesborde;
+import model.RegistroAsincrono;
+import model.RegistroMetricas;
+import view.VistaConsola;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clase ServidorJuego.
+ * Servidor TCP de texto: cada conexión juega una partida independiente, con su
+ * propio ControladorJuego, en su propio hilo. Se puede probar con cualquier
+ * cliente de líneas, como {@code nc localhost 7777}.
+ *
+ * <p>Cada sesión pasa casi todo el tiempo esperando al jugador, así que se usa un
+ * hilo virtual por sesión cuando la JVM los tiene (Java 21 o posterior); en JVM
+ * anteriores se usan hilos de plataforma con una pila chica. Las conexiones que
+ * superan el máximo se rechazan con un mensaje, y una sesión que no recibe nada
+ * durante el tiempo de inactividad se cierra.</p>
+ *
+ * @author Carlos Altán
+ * @since 2025-10-19
+ */
+public final class ServidorJuego implements Closeable {
+    /** Puerto en el que escucha el servidor si no se indica otro */
+    public static final int PUERTO_POR_DEFECTO = 7777;
+    /** Conexiones simultáneas máximas si no se indica otro valor */
+    public static final int CONEXIONES_POR_DEFECTO = 10_000;
+    /** Segundos sin recibir nada tras los que se cierra una sesión */
+    public static final int INACTIVIDAD_POR_DEFECTO = 300;
+
+    /** Pila de los hilos de plataforma; las sesiones no hacen recursión profunda */
+    private static final long PILA_HILO = 256 * 1024;
+    /** Conexiones que pueden esperar en la cola del sistema mientras se aceptan otras */
+    private static final int COLA_CONEXIONES = 1024;
+
+    private final ServerSocket servidor;
+    private final Semaphore cupos;
+    private final int maxConexiones;
+    private final int inactividadMs;
+    private final RegistroAsincrono registroLog;
+    private final ThreadFactory hilos;
+    private final boolean hilosVirtuales;
+    private final Set<Socket> conexiones = ConcurrentHashMap.newKeySet();
+    private volatile int filasTerminal;
+    private volatile RegistroMetricas metricas;
+
+    private final AtomicLong atendidas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong inactivas = new AtomicLong();
+    private volatile boolean cerrado;
+
+    /**
+     * Constructor de ServidorJuego. Abre el puerto pero no acepta conexiones hasta
+     * que se llama a atender.
+     *
+     * @param puerto Puerto TCP, o 0 para que el sistema elija uno libre.
+     * @param maxConexiones Sesiones simultáneas máximas.
+     * @param inactividadMs Milisegundos sin recibir nada tras los que se cierra una sesión, o 0 para no cerrarlas.
+     * @param registroLog Registro donde se escribe el log de todas las sesiones, o null para no escribirlo.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public ServidorJuego(int puerto, int maxConexiones, int inactividadMs, RegistroAsincrono registroLog)
+            throws IOException {
+        if (maxConexiones < 1) throw new IllegalArgumentException("Se debe permitir al menos una conexión");
+        this.servidor = new ServerSocket(puerto, COLA_CONEXIONES);
+        this.maxConexiones = maxConexiones;
+        this.cupos = new Semaphore(maxConexiones);
+        this.inactividadMs = inactividadMs;
+        this.registroLog = registroLog;
+        ThreadFactory virtuales = fabricaHilosVirtuales();
+        this.hilosVirtuales = virtuales != null;
+        this.hilos = virtuales != null ? virtuales : fabricaHilosPlataforma();
+    }
+
+    /**
+     * Indica que los clientes usan una terminal ANSI, como telnet o nc desde una
+     * terminal, para mostrarles el estado de la batalla fijo arriba de la pantalla.
+     * Sin terminal, los clientes reciben solo las líneas que cambian en cada turno.
+     *
+     * @param filasTerminal Filas de las terminales de los clientes, o 0 para no usar ANSI.
+     */
+    public void setFilasTerminal(int filasTerminal) {
+        this.filasTerminal = filasTerminal;
+    }
+
+    /**
+     * Indica dónde registrar las métricas de todas las sesiones.
+     *
+     * @param metricas Registro compartido por las sesiones, o null para no medir. Lo cierra quien lo creó.
+     */
+    public void setMetricas(RegistroMetricas metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Acepta conexiones hasta que se cierra el servidor. Cada conexión aceptada
+     * se atiende en su propio hilo.
+     *
+     * @throws IOException si falla el puerto del servidor.
+     */
+    public void atender() throws IOException {
+        while (!cerrado) {
+            Socket socket;
+            try {
+                socket = servidor.accept();
+            } catch (SocketException e) {
+                if (cerrado) return;
+                throw e;
+            }
+            if (!cupos.tryAcquire()) {
+                rechazar(socket);
+                continue;
+            }
+            try {
+                hilos.newThread(() -> atenderConexion(socket)).start();
+            } catch (OutOfMemoryError e) {
+                // El sistema no pudo crear otro hilo: se trata como servidor lleno
+                cupos.release();
+                rechazar(socket);
+            }
+        }
+    }
+
+    /**
+     * Juega una sesión completa sobre una conexión y la cierra al terminar.
+     */
+    private void atenderConexion(Socket socket) {
+        conexiones.add(socket);
+        atendidas.incrementAndGet();
+        try (socket) {
+            socket.setSoTimeout(inactividadMs);
+            socket.setTcpNoDelay(true);
+            PuertoSocket puerto = new PuertoSocket(socket, filasTerminal);
+            VistaConsola vista = new VistaConsola(puerto);
+            ControladorJuego controlador = new ControladorJuego(vista);
+            controlador.setRegistroLog(registroLog);
+            controlador.setMetricas(metricas);
+            try {
+                new SesionJuego(vista, controlador, false).jugar();
+            } catch (NoSuchElementException e) {
+                // El cliente cerró la conexión
+            } catch (UncheckedIOException e) {
+                if (e.getCause() instanceof SocketTimeoutException) {
+                    inactivas.incrementAndGet();
+                    puerto.escribirLinea(vista.obtenerCierrePanel() + "\nTiempo de inactividad agotado. ¡Hasta pronto!");
+                    puerto.enviar();
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // La conexión se cortó; no queda a quién avisar
+        } catch (RuntimeException e) {
+            System.err.println("Error en la sesión de " + socket.getRemoteSocketAddress() + ": " + e);
+        } finally {
+            conexiones.remove(socket);
+            cupos.release();
+        }
+    }
+
+    private void rechazar(Socket socket) {
+        rechazadas.incrementAndGet();
+        try (socket) {
+            socket.getOutputStream().write("Servidor lleno, intenta más tarde.\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // El cliente ya se fue
+        }
+    }
+
+    /**
+     * Deja de aceptar conexiones y corta las sesiones en curso.
+     */
+    @Override
+    public void close() throws IOException {
+        cerrado = true;
+        servidor.close();
+        for (Socket socket : conexiones) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Se está cerrando de todos modos
+            }
+        }
+    }
+
+    /**
+     * Crea hilos virtuales si la JVM los tiene. Se buscan por reflexión para que el
+     * servidor también compile y corra en Java 17.
+     *
+     * @return Fábrica de hilos virtuales, o null si la JVM no los tiene.
+     */
+    private static ThreadFactory fabricaHilosVirtuales() {
+        try {
+            Object constructor = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> tipoConstructor = Class.forName("java.lang.Thread$Builder");
+            Method nombre = tipoConstructor.getMethod("name", String.class, long.class);
+            constructor = nombre.invoke(constructor, "sesion-", 1L);
+            return (ThreadFactory) tipoConstructor.getMethod("factory").invoke(constructor);
+        } catch (ReflectiveOperationException e) {
+            // Java 17 a 20, o hilos virtuales en vista previa sin habilitar
+            return null;
+        }
+    }
+
+    private static ThreadFactory fabricaHilosPlataforma() {
+        AtomicLong contador = new AtomicLong();
+        return tarea -> {
+            Thread hilo = new Thread(null, tarea, "sesion-" + contador.incrementAndGet(), PILA_HILO);
+            hilo.setDaemon(true);
+            return hilo;
+        };
+    }
+
+    // Getters
+    public int getPuerto() { return servidor.getLocalPort(); }
+    public int getMaxConexiones() { return maxConexiones; }
+    public int getConexionesActivas() { return maxConexiones - cupos.availablePermits(); }
+    public long getAtendidas() { return atendidas.get(); }
+    public long getRechazadas() { return rechazadas.get(); }
+    public long getInactivas() { return inactivas.get(); }
+    public boolean isHilosVirtuales() { return hilosVirtuales; }
+
+    @Override
+    public String toString() {
+        return String.format("Sesiones atendidas: %d - Activas: %d - Rechazadas: %d - Cerradas por inactividad: %d",
+                             getAtendidas(), getConexionesActivas(), getRechazadas(), getInactivas());
+    }
+
+    /**
+     * Inicia el servidor y atiende conexiones hasta que se detiene el proceso.
+     * Uso: java -cp bin servidor.ServidorJuego [--puerto N] [--max-conexiones N]
+     *      [--inactividad segundos] [--log archivo|-] [--ansi filas] [--metricas archivo]
+     *
+     * @param args Argumentos de línea de comandos.
+     * @throws IOException si no se puede abrir el puerto o el log.
+     */
+    public static void main(String[] args) throws IOException {
+        int puerto = PUERTO_POR_DEFECTO;
+        int maxConexiones = CONEXIONES_POR_DEFECTO;
+        int inactividad = INACTIVIDAD_POR_DEFECTO;
+        String archivoLog = null;
+        int filasTerminal = 0;
+        String archivoMetricas = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--puerto": puerto = Integer.parseInt(args[++i]); break;
+                case "--max-conexiones": maxConexiones = Integer.parseInt(args[++i]); break;
+                case "--inactividad": inactividad = Integer.parseInt(args[++i]); break;
+                case "--log": archivoLog = args[++i]; break;
+                case "--ansi": filasTerminal = Integer.parseInt(args[++i]); break;
+                case "--metricas": archivoMetricas = args[++i]; break;
+                default:
+                    System.out.println("Uso: java -cp bin servidor.ServidorJuego [--puerto N] [--max-conexiones N]"
+                                       + " [--inactividad segundos] [--log archivo|-] [--ansi filas]"
+                                       + " [--metricas archivo]");
+                    return;
+            }
+        }
+
+        RegistroAsincrono registro = null;
+        if (archivoLog != null) {
+            registro = archivoLog.equals("-") ? RegistroAsincrono.aSalidaEstandar(PoliticaDesborde.BLOQUEAR)
+                                              : RegistroAsincrono.aArchivo(Paths.get(archivoLog), PoliticaDesborde.BLOQUEAR);
+        }
+        ServidorJuego servidor = new ServidorJuego(puerto, maxConexiones, inactividad * 1000, registro);
+        servidor.setFilasTerminal(filasTerminal);
+        RegistroMetricas metricas = null;
+        if (archivoMetricas != null) {
+            metricas = new RegistroMetricas();
+            metricas.exportarCada(Paths.get(archivoMetricas), RegistroMetricas.PERIODO_POR_DEFECTO_MS);
+            servidor.setMetricas(metricas);
+        }
+        RegistroAsincrono registroFinal = registro;
+        RegistroMetricas metricasFinal = metricas;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                servidor.close();
+                if (registroFinal != null) registroFinal.close();
+                if (metricasFinal != null) metricasFinal.close();
+            } catch (IOException e) {
+                // El proceso está terminando
+            }
+            System.out.println(servidor);
+        }));
+
+        System.out.printf("Servidor de batallas en el puerto %d (%s), hasta %d conexiones, inactividad %d s%n",
+                          servidor.getPuerto(), servidor.isHilosVirtuales() ? "hilos virtuales" : "hilos de plataforma",
+                          maxConexiones, inactividad);
+        servidor.atender();
+    }
+}
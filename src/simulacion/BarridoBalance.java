@@ -0,0 +1,473 @@
+package simulacion;
+
+import model.*;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Clase BarridoBalance.
+ * Prueba muchas combinaciones de estadísticas del juego ({@link ParametroBalance})
+ * y mide para cada una la tasa de victoria y la duración media de miles de batallas.
+ * Los puntos salen de una grilla completa o de un hipercubo latino, y cada fila del
+ * CSV se escribe apenas termina su punto, así un barrido largo se puede mirar mientras
+ * corre.
+ *
+ * Todos los puntos juegan las mismas batallas (los mismos enemigos y la misma
+ * secuencia aleatoria para cada índice), así las diferencias entre puntos vienen de
+ * las estadísticas y no del azar. Con los valores por defecto el resultado es el
+ * mismo que el de {@link SimuladorBatallas} con la misma semilla.
+ *
+ * Para no crear combatientes en cada batalla, cada tarea arma una sola batalla por
+ * reparto de enemigos y la vuelve a empezar con {@link Batalla#reiniciar}.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public class BarridoBalance {
+
+    /** Batallas por punto si no se indica otra cantidad */
+    public static final int BATALLAS_POR_DEFECTO = 2000;
+
+    /** Valores por parámetro en la grilla si el rango no indica otra cantidad */
+    public static final int PASOS_POR_DEFECTO = 5;
+
+    /** Batallas mínimas de una tarea, para que valga la pena armar sus batallas */
+    private static final int BATALLAS_MINIMAS_POR_TAREA = 512;
+
+    /** Variantes de cada posición de un reparto: vacía o un tipo común o jefe */
+    private static final int VARIANTES = 2 * TipoEnemigo.values().length + 1;
+
+    /** Repartos de enemigos distintos que puede sortear un encuentro aleatorio */
+    private static final int REPARTOS = (int) Math.pow(VARIANTES, EnemyFactory.MAX_ENEMIGOS_ALEATORIOS);
+
+    private final RolJugador[] roles;
+    private final Supplier<PoliticaJugador> fabricaPolitica;
+    private final ForkJoinPool pool;
+    private final long semilla;
+    private final ModoTurnos modoTurnos;
+    private final int batallasPorPunto;
+
+    /**
+     * Rango de valores de un parámetro.
+     */
+    public static final class Rango {
+        private final ParametroBalance parametro;
+        private final double minimo;
+        private final double maximo;
+        private final int pasos;
+
+        /**
+         * Constructor de Rango.
+         * @param parametro Parámetro que varía.
+         * @param minimo Valor mínimo.
+         * @param maximo Valor máximo.
+         * @param pasos Valores que toma en la grilla, incluidos los extremos.
+         */
+        public Rango(ParametroBalance parametro, double minimo, double maximo, int pasos) {
+            if (maximo < minimo) throw new IllegalArgumentException("Rango vacío para " + parametro.getClave());
+            if (pasos < 1) throw new IllegalArgumentException("Se necesita al menos un paso para " + parametro.getClave());
+            this.parametro = parametro;
+            this.minimo = minimo;
+            this.maximo = maximo;
+            this.pasos = pasos;
+        }
+
+        /**
+         * Lee un rango escrito como "min:max" o "min:max:pasos", o un valor fijo.
+         * @param parametro Parámetro del rango.
+         * @param texto Texto del rango.
+         * @return Rango leído.
+         * @throws IllegalArgumentException si el texto no es un rango.
+         */
+        public static Rango desdeTexto(ParametroBalance parametro, String texto) {
+            String[] partes = texto.split(":");
+            try {
+                if (partes.length == 1) {
+                    double valor = Double.parseDouble(partes[0]);
+                    return new Rango(parametro, valor, valor, 1);
+                }
+                if (partes.length > 3) throw new IllegalArgumentException("Rango inválido: " + texto);
+                int pasos = partes.length == 3 ? Integer.parseInt(partes[2]) : PASOS_POR_DEFECTO;
+                return new Rango(parametro, Double.parseDouble(partes[0]), Double.parseDouble(partes[1]), pasos);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Rango inválido para " + parametro.getClave() + ": " + texto);
+            }
+        }
+
+        public ParametroBalance getParametro() { return parametro; }
+        public boolean isFijo() { return minimo == maximo; }
+    }
+
+    /**
+     * Constructor de BarridoBalance.
+     *
+     * @param roles Roles de los jugadores de cada batalla.
+     * @param fabricaPolitica Crea una política por tarea, así no se comparte entre hilos.
+     * @param pool Pool fork-join donde se juegan las batallas.
+     * @param semilla Semilla maestra; la misma semilla produce exactamente los mismos resultados.
+     * @param modoTurnos Cómo se decide el orden de turnos en cada batalla.
+     * @param batallasPorPunto Batallas que se juegan con cada combinación.
+     */
+    public BarridoBalance(RolJugador[] roles, Supplier<PoliticaJugador> fabricaPolitica, ForkJoinPool pool,
+                          long semilla, ModoTurnos modoTurnos, int batallasPorPunto) {
+        if (roles.length == 0) throw new IllegalArgumentException("Se necesita al menos un jugador");
+        if (batallasPorPunto < 1) throw new IllegalArgumentException("Se necesita al menos una batalla por punto");
+        this.roles = roles.clone();
+        this.fabricaPolitica = fabricaPolitica;
+        this.pool = pool;
+        this.semilla = semilla;
+        this.modoTurnos = modoTurnos;
+        this.batallasPorPunto = batallasPorPunto;
+    }
+
+    /** --- PUNTOS --- **/
+
+    /**
+     * Arma la grilla completa de los rangos: todas las combinaciones de sus valores.
+     * Los parámetros sin rango quedan con el valor del juego.
+     *
+     * @param rangos Rangos de los parámetros que varían o quedan fijos.
+     * @return List<double[]> Valores de todos los parámetros en cada punto, por ordinal.
+     */
+    public static List<double[]> grilla(List<Rango> rangos) {
+        List<double[]> puntos = new ArrayList<>();
+        int[] paso = new int[rangos.size()];
+        while (true) {
+            double[] valores = valoresPorDefecto();
+            for (int j = 0; j < rangos.size(); j++) {
+                Rango rango = rangos.get(j);
+                double fraccion = rango.pasos == 1 ? 0 : (double) paso[j] / (rango.pasos - 1);
+                valores[rango.parametro.ordinal()] = rango.parametro.ajustar(rango.minimo + fraccion * (rango.maximo - rango.minimo));
+            }
+            puntos.add(valores);
+
+            // Siguiente combinación, con el último rango variando más rápido
+            int j = rangos.size() - 1;
+            while (j >= 0 && ++paso[j] == rangos.get(j).pasos) paso[j--] = 0;
+            if (j < 0) return puntos;
+        }
+    }
+
+    /**
+     * Arma un hipercubo latino: divide cada rango en tantas franjas como puntos y
+     * pone exactamente un punto en cada franja de cada parámetro, en un lugar al
+     * azar de la franja. Cubre el espacio con muchos menos puntos que una grilla
+     * cuando varían varios parámetros.
+     *
+     * @param rangos Rangos de los parámetros que varían o quedan fijos.
+     * @param cantidad Cantidad de puntos.
+     * @param semilla Semilla del sorteo de los puntos.
+     * @return List<double[]> Valores de todos los parámetros en cada punto, por ordinal.
+     */
+    public static List<double[]> hipercuboLatino(List<Rango> rangos, int cantidad, long semilla) {
+        FuenteAleatoria rand = new FuenteAleatoria(semilla);
+        List<double[]> puntos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) puntos.add(valoresPorDefecto());
+        int[] franjas = new int[cantidad];
+        for (Rango rango : rangos) {
+            for (int i = 0; i < cantidad; i++) franjas[i] = i;
+            rand.barajar(franjas);
+            for (int i = 0; i < cantidad; i++) {
+                double fraccion = (franjas[i] + rand.nextDouble()) / cantidad;
+                double valor = rango.minimo + fraccion * (rango.maximo - rango.minimo);
+                puntos.get(i)[rango.parametro.ordinal()] = rango.parametro.ajustar(valor);
+            }
+        }
+        return puntos;
+    }
+
+    private static double[] valoresPorDefecto() {
+        ParametroBalance[] parametros = ParametroBalance.values();
+        double[] valores = new double[parametros.length];
+        for (ParametroBalance parametro : parametros) valores[parametro.ordinal()] = parametro.getPorDefecto();
+        return valores;
+    }
+
+    /** --- BARRIDO --- **/
+
+    /**
+     * Juega todos los puntos en paralelo y escribe una fila CSV por punto, en el orden
+     * en que terminan: número de punto, los parámetros de las columnas, desenlaces,
+     * tasa de victoria y rondas promedio.
+     *
+     * @param puntos Valores de los parámetros en cada punto, por ordinal.
+     * @param columnas Parámetros que se escriben en cada fila.
+     * @param salida Destino del CSV; se vacía después de cada fila.
+     * @return ResultadoSimulacion Resultado de todas las batallas del barrido.
+     * @throws IOException si no se puede escribir el CSV.
+     */
+    public ResultadoSimulacion barrer(List<double[]> puntos, List<ParametroBalance> columnas, Writer salida)
+            throws IOException {
+        StringBuilder cabecera = new StringBuilder("punto");
+        for (ParametroBalance parametro : columnas) cabecera.append(',').append(parametro.getClave());
+        cabecera.append(",batallas,victorias,derrotas,huidas,limite_turnos,tasa_victoria,turnos_promedio\n");
+        salida.write(cabecera.toString());
+        salida.flush();
+
+        long total = (long) puntos.size() * batallasPorPunto;
+        int porTarea = (int) Math.min(batallasPorPunto,
+                                      Math.max(BATALLAS_MINIMAS_POR_TAREA, total / (pool.getParallelism() * 8L)));
+        int tareasPorPunto = (batallasPorPunto + porTarea - 1) / porTarea;
+        Punto[] configurados = new Punto[puntos.size()];
+        for (int i = 0; i < configurados.length; i++) {
+            configurados[i] = new Punto(i, puntos.get(i), columnas, tareasPorPunto);
+        }
+
+        ResultadoSimulacion resultado = new ResultadoSimulacion();
+        Escritor escritor = new Escritor(salida, resultado);
+        long inicio = System.nanoTime();
+        try {
+            pool.invoke(new TareaBarrido(configurados, porTarea, tareasPorPunto, 0,
+                                         (long) configurados.length * tareasPorPunto, escritor));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        resultado.setNanosTranscurridos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Juega un tramo de las batallas de un punto. Arma una batalla por cada reparto
+     * de enemigos que aparece en el tramo, le captura el inicio y la vuelve a empezar
+     * en cada batalla del mismo reparto.
+     *
+     * @param punto Punto que se juega.
+     * @param desde Primera batalla (incluida).
+     * @param hasta Última batalla (excluida).
+     * @return ResultadoSimulacion Resultado del tramo.
+     */
+    private ResultadoSimulacion jugarTramo(Punto punto, long desde, long hasta) {
+        MotorBatalla motor = new MotorBatalla(fabricaPolitica.get(), SimuladorBatallas.MAX_TURNOS_POR_DEFECTO);
+        Batalla[] batallas = new Batalla[REPARTOS];
+        InstantaneaBatalla[] inicios = new InstantaneaBatalla[REPARTOS];
+        TipoEnemigo[] tipos = new TipoEnemigo[EnemyFactory.MAX_ENEMIGOS_ALEATORIOS];
+        boolean[] jefes = new boolean[EnemyFactory.MAX_ENEMIGOS_ALEATORIOS];
+        ResultadoSimulacion resultado = new ResultadoSimulacion();
+        for (long i = desde; i < hasta; i++) {
+            // Misma fuente y mismo sorteo de enemigos que SimuladorBatallas
+            FuenteAleatoria sorteo = FuenteAleatoria.paraBatalla(semilla, i);
+            int cantidad = EnemyFactory.sortearEnemigos(sorteo, tipos, jefes);
+            int reparto = 0;
+            for (int e = cantidad - 1; e >= 0; e--) {
+                reparto = reparto * VARIANTES + 1 + 2 * tipos[e].ordinal() + (jefes[e] ? 1 : 0);
+            }
+            Batalla batalla = batallas[reparto];
+            if (batalla == null) {
+                batalla = punto.crearBatalla(roles, tipos, jefes, cantidad, modoTurnos);
+                batallas[reparto] = batalla;
+                inicios[reparto] = new InstantaneaBatalla();
+                inicios[reparto].capturar(batalla);
+            }
+            batalla.reiniciar(inicios[reparto], sorteo);
+            resultado.registrar(motor.jugar(batalla), batalla.getTurnoActual() + 1);
+        }
+        return resultado;
+    }
+
+    /**
+     * Una combinación de parámetros, con los arquetipos de enemigos que le
+     * corresponden y lo que llevan acumulado sus tareas.
+     */
+    private static final class Punto {
+        final int indice;
+        final double[] valores;
+        final String fila;
+        /** Arquetipos por tipo de enemigo, común y jefe */
+        final ArquetipoEnemigo[] arquetipos = new ArquetipoEnemigo[2 * TipoEnemigo.values().length];
+        final ResultadoSimulacion resultado = new ResultadoSimulacion();
+        int pendientes;
+
+        Punto(int indice, double[] valores, List<ParametroBalance> columnas, int tareas) {
+            this.indice = indice;
+            this.valores = valores;
+            this.pendientes = tareas;
+            StringBuilder sb = new StringBuilder().append(indice);
+            for (ParametroBalance parametro : columnas) sb.append(',').append(formatear(parametro, valores[parametro.ordinal()]));
+            this.fila = sb.toString();
+
+            double vidaJefe = valor(ParametroBalance.JEFE_VIDA);
+            double ataqueJefe = valor(ParametroBalance.JEFE_ATAQUE);
+            double danoJefe = valor(ParametroBalance.JEFE_DANO);
+            double danoRecibidoJefe = valor(ParametroBalance.JEFE_DANO_RECIBIDO);
+            for (TipoEnemigo tipo : TipoEnemigo.values()) {
+                for (int jefe = 0; jefe < 2; jefe++) {
+                    boolean esJefe = jefe == 1;
+                    ArquetipoEnemigo base = EnemyFactory.obtenerArquetipo(tipo, esJefe);
+                    arquetipos[2 * tipo.ordinal() + jefe] = new ArquetipoEnemigo(
+                        tipo, base.getNombre(), (int) valor(ParametroBalance.vida(tipo, esJefe)),
+                        (int) valor(ParametroBalance.ataque(tipo, esJefe)), base.getAtributo(), esJefe,
+                        vidaJefe, ataqueJefe, danoJefe, danoRecibidoJefe);
+                }
+            }
+        }
+
+        double valor(ParametroBalance parametro) {
+            return valores[parametro.ordinal()];
+        }
+
+        Batalla crearBatalla(RolJugador[] roles, TipoEnemigo[] tipos, boolean[] jefes, int cantidad,
+                             ModoTurnos modoTurnos) {
+            List<Jugador> jugadores = new ArrayList<>(roles.length);
+            for (int i = 0; i < roles.length; i++) {
+                jugadores.add(new Jugador("Héroe " + (i + 1), roles[i], (int) valor(ParametroBalance.vida(roles[i])),
+                                          (int) valor(ParametroBalance.ataque(roles[i]))));
+            }
+            List<Combatiente> enemigos = new ArrayList<>(cantidad);
+            EstadoCombate estado = new EstadoCombate(cantidad);
+            for (int e = 0; e < cantidad; e++) {
+                enemigos.add(arquetipos[2 * tipos[e].ordinal() + (jefes[e] ? 1 : 0)].crear(estado));
+            }
+            // La fuente se reemplaza al reiniciar la batalla
+            return new Batalla(jugadores, enemigos, new FuenteAleatoria(0), modoTurnos);
+        }
+
+        private static String formatear(ParametroBalance parametro, double valor) {
+            return parametro.isEntero() ? Long.toString((long) valor) : String.format(Locale.ROOT, "%.4f", valor);
+        }
+    }
+
+    /**
+     * Junta los tramos de cada punto y escribe su fila cuando termina el último.
+     */
+    private static final class Escritor {
+        private final Writer salida;
+        private final ResultadoSimulacion total;
+
+        Escritor(Writer salida, ResultadoSimulacion total) {
+            this.salida = salida;
+            this.total = total;
+        }
+
+        synchronized void agregar(Punto punto, ResultadoSimulacion tramo) {
+            punto.resultado.combinar(tramo);
+            total.combinar(tramo);
+            if (--punto.pendientes > 0) return;
+            ResultadoSimulacion r = punto.resultado;
+            try {
+                salida.write(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.4f,%.3f%n", punto.fila, r.getBatallas(),
+                                           r.getVictorias(), r.getDerrotas(), r.getHuidas(), r.getLimitesTurnos(),
+                                           r.getTasaVictoria(), r.getTurnosPromedio()));
+                salida.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Tarea fork-join que divide los tramos de todos los puntos hasta llegar a uno.
+     * El tramo t es el tramo t % tareasPorPunto del punto t / tareasPorPunto.
+     */
+    private class TareaBarrido extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Punto[] puntos;
+        private final int porTarea;
+        private final int tareasPorPunto;
+        private final long desde;
+        private final long hasta;
+        private final Escritor escritor;
+
+        TareaBarrido(Punto[] puntos, int porTarea, int tareasPorPunto, long desde, long hasta, Escritor escritor) {
+            this.puntos = puntos;
+            this.porTarea = porTarea;
+            this.tareasPorPunto = tareasPorPunto;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.escritor = escritor;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde == 1) {
+                Punto punto = puntos[(int) (desde / tareasPorPunto)];
+                long primera = (desde % tareasPorPunto) * porTarea;
+                long ultima = Math.min(batallasPorPunto, primera + porTarea);
+                escritor.agregar(punto, jugarTramo(punto, primera, ultima));
+                return;
+            }
+            long medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaBarrido(puntos, porTarea, tareasPorPunto, desde, medio, escritor),
+                      new TareaBarrido(puntos, porTarea, tareasPorPunto, medio, hasta, escritor));
+        }
+    }
+
+    /**
+     * Ejecuta un barrido desde la línea de comandos.
+     * Uso: java -cp bin simulacion.BarridoBalance [--batallas N] [--hilos N] [--semilla N]
+     *      [--lhs puntos] [--salida archivo] [--reglas] [roles...] [modo] parametro=rango...
+     * donde cada rango es un valor fijo ("1.5"), "min:max" o "min:max:pasos", y los
+     * parámetros son las claves de {@link ParametroBalance} (guerrero.vida, orco.jefe.ataque,
+     * jefe.danoRecibido...). Sin --lhs se prueba la grilla completa de los rangos, con
+     * {@value #PASOS_POR_DEFECTO} valores por rango si no se indican los pasos; con
+     * --lhs se prueban esa cantidad de puntos de un hipercubo latino.
+     * Por defecto se juegan {@value #BATALLAS_POR_DEFECTO} batallas por punto y el CSV se
+     * escribe en barrido.csv.
+     *
+     * @param args Argumentos de línea de comandos.
+     * @throws IOException si no se puede escribir el CSV.
+     */
+    public static void main(String[] args) throws IOException {
+        int batallas = BATALLAS_POR_DEFECTO;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        long semilla = System.nanoTime();
+        int puntosHipercubo = 0;
+        Path archivo = Paths.get("barrido.csv");
+        Supplier<PoliticaJugador> fabricaPolitica = PoliticaAleatoria::new;
+        ModoTurnos modo = ModoTurnos.BARAJADO;
+        List<RolJugador> listaRoles = new ArrayList<>();
+        List<Rango> rangos = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batallas": batallas = Integer.parseInt(args[++i]); continue;
+                case "--hilos": hilos = Integer.parseInt(args[++i]); continue;
+                case "--semilla": semilla = Long.parseLong(args[++i]); continue;
+                case "--lhs": puntosHipercubo = Integer.parseInt(args[++i]); continue;
+                case "--salida": archivo = Paths.get(args[++i]); continue;
+                case "--reglas": fabricaPolitica = PoliticaReglas::new; continue;
+                default: break;
+            }
+            int igual = args[i].indexOf('=');
+            if (igual > 0) {
+                rangos.add(Rango.desdeTexto(ParametroBalance.desdeClave(args[i].substring(0, igual)),
+                                            args[i].substring(igual + 1)));
+                continue;
+            }
+            String nombre = args[i].toUpperCase();
+            if (Arrays.stream(ModoTurnos.values()).anyMatch(m -> m.name().equals(nombre))) {
+                modo = ModoTurnos.valueOf(nombre);
+            } else {
+                listaRoles.add(RolJugador.valueOf(nombre));
+            }
+        }
+        RolJugador[] roles = listaRoles.isEmpty()
+            ? new RolJugador[] { RolJugador.GUERRERO, RolJugador.EXPLORADOR }
+            : listaRoles.toArray(new RolJugador[0]);
+
+        List<ParametroBalance> columnas = new ArrayList<>();
+        for (Rango rango : rangos) {
+            if (!rango.isFijo()) columnas.add(rango.getParametro());
+        }
+        List<double[]> puntos = puntosHipercubo > 0 ? hipercuboLatino(rangos, puntosHipercubo, semilla) : grilla(rangos);
+
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try (BufferedWriter salida = Files.newBufferedWriter(archivo)) {
+            System.out.println("Barrido de " + puntos.size() + (puntosHipercubo > 0 ? " puntos (hipercubo latino)" : " puntos (grilla)")
+                               + " de " + batallas + " batallas en " + hilos + " hilos con " + Arrays.toString(roles)
+                               + " (semilla " + semilla + ", turnos " + modo.name().toLowerCase() + ") -> " + archivo);
+            BarridoBalance barrido = new BarridoBalance(roles, fabricaPolitica, pool, semilla, modo, batallas);
+            System.out.println(barrido.barrer(puntos, columnas, salida));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package simulacion;
+
+import model.*;
+
+/**
+ * Clase MotorBatalla.
+ * Ejecuta una batalla completa sin consola, siguiendo las mismas reglas que
+ * ControladorJuego pero pidiendo las acciones de los jugadores a una política.
+ * Una instancia no es segura para hilos; cada hilo debe usar la suya.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-12
+ */
+public class MotorBatalla {
+
+    /**
+     * Enum con los posibles desenlaces de una batalla simulada.
+     */
+    public enum Desenlace {
+        VICTORIA,
+        DERROTA,
+        HUIDA,
+        LIMITE_TURNOS
+    }
+
+    /** Política que decide las acciones de los jugadores */
+    private final PoliticaJugador politica;
+
+    /** Decisión reutilizada en cada turno de jugador */
+    private final DecisionJugador decision;
+
+    /** Número máximo de rondas antes de cortar la batalla */
+    private final int maxTurnos;
+
+    /**
+     * Constructor de MotorBatalla.
+     *
+     * @param politica Política para los turnos de los jugadores.
+     * @param maxTurnos Número máximo de rondas por batalla.
+     */
+    public MotorBatalla(PoliticaJugador politica, int maxTurnos) {
+        this.politica = politica;
+        this.decision = new DecisionJugador();
+        this.maxTurnos = maxTurnos;
+    }
+
+    /**
+     * Juega la batalla hasta que termine o se alcance el límite de rondas.
+     *
+     * @param batalla Batalla a jugar.
+     * @return Desenlace de la batalla.
+     */
+    public Desenlace jugar(Batalla batalla) {
+        return jugar(batalla, null);
+    }
+
+    /**
+     * Juega la batalla anotando en un diario cada decisión de los jugadores y, al
+     * terminar, la huella del estado final.
+     *
+     * @param batalla Batalla a jugar.
+     * @param diario Diario donde se anotan las decisiones, o null para no anotarlas.
+     * @return Desenlace de la batalla.
+     */
+    public Desenlace jugar(Batalla batalla, DiarioRepeticion diario) {
+        Desenlace desenlace = jugarHastaElFinal(batalla, diario);
+        if (diario != null) diario.finalizar(batalla);
+        return desenlace;
+    }
+
+    private Desenlace jugarHastaElFinal(Batalla batalla, DiarioRepeticion diario) {
+        while (batalla.getTurnoActual() < maxTurnos) {
+            Combatiente actual = batalla.getCombatienteActual();
+
+            if (actual == null || !actual.isEstaVivo()) {
+                batalla.avanzarTurno();
+                continue;
+            }
+
+            if (actual instanceof Jugador) {
+                if (!jugarTurnoJugador((Jugador) actual, batalla, diario)) {
+                    return Desenlace.HUIDA;
+                }
+            } else {
+                batalla.ejecutarTurnoEnemigo(actual);
+            }
+
+            batalla.avanzarTurno();
+            if (batalla.verificarFinBatalla()) {
+                return batalla.getJugadoresVivos().isEmpty() ? Desenlace.DERROTA : Desenlace.VICTORIA;
+            }
+        }
+        return Desenlace.LIMITE_TURNOS;
+    }
+
+    /**
+     * Pide una decisión a la política y la ejecuta.
+     *
+     * @param jugador Jugador que tiene el turno.
+     * @param batalla Batalla en curso.
+     * @param diario Diario de la batalla, o null.
+     * @return false si el jugador huyó de la batalla.
+     */
+    private boolean jugarTurnoJugador(Jugador jugador, Batalla batalla, DiarioRepeticion diario) {
+        if (diario != null) diario.prepararDecision(batalla);
+        politica.decidir(jugador, batalla, decision);
+        // Se anota antes de ejecutarla para que el salto de la fuente sea solo el de la política
+        if (diario != null) diario.registrarDecision(decision);
+        boolean completada = batalla.ejecutarDecision(jugador, decision);
+        if (diario != null) diario.terminarTurno(completada);
+        if (decision.getAccion() == AccionJugador.HUIR) {
+            return false;
+        }
+        if (!completada) {
+            batalla.agregarEvento(TipoEvento.INDECISION, jugador);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+package simulacion;
+
+import model.*;
+
+/**
+ * Enum ParametroBalance.
+ * Valores del juego que {@link BarridoBalance} puede variar: vida y ataque de cada
+ * rol de jugador, vida y ataque base de cada tipo de enemigo (común y jefe, antes
+ * del aumento de jefe) y los cuatro multiplicadores de jefe. El valor por defecto
+ * de cada uno es el que usa el juego.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public enum ParametroBalance {
+    GUERRERO_VIDA("guerrero.vida", true, RolJugador.GUERRERO.getVida()),
+    GUERRERO_ATAQUE("guerrero.ataque", true, RolJugador.GUERRERO.getAtaque()),
+    EXPLORADOR_VIDA("explorador.vida", true, RolJugador.EXPLORADOR.getVida()),
+    EXPLORADOR_ATAQUE("explorador.ataque", true, RolJugador.EXPLORADOR.getAtaque()),
+    ORCO_VIDA("orco.vida", true, Orco.GUERRERO.getVidaBase()),
+    ORCO_ATAQUE("orco.ataque", true, Orco.GUERRERO.getAtaqueBase()),
+    ORCO_JEFE_VIDA("orco.jefe.vida", true, Orco.SENOR_DE_GUERRA.getVidaBase()),
+    ORCO_JEFE_ATAQUE("orco.jefe.ataque", true, Orco.SENOR_DE_GUERRA.getAtaqueBase()),
+    GOBLIN_VIDA("goblin.vida", true, Goblin.EXPLORADOR.getVidaBase()),
+    GOBLIN_ATAQUE("goblin.ataque", true, Goblin.EXPLORADOR.getAtaqueBase()),
+    GOBLIN_JEFE_VIDA("goblin.jefe.vida", true, Goblin.REY_LADRON.getVidaBase()),
+    GOBLIN_JEFE_ATAQUE("goblin.jefe.ataque", true, Goblin.REY_LADRON.getAtaqueBase()),
+    DRAGON_VIDA("dragon.vida", true, Dragon.JOVEN.getVidaBase()),
+    DRAGON_ATAQUE("dragon.ataque", true, Dragon.JOVEN.getAtaqueBase()),
+    DRAGON_JEFE_VIDA("dragon.jefe.vida", true, Dragon.ANCESTRAL.getVidaBase()),
+    DRAGON_JEFE_ATAQUE("dragon.jefe.ataque", true, Dragon.ANCESTRAL.getAtaqueBase()),
+    JEFE_VIDA("jefe.vida", false, ArquetipoEnemigo.MULTIPLICADOR_VIDA_JEFE),
+    JEFE_ATAQUE("jefe.ataque", false, ArquetipoEnemigo.MULTIPLICADOR_ATAQUE_JEFE),
+    JEFE_DANO("jefe.dano", false, ArquetipoEnemigo.MULTIPLICADOR_DANO_JEFE),
+    JEFE_DANO_RECIBIDO("jefe.danoRecibido", false, ArquetipoEnemigo.MULTIPLICADOR_DANO_RECIBIDO_JEFE);
+
+    private final String clave;
+    private final boolean entero;
+    private final double porDefecto;
+
+    /**
+     * Constructor del enum ParametroBalance.
+     * @param clave Nombre del parámetro en la línea de comandos y en el CSV.
+     * @param entero Indica si el valor se redondea a entero.
+     * @param porDefecto Valor que usa el juego.
+     */
+    ParametroBalance(String clave, boolean entero, double porDefecto) {
+        this.clave = clave;
+        this.entero = entero;
+        this.porDefecto = porDefecto;
+    }
+
+    /**
+     * Obtiene la clave del parámetro.
+     * @return String Clave, por ejemplo "orco.jefe.vida".
+     */
+    public String getClave() { return clave; }
+
+    /**
+     * Indica si el parámetro es entero (vida o ataque) o un multiplicador.
+     * @return boolean true si se redondea a entero.
+     */
+    public boolean isEntero() { return entero; }
+
+    /**
+     * Obtiene el valor que usa el juego.
+     * @return double Valor por defecto.
+     */
+    public double getPorDefecto() { return porDefecto; }
+
+    /**
+     * Ajusta un valor al tipo del parámetro.
+     * @param valor Valor pedido.
+     * @return double El valor redondeado si el parámetro es entero.
+     */
+    public double ajustar(double valor) {
+        return entero ? Math.round(valor) : valor;
+    }
+
+    /**
+     * Busca el parámetro que corresponde a una clave.
+     * @param clave Clave a buscar.
+     * @return ParametroBalance encontrado.
+     * @throws IllegalArgumentException si la clave no existe.
+     */
+    public static ParametroBalance desdeClave(String clave) {
+        for (ParametroBalance parametro : values()) {
+            if (parametro.clave.equalsIgnoreCase(clave)) return parametro;
+        }
+        throw new IllegalArgumentException("Parámetro desconocido: " + clave);
+    }
+
+    /**
+     * Obtiene el parámetro de la vida de un rol.
+     * @param rol Rol del jugador.
+     * @return ParametroBalance Parámetro de vida.
+     */
+    public static ParametroBalance vida(RolJugador rol) {
+        return rol == RolJugador.GUERRERO ? GUERRERO_VIDA : EXPLORADOR_VIDA;
+    }
+
+    /**
+     * Obtiene el parámetro del ataque de un rol.
+     * @param rol Rol del jugador.
+     * @return ParametroBalance Parámetro de ataque.
+     */
+    public static ParametroBalance ataque(RolJugador rol) {
+        return rol == RolJugador.GUERRERO ? GUERRERO_ATAQUE : EXPLORADOR_ATAQUE;
+    }
+
+    /**
+     * Obtiene el parámetro de la vida base de un tipo de enemigo.
+     * @param tipo Tipo de enemigo.
+     * @param esJefe Indica si es la versión jefe.
+     * @return ParametroBalance Parámetro de vida.
+     */
+    public static ParametroBalance vida(TipoEnemigo tipo, boolean esJefe) {
+        switch (tipo) {
+            case GOBLIN: return esJefe ? GOBLIN_JEFE_VIDA : GOBLIN_VIDA;
+            case DRAGON: return esJefe ? DRAGON_JEFE_VIDA : DRAGON_VIDA;
+            default: return esJefe ? ORCO_JEFE_VIDA : ORCO_VIDA;
+        }
+    }
+
+    /**
+     * Obtiene el parámetro del ataque base de un tipo de enemigo.
+     * @param tipo Tipo de enemigo.
+     * @param esJefe Indica si es la versión jefe.
+     * @return ParametroBalance Parámetro de ataque.
+     */
+    public static ParametroBalance ataque(TipoEnemigo tipo, boolean esJefe) {
+        switch (tipo) {
+            case GOBLIN: return esJefe ? GOBLIN_JEFE_ATAQUE : GOBLIN_ATAQUE;
+            case DRAGON: return esJefe ? DRAGON_JEFE_ATAQUE : DRAGON_ATAQUE;
+            default: return esJefe ? ORCO_JEFE_ATAQUE : ORCO_ATAQUE;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package simulacion;
+
+import model.*;
+
+/**
+ * Clase PoliticaAleatoria.
+ * Política de jugador que ataca a un enemigo al azar y, de vez en cuando,
+ * usa un ítem al azar de su inventario. Usa la fuente aleatoria de la batalla,
+ * así que sus decisiones se repiten con la misma semilla.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-12
+ */
+public class PoliticaAleatoria implements PoliticaJugador {
+
+    /** Probabilidad de usar un ítem con el constructor sin argumentos */
+    public static final int PROBABILIDAD_ITEM_POR_DEFECTO = 20;
+
+    /** Probabilidad (en porcentaje) de usar un ítem en lugar de atacar */
+    private final int probabilidadItem;
+
+    /**
+     * Constructor de PoliticaAleatoria con 20% de probabilidad de usar ítems.
+     */
+    public PoliticaAleatoria() {
+        this(PROBABILIDAD_ITEM_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor de PoliticaAleatoria.
+     *
+     * @param probabilidadItem Porcentaje de turnos en los que intenta usar un ítem.
+     */
+    public PoliticaAleatoria(int probabilidadItem) {
+        this.probabilidadItem = probabilidadItem;
+    }
+
+    @Override
+    public void decidir(Jugador jugador, Batalla batalla, DecisionJugador decision) {
+        FuenteAleatoria rand = batalla.getFuenteAleatoria();
+        int items = jugador.getTamanoInventario();
+
+        if (items > 0 && rand.nextInt(100) < probabilidadItem) {
+            int aliados = batalla.getJugadoresVivos().size();
+            decision.usarItem(rand.nextInt(items), rand.nextInt(aliados));
+            return;
+        }
+
+        int enemigos = batalla.getEnemigosVivos().size();
+        if (enemigos == 0) {
+            decision.pasar();
+        } else {
+            decision.atacar(rand.nextInt(enemigos));
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package simulacion;
+
+import model.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Clase PoliticaEnemigoMcts.
+ * Política de enemigos que elige cada acción con búsqueda de árbol Monte Carlo
+ * (MCTS) sobre copias de la batalla, para los niveles de dificultad altos.
+ *
+ * <p>En cada decisión cada hilo del pool fork-join recibe una bifurcación de la
+ * batalla y arma su propio árbol: en cada iteración vuelve a bifurcar esa copia,
+ * baja por el árbol eligiendo las acciones de los enemigos con UCT, agrega
+ * un nodo y juega el resto de la batalla al azar hasta que termina o se cumple el
+ * horizonte. El árbol es de lazo abierto: los nodos son secuencias de acciones de
+ * los enemigos y el azar del daño y de los turnos se vuelve a sortear en cada
+ * iteración. Los jugadores se modelan con una PoliticaJugador, por defecto la
+ * aleatoria. Al final se suman las visitas de la raíz de todos los árboles y se
+ * elige la acción más visitada.</p>
+ *
+ * <p>El presupuesto de cada decisión es una cantidad de nodos (iteraciones), un
+ * tiempo, o los dos, lo que se cumpla primero; con el tiempo la decisión cabe en la
+ * latencia de un turno sin importar el tamaño de la batalla. Con solo nodos y el
+ * mismo paralelismo, la misma semilla de batalla da las mismas decisiones.</p>
+ *
+ * Una instancia no es segura para hilos; cada batalla en curso debe usar la suya.
+ * Las búsquedas de una decisión sí corren en paralelo dentro del pool.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public class PoliticaEnemigoMcts implements PoliticaEnemigo {
+
+    /** Rondas que se juegan después de la decisión antes de evaluar la batalla */
+    public static final int HORIZONTE_POR_DEFECTO = 10;
+
+    /** Constante de exploración de UCT */
+    public static final double EXPLORACION_POR_DEFECTO = Math.sqrt(2);
+
+    /** Códigos de acción en el árbol; los ataques usan el id del objetivo */
+    private static final int CODIGO_ESPECIAL = -1;
+    private static final int CODIGO_JEFE = -2;
+
+    private static final long GAMMA_DORADA = 0x9e3779b97f4a7c15L;
+
+    private final int nodos;
+    private final long nanos;
+    private final ForkJoinPool pool;
+    private int horizonte = HORIZONTE_POR_DEFECTO;
+    private double exploracion = EXPLORACION_POR_DEFECTO;
+    private PoliticaJugador modeloJugadores = new PoliticaAleatoria();
+
+    private long decisiones;
+    private long iteraciones;
+    private long nanosBuscando;
+
+    /**
+     * Constructor de PoliticaEnemigoMcts que busca en el pool común.
+     *
+     * @param nodos Iteraciones por decisión, o 0 para limitar solo por tiempo.
+     * @param milisegundos Tiempo máximo por decisión, o 0 para limitar solo por nodos.
+     */
+    public PoliticaEnemigoMcts(int nodos, long milisegundos) {
+        this(nodos, milisegundos, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor de PoliticaEnemigoMcts.
+     *
+     * @param nodos Iteraciones por decisión, o 0 para limitar solo por tiempo.
+     * @param milisegundos Tiempo máximo por decisión, o 0 para limitar solo por nodos.
+     * @param pool Pool fork-join donde corren las búsquedas; se usa un árbol por hilo del pool.
+     */
+    public PoliticaEnemigoMcts(int nodos, long milisegundos, ForkJoinPool pool) {
+        if (nodos < 0 || milisegundos < 0 || (nodos == 0 && milisegundos == 0)) {
+            throw new IllegalArgumentException("Se necesita un presupuesto de nodos o de tiempo");
+        }
+        this.nodos = nodos;
+        this.nanos = milisegundos * 1_000_000L;
+        this.pool = pool;
+    }
+
+    /**
+     * Crea la política a partir de un presupuesto escrito como texto: una cantidad
+     * de nodos ("2000"), un tiempo ("20ms") o los dos ("2000/20ms").
+     *
+     * @param presupuesto Presupuesto por decisión.
+     * @param pool Pool fork-join de las búsquedas.
+     * @return PoliticaEnemigoMcts Política con ese presupuesto.
+     * @throws IllegalArgumentException si el texto no es un presupuesto válido.
+     */
+    public static PoliticaEnemigoMcts desdeTexto(String presupuesto, ForkJoinPool pool) {
+        int nodos = 0;
+        long milisegundos = 0;
+        for (String parte : presupuesto.trim().toLowerCase().split("/")) {
+            try {
+                if (parte.endsWith("ms")) milisegundos = Long.parseLong(parte.substring(0, parte.length() - 2));
+                else nodos = Integer.parseInt(parte);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Presupuesto inválido: " + presupuesto);
+            }
+        }
+        return new PoliticaEnemigoMcts(nodos, milisegundos, pool);
+    }
+
+    /**
+     * Cambia cuántas rondas se juegan después de la decisión antes de evaluar la
+     * batalla por la vida que le queda a cada bando.
+     *
+     * @param horizonte Rondas de cada simulación.
+     */
+    public void setHorizonte(int horizonte) {
+        if (horizonte < 1) throw new IllegalArgumentException("El horizonte debe ser al menos 1");
+        this.horizonte = horizonte;
+    }
+
+    /**
+     * Cambia la constante de exploración de UCT: más alta prueba más acciones,
+     * más baja insiste en las que van mejor.
+     *
+     * @param exploracion Constante de exploración.
+     */
+    public void setExploracion(double exploracion) {
+        this.exploracion = exploracion;
+    }
+
+    /**
+     * Cambia cómo se supone que juegan los jugadores en las simulaciones. La
+     * política se usa desde todos los hilos de la búsqueda a la vez.
+     *
+     * @param modeloJugadores Política de los jugadores simulados.
+     */
+    public void setModeloJugadores(PoliticaJugador modeloJugadores) {
+        this.modeloJugadores = modeloJugadores;
+    }
+
+    @Override
+    public void decidir(Enemigo enemigo, List<Combatiente> objetivos, Batalla batalla, DecisionEnemigo decision) {
+        if (batalla == null) {
+            // Fuera de una batalla no hay qué copiar
+            new PoliticaEnemigoAleatoria().decidir(enemigo, objetivos, null, decision);
+            return;
+        }
+        long inicio = System.nanoTime();
+        long semilla = batalla.getFuenteAleatoria().nextLong();
+
+        int hilos = Math.max(1, pool.getParallelism());
+        long limite = nanos > 0 ? inicio + nanos : Long.MAX_VALUE;
+        Busqueda[] busquedas = new Busqueda[hilos];
+        for (int i = 0; i < hilos; i++) {
+            int cuota = nodos == 0 ? Integer.MAX_VALUE : nodos / hilos + (i < nodos % hilos ? 1 : 0);
+            // Cada hilo bifurca solo su propia copia
+            busquedas[i] = new Busqueda(batalla.bifurcar(), semilla + (i + 1) * GAMMA_DORADA, Math.max(1, cuota), limite);
+        }
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(busquedas);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(busquedas)));
+        }
+
+        elegirMasVisitada(busquedas, enemigo, objetivos, decision);
+        decisiones++;
+        for (Busqueda busqueda : busquedas) iteraciones += busqueda.hechas;
+        nanosBuscando += System.nanoTime() - inicio;
+    }
+
+    /**
+     * Suma las visitas de cada acción de la raíz en todos los árboles y elige la
+     * más visitada; a igual cantidad, la de mejor valor medio.
+     */
+    private void elegirMasVisitada(Busqueda[] busquedas, Enemigo enemigo, List<Combatiente> objetivos,
+                                   DecisionEnemigo decision) {
+        int mejorCodigo = 0;
+        long mejorVisitas = -1;
+        double mejorMedia = -1;
+        Nodo primera = busquedas[0].raiz;
+        for (int k = 0; k < primera.cantidad; k++) {
+            long clave = primera.claves[k];
+            long visitas = 0;
+            double valor = 0;
+            for (Busqueda busqueda : busquedas) {
+                Nodo hijo = busqueda.raiz.hijo(clave);
+                if (hijo == null) continue;
+                visitas += hijo.visitas;
+                valor += hijo.valor;
+            }
+            double media = valor / visitas;
+            if (visitas > mejorVisitas || (visitas == mejorVisitas && media > mejorMedia)) {
+                mejorVisitas = visitas;
+                mejorMedia = media;
+                mejorCodigo = (int) clave;
+            }
+        }
+        if (mejorVisitas < 0) {
+            // Sin ninguna iteración terminada: se decide como siempre
+            new PoliticaEnemigoAleatoria().decidir(enemigo, objetivos, null, decision);
+            return;
+        }
+        if (mejorCodigo == CODIGO_ESPECIAL) {
+            decision.habilidadEspecial();
+        } else if (mejorCodigo == CODIGO_JEFE) {
+            decision.habilidadJefe();
+        } else {
+            for (int i = 0; i < objetivos.size(); i++) {
+                if (objetivos.get(i).getId() == mejorCodigo) {
+                    decision.atacar(i);
+                    return;
+                }
+            }
+            decision.atacar(0);
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de decisiones tomadas.
+     *
+     * @return long Decisiones.
+     */
+    public long getDecisiones() { return decisiones; }
+
+    /**
+     * Obtiene las iteraciones de búsqueda hechas en todas las decisiones.
+     *
+     * @return long Iteraciones.
+     */
+    public long getIteraciones() { return iteraciones; }
+
+    @Override
+    public String toString() {
+        String presupuesto = (nodos > 0 ? nodos + " nodos" : "")
+                             + (nodos > 0 && nanos > 0 ? " o " : "")
+                             + (nanos > 0 ? nanos / 1_000_000 + " ms" : "");
+        if (decisiones == 0) return "MCTS (" + presupuesto + ")";
+        return String.format("MCTS (%s): %d decisiones, %.0f nodos y %.2f ms por decisión", presupuesto, decisiones,
+                             (double) iteraciones / decisiones, nanosBuscando / 1e6 / decisiones);
+    }
+
+    /**
+     * Nodo del árbol: una acción de un enemigo después de la secuencia de su padre,
+     * con las visitas y el valor acumulado para los enemigos (1 si ganan, 0 si pierden).
+     */
+    private static final class Nodo {
+        long[] claves = new long[4];
+        Nodo[] hijos = new Nodo[4];
+        int cantidad;
+        int visitas;
+        double valor;
+
+        Nodo hijo(long clave) {
+            for (int k = 0; k < cantidad; k++) {
+                if (claves[k] == clave) return hijos[k];
+            }
+            return null;
+        }
+
+        Nodo agregar(long clave) {
+            if (cantidad == claves.length) {
+                claves = Arrays.copyOf(claves, cantidad * 2);
+                hijos = Arrays.copyOf(hijos, cantidad * 2);
+            }
+            Nodo hijo = new Nodo();
+            claves[cantidad] = clave;
+            hijos[cantidad++] = hijo;
+            return hijo;
+        }
+    }
+
+    /**
+     * Búsqueda de un hilo: su propio árbol, su copia de la batalla y su fuente aleatoria.
+     */
+    private final class Busqueda extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Nodo raiz = new Nodo();
+        /** Batalla en el momento de la decisión; cada iteración juega en una bifurcación */
+        private final Batalla raizBatalla;
+        private Batalla copia;
+        private final long semilla;
+        private final int cuota;
+        private final long limite;
+        private final DecisionJugador decisionJugador = new DecisionJugador();
+        private final DecisionEnemigo decisionEnemigo = new DecisionEnemigo();
+        /** Acciones posibles del enemigo actual: código e índice del objetivo */
+        private int[] codigos = new int[8];
+        private int[] indices = new int[8];
+        private Nodo[] camino = new Nodo[16];
+        int hechas;
+
+        Busqueda(Batalla raizBatalla, long semilla, int cuota, long limite) {
+            this.raizBatalla = raizBatalla;
+            this.semilla = semilla;
+            this.cuota = cuota;
+            this.limite = limite;
+        }
+
+        @Override
+        protected void compute() {
+            FuenteAleatoria aleatorio = new FuenteAleatoria(semilla);
+            do {
+                iterar(aleatorio.nextLong());
+                hechas++;
+            } while (hechas < cuota && System.nanoTime() < limite);
+        }
+
+        /**
+         * Una iteración: selección y expansión en el árbol, simulación al azar y
+         * propagación del resultado por el camino recorrido.
+         */
+        private void iterar(long semillaIteracion) {
+            copia = raizBatalla.bifurcar();
+            copia.getFuenteAleatoria().resembrar(semillaIteracion);
+            int limiteTurnos = copia.getTurnoActual() + horizonte;
+            Nodo nodo = raiz;
+            camino[0] = raiz;
+            int profundidad = 1;
+            boolean enArbol = true;
+            double valor = -1;
+
+            while (copia.getTurnoActual() < limiteTurnos) {
+                Combatiente actual = copia.getCombatienteActual();
+                if (actual == null || !actual.isEstaVivo()) {
+                    copia.avanzarTurno();
+                    continue;
+                }
+
+                if (actual instanceof Jugador) {
+                    Jugador jugador = (Jugador) actual;
+                    modeloJugadores.decidir(jugador, copia, decisionJugador);
+                    boolean completada = copia.ejecutarDecision(jugador, decisionJugador);
+                    if (decisionJugador.getAccion() == AccionJugador.HUIR) {
+                        valor = 1;
+                        break;
+                    }
+                    if (!completada) copia.agregarEvento(TipoEvento.INDECISION, jugador);
+                } else if (enArbol && actual instanceof Enemigo) {
+                    Enemigo enemigo = (Enemigo) actual;
+                    int cantidad = listarAcciones(enemigo);
+                    int elegida = -1;
+                    Nodo siguiente = null;
+                    for (int k = 0; k < cantidad && siguiente == null; k++) {
+                        if (nodo.hijo(clave(enemigo, codigos[k])) == null) {
+                            // Expansión: la primera acción que este nodo no probó
+                            elegida = k;
+                            siguiente = nodo.agregar(clave(enemigo, codigos[k]));
+                            enArbol = false;
+                        }
+                    }
+                    if (siguiente == null) {
+                        elegida = seleccionarUct(nodo, enemigo, cantidad);
+                        siguiente = nodo.hijo(clave(enemigo, codigos[elegida]));
+                    }
+                    aplicar(elegida);
+                    copia.ejecutarDecisionEnemigo(enemigo, decisionEnemigo);
+                    if (profundidad == camino.length) camino = Arrays.copyOf(camino, profundidad * 2);
+                    camino[profundidad++] = siguiente;
+                    nodo = siguiente;
+                } else {
+                    copia.ejecutarTurnoEnemigo(actual);
+                }
+
+                copia.avanzarTurno();
+                if (copia.verificarFinBatalla()) {
+                    valor = copia.getJugadoresVivos().isEmpty() ? 1 : 0;
+                    break;
+                }
+            }
+            if (valor < 0) valor = evaluar(copia);
+
+            for (int i = 0; i < profundidad; i++) {
+                camino[i].visitas++;
+                camino[i].valor += valor;
+            }
+        }
+
+        /**
+         * Anota las acciones posibles de un enemigo: atacar a cada jugador vivo, la
+         * habilidad especial y, si es jefe, la de jefe.
+         * @return int Cantidad de acciones.
+         */
+        private int listarAcciones(Enemigo enemigo) {
+            List<Jugador> vivos = copia.getJugadoresVivos();
+            int cantidad = vivos.size() + (enemigo.isEsJefe() ? 2 : 1);
+            if (codigos.length < cantidad) {
+                codigos = new int[cantidad * 2];
+                indices = new int[cantidad * 2];
+            }
+            int k = 0;
+            for (int i = 0; i < vivos.size(); i++, k++) {
+                codigos[k] = vivos.get(i).getId();
+                indices[k] = i;
+            }
+            codigos[k++] = CODIGO_ESPECIAL;
+            if (enemigo.isEsJefe()) codigos[k++] = CODIGO_JEFE;
+            return k;
+        }
+
+        private int seleccionarUct(Nodo nodo, Enemigo enemigo, int cantidad) {
+            double logPadre = Math.log(nodo.visitas);
+            int mejor = 0;
+            double mejorPuntaje = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < cantidad; k++) {
+                Nodo hijo = nodo.hijo(clave(enemigo, codigos[k]));
+                double puntaje = hijo.valor / hijo.visitas + exploracion * Math.sqrt(logPadre / hijo.visitas);
+                if (puntaje > mejorPuntaje) {
+                    mejorPuntaje = puntaje;
+                    mejor = k;
+                }
+            }
+            return mejor;
+        }
+
+        private void aplicar(int k) {
+            if (codigos[k] == CODIGO_ESPECIAL) decisionEnemigo.habilidadEspecial();
+            else if (codigos[k] == CODIGO_JEFE) decisionEnemigo.habilidadJefe();
+            else decisionEnemigo.atacar(indices[k]);
+        }
+    }
+
+    /**
+     * Clave de una acción en el árbol: el id del enemigo que actúa y el código de la acción.
+     */
+    private static long clave(Enemigo enemigo, int codigo) {
+        return ((long) enemigo.getId() << 32) | (codigo & 0xffffffffL);
+    }
+
+    /**
+     * Valor para los enemigos de una batalla que no terminó dentro del horizonte:
+     * la mitad por la vida que perdieron los jugadores y la mitad por la que les
+     * queda a los enemigos.
+     */
+    private static double evaluar(Batalla batalla) {
+        long vidaJugadores = 0, maximaJugadores = 0, vidaEnemigos = 0, maximaEnemigos = 0;
+        for (Jugador jugador : batalla.getJugadores()) {
+            vidaJugadores += jugador.getVidaActual();
+            maximaJugadores += jugador.getVidaMaxima();
+        }
+        for (Combatiente enemigo : batalla.getEnemigos()) {
+            vidaEnemigos += enemigo.getVidaActual();
+            maximaEnemigos += enemigo.getVidaMaxima();
+        }
+        return 0.5 * (1 - (double) vidaJugadores / Math.max(1, maximaJugadores))
+               + 0.5 * vidaEnemigos / Math.max(1, maximaEnemigos);
+    }
+}
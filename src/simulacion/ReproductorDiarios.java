@@ -0,0 +1,190 @@
+package simulacion;
+
+import model.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Clase ReproductorDiarios.
+ * Vuelve a jugar batallas guardadas en diarios de repetición, sin consola y a toda
+ * velocidad, y comprueba que cada una termine en el mismo turno y con la misma huella
+ * de estado que la original. Con muchos diarios sirve como suite de regresión: un
+ * cambio en las reglas que altere alguna batalla aparece como una diferencia.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-18
+ */
+public final class ReproductorDiarios {
+
+    private ReproductorDiarios() {
+    }
+
+    /**
+     * Resultado de repetir un diario.
+     */
+    public static final class Resultado {
+        private final boolean coincide;
+        private final String detalle;
+
+        private Resultado(boolean coincide, String detalle) {
+            this.coincide = coincide;
+            this.detalle = detalle;
+        }
+
+        public boolean isCoincide() { return coincide; }
+        public String getDetalle() { return detalle; }
+
+        @Override
+        public String toString() {
+            return (coincide ? "OK " : "DIFIERE ") + detalle;
+        }
+    }
+
+    /**
+     * Repite la batalla de un diario con las mismas reglas que ControladorJuego,
+     * tomando las decisiones de los jugadores del diario.
+     *
+     * @param diario Diario a repetir.
+     * @return Resultado con la comparación del estado final.
+     */
+    public static Resultado reproducir(DiarioRepeticion diario) {
+        Batalla batalla;
+        try {
+            batalla = diario.crearBatalla();
+        } catch (IllegalStateException e) {
+            return new Resultado(false, e.getMessage());
+        }
+        batalla.iniciarBatalla();
+        DiarioRepeticion.Lector lector = diario.lector();
+        DecisionJugador decision = new DecisionJugador();
+
+        try {
+            while (batalla.getTurnoActual() < diario.getLimiteTurnos()) {
+                Combatiente actual = batalla.getCombatienteActual();
+                if (actual == null || !actual.isEstaVivo()) {
+                    batalla.avanzarTurno();
+                    continue;
+                }
+                if (actual instanceof Jugador) {
+                    if (!jugarTurnoJugador((Jugador) actual, batalla, lector, decision)) break;
+                } else {
+                    batalla.ejecutarTurnoEnemigo(actual);
+                }
+                batalla.avanzarTurno();
+                if (batalla.verificarFinBatalla()) break;
+            }
+        } catch (IllegalStateException e) {
+            return new Resultado(false, "turno " + (batalla.getTurnoActual() + 1) + ": " + e.getMessage());
+        }
+
+        if (lector.quedanDecisiones()) {
+            return new Resultado(false, "la batalla terminó en el turno " + (batalla.getTurnoActual() + 1)
+                                        + " pero el diario tiene más decisiones");
+        }
+        if (!diario.isTerminado()) {
+            return new Resultado(true, "sin huella final, repetida hasta el turno " + (batalla.getTurnoActual() + 1));
+        }
+        long huella = batalla.huellaEstado();
+        if (batalla.getTurnoActual() != diario.getTurnoFinal() || huella != diario.getHuellaFinal()) {
+            return new Resultado(false, String.format("terminó en el turno %d con huella %016x; el diario dice turno %d, huella %016x",
+                                                      batalla.getTurnoActual() + 1, huella,
+                                                      diario.getTurnoFinal() + 1, diario.getHuellaFinal()));
+        }
+        return new Resultado(true, String.format("turno %d, huella %016x", batalla.getTurnoActual() + 1, huella));
+    }
+
+    /**
+     * Ejecuta las decisiones de un turno de jugador en el orden en que se tomaron.
+     *
+     * @return false si el jugador huyó de la batalla.
+     */
+    private static boolean jugarTurnoJugador(Jugador jugador, Batalla batalla,
+                                             DiarioRepeticion.Lector lector, DecisionJugador decision) {
+        boolean completada = false;
+        while (lector.siguienteDecision(decision, batalla)) {
+            completada = batalla.ejecutarDecision(jugador, decision);
+            if (decision.getAccion() == AccionJugador.HUIR) {
+                if (lector.siguienteDecision(decision, batalla)) {
+                    throw new IllegalStateException("hay decisiones después de huir");
+                }
+                return false;
+            }
+        }
+        if (completada != lector.isTurnoCompletado()) {
+            throw new IllegalStateException("el turno de " + jugador.getNombre() + " terminó distinto que en el diario");
+        }
+        if (!completada) batalla.agregarEvento(TipoEvento.INDECISION, jugador);
+        return true;
+    }
+
+    /**
+     * Repite diarios en paralelo.
+     * Uso: java -cp bin simulacion.ReproductorDiarios [--hilos N] archivo-o-directorio...
+     * De cada directorio se toman los archivos .diario. Muestra los diarios que difieren
+     * y termina con código 1 si alguno difiere.
+     *
+     * @param args Argumentos de línea de comandos.
+     * @throws IOException si no se puede recorrer un directorio.
+     * @throws InterruptedException si se interrumpe la espera.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int hilos = Runtime.getRuntime().availableProcessors();
+        List<Path> archivos = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--hilos")) {
+                hilos = Integer.parseInt(args[++i]);
+                continue;
+            }
+            Path ruta = Paths.get(args[i]);
+            if (Files.isDirectory(ruta)) {
+                try (Stream<Path> contenido = Files.list(ruta)) {
+                    contenido.filter(p -> p.toString().endsWith(DiarioRepeticion.EXTENSION)).sorted().forEach(archivos::add);
+                }
+            } else {
+                archivos.add(ruta);
+            }
+        }
+        if (archivos.isEmpty()) {
+            System.out.println("Uso: java -cp bin simulacion.ReproductorDiarios [--hilos N] archivo-o-directorio...");
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        Map<Path, Resultado> resultados;
+        try {
+            resultados = pool.submit(() -> archivos.parallelStream().collect(Collectors.toMap(
+                p -> p, ReproductorDiarios::reproducirArchivo, (a, b) -> a, TreeMap::new))).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long diferencias = 0;
+        for (Map.Entry<Path, Resultado> entrada : resultados.entrySet()) {
+            if (!entrada.getValue().isCoincide() || archivos.size() == 1) {
+                System.out.println(entrada.getKey() + ": " + entrada.getValue());
+            }
+            if (!entrada.getValue().isCoincide()) diferencias++;
+        }
+        System.out.printf("Diarios: %d - Coinciden: %d - Difieren: %d (%.0f diarios/s en %d hilos)%n",
+                          resultados.size(), resultados.size() - diferencias, diferencias,
+                          resultados.size() / segundos, hilos);
+        if (diferencias > 0) System.exit(1);
+    }
+
+    private static Resultado reproducirArchivo(Path archivo) {
+        try {
+            return reproducir(DiarioRepeticion.leer(archivo));
+        } catch (IOException e) {
+            return new Resultado(false, "no se pudo leer: " + e.getMessage());
+        }
+    }
+}
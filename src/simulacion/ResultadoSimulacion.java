@@ -0,0 +1,119 @@
+package simulacion;
+
+/**
+ * Clase ResultadoSimulacion.
+ * Acumula los desenlaces y la duración de un conjunto de batallas simuladas.
+ * Cada hilo acumula en su propia instancia y luego se combinan.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-12
+ */
+public class ResultadoSimulacion {
+    private long victorias;
+    private long derrotas;
+    private long huidas;
+    private long limitesTurnos;
+    private long sumaTurnos;
+    private int minTurnos;
+    private int maxTurnos;
+    private long nanosTranscurridos;
+
+    /**
+     * Constructor de ResultadoSimulacion.
+     * Inicializa un resultado vacío.
+     */
+    public ResultadoSimulacion() {
+        this.minTurnos = Integer.MAX_VALUE;
+        this.maxTurnos = 0;
+    }
+
+    /**
+     * Registra el desenlace de una batalla.
+     *
+     * @param desenlace Desenlace de la batalla.
+     * @param turnos Número de rondas que duró la batalla.
+     */
+    public void registrar(MotorBatalla.Desenlace desenlace, int turnos) {
+        switch (desenlace) {
+            case VICTORIA: victorias++; break;
+            case DERROTA: derrotas++; break;
+            case HUIDA: huidas++; break;
+            default: limitesTurnos++; break;
+        }
+        sumaTurnos += turnos;
+        minTurnos = Math.min(minTurnos, turnos);
+        maxTurnos = Math.max(maxTurnos, turnos);
+    }
+
+    /**
+     * Suma otro resultado a este.
+     *
+     * @param otro Resultado a combinar.
+     * @return Este mismo resultado, para encadenar llamadas.
+     */
+    public ResultadoSimulacion combinar(ResultadoSimulacion otro) {
+        victorias += otro.victorias;
+        derrotas += otro.derrotas;
+        huidas += otro.huidas;
+        limitesTurnos += otro.limitesTurnos;
+        sumaTurnos += otro.sumaTurnos;
+        minTurnos = Math.min(minTurnos, otro.minTurnos);
+        maxTurnos = Math.max(maxTurnos, otro.maxTurnos);
+        return this;
+    }
+
+    /**
+     * Establece el tiempo total que tomó la simulación.
+     *
+     * @param nanos Tiempo en nanosegundos.
+     */
+    void setNanosTranscurridos(long nanos) {
+        this.nanosTranscurridos = nanos;
+    }
+
+    public long getBatallas() { return victorias + derrotas + huidas + limitesTurnos; }
+    public long getVictorias() { return victorias; }
+    public long getDerrotas() { return derrotas; }
+    public long getHuidas() { return huidas; }
+    public long getLimitesTurnos() { return limitesTurnos; }
+    public int getMinTurnos() { return getBatallas() == 0 ? 0 : minTurnos; }
+    public int getMaxTurnos() { return maxTurnos; }
+
+    /**
+     * Obtiene la proporción de batallas ganadas por los jugadores.
+     *
+     * @return Tasa de victoria entre 0 y 1.
+     */
+    public double getTasaVictoria() {
+        long total = getBatallas();
+        return total == 0 ? 0 : (double) victorias / total;
+    }
+
+    /**
+     * Obtiene la duración promedio de las batallas en rondas.
+     *
+     * @return Turnos promedio por batalla.
+     */
+    public double getTurnosPromedio() {
+        long total = getBatallas();
+        return total == 0 ? 0 : (double) sumaTurnos / total;
+    }
+
+    /**
+     * Obtiene la velocidad de la simulación.
+     *
+     * @return Batallas simuladas por segundo.
+     */
+    public double getBatallasPorSegundo() {
+        return nanosTranscurridos == 0 ? 0 : getBatallas() * 1e9 / nanosTranscurridos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Batallas: %d (%.0f/s)%nVictorias: %d (%.2f%%) - Derrotas: %d - Huidas: %d - Límite de turnos: %d%n" +
+            "Turnos: promedio %.2f, mínimo %d, máximo %d",
+            getBatallas(), getBatallasPorSegundo(), victorias, getTasaVictoria() * 100, derrotas, huidas,
+            limitesTurnos, getTurnosPromedio(), getMinTurnos(), maxTurnos);
+    }
+}
@@ -0,0 +1,326 @@
+package simulacion;
+
+import model.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Clase SimuladorBatallas.
+ * Ejecuta muchas batallas independientes sin consola, repartidas entre todos
+ * los núcleos con fork-join, y reporta tasas de victoria y duración.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-12
+ */
+public class SimuladorBatallas {
+
+    /** Rondas máximas por batalla antes de darla por terminada */
+    public static final int MAX_TURNOS_POR_DEFECTO = 500;
+
+    /** Batallas mínimas que ejecuta una tarea sin dividirse */
+    private static final int UMBRAL_MINIMO = 64;
+
+    private final RolJugador[] roles;
+    private final Supplier<PoliticaJugador> fabricaPolitica;
+    private final int maxTurnos;
+    private final ForkJoinPool pool;
+    private final long semilla;
+    private final ModoTurnos modoTurnos;
+    private RegistroAsincrono registro;
+    private RegistroMetricas metricas;
+    private Path directorioDiarios;
+    private Supplier<PoliticaEnemigo> fabricaPoliticaEnemigos;
+
+    /**
+     * Constructor de SimuladorBatallas que usa todos los núcleos disponibles.
+     *
+     * @param roles Roles de los jugadores de cada batalla.
+     * @param fabricaPolitica Crea una política por tarea, así no se comparte entre hilos.
+     * @param semilla Semilla maestra; la misma semilla produce exactamente los mismos resultados.
+     */
+    public SimuladorBatallas(RolJugador[] roles, Supplier<PoliticaJugador> fabricaPolitica, long semilla) {
+        this(roles, fabricaPolitica, MAX_TURNOS_POR_DEFECTO, ForkJoinPool.commonPool(), semilla);
+    }
+
+    /**
+     * Constructor de SimuladorBatallas.
+     *
+     * @param roles Roles de los jugadores de cada batalla.
+     * @param fabricaPolitica Crea una política por tarea, así no se comparte entre hilos.
+     * @param maxTurnos Rondas máximas por batalla.
+     * @param pool Pool fork-join donde se ejecutan las batallas.
+     * @param semilla Semilla maestra; la misma semilla produce exactamente los mismos resultados.
+     */
+    public SimuladorBatallas(RolJugador[] roles, Supplier<PoliticaJugador> fabricaPolitica,
+                             int maxTurnos, ForkJoinPool pool, long semilla) {
+        this(roles, fabricaPolitica, maxTurnos, pool, semilla, ModoTurnos.BARAJADO);
+    }
+
+    /**
+     * Constructor de SimuladorBatallas con un modo de turnos.
+     *
+     * @param roles Roles de los jugadores de cada batalla.
+     * @param fabricaPolitica Crea una política por tarea, así no se comparte entre hilos.
+     * @param maxTurnos Rondas máximas por batalla.
+     * @param pool Pool fork-join donde se ejecutan las batallas.
+     * @param semilla Semilla maestra; la misma semilla produce exactamente los mismos resultados.
+     * @param modoTurnos Cómo se decide el orden de turnos en cada batalla.
+     */
+    public SimuladorBatallas(RolJugador[] roles, Supplier<PoliticaJugador> fabricaPolitica,
+                             int maxTurnos, ForkJoinPool pool, long semilla, ModoTurnos modoTurnos) {
+        if (roles.length == 0) throw new IllegalArgumentException("Se necesita al menos un jugador");
+        this.roles = roles.clone();
+        this.fabricaPolitica = fabricaPolitica;
+        this.maxTurnos = maxTurnos;
+        this.pool = pool;
+        this.semilla = semilla;
+        this.modoTurnos = modoTurnos;
+    }
+
+    /**
+     * Indica dónde escribir el log de cada batalla simulada. El log se escribe
+     * desde el hilo del registro, así que no frena a los hilos de simulación.
+     *
+     * @param registro Registro donde se escriben las batallas, o null para no escribirlas.
+     */
+    public void setRegistro(RegistroAsincrono registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * Indica dónde registrar las métricas de las batallas simuladas: acciones, daño,
+     * efectos y batallas por segundo. Los hilos de simulación suman al registro una
+     * vez por ronda, así que no compiten por él en cada evento.
+     *
+     * @param metricas Registro de métricas, o null para no medir.
+     */
+    public void setMetricas(RegistroMetricas metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Indica dónde guardar el diario de repetición de cada batalla, para usarlas
+     * después como suite de regresión con ReproductorDiarios.
+     *
+     * @param directorioDiarios Directorio de los diarios, o null para no guardarlos.
+     */
+    public void setDirectorioDiarios(Path directorioDiarios) {
+        this.directorioDiarios = directorioDiarios;
+    }
+
+    /**
+     * Indica cómo deciden los enemigos de las batallas simuladas, por ejemplo para
+     * medir la tasa de victoria contra enemigos con MCTS. Con una política que no
+     * es la aleatoria no se guardan diarios de repetición.
+     *
+     * @param fabricaPoliticaEnemigos Crea una política por tarea, o null para la aleatoria.
+     */
+    public void setFabricaPoliticaEnemigos(Supplier<PoliticaEnemigo> fabricaPoliticaEnemigos) {
+        this.fabricaPoliticaEnemigos = fabricaPoliticaEnemigos;
+    }
+
+    /**
+     * Simula la cantidad de batallas indicada en paralelo.
+     *
+     * @param cantidad Número de batallas a simular.
+     * @return Resultado combinado de todas las batallas.
+     */
+    public ResultadoSimulacion simular(long cantidad) {
+        long umbral = Math.max(UMBRAL_MINIMO, cantidad / (pool.getParallelism() * 16L));
+        long inicio = System.nanoTime();
+        ResultadoSimulacion resultado = pool.invoke(new TareaSimulacion(0, cantidad, umbral));
+        resultado.setNanosTranscurridos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Crea y juega una batalla con enemigos aleatorios.
+     * La batalla usa su propia secuencia aleatoria, derivada de la semilla maestra y de su índice.
+     *
+     * @param indice Número de la batalla.
+     * @param motor Motor del hilo actual.
+     * @param politicaEnemigos Política de enemigos del hilo actual, o null para la aleatoria.
+     * @param resultado Resultado donde se registra el desenlace.
+     */
+    private void simularUna(long indice, MotorBatalla motor, PoliticaEnemigo politicaEnemigos,
+                            ResultadoSimulacion resultado) {
+        FuenteAleatoria aleatorio = FuenteAleatoria.paraBatalla(semilla, indice);
+        List<Jugador> jugadores = new ArrayList<>(roles.length);
+        for (int i = 0; i < roles.length; i++) {
+            jugadores.add(new Jugador("Héroe " + (i + 1), roles[i]));
+        }
+        List<Combatiente> enemigos = EnemyFactory.crearEnemigosAleatorios(aleatorio);
+        DiarioRepeticion diario = null;
+        if (directorioDiarios != null && politicaEnemigos == null) {
+            diario = new DiarioRepeticion(semilla, indice, modoTurnos, maxTurnos);
+            for (Jugador jugador : jugadores) diario.registrarJugador(jugador);
+            diario.registrarEnemigos(enemigos, true);
+        }
+        Batalla batalla = new Batalla(jugadores, enemigos, aleatorio, modoTurnos);
+        batalla.setPoliticaEnemigos(politicaEnemigos);
+        RegistroAsincrono.Fuente fuente = registro != null ? registro.adjuntar(batalla, "Batalla " + indice) : null;
+        RegistroMetricas.Medidor medidor = metricas != null ? metricas.adjuntar(batalla) : null;
+        MotorBatalla.Desenlace desenlace = motor.jugar(batalla, diario);
+        if (fuente != null) fuente.close();
+        if (medidor != null) medidor.close();
+        if (diario != null) {
+            try {
+                diario.guardar(directorioDiarios.resolve("batalla-" + indice + DiarioRepeticion.EXTENSION));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        resultado.registrar(desenlace, batalla.getTurnoActual() + 1);
+    }
+
+    /**
+     * Tarea fork-join que divide un rango de batallas hasta llegar al umbral.
+     */
+    private class TareaSimulacion extends RecursiveTask<ResultadoSimulacion> {
+        private static final long serialVersionUID = 1L;
+
+        private final long desde;
+        private final long hasta;
+        private final long umbral;
+
+        TareaSimulacion(long desde, long hasta, long umbral) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.umbral = umbral;
+        }
+
+        @Override
+        protected ResultadoSimulacion compute() {
+            if (hasta - desde <= umbral) {
+                MotorBatalla motor = new MotorBatalla(fabricaPolitica.get(), maxTurnos);
+                PoliticaEnemigo politicaEnemigos = fabricaPoliticaEnemigos != null ? fabricaPoliticaEnemigos.get() : null;
+                ResultadoSimulacion resultado = new ResultadoSimulacion();
+                for (long i = desde; i < hasta; i++) {
+                    simularUna(i, motor, politicaEnemigos, resultado);
+                }
+                return resultado;
+            }
+            long medio = (desde + hasta) >>> 1;
+            TareaSimulacion izquierda = new TareaSimulacion(desde, medio, umbral);
+            izquierda.fork();
+            ResultadoSimulacion derecha = new TareaSimulacion(medio, hasta, umbral).compute();
+            return izquierda.join().combinar(derecha);
+        }
+    }
+
+    /**
+     * Ejecuta una simulación desde la línea de comandos.
+     * Uso: java -cp bin simulacion.SimuladorBatallas [batallas] [hilos] [semilla] [roles...] [modo]
+     *      [--log archivo|-] [--desborde BLOQUEAR|DESCARTAR_ANTIGUO|MUESTREAR] [--diarios directorio]
+     *      [--metricas archivo] [--enemigos-mcts presupuesto] [--reglas]
+     * donde cada rol es GUERRERO o EXPLORADOR y el modo de turnos es BARAJADO o INICIATIVA.
+     * Con --log se escriben todas las batallas en el archivo, o en la salida estándar con "-".
+     * Con --diarios se guarda el diario de repetición de cada batalla en el directorio.
+     * Con --metricas se escriben las métricas de la simulación en formato Prometheus cada segundo.
+     * Con --enemigos-mcts los enemigos deciden con MCTS, con un presupuesto por decisión
+     * de nodos ("200"), de tiempo ("5ms") o los dos ("200/5ms"), en el mismo pool.
+     * Con --reglas los jugadores juegan con {@link PoliticaReglas} en lugar de al azar.
+     *
+     * @param args Argumentos de línea de comandos.
+     * @throws IOException si no se puede escribir el log.
+     */
+    public static void main(String[] args) throws IOException {
+        long batallas = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+        ModoTurnos modo = ModoTurnos.BARAJADO;
+        List<RolJugador> listaRoles = new ArrayList<>();
+        String archivoLog = null;
+        PoliticaDesborde desborde = PoliticaDesborde.BLOQUEAR;
+        Path directorioDiarios = null;
+        Path archivoMetricas = null;
+        String presupuestoMcts = null;
+        Supplier<PoliticaJugador> fabricaPolitica = PoliticaAleatoria::new;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--log")) {
+                archivoLog = args[++i];
+                continue;
+            }
+            if (args[i].equals("--diarios")) {
+                directorioDiarios = Paths.get(args[++i]);
+                continue;
+            }
+            if (args[i].equals("--metricas")) {
+                archivoMetricas = Paths.get(args[++i]);
+                continue;
+            }
+            if (args[i].equals("--enemigos-mcts")) {
+                presupuestoMcts = args[++i];
+                continue;
+            }
+            if (args[i].equals("--reglas")) {
+                fabricaPolitica = PoliticaReglas::new;
+                continue;
+            }
+            if (args[i].equals("--desborde")) {
+                desborde = PoliticaDesborde.valueOf(args[++i].toUpperCase());
+                continue;
+            }
+            String nombre = args[i].toUpperCase();
+            if (Arrays.stream(ModoTurnos.values()).anyMatch(m -> m.name().equals(nombre))) {
+                modo = ModoTurnos.valueOf(nombre);
+            } else {
+                listaRoles.add(RolJugador.valueOf(nombre));
+            }
+        }
+        RolJugador[] roles = listaRoles.isEmpty()
+            ? new RolJugador[] { RolJugador.GUERRERO, RolJugador.EXPLORADOR }
+            : listaRoles.toArray(new RolJugador[0]);
+
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        RegistroAsincrono registro = null;
+        RegistroMetricas metricas = null;
+        try {
+            SimuladorBatallas simulador = new SimuladorBatallas(roles, fabricaPolitica, MAX_TURNOS_POR_DEFECTO,
+                                                                pool, semilla, modo);
+            if (archivoLog != null) {
+                registro = archivoLog.equals("-") ? RegistroAsincrono.aSalidaEstandar(desborde)
+                                                  : RegistroAsincrono.aArchivo(Paths.get(archivoLog), desborde);
+                simulador.setRegistro(registro);
+            }
+            if (archivoMetricas != null) {
+                metricas = new RegistroMetricas();
+                metricas.exportarCada(archivoMetricas, 1000);
+                simulador.setMetricas(metricas);
+            }
+            if (presupuestoMcts != null) {
+                String presupuesto = presupuestoMcts;
+                PoliticaEnemigoMcts.desdeTexto(presupuesto, pool); // falla antes de empezar si es inválido
+                simulador.setFabricaPoliticaEnemigos(() -> PoliticaEnemigoMcts.desdeTexto(presupuesto, pool));
+            }
+            if (directorioDiarios != null) {
+                Files.createDirectories(directorioDiarios);
+                simulador.setDirectorioDiarios(directorioDiarios);
+            }
+            System.out.println("Simulando " + batallas + " batallas en " + hilos + " hilos con " + Arrays.toString(roles)
+                               + " (semilla " + semilla + ", turnos " + modo.name().toLowerCase()
+                               + (presupuestoMcts != null ? ", enemigos MCTS " + presupuestoMcts : "") + ")");
+            ResultadoSimulacion resultado = simulador.simular(batallas);
+            if (registro != null) {
+                registro.close();
+                System.out.println("Log: " + registro);
+            }
+            System.out.println(resultado);
+            if (metricas != null) {
+                metricas.close();
+                System.out.println("Métricas en " + archivoMetricas + ":\n" + metricas);
+            }
+        } finally {
+            pool.shutdown();
+            if (registro != null) registro.close();
+            if (metricas != null) metricas.close();
+        }
+    }
+}
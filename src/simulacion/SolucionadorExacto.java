@@ -0,0 +1,1011 @@
+package simulacion;
+
+import model.*;
+import java.util.*;
+
+/**
+ * Clase SolucionadorExacto.
+ * Calcula sin sortear la probabilidad de victoria, de derrota y de llegar al límite
+ * de rondas de un encuentro chico, y su duración esperada en turnos, con las mismas
+ * reglas que {@link SimuladorBatallas}: orden de turnos barajado, jugadores con
+ * {@link PoliticaAleatoria} y enemigos con la política aleatoria.
+ *
+ * Recorre los estados de la batalla en el inicio de cada turno y promedia los
+ * valores de los estados siguientes, pesados por su probabilidad exacta. El daño
+ * de cada golpe se reparte entre los 2^53 valores que puede dar nextDouble, así que
+ * las probabilidades coinciden con las del juego y no con una aproximación.
+ * El estado guarda solo lo que cambia el resultado: vida, quemaduras, elixires
+ * activos, ítems, regeneración, orden de turnos, posición y ronda. Los efectos que
+ * no tienen efecto en las reglas (confundido, esquivando, intimidado) no se guardan.
+ * Los turnos se guardan contados desde la ronda del estado. Si ningún enemigo se
+ * cura, cada ronda gasta un ítem o baja la vida de un enemigo, así que la batalla
+ * termina en una cantidad acotada de rondas; mientras esa cota no llegue al límite
+ * de rondas, la ronda no entra en la clave y los estados de rondas distintas se
+ * comparten. Si no, la ronda es parte del estado y, como la batalla se corta en el
+ * límite de rondas, nunca se vuelve a un estado anterior, aunque el dragón jefe se cure.
+ *
+ * Cada estado se empaqueta en una clave de 128 bits y su valor se guarda en una
+ * {@link TablaTransposicion}, que tiene tamaño fijo: si pierde algunos estados, se
+ * vuelven a calcular. Los ítems multiplican los estados (cada combinación de
+ * unidades que quedan es otra clave), así que sin ítems ({@code probabilidadItem}
+ * en 0) no entran en la clave. Si el encuentro calcula más estados que las entradas
+ * de la tabla, la resolución se corta con un error en vez de recalcular sin fin.
+ * El guerrero con su inventario contra un enemigo se resuelve en unos segundos;
+ * dos jugadores con sus inventarios, o el explorador contra el dragón, ya no entran
+ * en 256 MB. Los encuentros con dragón jefe se pueden alargar mucho, así que
+ * conviene bajarles el límite de rondas.
+ *
+ * Uso: {@code java -cp bin simulacion.SolucionadorExacto [ROL...] <enemigo>[:jefe]... [--rondas N]
+ * [--items P] [--memoria MB] [--comparar N] [--semilla S]}
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class SolucionadorExacto {
+
+    /** Combatientes como máximo; cada uno más multiplica los órdenes de turno y los estados */
+    public static final int MAX_COMBATIENTES = 3;
+
+    /** Memoria de la tabla en la línea de comandos si no se indica otra */
+    private static final int MEGABYTES_POR_DEFECTO = 256;
+
+    // Reparto de acciones de PoliticaEnemigoAleatoria, en porcentaje
+    private static final int PORCENTAJE_ATAQUE = 60;
+    private static final int PORCENTAJE_ESPECIAL = 25;
+    private static final int PORCENTAJE_JEFE = 10;
+    private static final int PORCENTAJE_OBSERVAR = 5;
+
+    // Reglas de las habilidades y los ítems (Orco, Goblin, Dragon, Batalla e ítems)
+    private static final double FACTOR_GOLPE_BRUTAL = 1.5;
+    private static final double FACTOR_ATAQUE_MULTIPLE = 0.7;
+    private static final double FRACCION_CURACION_MISTICA = 0.3;
+    private static final int DANO_QUEMADURA = 2;
+    private static final int CURACION_REGENERACION = 10;
+    private static final int CURACION_POCION = 30;
+    private static final int CURACION_KIT = 20;
+    private static final int INCREMENTO_ELIXIR = 15;
+    private static final int DURACION_ELIXIR = Efecto.ATAQUE_POTENCIADO.getDuracion();
+    private static final int MAXIMO_PILAS = 255;
+
+    private static final int POCION = 0;
+    private static final int ELIXIR = 1;
+    private static final int KIT = 2;
+    private static final int BOMBA = 3;
+    private static final int TIPOS_ITEM = 4;
+
+    /** Valores distintos de nextDouble y distancia entre ellos */
+    private static final long PASOS = 1L << 53;
+    private static final double PASO = 0x1.0p-53;
+
+    /** Pila del hilo que resuelve: la recursión baja un nivel por turno */
+    private static final long TAMANO_PILA = 1L << 28;
+
+    private final int jugadores;
+    private final int total;
+    private final int[] vidaMaxima;
+    private final int[] vidaInicial;
+    private final TipoEnemigo[] tipos;
+    private final boolean[] jefes;
+    private final int[][] itemsIniciales;
+    private final int probabilidadItem;
+    private final int maxRondas;
+    private final TablaTransposicion tabla;
+    private final int[][] ordenes;
+
+    /** Tope de pilas de quemadura por jugador y de regeneración por enemigo */
+    private final int[] topeQuemadura;
+    private final int[] topeRegeneracion;
+
+    /** Daño de cada jugador según sus elixires activos contra cada enemigo */
+    private final Distribucion[][][] danoJugador;
+    /** Daño del ataque de cada enemigo */
+    private final Distribucion[] danoEnemigo;
+    /** Daño del golpe brutal del orco o de cada golpe del ataque múltiple del goblin jefe */
+    private final Distribucion[] danoHabilidad;
+    /** Menor daño que recibe cada enemigo de un ataque */
+    private final int[] danoMinimo;
+    /** Indica si la cantidad de rondas que quedan se puede acotar desde cualquier estado */
+    private final boolean duracionAcotada;
+
+    // Disposición de los campos del estado en la clave
+    private final int numCampos;
+    private final int campoOrden;
+    private final int campoPosicion;
+    private final int campoRonda;
+    /** Vale 1 si la clave lleva la ronda */
+    private final int campoConRonda;
+    private final int[] desplazamientos;
+    private final boolean[] enParteAlta;
+
+    // Búsqueda
+    private int[][] pila;
+    private int[][] accion;
+    private double[] acumuladoVictoria;
+    private double[] acumuladoDerrota;
+    private double[] acumuladoTurnos;
+    private long claveAlta;
+    private long claveBaja;
+    private double victoria;
+    private double derrota;
+    private double turnos;
+    private long expandidos;
+
+    /**
+     * Constructor de SolucionadorExacto. Toma la vida, el ataque y el inventario de
+     * los jugadores y los enemigos tal como están.
+     *
+     * @param jugadores Jugadores del encuentro, vivos y sin efectos.
+     * @param enemigos Enemigos del encuentro, vivos y sin efectos.
+     * @param probabilidadItem Porcentaje de turnos en los que un jugador intenta usar un ítem.
+     * @param maxRondas Rondas máximas, como en {@link MotorBatalla}.
+     * @param tabla Tabla donde se guardan los estados calculados; puede reutilizarse.
+     * @throws IllegalArgumentException si el encuentro es demasiado grande o tiene
+     *         algo que el solucionador no conoce.
+     */
+    public SolucionadorExacto(List<Jugador> jugadores, List<Combatiente> enemigos, int probabilidadItem,
+                              int maxRondas, TablaTransposicion tabla) {
+        if (jugadores.isEmpty() || enemigos.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos un jugador y un enemigo");
+        }
+        this.jugadores = jugadores.size();
+        this.total = this.jugadores + enemigos.size();
+        if (total > MAX_COMBATIENTES) {
+            throw new IllegalArgumentException("El solucionador admite hasta " + MAX_COMBATIENTES + " combatientes");
+        }
+        if (maxRondas < 0) throw new IllegalArgumentException("Las rondas máximas no pueden ser negativas");
+        this.probabilidadItem = Math.max(0, Math.min(100, probabilidadItem));
+        this.maxRondas = maxRondas;
+        this.tabla = tabla;
+
+        vidaMaxima = new int[total];
+        vidaInicial = new int[total];
+        int[] ataque = new int[total];
+        itemsIniciales = new int[this.jugadores][TIPOS_ITEM];
+        int elixires = 0;
+        for (int j = 0; j < this.jugadores; j++) {
+            Jugador jugador = jugadores.get(j);
+            leerEstadisticas(jugador, j, ataque);
+            // Sin ítems el inventario no cambia nada y queda fuera de la clave
+            for (int i = 0; this.probabilidadItem > 0 && i < jugador.getTamanoInventario(); i++) {
+                Item item = jugador.getItem(i);
+                itemsIniciales[j][tipoItem(item)] += item.getCantidad();
+            }
+            elixires += itemsIniciales[j][ELIXIR];
+        }
+        int cantidadEnemigos = enemigos.size();
+        tipos = new TipoEnemigo[cantidadEnemigos];
+        jefes = new boolean[cantidadEnemigos];
+        ArquetipoEnemigo[] arquetipos = new ArquetipoEnemigo[cantidadEnemigos];
+        boolean hayDragon = false;
+        for (int e = 0; e < cantidadEnemigos; e++) {
+            if (!(enemigos.get(e) instanceof Enemigo)) {
+                throw new IllegalArgumentException("El solucionador solo conoce las reglas de Orco, Goblin y Dragon");
+            }
+            Enemigo enemigo = (Enemigo) enemigos.get(e);
+            leerEstadisticas(enemigo, this.jugadores + e, ataque);
+            arquetipos[e] = enemigo.getArquetipo();
+            tipos[e] = arquetipos[e].getTipo();
+            jefes[e] = arquetipos[e].isEsJefe();
+            hayDragon |= tipos[e] == TipoEnemigo.DRAGON;
+        }
+
+        // Más pilas que estas ya no cambian nada: la quemadura mata y la regeneración llena la vida
+        topeQuemadura = new int[this.jugadores];
+        for (int j = 0; j < this.jugadores; j++) {
+            topeQuemadura[j] = hayDragon ? Math.min(MAXIMO_PILAS, (vidaMaxima[j] + 1) / 2) : 0;
+        }
+        topeRegeneracion = new int[cantidadEnemigos];
+        for (int e = 0; e < cantidadEnemigos; e++) {
+            if (tipos[e] == TipoEnemigo.DRAGON && jefes[e]) {
+                int vida = vidaMaxima[this.jugadores + e];
+                topeRegeneracion[e] = Math.min(MAXIMO_PILAS, Math.max(1, (vida + CURACION_REGENERACION - 2) / CURACION_REGENERACION));
+            }
+        }
+
+        danoJugador = new Distribucion[this.jugadores][elixires + 1][cantidadEnemigos];
+        for (int j = 0; j < this.jugadores; j++) {
+            for (int u = 0; u <= elixires; u++) {
+                Distribucion golpe = Distribucion.golpe(ataque[j] + u * INCREMENTO_ELIXIR);
+                for (int e = 0; e < cantidadEnemigos; e++) {
+                    danoJugador[j][u][e] = jefes[e] ? golpe.escalar(arquetipos[e].getMultiplicadorDanoRecibido()) : golpe;
+                }
+            }
+        }
+        danoMinimo = new int[cantidadEnemigos];
+        boolean acotada = true;
+        for (int e = 0; e < cantidadEnemigos; e++) {
+            danoMinimo[e] = Integer.MAX_VALUE;
+            for (int j = 0; j < this.jugadores; j++) danoMinimo[e] = Math.min(danoMinimo[e], danoJugador[j][0][e].valores[0]);
+            acotada &= danoMinimo[e] > 0 && topeRegeneracion[e] == 0;
+        }
+        duracionAcotada = acotada;
+        danoEnemigo = new Distribucion[cantidadEnemigos];
+        danoHabilidad = new Distribucion[cantidadEnemigos];
+        for (int e = 0; e < cantidadEnemigos; e++) {
+            Distribucion golpe = Distribucion.golpe(ataque[this.jugadores + e]);
+            danoEnemigo[e] = jefes[e] ? golpe.escalar(arquetipos[e].getMultiplicadorDano()) : golpe;
+            if (tipos[e] == TipoEnemigo.ORCO) danoHabilidad[e] = danoEnemigo[e].escalar(FACTOR_GOLPE_BRUTAL);
+            else if (tipos[e] == TipoEnemigo.GOBLIN && jefes[e]) danoHabilidad[e] = danoEnemigo[e].escalar(FACTOR_ATAQUE_MULTIPLE);
+        }
+
+        ordenes = permutaciones(total);
+
+        campoOrden = regeneracion(cantidadEnemigos);
+        campoPosicion = campoOrden + 1;
+        campoRonda = campoOrden + 2;
+        campoConRonda = campoOrden + 3;
+        numCampos = campoOrden + 4;
+        int[] maximos = new int[numCampos];
+        for (int j = 0; j < this.jugadores; j++) {
+            maximos[j] = vidaMaxima[j];
+            maximos[quemadura(j)] = topeQuemadura[j];
+            maximos[unidades(j)] = elixires;
+            maximos[duracion(j)] = elixires > 0 ? DURACION_ELIXIR : 0;
+            for (int k = 0; k < TIPOS_ITEM; k++) maximos[item(j, k)] = itemsIniciales[j][k];
+        }
+        for (int e = 0; e < cantidadEnemigos; e++) {
+            maximos[this.jugadores + e] = vidaMaxima[this.jugadores + e];
+            maximos[regeneracion(e)] = topeRegeneracion[e];
+        }
+        maximos[campoOrden] = ordenes.length - 1;
+        maximos[campoPosicion] = total - 1;
+        maximos[campoRonda] = maxRondas;
+        maximos[campoConRonda] = 1;
+        desplazamientos = new int[numCampos];
+        enParteAlta = new boolean[numCampos];
+        int usadosBajo = 0, usadosAlto = 0;
+        for (int c = 0; c < numCampos; c++) {
+            int ancho = 32 - Integer.numberOfLeadingZeros(maximos[c]);
+            if (usadosBajo + ancho <= Long.SIZE) {
+                desplazamientos[c] = usadosBajo;
+                usadosBajo += ancho;
+            } else if (usadosAlto + ancho <= Long.SIZE) {
+                desplazamientos[c] = usadosAlto;
+                enParteAlta[c] = true;
+                usadosAlto += ancho;
+            } else {
+                throw new IllegalArgumentException("El estado del encuentro no entra en una clave de 128 bits");
+            }
+        }
+
+        int niveles = 64;
+        pila = new int[niveles][numCampos];
+        accion = new int[niveles][numCampos];
+        acumuladoVictoria = new double[niveles];
+        acumuladoDerrota = new double[niveles];
+        acumuladoTurnos = new double[niveles];
+    }
+
+    private void leerEstadisticas(Combatiente combatiente, int id, int[] ataque) {
+        if (combatiente.getVidaActual() <= 0) {
+            throw new IllegalArgumentException(combatiente.getNombre() + " debe empezar vivo");
+        }
+        if (combatiente.getAtaqueBase() < 0) {
+            throw new IllegalArgumentException(combatiente.getNombre() + " tiene ataque negativo");
+        }
+        vidaMaxima[id] = combatiente.getVidaMaxima();
+        vidaInicial[id] = Math.min(combatiente.getVidaActual(), vidaMaxima[id]);
+        ataque[id] = combatiente.getAtaqueBase();
+    }
+
+    private static int tipoItem(Item item) {
+        if (item instanceof Pocion) return POCION;
+        if (item instanceof PotenciadorAtaque) return ELIXIR;
+        if (item instanceof KitCuracion) return KIT;
+        if (item instanceof BombaHumo) return BOMBA;
+        throw new IllegalArgumentException("Ítem desconocido para el solucionador: " + item.getNombre());
+    }
+
+    /**
+     * Resuelve el encuentro promediando todos los órdenes de turno, que el
+     * planificador barajado sortea con la misma probabilidad. Se ejecuta en un hilo
+     * propio con una pila grande, porque la recursión baja un nivel por turno.
+     *
+     * @return Solucion del encuentro.
+     * @throws IllegalStateException si el encuentro calcula más estados que las entradas de la tabla.
+     */
+    public Solucion resolver() {
+        Solucion[] solucion = new Solucion[1];
+        RuntimeException[] error = new RuntimeException[1];
+        Thread hilo = new Thread(null, () -> {
+            try {
+                solucion[0] = resolverEnEsteHilo();
+            } catch (RuntimeException e) {
+                error[0] = e;
+            }
+        }, "solucionador-exacto", TAMANO_PILA);
+        hilo.start();
+        try {
+            hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la resolución", e);
+        }
+        if (error[0] != null) throw error[0];
+        return solucion[0];
+    }
+
+    private Solucion resolverEnEsteHilo() {
+        long inicio = System.nanoTime();
+        long consultas = tabla.getConsultas();
+        long aciertos = tabla.getAciertos();
+        long reemplazos = tabla.getReemplazos();
+        expandidos = 0;
+
+        double peso = 1.0 / ordenes.length;
+        double sumaVictoria = 0, sumaDerrota = 0, sumaTurnos = 0;
+        for (int o = 0; o < ordenes.length; o++) {
+            if (maxRondas == 0) {
+                sumaTurnos += peso;
+                continue;
+            }
+            int[] estado = pila[0];
+            Arrays.fill(estado, 0);
+            System.arraycopy(vidaInicial, 0, estado, 0, total);
+            for (int j = 0; j < jugadores; j++) {
+                for (int k = 0; k < TIPOS_ITEM; k++) estado[item(j, k)] = itemsIniciales[j][k];
+            }
+            estado[campoOrden] = o;
+            evaluar(0);
+            sumaVictoria += peso * victoria;
+            sumaDerrota += peso * derrota;
+            sumaTurnos += peso * turnos;
+        }
+        return new Solucion(sumaVictoria, sumaDerrota, sumaTurnos, expandidos, System.nanoTime() - inicio,
+                            tabla.getConsultas() - consultas, tabla.getAciertos() - aciertos,
+                            tabla.getReemplazos() - reemplazos, tabla);
+    }
+
+    /** --- BÚSQUEDA --- **/
+
+    /**
+     * Calcula el valor del estado de un nivel, que empieza el turno de un combatiente
+     * vivo, y lo deja en victoria, derrota y turnos desde la ronda del estado.
+     */
+    private void evaluar(int nivel) {
+        int[] estado = pila[nivel];
+        int ronda = estado[campoRonda];
+        boolean conRonda = !duracionAcotada || ronda + cotaRondas(estado) >= maxRondas;
+        estado[campoConRonda] = conRonda ? 1 : 0;
+        if (!conRonda) estado[campoRonda] = 0;
+        codificar(estado);
+        estado[campoRonda] = ronda;
+        long alto = claveAlta, bajo = claveBaja;
+        int entrada = tabla.buscar(alto, bajo);
+        if (entrada >= 0) {
+            victoria = tabla.getVictoria(entrada);
+            derrota = tabla.getDerrota(entrada);
+            turnos = tabla.getTurnos(entrada);
+            return;
+        }
+
+        long antes = expandidos++;
+        if (expandidos > tabla.getCapacidad()) {
+            throw new IllegalStateException("El encuentro pasa de " + tabla.getCapacidad()
+                                            + " estados y no entra en la tabla: use más memoria, menos combatientes o menos ítems");
+        }
+        acumuladoVictoria[nivel] = 0;
+        acumuladoDerrota[nivel] = 0;
+        acumuladoTurnos[nivel] = 0;
+        int actual = ordenes[estado[campoOrden]][estado[campoPosicion]];
+        if (actual < jugadores) turnoJugador(nivel, actual);
+        else turnoEnemigo(nivel, actual - jugadores);
+
+        victoria = acumuladoVictoria[nivel];
+        derrota = acumuladoDerrota[nivel];
+        turnos = acumuladoTurnos[nivel];
+        tabla.guardar(alto, bajo, victoria, derrota, turnos, (int) Math.min(Integer.MAX_VALUE, expandidos - antes));
+    }
+
+    /**
+     * Turno de un jugador con la política aleatoria: con la probabilidad de ítem usa
+     * uno de los tipos que le quedan sobre un aliado vivo al azar; si no, ataca a un
+     * enemigo vivo al azar.
+     */
+    private void turnoJugador(int nivel, int jugador) {
+        int[] estado = pila[nivel];
+        int[] siguiente = accion[nivel];
+        int aliados = contarVivos(estado, 0, jugadores);
+        int tiposConUnidades = 0;
+        for (int k = 0; k < TIPOS_ITEM; k++) {
+            if (estado[item(jugador, k)] > 0) tiposConUnidades++;
+        }
+        double probabilidadUso = tiposConUnidades == 0 ? 0 : probabilidadItem / 100.0;
+
+        for (int k = 0; k < TIPOS_ITEM && probabilidadUso > 0; k++) {
+            if (estado[item(jugador, k)] == 0) continue;
+            double probabilidadTipo = probabilidadUso / tiposConUnidades;
+            if (k == KIT || k == BOMBA) {
+                System.arraycopy(estado, 0, siguiente, 0, numCampos);
+                siguiente[item(jugador, k)]--;
+                if (k == KIT) {
+                    for (int t = 0; t < jugadores; t++) {
+                        if (siguiente[t] > 0) siguiente[t] = Math.min(vidaMaxima[t], siguiente[t] + CURACION_KIT);
+                    }
+                }
+                continuar(nivel, probabilidadTipo);
+                continue;
+            }
+            for (int t = 0; t < jugadores; t++) {
+                if (estado[t] <= 0) continue;
+                System.arraycopy(estado, 0, siguiente, 0, numCampos);
+                siguiente[item(jugador, k)]--;
+                if (k == POCION) {
+                    siguiente[t] = Math.min(vidaMaxima[t], siguiente[t] + CURACION_POCION);
+                } else {
+                    // Aplicar el elixir de nuevo suma el ataque y reinicia la duración
+                    if (siguiente[duracion(t)] == 0) siguiente[unidades(t)] = 0;
+                    siguiente[unidades(t)]++;
+                    siguiente[duracion(t)] = DURACION_ELIXIR;
+                }
+                continuar(nivel, probabilidadTipo / aliados);
+            }
+        }
+
+        double probabilidadObjetivo = (1 - probabilidadUso) / contarVivos(estado, jugadores, total);
+        Distribucion[] golpes = danoJugador[jugador][estado[unidades(jugador)]];
+        for (int id = jugadores; id < total; id++) {
+            if (estado[id] <= 0) continue;
+            Distribucion golpe = golpes[id - jugadores];
+            for (int i = 0; i < golpe.valores.length; i++) {
+                System.arraycopy(estado, 0, siguiente, 0, numCampos);
+                siguiente[id] = Math.max(0, siguiente[id] - golpe.valores[i]);
+                continuar(nivel, probabilidadObjetivo * golpe.probabilidades[i]);
+            }
+        }
+    }
+
+    /**
+     * Turno de un enemigo con la política aleatoria. Las acciones que no cambian el
+     * estado (observar, el esquive del goblin y el rugido del orco jefe) se juntan en
+     * una sola rama.
+     */
+    private void turnoEnemigo(int nivel, int enemigo) {
+        int[] estado = pila[nivel];
+        int[] siguiente = accion[nivel];
+        int id = jugadores + enemigo;
+        int objetivos = contarVivos(estado, 0, jugadores);
+        double sinEfecto = PORCENTAJE_OBSERVAR + (jefes[enemigo] ? 0 : PORCENTAJE_JEFE);
+
+        golpeAUno(nivel, danoEnemigo[enemigo], PORCENTAJE_ATAQUE / 100.0 / objetivos);
+
+        switch (tipos[enemigo]) {
+            case ORCO:
+                golpeAUno(nivel, danoHabilidad[enemigo], PORCENTAJE_ESPECIAL / 100.0 / objetivos);
+                break;
+            case DRAGON:
+                // Aliento de fuego: un mismo daño a todos y una quemadura más
+                Distribucion golpe = danoEnemigo[enemigo];
+                for (int i = 0; i < golpe.valores.length; i++) {
+                    System.arraycopy(estado, 0, siguiente, 0, numCampos);
+                    for (int t = 0; t < jugadores; t++) {
+                        if (siguiente[t] <= 0) continue;
+                        siguiente[t] = Math.max(0, siguiente[t] - golpe.valores[i]);
+                        siguiente[quemadura(t)] = Math.min(topeQuemadura[t], siguiente[quemadura(t)] + 1);
+                    }
+                    continuar(nivel, PORCENTAJE_ESPECIAL / 100.0 * golpe.probabilidades[i]);
+                }
+                break;
+            default:
+                sinEfecto += PORCENTAJE_ESPECIAL;
+                break;
+        }
+
+        if (jefes[enemigo]) {
+            switch (tipos[enemigo]) {
+                case GOBLIN:
+                    System.arraycopy(estado, 0, siguiente, 0, numCampos);
+                    ataqueMultiple(nivel, enemigo, 0, PORCENTAJE_JEFE / 100.0);
+                    break;
+                case DRAGON:
+                    System.arraycopy(estado, 0, siguiente, 0, numCampos);
+                    siguiente[id] = Math.min(vidaMaxima[id], siguiente[id] + (int) (vidaMaxima[id] * FRACCION_CURACION_MISTICA));
+                    siguiente[regeneracion(enemigo)] = Math.min(topeRegeneracion[enemigo], siguiente[regeneracion(enemigo)] + 1);
+                    continuar(nivel, PORCENTAJE_JEFE / 100.0);
+                    break;
+                default:
+                    sinEfecto += PORCENTAJE_JEFE;
+                    break;
+            }
+        }
+
+        System.arraycopy(estado, 0, siguiente, 0, numCampos);
+        continuar(nivel, sinEfecto / 100.0);
+    }
+
+    /**
+     * Golpe a un jugador vivo elegido al azar.
+     */
+    private void golpeAUno(int nivel, Distribucion golpe, double probabilidadObjetivo) {
+        int[] estado = pila[nivel];
+        int[] siguiente = accion[nivel];
+        for (int t = 0; t < jugadores; t++) {
+            if (estado[t] <= 0) continue;
+            for (int i = 0; i < golpe.valores.length; i++) {
+                System.arraycopy(estado, 0, siguiente, 0, numCampos);
+                siguiente[t] = Math.max(0, siguiente[t] - golpe.valores[i]);
+                continuar(nivel, probabilidadObjetivo * golpe.probabilidades[i]);
+            }
+        }
+    }
+
+    /**
+     * Ataque múltiple del goblin jefe: un golpe sorteado aparte para cada jugador
+     * vivo, desde el jugador indicado.
+     */
+    private void ataqueMultiple(int nivel, int enemigo, int desde, double probabilidad) {
+        int[] siguiente = accion[nivel];
+        int t = desde;
+        while (t < jugadores && siguiente[t] <= 0) t++;
+        if (t == jugadores) {
+            continuar(nivel, probabilidad);
+            return;
+        }
+        int vida = siguiente[t];
+        Distribucion golpe = danoHabilidad[enemigo];
+        for (int i = 0; i < golpe.valores.length; i++) {
+            siguiente[t] = Math.max(0, vida - golpe.valores[i]);
+            ataqueMultiple(nivel, enemigo, t + 1, probabilidad * golpe.probabilidades[i]);
+        }
+        siguiente[t] = vida;
+    }
+
+    /**
+     * Sigue la batalla desde el estado que dejó una acción, como MotorBatalla:
+     * revisa si terminó, pasa al siguiente combatiente vivo y, al cerrar la ronda,
+     * descuenta los elixires y aplica quemaduras y regeneración. Suma el valor del
+     * resultado, pesado por su probabilidad, al nivel de la acción.
+     */
+    private void continuar(int nivel, double probabilidad) {
+        if (probabilidad == 0) return;
+        if (nivel + 1 == pila.length) crecer();
+        int[] estado = pila[nivel + 1];
+        System.arraycopy(accion[nivel], 0, estado, 0, numCampos);
+        // El turno final se cuenta como getTurnoActual() + 1, desde la ronda de la acción
+        int turnoFinal = estado[campoRonda] + 1 - pila[nivel][campoRonda];
+
+        if (contarVivos(estado, 0, jugadores) == 0) {
+            sumar(nivel, probabilidad, 0, 1, turnoFinal);
+            return;
+        }
+        if (contarVivos(estado, jugadores, total) == 0) {
+            sumar(nivel, probabilidad, 1, 0, turnoFinal);
+            return;
+        }
+
+        int posicion = siguienteVivo(estado, estado[campoPosicion] + 1);
+        if (posicion < 0) {
+            cerrarRonda(estado);
+            turnoFinal++;
+            if (contarVivos(estado, 0, jugadores) == 0) {
+                sumar(nivel, probabilidad, 0, 1, turnoFinal);
+                return;
+            }
+            posicion = siguienteVivo(estado, 0);
+        }
+        if (estado[campoRonda] >= maxRondas) {
+            sumar(nivel, probabilidad, 0, 0, turnoFinal);
+            return;
+        }
+        estado[campoPosicion] = posicion;
+        normalizar(estado);
+        evaluar(nivel + 1);
+        sumar(nivel, probabilidad, victoria, derrota, turnos + turnoFinal - 1);
+    }
+
+    /**
+     * Cota de las rondas que quedan cuando ningún enemigo se cura: cada ronda
+     * completa la juega algún jugador vivo, que gasta un ítem o le quita a un
+     * enemigo al menos el daño mínimo.
+     */
+    private int cotaRondas(int[] estado) {
+        int cota = 0;
+        for (int j = 0; j < jugadores; j++) {
+            if (estado[j] <= 0) continue;
+            for (int k = 0; k < TIPOS_ITEM; k++) cota += estado[item(j, k)];
+        }
+        for (int e = 0; e < danoMinimo.length; e++) {
+            cota += (estado[jugadores + e] + danoMinimo[e] - 1) / danoMinimo[e];
+        }
+        return cota;
+    }
+
+    private void cerrarRonda(int[] estado) {
+        estado[campoRonda]++;
+        for (int j = 0; j < jugadores; j++) {
+            if (estado[duracion(j)] > 0 && --estado[duracion(j)] == 0) estado[unidades(j)] = 0;
+        }
+        for (int j = 0; j < jugadores; j++) {
+            if (estado[j] > 0) estado[j] = Math.max(0, estado[j] - DANO_QUEMADURA * estado[quemadura(j)]);
+        }
+        for (int e = 0; e < topeRegeneracion.length; e++) {
+            int id = jugadores + e;
+            if (estado[id] > 0 && estado[regeneracion(e)] > 0) {
+                estado[id] = Math.min(vidaMaxima[id], estado[id] + CURACION_REGENERACION * estado[regeneracion(e)]);
+            }
+        }
+    }
+
+    /**
+     * Borra lo que ya no importa de los muertos, para que estados equivalentes
+     * compartan clave.
+     */
+    private void normalizar(int[] estado) {
+        for (int j = 0; j < jugadores; j++) {
+            if (estado[j] > 0) continue;
+            estado[quemadura(j)] = 0;
+            estado[unidades(j)] = 0;
+            estado[duracion(j)] = 0;
+            for (int k = 0; k < TIPOS_ITEM; k++) estado[item(j, k)] = 0;
+        }
+        for (int e = 0; e < topeRegeneracion.length; e++) {
+            if (estado[jugadores + e] <= 0) estado[regeneracion(e)] = 0;
+        }
+    }
+
+    private void sumar(int nivel, double probabilidad, double victoria, double derrota, double turnos) {
+        acumuladoVictoria[nivel] += probabilidad * victoria;
+        acumuladoDerrota[nivel] += probabilidad * derrota;
+        acumuladoTurnos[nivel] += probabilidad * turnos;
+    }
+
+    private int siguienteVivo(int[] estado, int desde) {
+        int[] orden = ordenes[estado[campoOrden]];
+        for (int i = desde; i < total; i++) {
+            if (estado[orden[i]] > 0) return i;
+        }
+        return -1;
+    }
+
+    private static int contarVivos(int[] estado, int desde, int hasta) {
+        int vivos = 0;
+        for (int id = desde; id < hasta; id++) {
+            if (estado[id] > 0) vivos++;
+        }
+        return vivos;
+    }
+
+    private void crecer() {
+        int niveles = pila.length * 2;
+        pila = Arrays.copyOf(pila, niveles);
+        accion = Arrays.copyOf(accion, niveles);
+        for (int n = niveles / 2; n < niveles; n++) {
+            pila[n] = new int[numCampos];
+            accion[n] = new int[numCampos];
+        }
+        acumuladoVictoria = Arrays.copyOf(acumuladoVictoria, niveles);
+        acumuladoDerrota = Arrays.copyOf(acumuladoDerrota, niveles);
+        acumuladoTurnos = Arrays.copyOf(acumuladoTurnos, niveles);
+    }
+
+    /** --- ESTADO --- **/
+
+    // Campos después de la vida de cada combatiente
+    private int quemadura(int jugador) { return total + jugador; }
+    private int unidades(int jugador) { return total + jugadores + jugador; }
+    private int duracion(int jugador) { return total + 2 * jugadores + jugador; }
+    private int item(int jugador, int tipo) { return total + 3 * jugadores + TIPOS_ITEM * jugador + tipo; }
+    private int regeneracion(int enemigo) { return total + (3 + TIPOS_ITEM) * jugadores + enemigo; }
+
+    private void codificar(int[] estado) {
+        long alto = 0, bajo = 0;
+        for (int c = 0; c < numCampos; c++) {
+            long valor = (long) estado[c] << desplazamientos[c];
+            if (enParteAlta[c]) alto |= valor;
+            else bajo |= valor;
+        }
+        claveAlta = alto;
+        claveBaja = bajo;
+    }
+
+    private static int[][] permutaciones(int n) {
+        List<int[]> lista = new ArrayList<>();
+        permutar(new int[n], new boolean[n], 0, lista);
+        return lista.toArray(new int[0][]);
+    }
+
+    private static void permutar(int[] actual, boolean[] usados, int posicion, List<int[]> lista) {
+        if (posicion == actual.length) {
+            lista.add(actual.clone());
+            return;
+        }
+        for (int id = 0; id < actual.length; id++) {
+            if (usados[id]) continue;
+            usados[id] = true;
+            actual[posicion] = id;
+            permutar(actual, usados, posicion + 1, lista);
+            usados[id] = false;
+        }
+    }
+
+    /**
+     * Valores posibles de un daño y la probabilidad de cada uno.
+     */
+    private static final class Distribucion {
+        final int[] valores;
+        final double[] probabilidades;
+
+        private Distribucion(int[] valores, double[] probabilidades) {
+            this.valores = valores;
+            this.probabilidades = probabilidades;
+        }
+
+        /**
+         * Daño de Combatiente.calcularDanoAtaque con un ataque dado. Cada valor
+         * ocupa un tramo de los 2^53 resultados de nextDouble; el tramo se busca con
+         * la misma cuenta en punto flotante que hace el juego.
+         */
+        static Distribucion golpe(int ataque) {
+            int minimo = dano(ataque, 0);
+            int maximo = dano(ataque, PASOS - 1);
+            int[] valores = new int[maximo - minimo + 1];
+            double[] probabilidades = new double[valores.length];
+            long desde = 0;
+            for (int v = minimo; v <= maximo; v++) {
+                long hasta = v == maximo ? PASOS : primerPaso(ataque, v + 1);
+                valores[v - minimo] = v;
+                probabilidades[v - minimo] = (hasta - desde) * PASO;
+                desde = hasta;
+            }
+            return new Distribucion(valores, probabilidades).sinCeros();
+        }
+
+        /**
+         * Aplica un multiplicador con truncamiento a cada valor, como los de jefe y
+         * los de las habilidades, y junta los valores que quedan iguales.
+         */
+        Distribucion escalar(double multiplicador) {
+            TreeMap<Integer, Double> juntos = new TreeMap<>();
+            for (int i = 0; i < valores.length; i++) {
+                juntos.merge((int) (valores[i] * multiplicador), probabilidades[i], Double::sum);
+            }
+            int[] nuevosValores = new int[juntos.size()];
+            double[] nuevasProbabilidades = new double[juntos.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Double> par : juntos.entrySet()) {
+                nuevosValores[i] = par.getKey();
+                nuevasProbabilidades[i++] = par.getValue();
+            }
+            return new Distribucion(nuevosValores, nuevasProbabilidades);
+        }
+
+        private Distribucion sinCeros() {
+            int cantidad = 0;
+            for (double p : probabilidades) if (p > 0) cantidad++;
+            if (cantidad == valores.length) return this;
+            int[] nuevosValores = new int[cantidad];
+            double[] nuevasProbabilidades = new double[cantidad];
+            for (int i = 0, j = 0; i < valores.length; i++) {
+                if (probabilidades[i] == 0) continue;
+                nuevosValores[j] = valores[i];
+                nuevasProbabilidades[j++] = probabilidades[i];
+            }
+            return new Distribucion(nuevosValores, nuevasProbabilidades);
+        }
+
+        private static int dano(int ataque, long paso) {
+            double factor = 0.9 + (paso * PASO * 0.2);
+            return (int) (ataque * factor);
+        }
+
+        /** Primer resultado de nextDouble con el que el daño llega a un valor */
+        private static long primerPaso(int ataque, int valor) {
+            long bajo = 0, alto = PASOS;
+            while (bajo < alto) {
+                long medio = (bajo + alto) >>> 1;
+                if (dano(ataque, medio) >= valor) alto = medio;
+                else bajo = medio + 1;
+            }
+            return bajo;
+        }
+    }
+
+    /**
+     * Resultado de resolver un encuentro.
+     */
+    public static final class Solucion {
+        private final double victoria;
+        private final double derrota;
+        private final double turnosEsperados;
+        private final long estados;
+        private final long nanos;
+        private final long consultas;
+        private final long aciertos;
+        private final long reemplazos;
+        private final int capacidad;
+        private final int ocupadas;
+
+        private Solucion(double victoria, double derrota, double turnosEsperados, long estados, long nanos,
+                         long consultas, long aciertos, long reemplazos, TablaTransposicion tabla) {
+            this.victoria = victoria;
+            this.derrota = derrota;
+            this.turnosEsperados = turnosEsperados;
+            this.estados = estados;
+            this.nanos = nanos;
+            this.consultas = consultas;
+            this.aciertos = aciertos;
+            this.reemplazos = reemplazos;
+            this.capacidad = tabla.getCapacidad();
+            this.ocupadas = tabla.getOcupadas();
+        }
+
+        /**
+         * Obtiene la probabilidad de que ganen los jugadores.
+         * @return double Probabilidad de victoria, entre 0 y 1.
+         */
+        public double getVictoria() { return victoria; }
+
+        /**
+         * Obtiene la probabilidad de que ganen los enemigos.
+         * @return double Probabilidad de derrota, entre 0 y 1.
+         */
+        public double getDerrota() { return derrota; }
+
+        /**
+         * Obtiene la probabilidad de llegar al límite de rondas.
+         * @return double Probabilidad de corte, entre 0 y 1.
+         */
+        public double getLimiteTurnos() { return Math.max(0, 1 - victoria - derrota); }
+
+        /**
+         * Obtiene la duración esperada, contada como en ResultadoSimulacion.
+         * @return double Turnos esperados por batalla.
+         */
+        public double getTurnosEsperados() { return turnosEsperados; }
+
+        /**
+         * Obtiene la cantidad de estados calculados, sin contar los que se leyeron de la tabla.
+         * @return long Estados calculados.
+         */
+        public long getEstados() { return estados; }
+
+        /**
+         * Obtiene el tiempo que llevó resolver.
+         * @return long Nanosegundos.
+         */
+        public long getNanos() { return nanos; }
+
+        /**
+         * Obtiene las entradas de la tabla perdidas por falta de lugar durante la resolución.
+         * @return long Reemplazos.
+         */
+        public long getReemplazos() { return reemplazos; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Victoria: %.4f%% - Derrota: %.4f%% - Límite de turnos: %.4f%%%n" +
+                "Turnos esperados: %.4f%n" +
+                "Estados calculados: %d en %.1f ms - Tabla: %d entradas, %d ocupadas, %.1f%% de aciertos, %d reemplazos",
+                victoria * 100, derrota * 100, getLimiteTurnos() * 100, turnosEsperados, estados, nanos / 1e6,
+                capacidad, ocupadas, consultas == 0 ? 0 : 100.0 * aciertos / consultas, reemplazos);
+        }
+    }
+
+    /** --- LÍNEA DE COMANDOS --- **/
+
+    private static List<Jugador> crearJugadores(RolJugador[] roles) {
+        List<Jugador> jugadores = new ArrayList<>(roles.length);
+        for (int i = 0; i < roles.length; i++) jugadores.add(new Jugador("Héroe " + (i + 1), roles[i]));
+        return jugadores;
+    }
+
+    private static List<Combatiente> crearEnemigos(TipoEnemigo[] tipos, boolean[] jefes) {
+        List<Combatiente> enemigos = new ArrayList<>(tipos.length);
+        EstadoCombate estado = new EstadoCombate(tipos.length);
+        for (int e = 0; e < tipos.length; e++) {
+            enemigos.add(EnemyFactory.obtenerArquetipo(tipos[e], jefes[e]).crear(estado));
+        }
+        return enemigos;
+    }
+
+    /**
+     * Simula el mismo encuentro con {@link MotorBatalla}, para contrastar la solución.
+     */
+    private static ResultadoSimulacion simular(RolJugador[] roles, TipoEnemigo[] tipos, boolean[] jefes,
+                                               int probabilidadItem, int maxRondas, int batallas, long semilla) {
+        MotorBatalla motor = new MotorBatalla(new PoliticaAleatoria(probabilidadItem), maxRondas);
+        ResultadoSimulacion resultado = new ResultadoSimulacion();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < batallas; i++) {
+            Batalla batalla = new Batalla(crearJugadores(roles), crearEnemigos(tipos, jefes),
+                                          FuenteAleatoria.paraBatalla(semilla, i));
+            resultado.registrar(motor.jugar(batalla), batalla.getTurnoActual() + 1);
+        }
+        resultado.setNanosTranscurridos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    /**
+     * Describe cuánto se aparta una proporción simulada de la exacta, en puntos
+     * porcentuales y en errores estándar de la simulación.
+     */
+    private static String diferencia(double simulada, double exacta, long batallas) {
+        double p = Math.max(0, Math.min(1, exacta));
+        double error = Math.sqrt(p * (1 - p) / batallas);
+        return String.format("%+.4f%% (%.2f errores estándar)", (simulada - p) * 100,
+                             error > 0 ? (simulada - p) / error : 0);
+    }
+
+    /**
+     * Punto de entrada del solucionador.
+     * Uso: {@code SolucionadorExacto [ROL...] <enemigo>[:jefe]... [--rondas N] [--items P]
+     * [--memoria MB] [--comparar N] [--semilla S]}, donde cada rol es GUERRERO o
+     * EXPLORADOR (un GUERRERO si no se indica ninguno) y cada enemigo es orco, goblin
+     * o dragon, hasta {@link #MAX_COMBATIENTES} combatientes. Con --comparar simula también
+     * N batallas del mismo encuentro y muestra cuánto se aparta la simulación.
+     *
+     * @param args Argumentos de la línea de comandos.
+     */
+    public static void main(String[] args) {
+        int maxRondas = SimuladorBatallas.MAX_TURNOS_POR_DEFECTO;
+        int probabilidadItem = PoliticaAleatoria.PROBABILIDAD_ITEM_POR_DEFECTO;
+        long megabytes = MEGABYTES_POR_DEFECTO;
+        int batallasComparacion = 0;
+        long semilla = System.nanoTime();
+        List<RolJugador> listaRoles = new ArrayList<>();
+        List<TipoEnemigo> listaTipos = new ArrayList<>();
+        List<Boolean> listaJefes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--rondas": maxRondas = Integer.parseInt(args[++i]); continue;
+                case "--items": probabilidadItem = Integer.parseInt(args[++i]); continue;
+                case "--memoria": megabytes = Long.parseLong(args[++i]); continue;
+                case "--comparar": batallasComparacion = Integer.parseInt(args[++i]); continue;
+                case "--semilla": semilla = Long.parseLong(args[++i]); continue;
+                default: break;
+            }
+            String[] partes = args[i].split(":");
+            TipoEnemigo tipo = TipoEnemigo.desdeClave(partes[0]);
+            if (tipo != null) {
+                listaTipos.add(tipo);
+                listaJefes.add(partes.length > 1 && partes[1].equalsIgnoreCase("jefe"));
+            } else {
+                listaRoles.add(RolJugador.valueOf(args[i].toUpperCase()));
+            }
+        }
+        if (listaTipos.isEmpty()) {
+            System.out.println("Uso: java -cp bin simulacion.SolucionadorExacto [ROL...] <orco|goblin|dragon>[:jefe]... "
+                               + "[--rondas N] [--items P] [--memoria MB] [--comparar N] [--semilla S]");
+            return;
+        }
+        RolJugador[] roles = listaRoles.isEmpty()
+            ? new RolJugador[] { RolJugador.GUERRERO }
+            : listaRoles.toArray(new RolJugador[0]);
+        TipoEnemigo[] tipos = listaTipos.toArray(new TipoEnemigo[0]);
+        boolean[] jefes = new boolean[tipos.length];
+        StringBuilder nombres = new StringBuilder();
+        for (int e = 0; e < tipos.length; e++) {
+            jefes[e] = listaJefes.get(e);
+            if (e > 0) nombres.append(", ");
+            nombres.append(EnemyFactory.obtenerArquetipo(tipos[e], jefes[e]).getNombre());
+        }
+
+        TablaTransposicion tabla = TablaTransposicion.conMemoria(megabytes << 20);
+        Solucion solucion;
+        try {
+            SolucionadorExacto solucionador = new SolucionadorExacto(crearJugadores(roles), crearEnemigos(tipos, jefes),
+                                                                     probabilidadItem, maxRondas, tabla);
+            System.out.println("Encuentro " + Arrays.toString(roles) + " contra [" + nombres + "] con "
+                               + solucionador.ordenes.length + " órdenes de turno, " + probabilidadItem
+                               + "% de ítems y " + maxRondas + " rondas como máximo");
+            solucion = solucionador.resolver();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+        System.out.println(solucion);
+
+        if (batallasComparacion > 0) {
+            ResultadoSimulacion simulado = simular(roles, tipos, jefes, probabilidadItem, maxRondas,
+                                                   batallasComparacion, semilla);
+            long n = simulado.getBatallas();
+            System.out.println("\nSimulación (semilla " + semilla + "):");
+            System.out.println(simulado);
+            System.out.println(String.format("Diferencia con la solución: victoria %s, derrota %s, turnos %+.4f",
+                                             diferencia((double) simulado.getVictorias() / n, solucion.getVictoria(), n),
+                                             diferencia((double) simulado.getDerrotas() / n, solucion.getDerrota(), n),
+                                             simulado.getTurnosPromedio() - solucion.getTurnosEsperados()));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package simulacion;
+
+import java.util.Arrays;
+
+/**
+ * Clase TablaTransposicion.
+ * Memoria de capacidad fija para los valores de los estados que calcula
+ * {@link SolucionadorExacto}. Las claves son de 128 bits (dos long). Cada entrada
+ * ocupa seis long seguidos de un mismo arreglo (clave, valores y trabajo), sin un
+ * objeto por entrada, así que leerla cuesta un solo acceso a memoria.
+ *
+ * Cada clave cae en un cubo de dos entradas. La primera guarda el estado que más
+ * trabajo costó calcular y solo la desplaza otro igual de costoso, que la baja a
+ * la segunda; la segunda se reemplaza siempre. Al llenarse la tabla se pierden
+ * primero los estados baratos de recalcular. Perder una entrada no cambia ningún
+ * resultado: el solucionador vuelve a calcular ese estado si lo necesita.
+ * No es segura para compartir entre hilos.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class TablaTransposicion {
+
+    /** Long por entrada: clave alta y baja, victoria, derrota, turnos y trabajo */
+    private static final int LARGO_ENTRADA = 6;
+    private static final int VICTORIA = 2;
+    private static final int DERROTA = 3;
+    private static final int TURNOS = 4;
+    /** Estados calculados para obtener la entrada; 0 si la entrada está vacía */
+    private static final int TRABAJO = 5;
+
+    /** Bytes por entrada */
+    public static final int BYTES_POR_ENTRADA = LARGO_ENTRADA * Long.BYTES;
+
+    private static final int MAX_ENTRADAS = 1 << 27;
+
+    private final long[] entradas;
+    private final int mascaraCubos;
+
+    private long consultas;
+    private long aciertos;
+    private long reemplazos;
+    private int ocupadas;
+
+    /**
+     * Constructor de TablaTransposicion.
+     *
+     * @param entradas Entradas como máximo; se redondea hacia abajo a una potencia de dos.
+     */
+    public TablaTransposicion(int entradas) {
+        if (entradas < 2) throw new IllegalArgumentException("La tabla necesita al menos 2 entradas");
+        int cubos = Integer.highestOneBit(Math.min(entradas, MAX_ENTRADAS) / 2);
+        this.entradas = new long[2 * LARGO_ENTRADA * cubos];
+        this.mascaraCubos = cubos - 1;
+    }
+
+    /**
+     * Crea la tabla más grande que entra en una cantidad de memoria.
+     *
+     * @param bytes Memoria disponible para la tabla.
+     * @return TablaTransposicion nueva.
+     */
+    public static TablaTransposicion conMemoria(long bytes) {
+        return new TablaTransposicion((int) Math.max(2, Math.min(MAX_ENTRADAS, bytes / BYTES_POR_ENTRADA)));
+    }
+
+    /**
+     * Busca una clave.
+     *
+     * @param alto Parte alta de la clave.
+     * @param bajo Parte baja de la clave.
+     * @return int Entrada donde está la clave, o -1 si no está.
+     */
+    public int buscar(long alto, long bajo) {
+        consultas++;
+        int entrada = cubo(alto, bajo) << 1;
+        if (coincide(entrada, alto, bajo) || coincide(++entrada, alto, bajo)) {
+            aciertos++;
+            return entrada;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene la probabilidad de victoria de una entrada encontrada con {@link #buscar}.
+     * @param entrada Entrada de la tabla.
+     * @return double Probabilidad de victoria.
+     */
+    public double getVictoria(int entrada) { return leer(entrada, VICTORIA); }
+
+    /**
+     * Obtiene la probabilidad de derrota de una entrada encontrada con {@link #buscar}.
+     * @param entrada Entrada de la tabla.
+     * @return double Probabilidad de derrota.
+     */
+    public double getDerrota(int entrada) { return leer(entrada, DERROTA); }
+
+    /**
+     * Obtiene los turnos esperados de una entrada encontrada con {@link #buscar}.
+     * @param entrada Entrada de la tabla.
+     * @return double Turnos esperados.
+     */
+    public double getTurnos(int entrada) { return leer(entrada, TURNOS); }
+
+    /**
+     * Guarda los valores de una clave, desplazando otra si el cubo está lleno.
+     *
+     * @param alto Parte alta de la clave.
+     * @param bajo Parte baja de la clave.
+     * @param victoria Probabilidad de victoria.
+     * @param derrota Probabilidad de derrota.
+     * @param turnos Turnos esperados.
+     * @param trabajo Estados calculados para obtener estos valores, al menos 1.
+     */
+    public void guardar(long alto, long bajo, double victoria, double derrota, double turnos, int trabajo) {
+        int preferida = cubo(alto, bajo) << 1;
+        int siempre = preferida + 1;
+        if (coincide(preferida, alto, bajo)) {
+            escribir(preferida, alto, bajo, victoria, derrota, turnos, trabajo);
+        } else if (trabajo(preferida) == 0 || trabajo >= trabajo(preferida)) {
+            // La entrada desplazada pasa a la de reemplazo, que pierde la suya
+            if (trabajo(preferida) != 0) {
+                if (trabajo(siempre) == 0) ocupadas++;
+                else if (!coincide(siempre, alto, bajo)) reemplazos++;
+                System.arraycopy(entradas, preferida * LARGO_ENTRADA, entradas, siempre * LARGO_ENTRADA, LARGO_ENTRADA);
+            } else if (coincide(siempre, alto, bajo)) {
+                entradas[siempre * LARGO_ENTRADA + TRABAJO] = 0;
+                ocupadas--;
+            }
+            if (trabajo(preferida) == 0) ocupadas++;
+            escribir(preferida, alto, bajo, victoria, derrota, turnos, trabajo);
+        } else {
+            if (trabajo(siempre) == 0) ocupadas++;
+            else if (!coincide(siempre, alto, bajo)) reemplazos++;
+            escribir(siempre, alto, bajo, victoria, derrota, turnos, trabajo);
+        }
+    }
+
+    /**
+     * Vacía la tabla y sus contadores.
+     */
+    public void limpiar() {
+        Arrays.fill(entradas, 0);
+        consultas = aciertos = reemplazos = 0;
+        ocupadas = 0;
+    }
+
+    /**
+     * Obtiene la cantidad de entradas de la tabla.
+     * @return int Capacidad.
+     */
+    public int getCapacidad() { return entradas.length / LARGO_ENTRADA; }
+
+    /**
+     * Obtiene la cantidad de entradas ocupadas.
+     * @return int Entradas ocupadas.
+     */
+    public int getOcupadas() { return ocupadas; }
+
+    /**
+     * Obtiene la cantidad de búsquedas hechas.
+     * @return long Búsquedas.
+     */
+    public long getConsultas() { return consultas; }
+
+    /**
+     * Obtiene la cantidad de búsquedas que encontraron su clave.
+     * @return long Aciertos.
+     */
+    public long getAciertos() { return aciertos; }
+
+    /**
+     * Obtiene la cantidad de entradas perdidas por falta de lugar.
+     * @return long Reemplazos.
+     */
+    public long getReemplazos() { return reemplazos; }
+
+    /** --- INTERNOS --- **/
+
+    private int cubo(long alto, long bajo) {
+        long h = alto * 0x9e3779b97f4a7c15L ^ bajo;
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return (int) (h ^ (h >>> 31)) & mascaraCubos;
+    }
+
+    private boolean coincide(int entrada, long alto, long bajo) {
+        int base = entrada * LARGO_ENTRADA;
+        return entradas[base] == alto && entradas[base + 1] == bajo && entradas[base + TRABAJO] != 0;
+    }
+
+    private long trabajo(int entrada) {
+        return entradas[entrada * LARGO_ENTRADA + TRABAJO];
+    }
+
+    private double leer(int entrada, int campo) {
+        return Double.longBitsToDouble(entradas[entrada * LARGO_ENTRADA + campo]);
+    }
+
+    private void escribir(int entrada, long alto, long bajo, double victoria, double derrota, double turnos,
+                          int trabajo) {
+        int base = entrada * LARGO_ENTRADA;
+        entradas[base] = alto;
+        entradas[base + 1] = bajo;
+        entradas[base + VICTORIA] = Double.doubleToRawLongBits(victoria);
+        entradas[base + DERROTA] = Double.doubleToRawLongBits(derrota);
+        entradas[base + TURNOS] = Double.doubleToRawLongBits(turnos);
+        entradas[base + TRABAJO] = Math.max(1, trabajo);
+    }
+}
@@ -0,0 +1,242 @@
+package view;
+
+import model.*;
+import java.util.*;
+
+/**
+ * Clase PanelEstado.
+ * Muestra el estado de la batalla después de cada turno sin volver a armar ni a
+ * enviar la pantalla completa. Guarda la línea ya mostrada de cada combatiente y
+ * los valores con que se armó (vida, ataque, efectos y unidades del inventario);
+ * en cada cuadro solo se arman y se envían las líneas cuyos valores cambiaron.
+ *
+ * <p>En una terminal ANSI el panel queda fijo arriba de la pantalla, el resto de
+ * la partida se desplaza debajo, y cada línea cambiada se reescribe en su lugar
+ * moviendo el cursor. Sin terminal, o si el panel no cabe, el primer cuadro es el
+ * estado completo y los siguientes muestran solo las líneas que cambiaron.</p>
+ *
+ * Cada vista tiene su propio panel; no es seguro para hilos.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-20
+ */
+public final class PanelEstado {
+    /** Filas que deben quedar debajo del panel para los menús y los mensajes */
+    private static final int FILAS_LIBRES_MINIMAS = 10;
+
+    private static final String CSI = "\u001b[";
+    private static final String GUARDAR_CURSOR = "\u001b7";
+    private static final String RESTAURAR_CURSOR = "\u001b8";
+    private static final String BORRAR_PANTALLA = CSI + "2J" + CSI + "H";
+    private static final String BORRAR_RESTO_LINEA = CSI + "K";
+    private static final String SIN_AJUSTE_LINEA = CSI + "?7l";
+    private static final String CON_AJUSTE_LINEA = CSI + "?7h";
+    private static final String SEPARADOR = "────────────────────────────────────────";
+
+    private static final String SIN_REGION = GUARDAR_CURSOR + CSI + "r" + RESTAURAR_CURSOR;
+
+    private static final Efecto[] EFECTOS = Efecto.values();
+    private static final Efecto[] EFECTOS_CON_MAGNITUD =
+        Arrays.stream(EFECTOS).filter(Efecto::isConMagnitud).toArray(Efecto[]::new);
+
+    private final int filasTerminal;
+    private final StringBuilder cuadro = new StringBuilder();
+
+    /** Batalla del último cuadro; otra batalla empieza con un cuadro completo */
+    private Batalla batalla;
+    private boolean ansi;
+    /** Región de desplazamiento activa debajo del panel */
+    private boolean regionActiva;
+
+    /** Lo último mostrado de cada combatiente, indexado por posición en el panel */
+    private Combatiente[] combatientes = new Combatiente[0];
+    private String[] lineas;
+    private int[] vidas;
+    private int[] ataques;
+    private boolean[] vivos;
+    private long[] pilas;
+    private int[] magnitudes;
+    private int[] unidades;
+
+    /**
+     * Constructor de PanelEstado.
+     * @param filasTerminal Filas de la terminal ANSI, o 0 para mostrar solo texto.
+     */
+    public PanelEstado(int filasTerminal) {
+        this.filasTerminal = filasTerminal;
+    }
+
+    /**
+     * Arma el cuadro que lleva la pantalla del último cuadro mostrado al estado
+     * actual de la batalla.
+     * @param batalla Batalla a mostrar
+     * @return Texto a mostrar, vacío si no cambió nada que se vea
+     */
+    public String dibujar(Batalla batalla) {
+        cuadro.setLength(0);
+        if (batalla != this.batalla) {
+            preparar(batalla);
+            if (ansi) dibujarAnsiCompleto(batalla);
+            else dibujarTextoCompleto(batalla);
+        } else if (ansi) {
+            dibujarAnsiCambios(batalla);
+        } else {
+            dibujarTextoCambios(batalla);
+        }
+        return cuadro.toString();
+    }
+
+    /**
+     * Devuelve la terminal a su estado normal, sin la región fija del panel. La
+     * próxima batalla vuelve a empezar con un cuadro completo.
+     * @return Secuencias a mostrar, vacío si no hacía falta nada
+     */
+    public String cerrar() {
+        batalla = null;
+        if (!regionActiva) return "";
+        regionActiva = false;
+        return SIN_REGION;
+    }
+
+    /** --- CUADROS ANSI --- **/
+
+    private void dibujarAnsiCompleto(Batalla batalla) {
+        int filasPanel = combatientes.length + 4;
+        cuadro.append(BORRAR_PANTALLA).append(SIN_AJUSTE_LINEA);
+        agregarEncabezado(batalla);
+        cuadro.append(BORRAR_RESTO_LINEA).append('\n');
+        cuadro.append("JUGADORES:").append('\n');
+        int jugadores = batalla.getJugadores().size();
+        for (int i = 0; i < combatientes.length; i++) {
+            if (i == jugadores) cuadro.append("ENEMIGOS:").append('\n');
+            cuadro.append("  ").append(lineas[i]).append('\n');
+        }
+        cuadro.append(SEPARADOR).append(CON_AJUSTE_LINEA);
+        // Fijar la región de desplazamiento debajo del panel y llevar el cursor a ella
+        cuadro.append(CSI).append(filasPanel + 1).append('r');
+        cuadro.append(CSI).append(filasPanel + 1).append(";1H");
+        regionActiva = true;
+    }
+
+    private void dibujarAnsiCambios(Batalla batalla) {
+        cuadro.append(GUARDAR_CURSOR).append(SIN_AJUSTE_LINEA).append(CSI).append("1;1H");
+        agregarEncabezado(batalla);
+        cuadro.append(BORRAR_RESTO_LINEA);
+        int jugadores = batalla.getJugadores().size();
+        for (int i = 0; i < combatientes.length; i++) {
+            if (!actualizar(i)) continue;
+            // Fila 1 encabezado, fila 2 "JUGADORES:" y una fila más para "ENEMIGOS:"
+            int fila = i + 3 + (i >= jugadores ? 1 : 0);
+            cuadro.append(CSI).append(fila).append(";1H  ").append(lineas[i]).append(BORRAR_RESTO_LINEA);
+        }
+        cuadro.append(CON_AJUSTE_LINEA).append(RESTAURAR_CURSOR);
+    }
+
+    /** --- CUADROS DE TEXTO --- **/
+
+    private void dibujarTextoCompleto(Batalla batalla) {
+        cuadro.append('\n');
+        agregarEncabezado(batalla);
+        cuadro.append("\nJUGADORES:\n");
+        int jugadores = batalla.getJugadores().size();
+        for (int i = 0; i < combatientes.length; i++) {
+            if (i == jugadores) cuadro.append("\nENEMIGOS:\n");
+            cuadro.append("  ").append(lineas[i]).append('\n');
+        }
+    }
+
+    private void dibujarTextoCambios(Batalla batalla) {
+        boolean conEncabezado = false;
+        for (int i = 0; i < combatientes.length; i++) {
+            if (!actualizar(i)) continue;
+            if (!conEncabezado) {
+                cuadro.append("\n--- Cambios en el turno ").append(batalla.getTurnoActual() + 1).append(" ---\n");
+                conEncabezado = true;
+            }
+            cuadro.append("  ").append(lineas[i]).append('\n');
+        }
+    }
+
+    /** --- AUXILIARES --- **/
+
+    private void agregarEncabezado(Batalla batalla) {
+        cuadro.append("=== ESTADO DE LA BATALLA === Turno: ").append(batalla.getTurnoActual() + 1);
+    }
+
+    /**
+     * Toma los combatientes de una batalla nueva y arma todas sus líneas. Decide si
+     * se usa ANSI: el panel debe caber dejando filas libres debajo.
+     */
+    private void preparar(Batalla batalla) {
+        this.batalla = batalla;
+        List<Jugador> jugadores = batalla.getJugadores();
+        List<Combatiente> enemigos = batalla.getEnemigos();
+        int cantidad = jugadores.size() + enemigos.size();
+        ansi = filasTerminal > 0 && cantidad + 4 + FILAS_LIBRES_MINIMAS <= filasTerminal;
+        if (!ansi && regionActiva) {
+            // La batalla anterior dejó el panel fijo y esta no entra
+            cuadro.append(SIN_REGION);
+            regionActiva = false;
+        }
+
+        combatientes = new Combatiente[cantidad];
+        lineas = new String[cantidad];
+        vidas = new int[cantidad];
+        ataques = new int[cantidad];
+        vivos = new boolean[cantidad];
+        pilas = new long[cantidad];
+        magnitudes = new int[cantidad * EFECTOS_CON_MAGNITUD.length];
+        unidades = new int[cantidad];
+        for (int i = 0; i < jugadores.size(); i++) combatientes[i] = jugadores.get(i);
+        for (int i = 0; i < enemigos.size(); i++) combatientes[jugadores.size() + i] = enemigos.get(i);
+        for (int i = 0; i < cantidad; i++) {
+            vidas[i] = -1;
+            actualizar(i);
+        }
+    }
+
+    /**
+     * Compara los valores visibles de un combatiente con los de su última línea y,
+     * si alguno cambió, los guarda y vuelve a armar la línea.
+     * @return true si la línea cambió
+     */
+    private boolean actualizar(int i) {
+        Combatiente c = combatientes[i];
+        EstadoCombate estado = c.getEstado();
+        int id = c.getId();
+        int vida = estado.getVidaActual(id);
+        int ataque = estado.getAtaque(id);
+        boolean vivo = estado.isVivo(id);
+        long pilasEfectos = 0;
+        int mascara = estado.getMascaraEfectos(id);
+        while (mascara != 0) {
+            int indice = Integer.numberOfTrailingZeros(mascara);
+            mascara &= mascara - 1;
+            pilasEfectos |= (long) estado.getPilasEfecto(id, EFECTOS[indice]) << (indice << 3);
+        }
+        int unidadesInventario = c instanceof Jugador ? ((Jugador) c).getUnidadesInventario() : 0;
+
+        boolean cambio = vida != vidas[i] || ataque != ataques[i] || vivo != vivos[i]
+                         || pilasEfectos != pilas[i] || unidadesInventario != unidades[i];
+        int base = i * EFECTOS_CON_MAGNITUD.length;
+        for (int k = 0; k < EFECTOS_CON_MAGNITUD.length; k++) {
+            int magnitud = estado.getMagnitudEfecto(id, EFECTOS_CON_MAGNITUD[k]);
+            if (magnitud != magnitudes[base + k]) {
+                magnitudes[base + k] = magnitud;
+                cambio = true;
+            }
+        }
+        if (!cambio) return false;
+
+        vidas[i] = vida;
+        ataques[i] = ataque;
+        vivos[i] = vivo;
+        pilas[i] = pilasEfectos;
+        unidades[i] = unidadesInventario;
+        StringBuilder sb = new StringBuilder(96);
+        c.describir(sb);
+        if (c instanceof Jugador) sb.append(" - Ítems: ").append(unidadesInventario);
+        lineas[i] = sb.toString();
+        return true;
+    }
+}
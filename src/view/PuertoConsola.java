@@ -0,0 +1,206 @@
+package view;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.NoSuchElementException;
+
+/**
+ * Clase PuertoConsola.
+ * Puerto de entrada y salida sobre la consola del proceso, leída y escrita por
+ * canales con buffers que se reutilizan. La entrada se corta en líneas a mano, sin
+ * las expresiones regulares de Scanner. La salida se acumula y se escribe de una
+ * sola vez antes de cada lectura, así que un turno completo sale en una escritura.
+ * Funciona igual con una terminal que con la entrada o la salida redirigidas.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-19
+ */
+public class PuertoConsola implements PuertoEntradaSalida {
+    private static final int TAMANO_BUFFER = 8192;
+    /** Caracteres acumulados a partir de los cuales se envía sin esperar a la lectura */
+    private static final int LIMITE_PENDIENTE = 64 * 1024;
+    /** Filas que se suponen si la terminal no las informa en la variable LINES */
+    private static final int FILAS_POR_DEFECTO = 24;
+
+    private final ReadableByteChannel entrada;
+    private final WritableByteChannel salida;
+    private final CharsetDecoder decodificador;
+    private final CharsetEncoder codificador;
+    private final String finLinea;
+    private final int filasTerminal;
+
+    private final ByteBuffer bytesEntrada = ByteBuffer.allocate(TAMANO_BUFFER);
+    private final CharBuffer caracteresEntrada = CharBuffer.allocate(TAMANO_BUFFER);
+    private final ByteBuffer bytesSalida = ByteBuffer.allocate(TAMANO_BUFFER);
+    private final StringBuilder linea = new StringBuilder();
+    private final StringBuilder pendiente = new StringBuilder();
+    /** El canal de entrada terminó */
+    private boolean finEntrada;
+    /** Ya se decodificó todo lo que tenía la entrada */
+    private boolean entradaAgotada;
+
+    /**
+     * Constructor de PuertoConsola sobre la entrada y la salida estándar, con la
+     * codificación de la plataforma. Se usan secuencias ANSI solo si el proceso
+     * está conectado a una terminal que no sea "dumb".
+     */
+    public PuertoConsola() {
+        this(new FileInputStream(FileDescriptor.in).getChannel(),
+             new FileOutputStream(FileDescriptor.out).getChannel(),
+             Charset.defaultCharset(), System.lineSeparator(), filasConsola());
+    }
+
+    /**
+     * Constructor de PuertoConsola sobre canales cualesquiera, por ejemplo para
+     * jugar una partida guionada desde un archivo.
+     * @param entrada Canal del que se leen las líneas
+     * @param salida Canal en el que se escribe
+     * @param codificacion Codificación del texto de ambos canales
+     * @param finLinea Fin de línea que se escribe
+     */
+    public PuertoConsola(ReadableByteChannel entrada, WritableByteChannel salida, Charset codificacion,
+                         String finLinea) {
+        this(entrada, salida, codificacion, finLinea, 0);
+    }
+
+    /**
+     * Constructor de PuertoConsola sobre canales cualesquiera conectados a una terminal.
+     * @param entrada Canal del que se leen las líneas
+     * @param salida Canal en el que se escribe
+     * @param codificacion Codificación del texto de ambos canales
+     * @param finLinea Fin de línea que se escribe
+     * @param filasTerminal Filas de la terminal ANSI, o 0 si no hay una
+     */
+    public PuertoConsola(ReadableByteChannel entrada, WritableByteChannel salida, Charset codificacion,
+                         String finLinea, int filasTerminal) {
+        this.entrada = entrada;
+        this.salida = salida;
+        this.decodificador = codificacion.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.codificador = codificacion.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.finLinea = finLinea;
+        this.filasTerminal = filasTerminal;
+        this.caracteresEntrada.flip();
+    }
+
+    @Override
+    public String leerLinea() {
+        enviar();
+        linea.setLength(0);
+        while (true) {
+            while (caracteresEntrada.hasRemaining()) {
+                char c = caracteresEntrada.get();
+                if (c == '\n') return terminarLinea();
+                linea.append(c);
+            }
+            if (!llenarEntrada()) {
+                if (linea.length() == 0) throw new NoSuchElementException("No hay más líneas de entrada");
+                return terminarLinea();
+            }
+        }
+    }
+
+    @Override
+    public void escribir(String texto) {
+        pendiente.append(texto);
+        if (pendiente.length() >= LIMITE_PENDIENTE) enviar();
+    }
+
+    @Override
+    public void escribirLinea(String texto) {
+        escribir(texto);
+        escribir(finLinea);
+    }
+
+    @Override
+    public void enviar() {
+        if (pendiente.length() == 0) return;
+        // Lo que otros hayan escrito con System.out debe salir antes
+        System.out.flush();
+        CharBuffer caracteres = CharBuffer.wrap(pendiente);
+        codificador.reset();
+        try {
+            boolean terminado = false;
+            while (!terminado) {
+                CoderResult resultado = codificador.encode(caracteres, bytesSalida, true);
+                if (!resultado.isOverflow()) {
+                    resultado = codificador.flush(bytesSalida);
+                    terminado = !resultado.isOverflow();
+                }
+                bytesSalida.flip();
+                while (bytesSalida.hasRemaining()) salida.write(bytesSalida);
+                bytesSalida.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            pendiente.setLength(0);
+        }
+    }
+
+    @Override
+    public int getFilasTerminal() {
+        return filasTerminal;
+    }
+
+    /**
+     * Obtiene las filas de la terminal del proceso.
+     * @return Filas, o 0 si la entrada o la salida están redirigidas o la terminal no entiende ANSI.
+     */
+    private static int filasConsola() {
+        String tipo = System.getenv("TERM");
+        if (System.console() == null || tipo == null || tipo.equals("dumb")) return 0;
+        try {
+            String filas = System.getenv("LINES");
+            return filas == null ? FILAS_POR_DEFECTO : Math.max(0, Integer.parseInt(filas.trim()));
+        } catch (NumberFormatException e) {
+            return FILAS_POR_DEFECTO;
+        }
+    }
+
+    /**
+     * Quita un retorno de carro final, para aceptar finales de línea de Windows.
+     */
+    private String terminarLinea() {
+        int largo = linea.length();
+        if (largo > 0 && linea.charAt(largo - 1) == '\r') linea.setLength(largo - 1);
+        return linea.toString();
+    }
+
+    /**
+     * Lee y decodifica más caracteres de la entrada.
+     * @return false si la entrada terminó y no quedan caracteres.
+     */
+    private boolean llenarEntrada() {
+        caracteresEntrada.clear();
+        try {
+            while (caracteresEntrada.position() == 0 && !entradaAgotada) {
+                if (!finEntrada && entrada.read(bytesEntrada) < 0) finEntrada = true;
+                bytesEntrada.flip();
+                CoderResult resultado = decodificador.decode(bytesEntrada, caracteresEntrada, finEntrada);
+                bytesEntrada.compact();
+                if (finEntrada && !resultado.isOverflow()) {
+                    decodificador.flush(caracteresEntrada);
+                    entradaAgotada = true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        caracteresEntrada.flip();
+        return caracteresEntrada.hasRemaining();
+    }
+}
@@ -0,0 +1,54 @@
+package view;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Interfaz PuertoEntradaSalida.
+ * Canal de texto por el que la vista conversa con un jugador: la consola del
+ * proceso o una conexión de red. La vista solo lee líneas y escribe texto, así
+ * que la misma partida funciona sobre cualquiera de los dos.
+ *
+ * @author Carlos Altán
+ * @since 2025-10-19
+ */
+public interface PuertoEntradaSalida {
+
+    /**
+     * Lee la siguiente línea, sin el fin de línea. Antes de esperar la respuesta se
+     * envía todo lo escrito hasta ese momento.
+     * @return Línea ingresada por el jugador
+     * @throws NoSuchElementException si la entrada terminó
+     * @throws java.io.UncheckedIOException si la conexión falló o el jugador tardó demasiado
+     */
+    String leerLinea();
+
+    /**
+     * Escribe texto sin agregar un fin de línea. Puede quedar acumulado hasta la
+     * siguiente lectura o hasta llamar a enviar.
+     * @param texto Texto a escribir
+     */
+    void escribir(String texto);
+
+    /**
+     * Escribe texto seguido de un fin de línea.
+     * @param texto Texto a escribir
+     */
+    default void escribirLinea(String texto) {
+        escribir(texto + "\n");
+    }
+
+    /**
+     * Envía lo escrito que todavía no salió, por ejemplo al terminar la partida.
+     * @throws java.io.UncheckedIOException si no se puede escribir
+     */
+    void enviar();
+
+    /**
+     * Indica si del otro lado hay una terminal que entiende las secuencias ANSI
+     * para mover el cursor, y de cuántas filas.
+     * @return Filas de la terminal, o 0 si no se sabe si hay una terminal ANSI
+     */
+    default int getFilasTerminal() {
+        return 0;
+    }
+}
@@ -7,22 +7,36 @@ import java.util.*;
  * Clase VistaConsola.
  * Maneja la interacción con el usuario mediante la consola.
  * Proporciona menús, mensajes de estado, lectura de datos y entradas validadas.
- * Evita errores de entrada usando únicamente nextLine() para capturar todo.
+ * Evita errores de entrada leyendo siempre líneas completas.
+ * Lee y escribe a través de un PuertoEntradaSalida, que puede ser la consola del
+ * proceso o una conexión de red.
  * 
  * @author Carlos Altán
  * @since 2025-09-28
  */
 public class VistaConsola {
 
-    /** Scanner para leer la entrada del usuario */
-    private Scanner scanner;
+    /** Puerto por el que se conversa con el usuario */
+    private final PuertoEntradaSalida puerto;
+
+    /** Panel con el estado de la batalla, que solo redibuja lo que cambió */
+    private final PanelEstado panel;
 
     /**
      * Constructor de VistaConsola.
-     * Inicializa el Scanner para lectura de datos por consola.
+     * Usa la consola del proceso.
      */
     public VistaConsola() {
-        scanner = new Scanner(System.in);
+        this(new PuertoConsola());
+    }
+
+    /**
+     * Constructor de VistaConsola sobre un puerto de entrada y salida.
+     * @param puerto Puerto por el que se conversa con el usuario
+     */
+    public VistaConsola(PuertoEntradaSalida puerto) {
+        this.puerto = puerto;
+        this.panel = new PanelEstado(puerto.getFilasTerminal());
     }
 
     /** --- MENÚS Y SALIDAS --- **/
@@ -52,7 +66,7 @@ public class VistaConsola {
         sb.append("\n--- Turno de ").append(combatiente.getNombre()).append(" ---\n");
         sb.append("1. Atacar\n2. Usar habilidad especial\n");
         if (combatiente instanceof Jugador) {
-            sb.append("3. Usar ítem\n4. Pasar turno\n5. Ver estado detallado\n0. Huir de la batalla\n");
+            sb.append("3. Usar ítem\n4. Pasar turno\n5. Ver estado detallado\n6. Batalla automática\n0. Huir de la batalla\n");
         } else {
             sb.append("3. Pasar turno\n");
         }
@@ -65,7 +79,7 @@ public class VistaConsola {
      * @param objetivos Lista de combatientes disponibles
      * @return String con los combatientes numerados y su estado de vida
      */
-    public String obtenerListaObjetivos(List<Combatiente> objetivos) {
+    public String obtenerListaObjetivos(List<? extends Combatiente> objetivos) {
         if (objetivos.isEmpty()) return "No hay objetivos disponibles.\n";
         StringBuilder sb = new StringBuilder("\n--- Seleccionar Objetivo ---\n");
         for (int i = 0; i < objetivos.size(); i++) {
@@ -111,6 +125,20 @@ public class VistaConsola {
                          "\n💀 DERROTA 💀\n";
     }
 
+    /**
+     * Muestra el estado de la batalla, redibujando solo las líneas de los
+     * combatientes que cambiaron desde el último llamado.
+     * @param batalla Batalla en curso
+     * @return String con el cuadro a mostrar, vacío si no cambió nada
+     */
+    public String obtenerPanelEstado(Batalla batalla) { return panel.dibujar(batalla); }
+
+    /**
+     * Deja de mostrar el panel de estado fijo, al terminar o abandonar la batalla.
+     * @return String con las secuencias que devuelven la terminal a la normalidad, quizás vacío
+     */
+    public String obtenerCierrePanel() { return panel.cerrar(); }
+
     /**
      * Muestra la selección de rol de jugador.
      * @return String con la opción de roles disponibles
@@ -123,44 +151,60 @@ public class VistaConsola {
     public String obtenerPreguntaNombreJugador(int n) { return "Ingresa el nombre del Jugador " + n + ": "; }
     public String obtenerPreguntaCSV() { return "¿Deseas cargar enemigos desde CSV? (1-Sí / 2-No): "; }
     public String obtenerPreguntaNombreArchivo() { return "Ingresa el nombre del archivo CSV: "; }
+    public String obtenerPreguntaReanudar() { return "Hay una batalla sin terminar. ¿Deseas continuarla? (1-Sí / 2-No): "; }
     public String obtenerMensajeContinuar() { return "\nPresiona Enter para continuar..."; }
 
+    /**
+     * Muestra un texto sin agregar un fin de línea.
+     * @param texto Texto a mostrar
+     */
+    public void mostrar(String texto) { puerto.escribir(texto); }
+
+    /**
+     * Muestra un texto seguido de un fin de línea.
+     * @param texto Texto a mostrar
+     */
+    public void mostrarLinea(String texto) { puerto.escribirLinea(texto); }
+
+    /**
+     * Envía lo mostrado que todavía no salió.
+     */
+    public void enviar() { puerto.enviar(); }
+
     /** --- MÉTODOS DE LECTURA --- **/
 
     /**
-     * Lee una línea de texto desde la consola.
+     * Lee una línea de texto.
      * @return String ingresado por el usuario
+     * @throws NoSuchElementException si la entrada terminó
      */
-    public String leerLinea() { return scanner.nextLine().trim(); }
+    public String leerLinea() { return puerto.leerLinea().trim(); }
 
     /**
-     * Lee un número entero dentro de un rango usando solo nextLine().
+     * Lee un número entero dentro de un rango leyendo líneas completas.
      * Valida que el número esté dentro del rango especificado.
      * @param min Valor mínimo permitido
      * @param max Valor máximo permitido
      * @return Número entero válido ingresado por el usuario
+     * @throws NoSuchElementException si la entrada terminó
      */
     public int leerEntero(int min, int max) {
     int numero = -1;
     while (true) {
-        String linea = "";
+        String linea = puerto.leerLinea();
+        if (linea.isBlank()) {
+            puerto.escribirLinea("Entrada vacía. Ingresa un número válido.");
+            continue;
+        }
         try {
-            linea = scanner.nextLine();
-            if (linea.isBlank()) {
-                System.out.println("Entrada vacía. Ingresa un número válido.");
-                continue;
-            }
             numero = Integer.parseInt(linea.trim());
             if (numero < min || numero > max) {
-                System.out.println("Entrada inválida. Ingresa un número entre " + min + " y " + max);
+                puerto.escribirLinea("Entrada inválida. Ingresa un número entre " + min + " y " + max);
                 continue;
             }
             return numero;
-        } catch (NoSuchElementException e) {
-            System.out.println("No se encontró línea de entrada. Reintentando...");
-            scanner = new Scanner(System.in); // re-inicializa Scanner
         } catch (NumberFormatException e) {
-            System.out.println("Entrada inválida. Ingresa un número válido.");
+            puerto.escribirLinea("Entrada inválida. Ingresa un número válido.");
         }
     }
 }
@@ -168,8 +212,9 @@ public class VistaConsola {
 
     /** 
      * Espera a que el usuario presione Enter.
+     * @throws NoSuchElementException si la entrada terminó
      */
-    public void esperarEnter() { scanner.nextLine(); }
+    public void esperarEnter() { puerto.leerLinea(); }
 
     /**
      * Muestra el estado detallado de un jugador, incluyendo vida, rol e inventario.
@@ -177,12 +222,13 @@ public class VistaConsola {
      * @return String con información completa del jugador
      */
     public String obtenerEstadoDetallado(Jugador jugador) {
-        StringBuilder sb = new StringBuilder("\n--- Estado de " + jugador.getNombre() + " ---\n");
+        StringBuilder sb = new StringBuilder("\n--- Estado de ").append(jugador.getNombre()).append(" ---\n");
         sb.append("Vida: ").append(jugador.getVidaActual()).append("/").append(jugador.getVidaMaxima()).append("\n");
         sb.append("Rol: ").append(jugador.getRol()).append("\nInventario: ");
-        if (jugador.getInventario().isEmpty()) sb.append("Vacío\n");
+        List<Item> inventario = jugador.getInventario();
+        if (inventario.isEmpty()) sb.append("Vacío\n");
         else {
-            for (Item item : jugador.getInventario()) sb.append(item + ", ");
+            for (Item item : inventario) sb.append(item).append(", ");
             sb.setLength(sb.length()-2);
             sb.append("\n");
         }